@@ -0,0 +1,32 @@
+-- ============================================================================
+-- Bulk job state (for /api/v1/person-abroad/jobs)
+-- ============================================================================
+-- Uploaded PINFLs and results live in files under pf-exchange.person-abroad.jobs-dir;
+-- this table holds the progress that a restart resumes from.
+-- Existing databases: ALTER TABLE Pf_Exchange_Abroad_Jobs ADD (Owner VARCHAR2(100), Heartbeat TIMESTAMP);
+CREATE TABLE Pf_Exchange_Abroad_Jobs (
+    Job_Id           VARCHAR2(36) PRIMARY KEY,
+    Operation        VARCHAR2(20) NOT NULL,   -- CHECK, RESTORE
+    Status           VARCHAR2(20) NOT NULL,   -- QUEUED, RUNNING, COMPLETED, FAILED
+    Total_Items      NUMBER NOT NULL,
+    Processed_Items  NUMBER DEFAULT 0 NOT NULL,
+    Failed_Items     NUMBER DEFAULT 0 NOT NULL,
+    Committed_Chunk  NUMBER DEFAULT 0 NOT NULL,
+    Output_Offset    NUMBER DEFAULT 0 NOT NULL,
+    Error_Msg        VARCHAR2(4000),
+    Owner            VARCHAR2(100),           -- instance running the job
+    Heartbeat        TIMESTAMP,               -- owner's last sign of life (claim, chunk commit)
+    Creation_Date    TIMESTAMP DEFAULT SYSTIMESTAMP,
+    Update_Date      TIMESTAMP DEFAULT SYSTIMESTAMP
+);
+
+CREATE INDEX Idx_Abroad_Jobs_Status ON Pf_Exchange_Abroad_Jobs(Status);
+
+COMMENT ON TABLE Pf_Exchange_Abroad_Jobs IS 'Person abroad bulk jobs - resumable chunked CHECK/RESTORE';
+COMMENT ON COLUMN Pf_Exchange_Abroad_Jobs.Job_Id IS 'UUID, also the job directory name';
+COMMENT ON COLUMN Pf_Exchange_Abroad_Jobs.Processed_Items IS 'Items whose results are committed; resume skips this many input lines';
+COMMENT ON COLUMN Pf_Exchange_Abroad_Jobs.Failed_Items IS 'Committed items with result=0';
+COMMENT ON COLUMN Pf_Exchange_Abroad_Jobs.Committed_Chunk IS 'Number of the last fully committed chunk';
+COMMENT ON COLUMN Pf_Exchange_Abroad_Jobs.Output_Offset IS 'Length of results.ndjson after the last committed chunk (bytes)';
+COMMENT ON COLUMN Pf_Exchange_Abroad_Jobs.Owner IS 'Instance that claimed the job; only it may commit chunks';
+COMMENT ON COLUMN Pf_Exchange_Abroad_Jobs.Heartbeat IS 'Refreshed on claim and every chunk; older than job-lease (or NULL) - another instance may claim';
@@ -14,10 +14,11 @@ CREATE TABLE Pf_Exchange_Person_Statuses (
 );
 
 -- Create sequence for Person_Status_Id
+-- CACHE: with audit-mode=ASYNC log rows are inserted in JDBC batches (NEXTVAL per row)
 CREATE SEQUENCE Pf_Exchange_Person_Statuses_Seq
     START WITH 1
     INCREMENT BY 1
-    NOCACHE
+    CACHE 100
     NOCYCLE;
 
 -- Create indexes for better performance
@@ -52,10 +53,11 @@ CREATE TABLE Pf_Exchange_Restore_Statuses (
 );
 
 -- Create sequence for Restore_Status_Id
+-- CACHE: /restore-status/batch inserts log rows in JDBC batches (NEXTVAL per row)
 CREATE SEQUENCE Pf_Exchange_Restore_Statuses_Seq
     START WITH 1
     INCREMENT BY 1
-    NOCACHE
+    CACHE 100
     NOCYCLE;
 
 -- Create indexes for better performance
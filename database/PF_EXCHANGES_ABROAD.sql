@@ -13,8 +13,35 @@
 --    Response: {"result": 2, "msg": "O'zgartirildi", "ws_id": 77}
 --    - result: 0=not found, 1=already active, 2=restored, 3=not arrived
 --    - Logs to: Pf_Exchange_Restore_Statuses
+--    - Restore_Person_Status_Unlogged: same restore, log row is written by the
+--      caller (/restore-status/batch inserts log rows in JDBC batches)
+--
+-- 1a/2a. Check_Person_Status_Unlogged / Restore_Person_Status_Unlogged
+--    - audit-mode=ASYNC: log rows are queued in Java and inserted in JDBC
+--      batches; Check_Person_Status_Unlogged does no INSERT and no COMMIT
+--
+-- 3. /check-status/batch - Check_Person_Status_Batch
+--    ws_id/pinfl arrays in, per-item result/status/msg arrays out (same order)
+--    - One bulk lookup against Pf_Persons, one FORALL insert into
+--      Pf_Exchange_Person_Statuses
+--
+-- RESPONSE CONTRACTS:
+--    - O_Data OUT CLOB   - JSON javob (eski kontrakt, zaxira rejim)
+--    - v2 overloads      - result/status/msg NUMBER/VARCHAR2 OUT parametrlarda,
+--                          JSON va CLOB yaratilmaydi
+--
+-- REQUEST CONTRACTS:
+--    - P_Data VARCHAR2   - <Data><ws_id>..</ws_id><pinfl>..</pinfl></Data> (XML)
+--    - P_Ws_Id, P_Pinfl  - to'g'ridan-to'g'ri parametrlar, XML parse qilinmaydi
 -- ============================================================================
 
+-- Collection types for array-bound calls (JDBC: PF_NUMBER_TAB, PF_VARCHAR2_TAB)
+CREATE OR REPLACE TYPE Pf_Number_Tab AS TABLE OF NUMBER;
+/
+
+CREATE OR REPLACE TYPE Pf_Varchar2_Tab AS TABLE OF VARCHAR2(4000);
+/
+
 CREATE OR REPLACE PACKAGE PF_EXCHANGES_ABROAD IS
 
     -- Check person status (read-only, no restoration)
@@ -23,12 +50,74 @@ CREATE OR REPLACE PACKAGE PF_EXCHANGES_ABROAD IS
         P_Data IN VARCHAR2
     ) RETURN NUMBER;
 
+    -- Check person status, v2: scalar OUT parameters instead of JSON CLOB
+    FUNCTION Check_Person_Status(
+        O_Result OUT NUMBER,
+        O_Status OUT NUMBER,
+        O_Msg    OUT VARCHAR2,
+        P_Data   IN VARCHAR2
+    ) RETURN NUMBER;
+
+    -- Check person status, v2 with direct parameters (no XML envelope)
+    FUNCTION Check_Person_Status(
+        O_Result OUT NUMBER,
+        O_Status OUT NUMBER,
+        O_Msg    OUT VARCHAR2,
+        P_Ws_Id  IN NUMBER,
+        P_Pinfl  IN VARCHAR2
+    ) RETURN NUMBER;
+
+    -- Check person status without the Pf_Exchange_Person_Statuses row (read-only, no COMMIT);
+    -- the caller writes it (O_Sqlerr goes to Data_Sqlerr)
+    FUNCTION Check_Person_Status_Unlogged(
+        O_Result OUT NUMBER,
+        O_Status OUT NUMBER,
+        O_Msg    OUT VARCHAR2,
+        O_Sqlerr OUT VARCHAR2,
+        P_Ws_Id  IN NUMBER,
+        P_Pinfl  IN VARCHAR2
+    ) RETURN NUMBER;
+
+    -- Check status of many persons in one call; O_* arrays follow P_* order
+    FUNCTION Check_Person_Status_Batch(
+        O_Result OUT Pf_Number_Tab,
+        O_Status OUT Pf_Number_Tab,
+        O_Msg    OUT Pf_Varchar2_Tab,
+        P_Ws_Id  IN Pf_Number_Tab,
+        P_Pinfl  IN Pf_Varchar2_Tab
+    ) RETURN NUMBER;
+
     -- Check arrival and restore person if needed
     FUNCTION Restore_Person_Status(
         O_Data OUT CLOB,
         P_Data IN VARCHAR2
     ) RETURN NUMBER;
 
+    -- Check arrival and restore person, v2: scalar OUT parameters instead of JSON CLOB
+    FUNCTION Restore_Person_Status(
+        O_Result OUT NUMBER,
+        O_Msg    OUT VARCHAR2,
+        P_Data   IN VARCHAR2
+    ) RETURN NUMBER;
+
+    -- Check arrival and restore person, v2 with direct parameters (no XML envelope)
+    FUNCTION Restore_Person_Status(
+        O_Result OUT NUMBER,
+        O_Msg    OUT VARCHAR2,
+        P_Ws_Id  IN NUMBER,
+        P_Pinfl  IN VARCHAR2
+    ) RETURN NUMBER;
+
+    -- Check arrival and restore person without the Pf_Exchange_Restore_Statuses row;
+    -- the caller writes it (O_Sqlerr goes to Data_Sqlerr)
+    FUNCTION Restore_Person_Status_Unlogged(
+        O_Result OUT NUMBER,
+        O_Msg    OUT VARCHAR2,
+        O_Sqlerr OUT VARCHAR2,
+        P_Ws_Id  IN NUMBER,
+        P_Pinfl  IN VARCHAR2
+    ) RETURN NUMBER;
+
 END PF_EXCHANGES_ABROAD;
 /
 
@@ -63,10 +152,20 @@ CREATE OR REPLACE PACKAGE BODY PF_EXCHANGES_ABROAD IS
 
     -- ========================================================================
     -- Function 1: Check Person Status (Read-Only)
+    -- Core: validation, lookup and logging; result in scalar OUT parameters
+    -- Request comes either as P_Data XML or as P_Ws_Id/P_Pinfl (P_Data NULL)
+    -- P_Log = FALSE: no log row and no COMMIT (nothing else is written)
     -- ========================================================================
-    FUNCTION Check_Person_Status(
-        O_Data OUT CLOB,
-        P_Data IN VARCHAR2
+    FUNCTION Check_Person_Status_Core(
+        O_Result OUT NUMBER,
+        O_Status OUT NUMBER,
+        O_Msg    OUT VARCHAR2,
+        O_Ws_Id  OUT NUMBER,
+        O_Sqlerr OUT VARCHAR2,
+        P_Data   IN VARCHAR2,
+        P_Ws_Id  IN NUMBER := NULL,
+        P_Pinfl  IN VARCHAR2 := NULL,
+        P_Log    IN BOOLEAN := TRUE
     ) RETURN NUMBER IS
         Xml_Data       XMLTYPE;
         R_Row          Pf_Exchange_Person_Statuses%ROWTYPE;
@@ -85,7 +184,6 @@ CREATE OR REPLACE PACKAGE BODY PF_EXCHANGES_ABROAD IS
                                 P_Data_Sqlerr IN CLOB := NULL)
         RETURN NUMBER IS
         BEGIN
-            R_Row.Person_Status_Id := Pf_Exchange_Person_Statuses_Seq.NEXTVAL;
             R_Row.In_Data := P_Data;
             R_Row.Result_Code := P_Result_Code;
             R_Row.Status := P_Status;
@@ -93,35 +191,42 @@ CREATE OR REPLACE PACKAGE BODY PF_EXCHANGES_ABROAD IS
             R_Row.Data_Sqlerr := SUBSTR(P_Data_Sqlerr, 1, 4000);
             R_Row.Creation_Date := SYSDATE;
 
-            O_Data := '{
-    "result": ' || Ensure_Json_Element(P_Result_Code) || ',
-    "msg": ' || Ensure_Json_Element(P_Msg) || ',
-    "ws_id": ' || Ensure_Json_Element(R_Row.Ws_Id) || ',
-    "status": ' || Ensure_Json_Element(P_Status, 'null') || '
-}';
+            O_Result := P_Result_Code;
+            O_Status := P_Status;
+            O_Msg := P_Msg;
+            O_Ws_Id := R_Row.Ws_Id;
+            O_Sqlerr := R_Row.Data_Sqlerr;
 
-            INSERT INTO Pf_Exchange_Person_Statuses VALUES R_Row;
-            COMMIT;
+            IF P_Log THEN
+                R_Row.Person_Status_Id := Pf_Exchange_Person_Statuses_Seq.NEXTVAL;
+                INSERT INTO Pf_Exchange_Person_Statuses VALUES R_Row;
+                COMMIT;
+            END IF;
             RETURN CASE WHEN P_Result_Code = 0 THEN 0 ELSE 1 END;
         EXCEPTION
             WHEN OTHERS THEN
                 V_Value := SUBSTR(P_Msg || Core_Const.C_New_Line || SQLERRM || Core_Const.C_New_Line ||
                                   DBMS_UTILITY.Format_Error_Backtrace(), 1, 3798);
-                O_Data := '{
-    "result": 0,
-    "msg": ' || Ensure_Json_Element(V_Value) || ',
-    "ws_id": ' || Ensure_Json_Element(R_Row.Ws_Id) || ',
-    "status": null
-}';
+                O_Result := 0;
+                O_Status := NULL;
+                O_Msg := V_Value;
+                O_Ws_Id := R_Row.Ws_Id;
+                O_Sqlerr := R_Row.Data_Sqlerr;
                 RETURN 0;
         END Finish_Request;
         --------------------------------------------------------------------------------------------------------------------
     BEGIN
-        V_Step := 'request_body';
-        Xml_Data := XMLTYPE(Pf_Exchange_Online.Convert_To_Xml('Request', '<Request>' || P_Data || '</Request>'));
+        IF P_Data IS NOT NULL THEN
+            V_Step := 'request_body';
+            Xml_Data := XMLTYPE(Pf_Exchange_Online.Convert_To_Xml('Request', '<Request>' || P_Data || '</Request>'));
+        END IF;
 
         V_Step := 'retrieve_ws_id';
-        V_Value := Pf_Exchange_Online.Get_Xml_Param('Data/ws_id', Xml_Data);
+        IF Xml_Data IS NULL THEN
+            V_Value := TO_CHAR(P_Ws_Id);
+        ELSE
+            V_Value := Pf_Exchange_Online.Get_Xml_Param('Data/ws_id', Xml_Data);
+        END IF;
         IF V_Value IS NULL OR NOT REGEXP_LIKE(V_Value, '^\d+$') THEN
             RETURN Finish_Request(0, NULL, 'Invalid ws_id - ' || NVL(V_Value, 'null'));
         ELSE
@@ -129,7 +234,11 @@ CREATE OR REPLACE PACKAGE BODY PF_EXCHANGES_ABROAD IS
         END IF;
 
         V_Step := 'retrieve_pinfl';
-        V_Value := Pf_Exchange_Online.Get_Xml_Param('Data/pinfl', Xml_Data);
+        IF Xml_Data IS NULL THEN
+            V_Value := P_Pinfl;
+        ELSE
+            V_Value := Pf_Exchange_Online.Get_Xml_Param('Data/pinfl', Xml_Data);
+        END IF;
         IF V_Value IS NULL OR LENGTH(V_Value) != 14 OR NOT REGEXP_LIKE(V_Value, '^\d+$') THEN
             RETURN Finish_Request(0, NULL, 'Invalid pinfl - ' || NVL(V_Value, 'null'));
         ELSE
@@ -177,14 +286,209 @@ CREATE OR REPLACE PACKAGE BODY PF_EXCHANGES_ABROAD IS
                                   NULL,
                                   'Ma''lumotni qayta ishlashda xatolik. [' || V_Step || ']',
                                   SQLERRM || Core_Const.C_New_Line || DBMS_UTILITY.Format_Error_Backtrace());
+    END Check_Person_Status_Core;
+
+    -- Check Person Status: JSON CLOB contract
+    FUNCTION Check_Person_Status(
+        O_Data OUT CLOB,
+        P_Data IN VARCHAR2
+    ) RETURN NUMBER IS
+        V_Return NUMBER;
+        V_Result NUMBER;
+        V_Status NUMBER;
+        V_Msg    VARCHAR2(4000);
+        V_Ws_Id  NUMBER;
+        V_Sqlerr VARCHAR2(4000);
+    BEGIN
+        V_Return := Check_Person_Status_Core(V_Result, V_Status, V_Msg, V_Ws_Id, V_Sqlerr, P_Data);
+
+        O_Data := '{
+    "result": ' || Ensure_Json_Element(V_Result, '0') || ',
+    "msg": ' || Ensure_Json_Element(V_Msg) || ',
+    "ws_id": ' || Ensure_Json_Element(V_Ws_Id) || ',
+    "status": ' || Ensure_Json_Element(V_Status, 'null') || '
+}';
+        RETURN V_Return;
+    END Check_Person_Status;
+
+    -- Check Person Status v2: scalar OUT parameters
+    FUNCTION Check_Person_Status(
+        O_Result OUT NUMBER,
+        O_Status OUT NUMBER,
+        O_Msg    OUT VARCHAR2,
+        P_Data   IN VARCHAR2
+    ) RETURN NUMBER IS
+        V_Ws_Id  NUMBER;
+        V_Sqlerr VARCHAR2(4000);
+    BEGIN
+        RETURN Check_Person_Status_Core(O_Result, O_Status, O_Msg, V_Ws_Id, V_Sqlerr, P_Data);
     END Check_Person_Status;
 
+    -- Check Person Status v2: direct parameters, scalar OUT parameters
+    FUNCTION Check_Person_Status(
+        O_Result OUT NUMBER,
+        O_Status OUT NUMBER,
+        O_Msg    OUT VARCHAR2,
+        P_Ws_Id  IN NUMBER,
+        P_Pinfl  IN VARCHAR2
+    ) RETURN NUMBER IS
+        V_Ws_Id  NUMBER;
+        V_Sqlerr VARCHAR2(4000);
+    BEGIN
+        RETURN Check_Person_Status_Core(O_Result, O_Status, O_Msg, V_Ws_Id, V_Sqlerr, NULL, P_Ws_Id, P_Pinfl);
+    END Check_Person_Status;
+
+    -- Check Person Status without log row: caller writes Pf_Exchange_Person_Statuses
+    FUNCTION Check_Person_Status_Unlogged(
+        O_Result OUT NUMBER,
+        O_Status OUT NUMBER,
+        O_Msg    OUT VARCHAR2,
+        O_Sqlerr OUT VARCHAR2,
+        P_Ws_Id  IN NUMBER,
+        P_Pinfl  IN VARCHAR2
+    ) RETURN NUMBER IS
+        V_Ws_Id NUMBER;
+    BEGIN
+        RETURN Check_Person_Status_Core(O_Result, O_Status, O_Msg, V_Ws_Id, O_Sqlerr, NULL, P_Ws_Id, P_Pinfl, FALSE);
+    END Check_Person_Status_Unlogged;
+
+    -- ========================================================================
+    -- Function 1b: Check Person Status Batch (Read-Only)
+    -- Same rules as Check_Person_Status_Core, one bulk lookup for all items
+    -- ========================================================================
+    FUNCTION Check_Person_Status_Batch(
+        O_Result OUT Pf_Number_Tab,
+        O_Status OUT Pf_Number_Tab,
+        O_Msg    OUT Pf_Varchar2_Tab,
+        P_Ws_Id  IN Pf_Number_Tab,
+        P_Pinfl  IN Pf_Varchar2_Tab
+    ) RETURN NUMBER IS
+        TYPE T_Person IS RECORD (
+            Active     NUMBER,
+            Close_Desc VARCHAR2(100)
+        );
+        TYPE T_Person_Map IS TABLE OF T_Person INDEX BY VARCHAR2(14);
+        TYPE T_Pinpp_Tab IS TABLE OF VARCHAR2(14);
+        TYPE T_Close_Desc_Tab IS TABLE OF VARCHAR2(100);
+
+        V_Persons     T_Person_Map;
+        V_Pinpps      T_Pinpp_Tab;
+        V_Actives     Pf_Number_Tab;
+        V_Close_Descs T_Close_Desc_Tab;
+        V_Valid       Pf_Varchar2_Tab := Pf_Varchar2_Tab();
+        V_Count       PLS_INTEGER := 0;
+        V_Step        VARCHAR2(400) := 'initial';
+        V_Value       VARCHAR2(4000);
+    BEGIN
+        V_Step := 'retrieve_items';
+        IF P_Ws_Id IS NOT NULL AND P_Pinfl IS NOT NULL THEN
+            IF P_Ws_Id.COUNT != P_Pinfl.COUNT THEN
+                RAISE_APPLICATION_ERROR(-20001, 'P_Ws_Id and P_Pinfl sizes differ');
+            END IF;
+            V_Count := P_Pinfl.COUNT;
+        END IF;
+
+        O_Result := Pf_Number_Tab();
+        O_Status := Pf_Number_Tab();
+        O_Msg := Pf_Varchar2_Tab();
+        O_Result.EXTEND(V_Count);
+        O_Status.EXTEND(V_Count);
+        O_Msg.EXTEND(V_Count);
+        V_Valid.EXTEND(V_Count);
+
+        -- Per-item validation: invalid items are answered here and skipped in the lookup
+        FOR i IN 1 .. V_Count LOOP
+            V_Value := TO_CHAR(P_Ws_Id(i));
+            IF V_Value IS NULL OR NOT REGEXP_LIKE(V_Value, '^\d+$') THEN
+                O_Result(i) := 0;
+                O_Msg(i) := 'Invalid ws_id - ' || NVL(V_Value, 'null');
+            ELSIF P_Pinfl(i) IS NULL OR LENGTH(P_Pinfl(i)) != 14 OR NOT REGEXP_LIKE(P_Pinfl(i), '^\d+$') THEN
+                O_Result(i) := 0;
+                O_Msg(i) := 'Invalid pinfl - ' || NVL(SUBSTR(P_Pinfl(i), 1, 100), 'null');
+            ELSE
+                V_Valid(i) := P_Pinfl(i);
+            END IF;
+        END LOOP;
+
+        V_Step := 'look_for_persons';
+        SELECT Pinpp,
+               CASE
+                   WHEN Close_Reason IS NULL AND Close_Date IS NULL AND Close_Desc IS NULL THEN 1
+                   ELSE 0
+               END,
+               Close_Desc
+        BULK COLLECT INTO V_Pinpps, V_Actives, V_Close_Descs
+        FROM Pf_Persons
+        WHERE Pinpp IN (SELECT COLUMN_VALUE FROM TABLE(V_Valid))
+          AND Person_Type = '01';
+
+        FOR i IN 1 .. V_Pinpps.COUNT LOOP
+            V_Persons(V_Pinpps(i)).Active := V_Actives(i);
+            V_Persons(V_Pinpps(i)).Close_Desc := V_Close_Descs(i);
+        END LOOP;
+
+        V_Step := 'check_close_reason';
+        FOR i IN 1 .. V_Count LOOP
+            IF V_Valid(i) IS NULL THEN
+                NULL;
+            ELSIF NOT V_Persons.EXISTS(V_Valid(i)) THEN
+                O_Result(i) := 0;
+                O_Msg(i) := 'Pensiya oluvchilar ro''yhatida mavjud emas';
+            ELSIF V_Persons(V_Valid(i)).Active = 1 THEN
+                O_Result(i) := 1;
+                O_Status(i) := 1;
+            ELSIF V_Persons(V_Valid(i)).Close_Desc = '11' THEN
+                O_Result(i) := 1;
+                O_Status(i) := 2;
+            ELSE
+                O_Result(i) := 1;
+                O_Status(i) := 3;
+            END IF;
+        END LOOP;
+
+        V_Step := 'log_requests';
+        FORALL i IN 1 .. V_Count
+            INSERT INTO Pf_Exchange_Person_Statuses
+                (Person_Status_Id, Ws_Id, Pinpp, In_Data, Result_Code, Msg, Status, Data_Sqlerr, Creation_Date)
+            VALUES
+                (Pf_Exchange_Person_Statuses_Seq.NEXTVAL, P_Ws_Id(i), V_Valid(i), NULL,
+                 O_Result(i), O_Msg(i), O_Status(i), NULL, SYSDATE);
+        COMMIT;
+
+        RETURN 1;
+
+    EXCEPTION
+        WHEN OTHERS THEN
+            V_Value := SUBSTR('Ma''lumotni qayta ishlashda xatolik. [' || V_Step || ']' || Core_Const.C_New_Line ||
+                              SQLERRM, 1, 3798);
+            O_Result := Pf_Number_Tab();
+            O_Status := Pf_Number_Tab();
+            O_Msg := Pf_Varchar2_Tab();
+            O_Result.EXTEND(V_Count);
+            O_Status.EXTEND(V_Count);
+            O_Msg.EXTEND(V_Count);
+            FOR i IN 1 .. V_Count LOOP
+                O_Result(i) := 0;
+                O_Msg(i) := V_Value;
+            END LOOP;
+            RETURN 0;
+    END Check_Person_Status_Batch;
+
     -- ========================================================================
     -- Function 2: Restore Person Status (Check Arrival & Restore)
+    -- Core: validation, restore and logging; result in scalar OUT parameters
+    -- Request comes either as P_Data XML or as P_Ws_Id/P_Pinfl (P_Data NULL)
+    -- P_Log = FALSE: no log row, the restore itself is still committed
     -- ========================================================================
-    FUNCTION Restore_Person_Status(
-        O_Data OUT CLOB,
-        P_Data IN VARCHAR2
+    FUNCTION Restore_Person_Status_Core(
+        O_Result OUT NUMBER,
+        O_Msg    OUT VARCHAR2,
+        O_Ws_Id  OUT NUMBER,
+        O_Sqlerr OUT VARCHAR2,
+        P_Data   IN VARCHAR2,
+        P_Ws_Id  IN NUMBER := NULL,
+        P_Pinfl  IN VARCHAR2 := NULL,
+        P_Log    IN BOOLEAN := TRUE
     ) RETURN NUMBER IS
         Xml_Data         XMLTYPE;
         R_Row            Pf_Exchange_Restore_Statuses%ROWTYPE;
@@ -212,33 +516,39 @@ CREATE OR REPLACE PACKAGE BODY PF_EXCHANGES_ABROAD IS
             R_Row.Data_Sqlerr := SUBSTR(P_Data_Sqlerr, 1, 4000);
             R_Row.Creation_Date := SYSDATE;
 
-            O_Data := '{
-    "result": ' || Ensure_Json_Element(P_Result_Code) || ',
-    "msg": ' || Ensure_Json_Element(P_Msg) || ',
-    "ws_id": ' || Ensure_Json_Element(R_Row.Ws_Id) || '
-}';
+            O_Result := P_Result_Code;
+            O_Msg := P_Msg;
+            O_Ws_Id := R_Row.Ws_Id;
+            O_Sqlerr := R_Row.Data_Sqlerr;
 
-            INSERT INTO Pf_Exchange_Restore_Statuses VALUES R_Row;
+            IF P_Log THEN
+                INSERT INTO Pf_Exchange_Restore_Statuses VALUES R_Row;
+            END IF;
             COMMIT;
             RETURN CASE WHEN P_Result_Code = 0 THEN 0 ELSE 1 END;
         EXCEPTION
             WHEN OTHERS THEN
                 V_Value := SUBSTR(P_Msg || Core_Const.C_New_Line || SQLERRM || Core_Const.C_New_Line ||
                                   DBMS_UTILITY.Format_Error_Backtrace(), 1, 3798);
-                O_Data := '{
-    "result": 0,
-    "msg": ' || Ensure_Json_Element(V_Value) || ',
-    "ws_id": ' || Ensure_Json_Element(R_Row.Ws_Id) || '
-}';
+                O_Result := 0;
+                O_Msg := V_Value;
+                O_Ws_Id := R_Row.Ws_Id;
+                O_Sqlerr := R_Row.Data_Sqlerr;
                 RETURN 0;
         END Finish_Request;
         --------------------------------------------------------------------------------------------------------------------
     BEGIN
-        V_Step := 'request_body';
-        Xml_Data := XMLTYPE(Pf_Exchange_Online.Convert_To_Xml('Request', '<Request>' || P_Data || '</Request>'));
+        IF P_Data IS NOT NULL THEN
+            V_Step := 'request_body';
+            Xml_Data := XMLTYPE(Pf_Exchange_Online.Convert_To_Xml('Request', '<Request>' || P_Data || '</Request>'));
+        END IF;
 
         V_Step := 'retrieve_ws_id';
-        V_Value := Pf_Exchange_Online.Get_Xml_Param('Data/ws_id', Xml_Data);
+        IF Xml_Data IS NULL THEN
+            V_Value := TO_CHAR(P_Ws_Id);
+        ELSE
+            V_Value := Pf_Exchange_Online.Get_Xml_Param('Data/ws_id', Xml_Data);
+        END IF;
         IF V_Value IS NULL OR NOT REGEXP_LIKE(V_Value, '^\d+$') THEN
             RETURN Finish_Request(0, 'Invalid ws_id - ' || NVL(V_Value, 'null'));
         ELSE
@@ -246,7 +556,11 @@ CREATE OR REPLACE PACKAGE BODY PF_EXCHANGES_ABROAD IS
         END IF;
 
         V_Step := 'retrieve_pinfl';
-        V_Value := Pf_Exchange_Online.Get_Xml_Param('Data/pinfl', Xml_Data);
+        IF Xml_Data IS NULL THEN
+            V_Value := P_Pinfl;
+        ELSE
+            V_Value := Pf_Exchange_Online.Get_Xml_Param('Data/pinfl', Xml_Data);
+        END IF;
         IF V_Value IS NULL OR LENGTH(V_Value) != 14 OR NOT REGEXP_LIKE(V_Value, '^\d+$') THEN
             RETURN Finish_Request(0, 'Invalid pinfl - ' || NVL(V_Value, 'null'));
         ELSE
@@ -316,10 +630,71 @@ CREATE OR REPLACE PACKAGE BODY PF_EXCHANGES_ABROAD IS
                                   END,
                                   'Ma''lumotni qayta ishlashda xatolik. [' || V_Step || ']',
                                   SQLERRM || Core_Const.C_New_Line || DBMS_UTILITY.Format_Error_Backtrace());
+    END Restore_Person_Status_Core;
+
+    -- Restore Person Status: JSON CLOB contract
+    FUNCTION Restore_Person_Status(
+        O_Data OUT CLOB,
+        P_Data IN VARCHAR2
+    ) RETURN NUMBER IS
+        V_Return NUMBER;
+        V_Result NUMBER;
+        V_Msg    VARCHAR2(4000);
+        V_Ws_Id  NUMBER;
+        V_Sqlerr VARCHAR2(4000);
+    BEGIN
+        V_Return := Restore_Person_Status_Core(V_Result, V_Msg, V_Ws_Id, V_Sqlerr, P_Data);
+
+        O_Data := '{
+    "result": ' || Ensure_Json_Element(V_Result, '0') || ',
+    "msg": ' || Ensure_Json_Element(V_Msg) || ',
+    "ws_id": ' || Ensure_Json_Element(V_Ws_Id) || '
+}';
+        RETURN V_Return;
+    END Restore_Person_Status;
+
+    -- Restore Person Status v2: scalar OUT parameters
+    FUNCTION Restore_Person_Status(
+        O_Result OUT NUMBER,
+        O_Msg    OUT VARCHAR2,
+        P_Data   IN VARCHAR2
+    ) RETURN NUMBER IS
+        V_Ws_Id  NUMBER;
+        V_Sqlerr VARCHAR2(4000);
+    BEGIN
+        RETURN Restore_Person_Status_Core(O_Result, O_Msg, V_Ws_Id, V_Sqlerr, P_Data);
+    END Restore_Person_Status;
+
+    -- Restore Person Status v2: direct parameters, scalar OUT parameters
+    FUNCTION Restore_Person_Status(
+        O_Result OUT NUMBER,
+        O_Msg    OUT VARCHAR2,
+        P_Ws_Id  IN NUMBER,
+        P_Pinfl  IN VARCHAR2
+    ) RETURN NUMBER IS
+        V_Ws_Id  NUMBER;
+        V_Sqlerr VARCHAR2(4000);
+    BEGIN
+        RETURN Restore_Person_Status_Core(O_Result, O_Msg, V_Ws_Id, V_Sqlerr, NULL, P_Ws_Id, P_Pinfl);
     END Restore_Person_Status;
 
+    -- Restore Person Status without log row: caller writes Pf_Exchange_Restore_Statuses
+    FUNCTION Restore_Person_Status_Unlogged(
+        O_Result OUT NUMBER,
+        O_Msg    OUT VARCHAR2,
+        O_Sqlerr OUT VARCHAR2,
+        P_Ws_Id  IN NUMBER,
+        P_Pinfl  IN VARCHAR2
+    ) RETURN NUMBER IS
+        V_Ws_Id NUMBER;
+    BEGIN
+        RETURN Restore_Person_Status_Core(O_Result, O_Msg, V_Ws_Id, O_Sqlerr, NULL, P_Ws_Id, P_Pinfl, FALSE);
+    END Restore_Person_Status_Unlogged;
+
 END PF_EXCHANGES_ABROAD;
 /
 
 -- Grant permissions
 -- GRANT EXECUTE ON PF_EXCHANGES_ABROAD TO your_application_user;
+-- GRANT EXECUTE ON Pf_Number_Tab TO your_application_user;
+-- GRANT EXECUTE ON Pf_Varchar2_Tab TO your_application_user;
@@ -4,18 +4,26 @@ import { userService } from '../services/api';
 
 export default function UserList({ user }) {
   const [users, setUsers] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loading, setLoading] = useState(false);
   const navigate = useNavigate();
 
   useEffect(() => {
     loadUsers();
   }, []);
 
-  const loadUsers = async () => {
+  // Without a cursor: (re)load the first page. With a cursor: append the next page.
+  const loadUsers = async (after) => {
+    setLoading(true);
     try {
-      const response = await userService.getAllUsers();
-      setUsers(response.data);
+      const response = await userService.getAllUsers(after);
+      const page = response.data;
+      setUsers(prev => (after ? [...prev, ...page.items] : page.items));
+      setNextCursor(page.hasMore ? page.nextCursor : null);
     } catch (error) {
       console.error('Failed to load users:', error);
+    } finally {
+      setLoading(false);
     }
   };
 
@@ -69,6 +77,11 @@ export default function UserList({ user }) {
               ))}
             </tbody>
           </table>
+          {nextCursor !== null && (
+            <button onClick={() => loadUsers(nextCursor)} className="btn btn-secondary" disabled={loading} style={{ marginTop: '12px' }}>
+              {loading ? 'Loading...' : 'Load more'}
+            </button>
+          )}
         </div>
       </div>
     </div>
@@ -77,9 +77,11 @@ export const authService = {
 // ========== USER SERVICES ==========
 
 export const userService = {
-  // Get all users (Admin only)
-  getAllUsers: async () => {
-    const response = await api.get('/users');
+  // Get one page of users (Admin only)
+  // after: nextCursor of the previous page (omit for the first page)
+  // Response data: { items, size, nextCursor, hasMore }
+  getAllUsers: async (after, size) => {
+    const response = await api.get('/users', { params: { after, size } });
     return response.data;
   },
 
@@ -95,9 +97,15 @@ export const userService = {
     return response.data;
   },
 
-  // Search users
-  searchUsers: async (searchTerm) => {
-    const response = await api.get(`/users/search?q=${searchTerm}`);
+  // Search users (one page, same response data as getAllUsers)
+  searchUsers: async (searchTerm, after, size) => {
+    const response = await api.get('/users/search', { params: { q: searchTerm, after, size } });
+    return response.data;
+  },
+
+  // Get one page of users with a role (Admin only)
+  getUsersByRole: async (role, after, size) => {
+    const response = await api.get(`/users/role/${role}`, { params: { after, size } });
     return response.data;
   },
 
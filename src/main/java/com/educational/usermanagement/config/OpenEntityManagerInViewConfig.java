@@ -0,0 +1,43 @@
+package com.educational.usermanagement.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.handler.WebRequestHandlerInterceptorAdapter;
+
+/**
+ * Open EntityManager in View, Except for Authentication
+ *
+ * Replaces spring.jpa.open-in-view (set to false): the same interceptor, but
+ * not for /api/auth/**.
+ *
+ * Why?
+ * Spring lets Hibernate hold a connection until the EntityManager is closed.
+ * With open-in-view that is the end of the request, so a login would keep the
+ * connection of its USERS lookup while BCrypt checks the password (queue wait
+ * plus 50-100 ms). A burst of logins would then take every connection of the
+ * pool. Without it, the lookup's EntityManager (and connection) is closed
+ * right after the query. The auth endpoints never load lazy associations.
+ *
+ * @author Educational Project
+ * @version 1.0.0
+ */
+@Configuration
+public class OpenEntityManagerInViewConfig implements WebMvcConfigurer {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public OpenEntityManagerInViewConfig(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        OpenEntityManagerInViewInterceptor interceptor = new OpenEntityManagerInViewInterceptor();
+        interceptor.setEntityManagerFactory(entityManagerFactory);
+        registry.addInterceptor(new WebRequestHandlerInterceptorAdapter(interceptor))
+                .excludePathPatterns("/api/auth/**");
+    }
+}
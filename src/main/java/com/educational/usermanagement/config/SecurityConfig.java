@@ -1,8 +1,11 @@
 package com.educational.usermanagement.config;
 
+import com.educational.usermanagement.security.BoundedPasswordEncoder;
 import com.educational.usermanagement.security.CustomUserDetailsService;
 import com.educational.usermanagement.security.JwtAuthenticationFilter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -70,6 +73,37 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    /**
+     * BCrypt strength (log2 of the number of rounds)
+     *
+     * Loaded from application.properties: app.password.bcrypt-strength
+     * Each +1 doubles the time of every hash. Existing hashes with a lower
+     * strength are recomputed transparently at the user's next login.
+     */
+    @Value("${app.password.bcrypt-strength}")
+    private int bcryptStrength;
+
+    /**
+     * Number of password hashes computed at the same time
+     *
+     * Loaded from application.properties: app.password.hash-threads
+     * 0 = half of the CPU cores (at least 1), leaving the rest for other requests
+     */
+    @Value("${app.password.hash-threads}")
+    private int hashThreads;
+
+    /**
+     * Number of password hashes allowed to wait for a thread
+     */
+    @Value("${app.password.hash-queue-capacity}")
+    private int hashQueueCapacity;
+
+    /**
+     * Maximum time a request waits for its hash (milliseconds)
+     */
+    @Value("${app.password.hash-timeout}")
+    private long hashTimeout;
+
     /**
      * Password Encoder Bean
      *
@@ -84,13 +118,23 @@ public class SecurityConfig {
      * 3. Salt: Prevents rainbow table attacks
      * 4. Industry standard: Widely trusted and tested
      *
-     * @return BCryptPasswordEncoder for password hashing
+     * The BCrypt encoder is wrapped in BoundedPasswordEncoder: hashing runs on
+     * its own small thread pool, so a burst of logins cannot use up every CPU core
+     * and requests beyond the pool's queue are rejected with 429/503.
+     *
+     * @param meterRegistry metrics registry for hashing metrics
+     * @return bounded BCrypt password encoder
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        // BCryptPasswordEncoder with default strength (10 rounds)
+    public BoundedPasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
         // Each round doubles the computation time
-        return new BCryptPasswordEncoder();
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+
+        int threads = hashThreads > 0
+                ? hashThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+        return new BoundedPasswordEncoder(bcrypt, threads, hashQueueCapacity, hashTimeout, meterRegistry);
     }
 
     /**
@@ -104,18 +148,25 @@ public class SecurityConfig {
      * 2. Provider loads user via UserDetailsService
      * 3. Provider compares submitted password with stored hash
      * 4. If match, authentication succeeds
+     * 5. If the stored hash uses an old strength, it is upgraded
      *
+     * @param passwordEncoder the (bounded) password encoder
      * @return configured authentication provider
      */
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
 
         // Set our custom UserDetailsService to load users from database
         authProvider.setUserDetailsService(userDetailsService);
 
         // Set password encoder to verify passwords
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
+
+        // Rehash on login: if the stored hash is weaker than app.password.bcrypt-strength,
+        // the provider hashes the just-verified password again and saves it
+        // through this service - no migration and no password reset needed
+        authProvider.setUserDetailsPasswordService(userDetailsService);
 
         return authProvider;
     }
@@ -149,11 +200,13 @@ public class SecurityConfig {
      * 5. Add JWT filter to filter chain
      *
      * @param http HttpSecurity configuration object
+     * @param authenticationProvider provider that checks username and password
      * @return configured SecurityFilterChain
      * @throws Exception if configuration fails
      */
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http,
+                                           DaoAuthenticationProvider authenticationProvider) throws Exception {
         http
                 // Disable CSRF (Cross-Site Request Forgery) protection
                 // Not needed for stateless APIs using JWT
@@ -168,6 +221,7 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         // Public endpoints - anyone can access without authentication
                         .requestMatchers("/api/auth/**").permitAll()           // Login, register
+                        .requestMatchers(HttpMethod.GET, "/.well-known/jwks.json").permitAll() // Public keys for token verification
                         .requestMatchers("/swagger-ui/**").permitAll()          // Swagger UI
                         .requestMatchers("/v3/api-docs/**").permitAll()         // API docs
                         .requestMatchers("/h2-console/**").permitAll()          // H2 console (dev only)
@@ -188,7 +242,7 @@ public class SecurityConfig {
                 )
 
                 // Set authentication provider
-                .authenticationProvider(authenticationProvider())
+                .authenticationProvider(authenticationProvider)
 
                 // Add JWT filter before UsernamePasswordAuthenticationFilter
                 // This ensures JWT validation happens first
@@ -0,0 +1,82 @@
+package com.educational.usermanagement.controller;
+
+import com.educational.usermanagement.security.JwtKeyStore;
+import com.educational.usermanagement.security.JwtSigningKey;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWKS Controller
+ *
+ * Publishes the public keys that verify our JWT tokens as a JSON Web Key Set
+ * (JWKS, RFC 7517).
+ *
+ * Educational Purpose:
+ * - Shows how other services validate tokens without a shared secret
+ * - Shows the standard "well-known" location for key discovery
+ *
+ * How another service uses it:
+ * 1. Download /.well-known/jwks.json once and cache it
+ * 2. For each token, read the "kid" header and pick the key with the same "kid"
+ * 3. Verify the ES256 signature locally - no call back to this application
+ * 4. Unknown "kid"? Download the JWKS again (a key was rotated)
+ *
+ * Security Notes:
+ * - PUBLIC endpoint: public keys are not secret, they can only verify
+ * - Private keys are never included
+ *
+ * Response is NOT wrapped in ApiResponse: JWKS clients expect the standard format.
+ *
+ * @author Educational Project
+ * @version 1.0.0
+ */
+@RestController
+@Tag(name = "Authentication", description = "APIs for user authentication and registration")
+public class JwksController {
+
+    /**
+     * Validators may cache the key set this long. A new key is published
+     * app.jwt.key-publish-ahead before it signs, which must be longer.
+     */
+    private static final long MAX_AGE_MINUTES = 5;
+
+    @Autowired
+    private JwtKeyStore jwtKeyStore;
+
+    /**
+     * Get Public Keys
+     *
+     * Endpoint: GET /.well-known/jwks.json
+     * Access: PUBLIC
+     *
+     * Success Response (200 OK):
+     * {
+     *   "keys": [
+     *     {"kty": "EC", "crv": "P-256", "kid": "20261017T120000Z-3fa1", "use": "sig", "alg": "ES256",
+     *      "x": "...", "y": "..."}
+     *   ]
+     * }
+     *
+     * @return current, upcoming and still-valid retired public keys
+     */
+    @GetMapping("/.well-known/jwks.json")
+    @Operation(summary = "JSON Web Key Set", description = "Public keys for verifying JWT tokens (no authentication required)")
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        List<Map<String, Object>> keys = jwtKeyStore.getPublishedKeys().stream()
+                .map(JwtSigningKey::toJwk)
+                .toList();
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(MAX_AGE_MINUTES, TimeUnit.MINUTES).cachePublic())
+                .body(Map.of("keys", keys));
+    }
+}
@@ -1,6 +1,7 @@
 package com.educational.usermanagement.controller;
 
 import com.educational.usermanagement.dto.ApiResponse;
+import com.educational.usermanagement.dto.CursorPage;
 import com.educational.usermanagement.dto.UserRequest;
 import com.educational.usermanagement.dto.UserResponse;
 import com.educational.usermanagement.entity.Role;
@@ -15,7 +16,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -59,30 +59,44 @@ public class UserController {
     /**
      * Get All Users
      *
-     * Endpoint: GET /api/users
+     * Endpoint: GET /api/users?after={cursor}&size={size}
      * Access: ADMIN only
      *
-     * Returns a list of all users in the system.
+     * Returns one page of users, ordered by ID.
      * Only administrators can view all users.
      *
+     * Pagination (keyset):
+     * - First page: GET /api/users (or ?size=50)
+     * - Next page: GET /api/users?after={nextCursor from the previous response}
+     * - Last page: hasMore = false, nextCursor = null
+     *
      * Response:
      * {
      *   "success": true,
      *   "message": "Users retrieved successfully",
-     *   "data": [{ user1 }, { user2 }, ...]
+     *   "data": {
+     *     "items": [{ user1 }, { user2 }, ...],
+     *     "size": 20,
+     *     "nextCursor": 20,
+     *     "hasMore": true
+     *   }
      * }
      *
-     * @return ResponseEntity with list of users
+     * @param after cursor from the previous page (optional)
+     * @param size page size (optional, default 20, max 100)
+     * @return ResponseEntity with one page of users
      */
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')") // Only users with ADMIN role can access
-    @Operation(summary = "Get all users", description = "Retrieve all users (Admin only)")
-    public ResponseEntity<ApiResponse<List<UserResponse>>> getAllUsers() {
-        // Call service to get all users
-        List<UserResponse> users = userService.getAllUsers();
+    @Operation(summary = "Get all users", description = "Retrieve one page of users, ordered by ID (Admin only)")
+    public ResponseEntity<ApiResponse<CursorPage<UserResponse>>> getAllUsers(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer size) {
+        // Call service to get one page of users
+        CursorPage<UserResponse> users = userService.getAllUsers(after, size);
 
         // Create success response
-        ApiResponse<List<UserResponse>> response = ApiResponse.success(
+        ApiResponse<CursorPage<UserResponse>> response = ApiResponse.success(
                 "Users retrieved successfully",
                 users
         );
@@ -151,27 +165,34 @@ public class UserController {
     /**
      * Search Users
      *
-     * Endpoint: GET /api/users/search?q=searchTerm
+     * Endpoint: GET /api/users/search?q=searchTerm&after={cursor}&size={size}
      * Access: Authenticated users
      *
      * Searches users by username, email, first name, or last name.
      * Search is case-insensitive and partial match.
+     * Best matches come first (exact username before partial email match, ...).
+     * Pages work like GET /api/users: pass nextCursor as ?after= for the next page
+     * (here the cursor counts the results already returned, at most 200 in total).
      *
      * Example: GET /api/users/search?q=john
      *
      * @param searchTerm the search query parameter
-     * @return ResponseEntity with list of matching users
+     * @param after cursor from the previous page (optional)
+     * @param size page size (optional, default 20, max 100)
+     * @return ResponseEntity with one page of matching users
      */
     @GetMapping("/search")
     @Operation(summary = "Search users", description = "Search users by username, email, or name")
-    public ResponseEntity<ApiResponse<List<UserResponse>>> searchUsers(
-            @RequestParam("q") String searchTerm) {
+    public ResponseEntity<ApiResponse<CursorPage<UserResponse>>> searchUsers(
+            @RequestParam("q") String searchTerm,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer size) {
 
         // Call service to search users
-        List<UserResponse> users = userService.searchUsers(searchTerm);
+        CursorPage<UserResponse> users = userService.searchUsers(searchTerm, after, size);
 
         // Create success response
-        ApiResponse<List<UserResponse>> response = ApiResponse.success(
+        ApiResponse<CursorPage<UserResponse>> response = ApiResponse.success(
                 "Search completed successfully",
                 users
         );
@@ -183,25 +204,31 @@ public class UserController {
     /**
      * Get Users by Role
      *
-     * Endpoint: GET /api/users/role/{role}
+     * Endpoint: GET /api/users/role/{role}?after={cursor}&size={size}
      * Access: ADMIN only
      *
-     * Returns all users with a specific role (ADMIN or USER).
+     * Returns one page of users with a specific role (ADMIN or USER).
+     * Results are paginated like GET /api/users.
      *
      * Example: GET /api/users/role/ADMIN
      *
      * @param role the role from URL path
-     * @return ResponseEntity with list of users with specified role
+     * @param after cursor from the previous page (optional)
+     * @param size page size (optional, default 20, max 100)
+     * @return ResponseEntity with one page of users with specified role
      */
     @GetMapping("/role/{role}")
     @PreAuthorize("hasRole('ADMIN')") // Only admins can filter by role
     @Operation(summary = "Get users by role", description = "Retrieve users with specific role (Admin only)")
-    public ResponseEntity<ApiResponse<List<UserResponse>>> getUsersByRole(@PathVariable Role role) {
+    public ResponseEntity<ApiResponse<CursorPage<UserResponse>>> getUsersByRole(
+            @PathVariable Role role,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer size) {
         // Call service to get users by role
-        List<UserResponse> users = userService.getUsersByRole(role);
+        CursorPage<UserResponse> users = userService.getUsersByRole(role, after, size);
 
         // Create success response
-        ApiResponse<List<UserResponse>> response = ApiResponse.success(
+        ApiResponse<CursorPage<UserResponse>> response = ApiResponse.success(
                 "Users retrieved successfully",
                 users
         );
@@ -0,0 +1,81 @@
+package com.educational.usermanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Cursor Page DTO
+ *
+ * One page of a list that is paginated with a cursor (keyset pagination).
+ *
+ * Educational Purpose:
+ * - Demonstrates keyset pagination instead of OFFSET pagination
+ * - Shows a generic, reusable page wrapper
+ *
+ * Why a cursor instead of page numbers?
+ * "Page 500" with OFFSET makes the database read and throw away 500 * size rows.
+ * With a cursor the query is "WHERE ID > :lastSeenId ORDER BY ID FETCH FIRST n ROWS",
+ * which jumps straight to the right place in the index, so every page is equally fast.
+ * Rows inserted or deleted between two requests do not shift the pages either.
+ *
+ * Response Structure (inside ApiResponse.data):
+ * {
+ *   "items": [{ user1 }, { user2 }, ...],
+ *   "size": 20,
+ *   "nextCursor": 42,      // pass as ?after=42 for the next page
+ *   "hasMore": true        // false on the last page (nextCursor is then null)
+ * }
+ *
+ * @param <T> the type of the items
+ * @author Educational Project
+ * @version 1.0.0
+ */
+@Data // Lombok: Generates getters, setters, toString, equals, and hashCode
+@NoArgsConstructor // Lombok: Generates no-argument constructor
+@AllArgsConstructor // Lombok: Generates constructor with all fields
+public class CursorPage<T> {
+
+    /**
+     * Items of this page, in cursor order
+     */
+    private List<T> items;
+
+    /**
+     * Requested page size (after limits were applied)
+     */
+    private int size;
+
+    /**
+     * Cursor of the last item, null if there is no next page
+     */
+    private Long nextCursor;
+
+    /**
+     * Whether another page exists
+     */
+    private boolean hasMore;
+
+    /**
+     * Build a Page from a "size + 1" Query Result
+     *
+     * The repository is asked for one row more than the page size.
+     * If that extra row comes back, there is a next page; the row itself is dropped.
+     * This avoids a separate COUNT query.
+     *
+     * @param rows query result with at most size + 1 rows
+     * @param size the page size
+     * @param cursorOf extracts the cursor (e.g. the ID) from an item
+     * @param <T> the type of the items
+     * @return the page
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, Long> cursorOf) {
+        boolean hasMore = rows.size() > size;
+        List<T> items = hasMore ? rows.subList(0, size) : rows;
+        Long nextCursor = hasMore ? cursorOf.apply(items.get(items.size() - 1)) : null;
+        return new CursorPage<>(items, size, nextCursor, hasMore);
+    }
+}
@@ -23,12 +23,18 @@ import java.time.LocalDateTime;
  * NEVER include password in response, even if it's hashed!
  * This prevents password hashes from being exposed to clients.
  *
+ * Two ways this object is created:
+ * 1. fromEntity() - when a User entity is loaded anyway (single user, create, update)
+ * 2. JPQL constructor expression - list endpoints select the columns straight into
+ *    this class (see UserRepository.USER_RESPONSE). Field order is part of that
+ *    contract: do not reorder fields without updating the query.
+ *
  * @author Educational Project
  * @version 1.0.0
  */
 @Data // Lombok: Generates getters, setters, toString, equals, and hashCode
 @NoArgsConstructor // Lombok: Generates no-argument constructor
-@AllArgsConstructor // Lombok: Generates constructor with all fields
+@AllArgsConstructor // Lombok: Generates constructor with all fields (used by JPQL, see UserRepository.USER_RESPONSE)
 public class UserResponse {
 
     /**
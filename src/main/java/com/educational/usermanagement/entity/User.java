@@ -31,12 +31,23 @@ import java.time.LocalDateTime;
  * @version 1.0.0
  */
 @Entity // Marks this class as a JPA entity (database table)
-@Table(name = "users") // Specifies the table name in the database
+@Table(name = "users", // Specifies the table name in the database
+        // Named unique constraints: the name in the database error tells us which field is duplicate
+        uniqueConstraints = {
+                @UniqueConstraint(name = User.UK_USERNAME, columnNames = "username"),
+                @UniqueConstraint(name = User.UK_EMAIL, columnNames = "email")
+        })
 @Data // Lombok: Generates getters, setters, toString, equals, and hashCode methods
 @NoArgsConstructor // Lombok: Generates a no-argument constructor (required by JPA)
 @AllArgsConstructor // Lombok: Generates a constructor with all arguments
 public class User {
 
+    /**
+     * Unique constraint names (must match db/schema.sql)
+     */
+    public static final String UK_USERNAME = "UK_USERS_USERNAME";
+    public static final String UK_EMAIL = "UK_USERS_EMAIL";
+
     /**
      * Primary Key - Unique identifier for each user
      *
@@ -45,10 +56,16 @@ public class User {
      * @SequenceGenerator - Defines a sequence generator for Oracle database
      *
      * Oracle uses sequences for auto-incrementing IDs
+     *
+     * allocationSize = 50 (pooled allocator):
+     * Hibernate fetches USER_SEQ.NEXTVAL once and then hands out the next 50 IDs
+     * from memory, so most INSERTs need no extra round trip for the ID.
+     * The sequence must use the same step: INCREMENT BY 50 (see db/schema.sql).
+     * IDs stay unique but may have gaps (e.g. after a restart).
      */
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
-    @SequenceGenerator(name = "user_seq", sequenceName = "USER_SEQ", allocationSize = 1)
+    @SequenceGenerator(name = "user_seq", sequenceName = "USER_SEQ", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -57,11 +74,11 @@ public class User {
      *
      * @NotBlank - Validation: Cannot be null or empty
      * @Size - Validation: Must be between 3 and 50 characters
-     * @Column(unique = true) - Database constraint: Must be unique
+     * UK_USERS_USERNAME (see @Table) - Database constraint: Must be unique
      */
     @NotBlank(message = "Username is required")
     @Size(min = 3, max = 50, message = "Username must be between 3 and 50 characters")
-    @Column(name = "username", unique = true, nullable = false, length = 50)
+    @Column(name = "username", nullable = false, length = 50)
     private String username;
 
     /**
@@ -69,11 +86,11 @@ public class User {
      *
      * @Email - Validation: Must be a valid email format
      * @NotBlank - Validation: Cannot be null or empty
-     * @Column(unique = true) - Database constraint: Must be unique
+     * UK_USERS_EMAIL (see @Table) - Database constraint: Must be unique
      */
     @NotBlank(message = "Email is required")
     @Email(message = "Email must be valid")
-    @Column(name = "email", unique = true, nullable = false, length = 100)
+    @Column(name = "email", nullable = false, length = 100)
     private String email;
 
     /**
@@ -136,6 +153,18 @@ public class User {
     @Column(name = "is_active", nullable = false)
     private Boolean isActive = true;
 
+    /**
+     * Token Version - Incremented when JWT tokens of the user must be revoked
+     *
+     * Written into every token ("ver" claim); a token whose version is not the
+     * current one is rejected (see TokenVersionStore)
+     *
+     * updatable = false - Only UserRepository.incrementTokenVersion changes it, so
+     * saving an entity loaded before a concurrent revoke cannot write the old version back
+     */
+    @Column(name = "token_version", nullable = false, updatable = false)
+    private Long tokenVersion = 0L;
+
     /**
      * Created At - Timestamp when the user was created
      *
@@ -1,5 +1,11 @@
 package com.educational.usermanagement.exception;
 
+import com.educational.usermanagement.entity.User;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
 /**
  * Duplicate Resource Exception
  *
@@ -19,6 +25,7 @@ package com.educational.usermanagement.exception;
  * Example Usage:
  * throw new DuplicateResourceException("Username", username);
  * throw new DuplicateResourceException("Email", email);
+ * throw DuplicateResourceException.fromConstraintViolation(ex, user);
  *
  * @author Educational Project
  * @version 1.0.0
@@ -63,6 +70,51 @@ public class DuplicateResourceException extends RuntimeException {
         super(message);
     }
 
+    /**
+     * Translate a Unique Constraint Violation
+     *
+     * Instead of asking the database "does this username exist?" before every
+     * INSERT (extra round trips, and still racy: two requests can both get "no"),
+     * we simply INSERT and let the unique constraint decide. If it fails, the
+     * constraint name in the error tells us which field was duplicate.
+     *
+     * Oracle error example:
+     * ORA-00001: unique constraint (APP.UK_USERS_EMAIL) violated
+     *
+     * @param ex the exception thrown by saveAndFlush()
+     * @param user the user that was being saved
+     * @return DuplicateResourceException for the violated field
+     * @throws DataIntegrityViolationException the original exception if it was not
+     *         caused by the username or email constraint (e.g. NOT NULL, CHECK)
+     */
+    public static DuplicateResourceException fromConstraintViolation(DataIntegrityViolationException ex, User user) {
+        String constraint = violatedConstraint(ex);
+
+        if (constraint.contains(User.UK_USERNAME)) {
+            return new DuplicateResourceException("Username", user.getUsername());
+        }
+        if (constraint.contains(User.UK_EMAIL)) {
+            return new DuplicateResourceException("Email", user.getEmail());
+        }
+        throw ex;
+    }
+
+    /**
+     * Find the Constraint Name (upper case) in the Exception Chain
+     *
+     * Hibernate extracts it into ConstraintViolationException; if it could not,
+     * the database message still contains it.
+     */
+    private static String violatedConstraint(DataIntegrityViolationException ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toUpperCase(Locale.ROOT);
+            }
+        }
+        String message = ex.getMostSpecificCause().getMessage();
+        return message != null ? message.toUpperCase(Locale.ROOT) : "";
+    }
+
     // Getters for exception details
     public String getFieldName() {
         return fieldName;
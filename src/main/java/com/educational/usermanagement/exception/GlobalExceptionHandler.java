@@ -1,6 +1,7 @@
 package com.educational.usermanagement.exception;
 
 import com.educational.usermanagement.dto.ApiResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -101,6 +102,28 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.FORBIDDEN);
     }
 
+    /**
+     * Handle Service Busy Exception
+     *
+     * Returns 429 TOO MANY REQUESTS or 503 SERVICE UNAVAILABLE when the server
+     * sheds load, with a Retry-After header telling the client when to try again
+     *
+     * Example: Burst of logins fills up the password hashing pool
+     *
+     * @param ex the ServiceBusyException
+     * @return ResponseEntity with 429/503 status, Retry-After header and error message
+     */
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ApiResponse<Void>> handleServiceBusyException(ServiceBusyException ex) {
+        // Create error response with exception message
+        ApiResponse<Void> response = ApiResponse.error(ex.getMessage());
+
+        // Return 429 or 503 with Retry-After (seconds)
+        return ResponseEntity.status(ex.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response);
+    }
+
     /**
      * Handle Bad Credentials Exception
      *
@@ -0,0 +1,49 @@
+package com.educational.usermanagement.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Service Busy Exception
+ *
+ * Thrown when the server is too loaded to process the request right now,
+ * e.g. the password hashing pool is full (see BoundedPasswordEncoder).
+ *
+ * Educational Purpose:
+ * - Demonstrates load shedding: fail fast instead of making everyone wait
+ * - Shows the difference between 429 and 503
+ *
+ * Status codes:
+ * - 429 Too Many Requests: rejected immediately, no work was done
+ * - 503 Service Unavailable: waited, but the server could not finish in time
+ *
+ * Both responses carry a Retry-After header so well-behaved clients back off.
+ *
+ * @author Educational Project
+ * @version 1.0.0
+ */
+public class ServiceBusyException extends RuntimeException {
+
+    private final HttpStatus status;
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructor
+     *
+     * @param status 429 or 503
+     * @param message the error message
+     * @param retryAfterSeconds value of the Retry-After header
+     */
+    public ServiceBusyException(HttpStatus status, String message, long retryAfterSeconds) {
+        super(message);
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
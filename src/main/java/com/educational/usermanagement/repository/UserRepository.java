@@ -1,8 +1,11 @@
 package com.educational.usermanagement.repository;
 
+import com.educational.usermanagement.dto.UserResponse;
 import com.educational.usermanagement.entity.Role;
 import com.educational.usermanagement.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -83,17 +86,6 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     boolean existsByEmail(String email);
 
-    /**
-     * Find all users by role
-     *
-     * Spring Data JPA automatically implements this method
-     * Useful for getting all admins or all regular users
-     *
-     * @param role the role to filter by (ADMIN or USER)
-     * @return List of users with the specified role
-     */
-    List<User> findByRole(Role role);
-
     /**
      * Find all active users
      *
@@ -118,46 +110,75 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findByRoleAndIsActive(Role role, Boolean isActive);
 
     /**
-     * Search users by username or email (case-insensitive)
+     * JPQL constructor expression that builds UserResponse directly
      *
-     * This is a custom JPQL query using @Query annotation
-     * JPQL is similar to SQL but works with entity objects instead of tables
+     * "SELECT new ...UserResponse(...)" makes Hibernate create DTOs from the
+     * selected columns: no User entities, no persistence context entries and
+     * no dirty checking at the end of the transaction. The password column is
+     * not even read. Argument order must match UserResponse's all-args constructor.
+     */
+    String USER_RESPONSE = "new com.educational.usermanagement.dto.UserResponse(" +
+            "u.id, u.username, u.email, u.firstName, u.lastName, u.phoneNumber, " +
+            "u.role, u.isActive, u.createdAt, u.updatedAt)";
+
+    /**
+     * Find one page of users after a cursor (keyset pagination)
      *
-     * LOWER() - Converts strings to lowercase for case-insensitive search
-     * LIKE - SQL pattern matching operator
-     * % - Wildcard that matches any sequence of characters
+     * Orders by ID and starts right after the last ID of the previous page.
+     * The primary key index is used for both the filter and the order.
      *
-     * @param searchTerm the term to search for in username or email
-     * @return List of users matching the search term
+     * Limit - Spring Data appends FETCH FIRST n ROWS ONLY to the query
+     *
+     * @param afterId last ID of the previous page (0 for the first page)
+     * @param limit maximum number of rows
+     * @return users with ID greater than afterId, ordered by ID
      */
-    @Query("SELECT u FROM User u WHERE " +
-           "LOWER(u.username) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(u.email) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(u.firstName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(u.lastName) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    List<User> searchUsers(@Param("searchTerm") String searchTerm);
+    @Query("SELECT " + USER_RESPONSE + " FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<UserResponse> findPageAfter(@Param("afterId") long afterId, Limit limit);
 
     /**
-     * Count users by role
+     * Find one page of users with a role after a cursor (keyset pagination)
      *
-     * Returns the number of users with a specific role
-     * Useful for statistics (e.g., "You have 5 admins and 42 users")
+     * Served by the composite index IDX_USERS_ROLE_ID (ROLE, ID): equal role,
+     * IDs already in order, so Oracle reads exactly "limit" index entries.
      *
-     * @param role the role to count
-     * @return number of users with the specified role
+     * @param role the role to filter by (ADMIN or USER)
+     * @param afterId last ID of the previous page (0 for the first page)
+     * @param limit maximum number of rows
+     * @return users with the role and ID greater than afterId, ordered by ID
      */
-    long countByRole(Role role);
+    @Query("SELECT " + USER_RESPONSE + " FROM User u WHERE u.role = :role AND u.id > :afterId ORDER BY u.id")
+    List<UserResponse> findPageByRoleAfter(@Param("role") Role role,
+                                           @Param("afterId") long afterId,
+                                           Limit limit);
 
     /**
-     * Count active users
+     * Count users per role and active status (one query for all statistics)
      *
-     * Returns the number of active users
-     * Useful for dashboard statistics
+     * GROUP BY returns one row per combination that exists, e.g.:
+     * ADMIN | true  | 3
+     * USER  | true  | 37
+     * USER  | false | 2
+     * Totals per role or per status are sums of these rows (see UserStatistics).
      *
-     * @param isActive the active status
-     * @return number of active/inactive users
+     * The aliases (AS role, ...) map the columns to the RoleStatusCount getters.
+     *
+     * @return one row per (role, active) combination
+     */
+    @Query("SELECT u.role AS role, u.isActive AS active, COUNT(u) AS total " +
+           "FROM User u GROUP BY u.role, u.isActive")
+    List<RoleStatusCount> countByRoleAndStatus();
+
+    /**
+     * Interface-based projection: Spring Data implements it for each result row
      */
-    long countByIsActive(Boolean isActive);
+    interface RoleStatusCount {
+        Role getRole();
+
+        Boolean getActive();
+
+        Long getTotal();
+    }
 
     /**
      * Find user by username or email
@@ -169,4 +190,46 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return Optional<User> - may contain user if found, or empty if not found
      */
     Optional<User> findByUsernameOrEmail(String username, String email);
+
+    /**
+     * Update password hash only
+     *
+     * Used to upgrade a hash to the current BCrypt strength at login.
+     * One UPDATE statement, no SELECT; updatedAt is left as it is because the
+     * password itself did not change.
+     *
+     * @Modifying - Marks this query as UPDATE/DELETE instead of SELECT
+     *
+     * @param id the user ID
+     * @param password the new password hash
+     * @return number of updated rows (0 if the user was deleted meanwhile)
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
+
+    /**
+     * Increment Token Version (revokes all tokens of the user)
+     *
+     * The database adds 1 itself, in the caller's transaction: two concurrent
+     * revokes both count, where reading the version, adding 1 and saving the
+     * entity could lose one and leave a token valid.
+     *
+     * @param id the user ID
+     * @return number of updated rows (0 if the user was deleted meanwhile)
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.id = :id")
+    int incrementTokenVersion(@Param("id") Long id);
+
+    /**
+     * Current token version of a user
+     *
+     * Only the one column is selected (see TokenVersionStore)
+     *
+     * @param id the user ID
+     * @return Optional<Long> - empty if the user does not exist (deleted)
+     */
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id")
+    Optional<Long> findTokenVersionById(@Param("id") Long id);
 }
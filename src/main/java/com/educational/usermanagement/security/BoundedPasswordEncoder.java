@@ -0,0 +1,217 @@
+package com.educational.usermanagement.security;
+
+import com.educational.usermanagement.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded Password Encoder
+ *
+ * Wraps a PasswordEncoder (BCrypt) and runs every encode() and matches()
+ * on a small dedicated thread pool with a bounded queue.
+ *
+ * Educational Purpose:
+ * - Demonstrates bulkhead isolation: one expensive operation gets its own threads
+ * - Shows admission control: reject quickly instead of queueing forever
+ * - Shows the decorator pattern: callers still just see a PasswordEncoder
+ *
+ * Why?
+ * BCrypt is deliberately slow (~50-100 ms of CPU per hash at strength 10-12).
+ * Without a limit, a burst of logins runs BCrypt on every Tomcat thread at once,
+ * uses every CPU core, and all other endpoints in the same JVM become slow too.
+ * With this encoder at most "threads" hashes run at the same time, at most
+ * "queue capacity" wait, and everything beyond that is rejected immediately.
+ *
+ * Responses when overloaded (see GlobalExceptionHandler):
+ * - Queue full: 429 Too Many Requests (fast, no CPU spent)
+ * - Waited longer than the timeout: 503 Service Unavailable
+ *
+ * Metrics:
+ * - password.hash.duration{operation=encode|matches}  time spent hashing
+ * - password.hash.wait                               time spent in the queue
+ * - password.hash.rejected{reason=saturated|timeout} rejected requests
+ * - password.hash.queue.depth, password.hash.active  current load
+ *
+ * @author Educational Project
+ * @version 1.0.0
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    /**
+     * Suggested wait before retrying (Retry-After header, seconds)
+     */
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer waitTimer;
+    private final Counter saturatedCounter;
+    private final Counter timeoutCounter;
+
+    /**
+     * @param delegate the real encoder (e.g. BCryptPasswordEncoder)
+     * @param threads number of hashes computed at the same time
+     * @param queueCapacity number of hashes allowed to wait
+     * @param timeoutMillis maximum time a caller waits (queue + hashing)
+     * @param meterRegistry metrics registry
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate,
+                                  int threads,
+                                  int queueCapacity,
+                                  long timeoutMillis,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeoutMillis = timeoutMillis;
+
+        BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(queueCapacity);
+        // AbortPolicy (default): a full queue throws RejectedExecutionException at once
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                queue, new HashThreadFactory());
+
+        this.encodeTimer = Timer.builder("password.hash.duration")
+                .description("Time spent computing password hashes")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("password.hash.duration")
+                .description("Time spent computing password hashes")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("password.hash.wait")
+                .description("Time password hashing requests waited in the queue")
+                .register(meterRegistry);
+        this.saturatedCounter = Counter.builder("password.hash.rejected")
+                .description("Password hashing requests rejected because of overload")
+                .tag("reason", "saturated")
+                .register(meterRegistry);
+        this.timeoutCounter = Counter.builder("password.hash.rejected")
+                .description("Password hashing requests rejected because of overload")
+                .tag("reason", "timeout")
+                .register(meterRegistry);
+        Gauge.builder("password.hash.queue.depth", queue, BlockingQueue::size)
+                .description("Password hashing requests waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashes being computed right now")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hash a Password (registration, user creation, password change, rehash)
+     */
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    /**
+     * Check a Password (login)
+     */
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Should the Stored Hash Be Recomputed?
+     *
+     * Cheap (reads the hash prefix only), so it runs on the caller's thread.
+     * BCrypt returns true when the stored hash has a lower strength than configured.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Is the Hashing Pool Full?
+     *
+     * Lets callers reject a request before doing any other work (e.g. the
+     * database lookup of a login). Only a hint: the pool may fill up right after.
+     *
+     * @return true if a new hash would be rejected now
+     */
+    public boolean isSaturated() {
+        // All threads exist from the first requests on, so a full queue means rejection
+        return executor.getQueue().remainingCapacity() == 0;
+    }
+
+    /**
+     * Run on the Hashing Pool and Wait for the Result
+     */
+    private <T> T submit(Timer timer, Callable<T> task) {
+        long submittedAt = System.nanoTime();
+
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(task);
+            });
+        } catch (RejectedExecutionException e) {
+            saturatedCounter.increment();
+            throw new ServiceBusyException(HttpStatus.TOO_MANY_REQUESTS,
+                    "Too many concurrent login or password requests, please retry", RETRY_AFTER_SECONDS);
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Nobody waits for the result any more: do not waste CPU on it
+            future.cancel(true);
+            timeoutCounter.increment();
+            throw new ServiceBusyException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Password service is overloaded, please retry", RETRY_AFTER_SECONDS);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Named daemon threads: "password-hash-1", "password-hash-2", ...
+     */
+    private static class HashThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
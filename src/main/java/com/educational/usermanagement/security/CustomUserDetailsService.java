@@ -3,15 +3,12 @@ package com.educational.usermanagement.security;
 import com.educational.usermanagement.entity.User;
 import com.educational.usermanagement.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-
-import java.util.Collection;
-import java.util.Collections;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Custom User Details Service
@@ -44,7 +41,7 @@ import java.util.Collections;
  * @version 1.0.0
  */
 @Service // Spring service component
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     /**
      * User Repository for database access
@@ -83,34 +80,35 @@ public class CustomUserDetailsService implements UserDetailsService {
         }
 
         // Convert our User entity to Spring Security's UserDetails
-        return new org.springframework.security.core.userdetails.User(
-                user.getUsername(),              // Username
-                user.getPassword(),              // Password (hashed)
-                true,                            // Account is enabled
-                true,                            // Account is not expired
-                true,                            // Credentials are not expired
-                true,                            // Account is not locked
-                getAuthorities(user)             // User's authorities (roles)
-        );
+        // UserPrincipal also keeps the user ID, which JwtTokenProvider writes into the token
+        return UserPrincipal.fromUser(user);
     }
 
     /**
-     * Get User Authorities (Roles)
+     * Update Password Hash (Rehash on Login)
      *
-     * Converts our application's Role to Spring Security's GrantedAuthority
+     * Called by DaoAuthenticationProvider after a successful login when
+     * PasswordEncoder.upgradeEncoding() says the stored hash is outdated,
+     * e.g. it was created with BCrypt strength 10 and app.password.bcrypt-strength is now 12.
+     * The provider has already hashed the verified password with the current settings.
      *
-     * Spring Security uses GrantedAuthority to represent permissions
-     * Each role is converted to format: "ROLE_ADMIN" or "ROLE_USER"
+     * The password itself does not change, so JWT tokens are not revoked.
      *
-     * @param user the user whose authorities to retrieve
-     * @return Collection of GrantedAuthority objects
+     * @param user the authenticated user (UserPrincipal from loadUserByUsername)
+     * @param newPassword the new hash
+     * @return the user with the new hash
      */
-    private Collection<? extends GrantedAuthority> getAuthorities(User user) {
-        // Create a GrantedAuthority for the user's role
-        // SimpleGrantedAuthority is Spring Security's basic implementation
-        GrantedAuthority authority = new SimpleGrantedAuthority(user.getRole().getRoleName());
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserPrincipal principal = (UserPrincipal) user;
+        userRepository.updatePassword(principal.getId(), newPassword);
 
-        // Return as singleton collection (user has only one role in our system)
-        return Collections.singletonList(authority);
+        // Keep the loaded entity so the login response needs no second query
+        if (principal.getUser() != null) {
+            return UserPrincipal.fromUser(principal.getUser(), newPassword);
+        }
+        return new UserPrincipal(principal.getId(), principal.getUsername(), newPassword,
+                principal.isEnabled(), principal.getAuthorities());
     }
 }
@@ -4,10 +4,11 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -34,7 +35,8 @@ import java.io.IOException;
  * Filter Chain Order:
  * 1. HTTP Request arrives
  * 2. This filter executes (extracts and validates JWT)
- * 3. If valid, sets authentication in SecurityContext
+ * 3. If valid and not revoked, sets authentication in SecurityContext
+ *    (user and authorities come from the token claims, not from the database)
  * 4. Request continues to controller
  * 5. Controller executes (with authenticated user in context)
  * 6. Response returns to client
@@ -51,18 +53,14 @@ import java.io.IOException;
 @Component // Spring component - will be registered in filter chain
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
     /**
      * JWT Token Provider for token operations
      */
     @Autowired
     private JwtTokenProvider tokenProvider;
 
-    /**
-     * Custom User Details Service to load user information
-     */
-    @Autowired
-    private CustomUserDetailsService userDetailsService;
-
     /**
      * Main Filter Method
      *
@@ -70,7 +68,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
      * It attempts to:
      * 1. Extract JWT token from Authorization header
      * 2. Validate the token
-     * 3. Load user details
+     * 3. Build the authenticated user from token claims (no database query)
      * 4. Set authentication in Security Context
      *
      * @param request HTTP request
@@ -87,37 +85,31 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // Step 1: Extract JWT token from request
             String jwt = getJwtFromRequest(request);
 
-            // Step 2: Check if token exists and is valid
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-
-                // Step 3: Extract username from token
-                String username = tokenProvider.getUsernameFromToken(jwt);
+            // Step 2: Parse and verify the token once
+            // Returns the principal, or a failure reason (expired, bad signature, revoked, ...)
+            // which JwtTokenProvider already counted in metrics
+            TokenValidationResult result = StringUtils.hasText(jwt) ? tokenProvider.validateToken(jwt) : null;
 
-                // Step 4: Load user details from database
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            if (result != null && result.isValid()) {
 
-                // Step 5: Create authentication token
-                // UsernamePasswordAuthenticationToken is Spring Security's authentication object
-                // Parameters: principal (user), credentials (null after auth), authorities (roles)
+                // Step 3: Build authentication from the verified token alone
+                // No database query and no second parse here: authorities and account
+                // status travel in the token, revocation was checked in validateToken
                 UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails,           // Principal: the authenticated user
-                                null,                  // Credentials: null (already authenticated)
-                                userDetails.getAuthorities() // Authorities: user's roles
-                        );
+                        tokenProvider.getAuthentication(result.getPrincipal());
 
-                // Step 6: Add request details to authentication
+                // Step 4: Add request details to authentication
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                // Step 7: Set authentication in Security Context
+                // Step 5: Set authentication in Security Context
                 // This makes the user authenticated for this request
                 // Controllers can now access the authenticated user via SecurityContextHolder
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             }
 
         } catch (Exception ex) {
-            // Log the error (in production, use proper logging framework)
-            System.err.println("Could not set user authentication in security context: " + ex.getMessage());
+            // Token problems are reported by JwtTokenProvider (metrics); this is for unexpected errors
+            log.warn("Could not set user authentication in security context: {}", ex.getMessage());
 
             // Don't throw exception - let the request continue
             // If authentication fails, user will simply not be authenticated
@@ -0,0 +1,356 @@
+package com.educational.usermanagement.security;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * JWT Key Store
+ *
+ * Manages the ES256 key pairs used to sign and verify tokens, including rotation.
+ *
+ * Educational Purpose:
+ * - Demonstrates key rotation without logging everybody out
+ * - Shows the "kid" (key ID) header: it tells the verifier which key to use
+ * - Illustrates overlapping rotation windows
+ *
+ * Storage (app.jwt.key-dir):
+ *   20261017T120000Z-3fa1.key   private key, PKCS#8 PEM (owner read/write only)
+ *   20261017T120000Z-3fa1.pub   public key, X.509 PEM
+ * Every node has its own directory: a private key never leaves the node that
+ * created it. Other nodes verify its tokens with the public keys it publishes
+ * at /.well-known/jwks.json (see PeerJwksCache, app.jwt.jwks-uris).
+ *
+ * Rotation timeline (R = app.jwt.key-rotation, A = app.jwt.key-publish-ahead,
+ * E = app.jwt.expiration):
+ *
+ *   t0            key 1 created and used for signing
+ *   t0 + R - A    key 2 created; published in JWKS but NOT used for signing yet,
+ *                 so validators that cache the JWKS learn it in advance
+ *   t0 + R        key 2 starts signing; key 1 only verifies (old tokens keep working)
+ *   t0 + R + E    last token signed with key 1 has expired: key 1 is removed
+ *
+ * So at any time at most a few keys are published, and a rotation never
+ * invalidates a token that was issued before it.
+ *
+ * @author Educational Project
+ * @version 1.0.0
+ */
+@Component
+public class JwtKeyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyStore.class);
+
+    /**
+     * The kid starts with the creation time, so it also sorts by age
+     */
+    private static final DateTimeFormatter KID_TIME =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final int KID_TIME_LENGTH = 16;
+
+    private static final String PRIVATE_KEY_SUFFIX = ".key";
+    private static final String PUBLIC_KEY_SUFFIX = ".pub";
+
+    /**
+     * Minimum time between directory reloads caused by unknown kids
+     * (protects against tokens with random kids)
+     */
+    private static final long RELOAD_INTERVAL_MILLIS = 5_000;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /**
+     * Directory with the key files
+     */
+    @Value("${app.jwt.key-dir}")
+    private String keyDir;
+
+    /**
+     * How long one key signs tokens (milliseconds)
+     */
+    @Value("${app.jwt.key-rotation}")
+    private long keyRotation;
+
+    /**
+     * How long a new key is published before it signs (milliseconds)
+     */
+    @Value("${app.jwt.key-publish-ahead}")
+    private long keyPublishAhead;
+
+    /**
+     * Token lifetime: a retired key is kept this long for verification
+     */
+    @Value("${app.jwt.expiration}")
+    private long jwtExpiration;
+
+    /**
+     * Current keys, newest first. Replaced as a whole (never modified),
+     * so readers need no locking.
+     */
+    private volatile List<JwtSigningKey> keys = List.of();
+
+    private volatile long lastLoadMillis;
+
+    /**
+     * Load Keys at Startup
+     *
+     * Creates the first key if the directory is empty.
+     */
+    @PostConstruct
+    void init() {
+        synchronized (this) {
+            reload(System.currentTimeMillis());
+        }
+        getSigningKey();
+        log.info("JWT keys loaded from {}: {}", keyDir, keys.stream().map(JwtSigningKey::kid).toList());
+    }
+
+    /**
+     * Get the Key for Signing New Tokens
+     *
+     * The newest key whose publish-ahead period is over. Creates a new key
+     * when the current one is due for rotation.
+     *
+     * @return signing key
+     */
+    public JwtSigningKey getSigningKey() {
+        long now = System.currentTimeMillis();
+        List<JwtSigningKey> current = keys;
+        if (current.isEmpty() || isRotationDue(current.get(0), now)) {
+            rotate(now);
+            current = keys;
+        }
+
+        for (JwtSigningKey key : current) {
+            if (key.createdAt().toEpochMilli() + keyPublishAhead <= now) {
+                return key;
+            }
+        }
+        // Only brand-new keys (first start): use the oldest one right away
+        return current.get(current.size() - 1);
+    }
+
+    /**
+     * Get the Key for Verifying a Token
+     *
+     * @param kid "kid" header of the token
+     * @return the key, or null if no such key exists (unknown or retired)
+     */
+    public JwtSigningKey getVerificationKey(String kid) {
+        if (kid == null) {
+            return null;
+        }
+
+        JwtSigningKey key = find(keys, kid);
+        if (key == null && System.currentTimeMillis() - lastLoadMillis >= RELOAD_INTERVAL_MILLIS) {
+            // Maybe another node has rotated: look at the directory again
+            synchronized (this) {
+                long now = System.currentTimeMillis();
+                if (now - lastLoadMillis >= RELOAD_INTERVAL_MILLIS) {
+                    reload(now);
+                }
+            }
+            key = find(keys, kid);
+        }
+        return key;
+    }
+
+    /**
+     * Get All Published Keys
+     *
+     * Used by the JWKS endpoint: the signing key, keys published ahead
+     * and retired keys whose tokens may still be valid.
+     *
+     * @return keys, newest first
+     */
+    public List<JwtSigningKey> getPublishedKeys() {
+        return keys;
+    }
+
+    private boolean isRotationDue(JwtSigningKey newest, long now) {
+        return newest.createdAt().toEpochMilli() + keyRotation - keyPublishAhead <= now;
+    }
+
+    /**
+     * Create a New Key if Still Due
+     *
+     * Reloads first: another node sharing the directory may have created it already.
+     */
+    private synchronized void rotate(long now) {
+        reload(now);
+        List<JwtSigningKey> current = keys;
+        if (!current.isEmpty() && !isRotationDue(current.get(0), now)) {
+            return;
+        }
+
+        JwtSigningKey key = generate(now);
+        write(key);
+        log.info("Created JWT signing key {}", key.kid());
+        reload(now);
+    }
+
+    /**
+     * Read All Key Pairs from the Directory
+     *
+     * Retired keys are deleted; must be called while holding the lock.
+     */
+    private void reload(long now) {
+        List<JwtSigningKey> loaded = new ArrayList<>();
+        Path dir = Paths.get(keyDir);
+        try {
+            Files.createDirectories(dir);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + PRIVATE_KEY_SUFFIX)) {
+                for (Path privateFile : files) {
+                    JwtSigningKey key = read(privateFile);
+                    if (key != null) {
+                        loaded.add(key);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read JWT keys from " + dir, e);
+        }
+
+        loaded.sort(Comparator.comparing(JwtSigningKey::createdAt).reversed());
+
+        // Keep a key while a token signed with it can still be valid:
+        // until the next newer key has been signing for a full token lifetime
+        List<JwtSigningKey> live = new ArrayList<>();
+        for (int i = 0; i < loaded.size(); i++) {
+            JwtSigningKey key = loaded.get(i);
+            if (i > 0 && loaded.get(i - 1).createdAt().toEpochMilli() + keyPublishAhead + jwtExpiration < now) {
+                delete(key);
+            } else {
+                live.add(key);
+            }
+        }
+
+        keys = List.copyOf(live);
+        lastLoadMillis = now;
+    }
+
+    private JwtSigningKey read(Path privateFile) {
+        String fileName = privateFile.getFileName().toString();
+        String kid = fileName.substring(0, fileName.length() - PRIVATE_KEY_SUFFIX.length());
+        Path publicFile = privateFile.resolveSibling(kid + PUBLIC_KEY_SUFFIX);
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance("EC");
+            PrivateKey privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(readPem(privateFile)));
+            ECPublicKey publicKey = (ECPublicKey) keyFactory.generatePublic(new X509EncodedKeySpec(readPem(publicFile)));
+            Instant createdAt = Instant.from(KID_TIME.parse(kid.substring(0, KID_TIME_LENGTH)));
+            return new JwtSigningKey(kid, createdAt, privateKey, publicKey);
+        } catch (Exception e) {
+            // Half-written or foreign file: skip it, the other keys still work
+            log.warn("Skipping JWT key {}: {}", kid, e.getMessage());
+            return null;
+        }
+    }
+
+    private static JwtSigningKey generate(long now) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            KeyPair keyPair = generator.generateKeyPair();
+
+            // Random suffix: two nodes rotating in the same second get different kids
+            byte[] suffix = new byte[2];
+            RANDOM.nextBytes(suffix);
+            Instant createdAt = Instant.ofEpochSecond(now / 1000);
+            String kid = KID_TIME.format(createdAt) + "-" + HexFormat.of().formatHex(suffix);
+
+            return new JwtSigningKey(kid, createdAt, keyPair.getPrivate(), (ECPublicKey) keyPair.getPublic());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot generate ES256 key pair", e);
+        }
+    }
+
+    /**
+     * Write Key Files
+     *
+     * The public key is written first and the private key is moved into place
+     * atomically, so other nodes never load a key pair that is half written.
+     */
+    private void write(JwtSigningKey key) {
+        Path dir = Paths.get(keyDir);
+        try {
+            writePem(dir.resolve(key.kid() + PUBLIC_KEY_SUFFIX), "PUBLIC KEY", key.publicKey().getEncoded());
+
+            // Create the file owner-only before the private key is written into it
+            Path tmp = dir.resolve(key.kid() + PRIVATE_KEY_SUFFIX + ".tmp");
+            Files.deleteIfExists(tmp);
+            try {
+                Files.createFile(tmp, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+            } catch (UnsupportedOperationException e) {
+                // Not a POSIX file system (e.g. Windows): rely on directory permissions
+            }
+            writePem(tmp, "PRIVATE KEY", key.privateKey().getEncoded());
+            Files.move(tmp, dir.resolve(key.kid() + PRIVATE_KEY_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write JWT key " + key.kid(), e);
+        }
+    }
+
+    private void delete(JwtSigningKey key) {
+        Path dir = Paths.get(keyDir);
+        try {
+            Files.deleteIfExists(dir.resolve(key.kid() + PRIVATE_KEY_SUFFIX));
+            Files.deleteIfExists(dir.resolve(key.kid() + PUBLIC_KEY_SUFFIX));
+            log.info("Removed retired JWT key {}", key.kid());
+        } catch (IOException e) {
+            log.warn("Cannot remove retired JWT key {}: {}", key.kid(), e.getMessage());
+        }
+    }
+
+    private static JwtSigningKey find(List<JwtSigningKey> keys, String kid) {
+        for (JwtSigningKey key : keys) {
+            if (key.kid().equals(kid)) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    private static byte[] readPem(Path file) throws IOException {
+        String base64 = Files.readString(file, StandardCharsets.US_ASCII)
+                .replaceAll("-----[A-Z ]+-----", "")
+                .replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+
+    private static void writePem(Path file, String type, byte[] der) throws IOException {
+        String pem = "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(der)
+                + "\n-----END " + type + "-----\n";
+        Files.writeString(file, pem, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,77 @@
+package com.educational.usermanagement.security;
+
+import java.math.BigInteger;
+import java.security.PrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JWT Signing Key
+ *
+ * One ES256 (ECDSA P-256 + SHA-256) key pair with its key ID.
+ *
+ * Educational Purpose:
+ * - Shows asymmetric signing: the private key signs, the public key verifies
+ * - Shows how a public key is published as a JSON Web Key (JWK, RFC 7517)
+ *
+ * Why asymmetric?
+ * With HS512 every service that validates tokens needs the shared secret,
+ * and anyone with the secret can also create tokens. With ES256 only this
+ * application has the private key; everybody else gets the public key from
+ * /.well-known/jwks.json and can only verify.
+ *
+ * @param kid key ID, written into the "kid" header of every token signed with this key
+ * @param createdAt when the key was generated (encoded in the kid as well)
+ * @param privateKey signs tokens
+ * @param publicKey verifies tokens, published in the JWKS
+ *
+ * @author Educational Project
+ * @version 1.0.0
+ */
+public record JwtSigningKey(String kid, Instant createdAt, PrivateKey privateKey, ECPublicKey publicKey) {
+
+    /**
+     * P-256 coordinates are 32 bytes each
+     */
+    private static final int COORDINATE_LENGTH = 32;
+
+    /**
+     * Convert Public Key to JWK
+     *
+     * Example:
+     * {"kty":"EC","crv":"P-256","kid":"20261017T120000Z-3fa1","use":"sig","alg":"ES256","x":"...","y":"..."}
+     *
+     * @return JWK as a JSON-ready map (private key is never included)
+     */
+    public Map<String, Object> toJwk() {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "EC");
+        jwk.put("crv", "P-256");
+        jwk.put("kid", kid);
+        jwk.put("use", "sig");
+        jwk.put("alg", "ES256");
+        jwk.put("x", base64Url(publicKey.getW().getAffineX()));
+        jwk.put("y", base64Url(publicKey.getW().getAffineY()));
+        return jwk;
+    }
+
+    /**
+     * Encode a Coordinate as Unsigned, Fixed-Length Base64url
+     *
+     * BigInteger.toByteArray() may add a leading zero byte (sign) or return
+     * fewer than 32 bytes; JWK requires exactly 32.
+     */
+    private static String base64Url(BigInteger coordinate) {
+        byte[] bytes = coordinate.toByteArray();
+        byte[] fixed = new byte[COORDINATE_LENGTH];
+        if (bytes.length > COORDINATE_LENGTH) {
+            bytes = Arrays.copyOfRange(bytes, bytes.length - COORDINATE_LENGTH, bytes.length);
+        }
+        System.arraycopy(bytes, 0, fixed, COORDINATE_LENGTH - bytes.length, bytes.length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+    }
+}
@@ -1,15 +1,29 @@
 package com.educational.usermanagement.security;
 
+import com.educational.usermanagement.entity.User;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
+import java.security.Key;
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * JWT Token Provider
@@ -38,8 +52,13 @@ import java.util.Date;
  * 3. Cross-domain: Can be used across different domains
  * 4. Self-contained: Contains all necessary user information
  *
+ * Signing (ES256 with key rotation):
+ * - Tokens are signed with an ECDSA P-256 private key managed by JwtKeyStore
+ * - The "kid" header names the key; its public key is published at /.well-known/jwks.json
+ * - Other nodes and services verify tokens with the public key only, no shared secret
+ *
  * Security Notes:
- * - JWT secret must be strong and kept secure
+ * - Private keys must be kept secure (app.jwt.key-dir)
  * - Tokens should have expiration time
  * - Use HTTPS in production to prevent token interception
  * - Store tokens securely on client side (not in localStorage if XSS risk)
@@ -50,20 +69,15 @@ import java.util.Date;
 @Component // Spring component - can be injected into other classes
 public class JwtTokenProvider {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtTokenProvider.class);
+
     /**
-     * JWT Secret Key
-     *
-     * This secret is used to sign and verify JWT tokens
-     * Loaded from application.properties: app.jwt.secret
-     *
-     * IMPORTANT: In production:
-     * - Use a strong, random secret (at least 256 bits)
-     * - Store in environment variables, not in code
-     * - Never commit secrets to version control
-     * - Rotate secrets periodically
+     * Custom claim names
      */
-    @Value("${app.jwt.secret}")
-    private String jwtSecret;
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_AUTHORITIES = "authorities";
+    public static final String CLAIM_ACTIVE = "active";
+    public static final String CLAIM_VERSION = "ver";
 
     /**
      * JWT Token Expiration Time (in milliseconds)
@@ -80,6 +94,94 @@ public class JwtTokenProvider {
     @Value("${app.jwt.expiration}")
     private long jwtExpiration;
 
+    /**
+     * Token version store (revocation)
+     *
+     * The current version of the user is written into every token ("ver" claim)
+     */
+    @Autowired
+    private TokenVersionStore tokenVersionStore;
+
+    /**
+     * Cache of already verified tokens (see VerifiedTokenCache)
+     */
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    /**
+     * Metrics registry (Spring Boot Actuator / Micrometer)
+     */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * ES256 key pairs with rotation (see JwtKeyStore)
+     *
+     * Replaces the former shared HS512 secret (app.jwt.secret): tokens are
+     * signed with a private key and verified with the public key named by
+     * the token's "kid" header.
+     */
+    @Autowired
+    private JwtKeyStore jwtKeyStore;
+
+    /**
+     * Public keys of the other nodes (see PeerJwksCache)
+     *
+     * Each node signs with its own private key; a kid that is not in the
+     * local JwtKeyStore belongs to another node.
+     */
+    @Autowired
+    private PeerJwksCache peerJwksCache;
+
+    /**
+     * JWT parser, built once at startup
+     *
+     * Creating the parser is not free; doing it on every request showed up
+     * as a large part of the token validation time.
+     * JwtParser is immutable and thread-safe, so one instance serves all requests.
+     * The verification key is looked up per token by its "kid" header.
+     */
+    private JwtParser jwtParser;
+
+    /**
+     * One counter per failure reason: jwt.validation.failures{reason=...}
+     */
+    private final Map<TokenFailureReason, Counter> failureCounters = new EnumMap<>(TokenFailureReason.class);
+
+    /**
+     * Initialize Parser and Metrics
+     *
+     * Runs once after Spring has injected the @Value and @Autowired fields
+     */
+    @PostConstruct
+    void init() {
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        JwtSigningKey key = jwtKeyStore.getVerificationKey(header.getKeyId());
+                        if (key != null) {
+                            return key.publicKey();
+                        }
+                        // Not ours: a key of another node?
+                        Key peerKey = peerJwksCache.getPublicKey(header.getKeyId());
+                        if (peerKey == null) {
+                            // Unknown or retired kid: reported as INVALID_SIGNATURE
+                            throw new SignatureException("Unknown JWT key id: " + header.getKeyId());
+                        }
+                        return peerKey;
+                    }
+                })
+                .build();
+
+        for (TokenFailureReason reason : TokenFailureReason.values()) {
+            failureCounters.put(reason, Counter.builder("jwt.validation.failures")
+                    .description("JWT tokens rejected by JwtTokenProvider")
+                    .tag("reason", reason.name())
+                    .register(meterRegistry));
+        }
+    }
+
     /**
      * Generate JWT Token from Authentication
      *
@@ -87,130 +189,208 @@ public class JwtTokenProvider {
      *
      * Token contains (claims):
      * - sub: Subject (username)
+     * - uid: User ID (stable even if the username changes)
+     * - authorities: Granted authorities, e.g. ["ROLE_ADMIN"]
+     * - active: Account status at the time of issue
+     * - ver: Token version (see TokenVersionStore)
      * - iat: Issued at timestamp
      * - exp: Expiration timestamp
      *
+     * Because authorities and status are in the token, JwtAuthenticationFilter
+     * does not need to query the database on every request.
+     *
      * @param authentication Spring Security Authentication object
      * @return JWT token as String
      */
     public String generateToken(Authentication authentication) {
-        // Get username from authentication
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        String username = userDetails.getUsername();
+        // Principal is created by CustomUserDetailsService during login
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
 
-        // Get current date for issuedAt time
-        Date now = new Date();
-
-        // Calculate expiration date (now + expiration time)
-        Date expiryDate = new Date(now.getTime() + jwtExpiration);
-
-        // Create secret key for signing
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-
-        // Build and return the JWT token
-        return Jwts.builder()
-                .setSubject(username)                    // Set username as subject
-                .setIssuedAt(now)                        // Set issue time
-                .setExpiration(expiryDate)               // Set expiration time
-                .signWith(key, SignatureAlgorithm.HS512) // Sign with secret key using HS512 algorithm
-                .compact();                              // Build the token
+        return buildToken(principal);
     }
 
     /**
-     * Generate JWT Token from Username
+     * Generate JWT Token for a User Entity
      *
-     * Alternative method when you only have the username
-     * Useful for registration or other scenarios
+     * Alternative method when the user was not authenticated with a password
+     * in this request, e.g. right after registration
      *
-     * @param username the username to create token for
+     * @param user the user to create token for
      * @return JWT token as String
      */
-    public String generateTokenFromUsername(String username) {
-        // Get current date
-        Date now = new Date();
-
-        // Calculate expiration date
-        Date expiryDate = new Date(now.getTime() + jwtExpiration);
-
-        // Create secret key
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-
-        // Build and return the JWT token
-        return Jwts.builder()
-                .setSubject(username)
-                .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(key, SignatureAlgorithm.HS512)
-                .compact();
+    public String generateTokenForUser(User user) {
+        return buildToken(UserPrincipal.fromUser(user));
     }
 
     /**
-     * Extract Username from JWT Token
-     *
-     * Parses the token and extracts the username (subject claim)
+     * Build and Sign the Token
      *
-     * @param token JWT token
-     * @return username from token
+     * @param principal the user the token is issued for
+     * @return JWT token as String
      */
-    public String getUsernameFromToken(String token) {
-        // Create secret key for parsing
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    private String buildToken(UserPrincipal principal) {
+        // Get current date for issuedAt time
+        Date now = new Date();
 
-        // Parse the token and extract claims
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        // Calculate expiration date (now + expiration time)
+        Date expiryDate = new Date(now.getTime() + jwtExpiration);
+
+        // Authorities as plain strings: ["ROLE_USER"]
+        List<String> authorities = principal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList());
 
-        // Return the subject (username)
-        return claims.getSubject();
+        // Version read together with the user at login/registration; the cached
+        // one otherwise (see TokenVersionStore)
+        User user = principal.getUser();
+        long version = user != null && user.getTokenVersion() != null
+                ? user.getTokenVersion()
+                : tokenVersionStore.getVersion(principal.getId());
+
+        // Current ES256 key; rotated automatically by JwtKeyStore
+        JwtSigningKey signingKey = jwtKeyStore.getSigningKey();
+
+        // Build and return the JWT token
+        return Jwts.builder()
+                .setHeaderParam("kid", signingKey.kid())                     // Tell verifiers which public key to use
+                .setSubject(principal.getUsername())                          // Set username as subject
+                .claim(CLAIM_USER_ID, principal.getId())                      // Set user ID
+                .claim(CLAIM_AUTHORITIES, authorities)                        // Set roles/authorities
+                .claim(CLAIM_ACTIVE, principal.isEnabled())                   // Set account status
+                .claim(CLAIM_VERSION, version)                                // Set token version
+                .setIssuedAt(now)                                             // Set issue time
+                .setExpiration(expiryDate)                                    // Set expiration time
+                .signWith(signingKey.privateKey(), SignatureAlgorithm.ES256)  // Sign with private key using ES256 algorithm
+                .compact();                                                   // Build the token
     }
 
     /**
      * Validate JWT Token
      *
-     * Checks if the token is valid:
+     * Parses and verifies the token exactly once and checks:
      * 1. Signature is correct (not tampered with)
      * 2. Not expired
      * 3. Properly formatted
+     * 4. Contains our custom claims (uid, ver, active)
+     * 5. Account was active and the token was not revoked (TokenVersionStore)
+     *
+     * The caller receives the claims from this single parse, so the token is
+     * never parsed a second time (e.g. to read the username).
+     * Tokens seen before are answered from VerifiedTokenCache without parsing;
+     * revocation is still checked for them.
+     *
+     * Each failure increments "jwt.validation.failures" with its reason as tag.
      *
      * @param token JWT token to validate
-     * @return true if valid, false otherwise
+     * @return verified principal, or the reason why the token was rejected
      */
-    public boolean validateToken(String token) {
-        try {
-            // Create secret key for parsing
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    public TokenValidationResult validateToken(String token) {
+        if (token == null || token.isBlank()) {
+            return fail(TokenFailureReason.EMPTY);
+        }
 
-            // Try to parse the token
-            // If any validation fails, an exception will be thrown
-            Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token);
+        long now = System.currentTimeMillis();
 
-            // If no exception, token is valid
-            return true;
+        // Fast path: the same token was verified before and has not expired yet
+        ByteBuffer cacheKey = null;
+        if (verifiedTokenCache.isEnabled()) {
+            cacheKey = verifiedTokenCache.digest(token);
+            VerifiedTokenCache.Entry cached = verifiedTokenCache.get(cacheKey, now);
+            if (cached != null) {
+                // Revocation must be checked on every request, cached or not
+                if (!tokenVersionStore.isCurrent(cached.principal().getId(), cached.version())) {
+                    verifiedTokenCache.remove(cacheKey);
+                    return fail(TokenFailureReason.REVOKED);
+                }
+                return TokenValidationResult.valid(cached.principal());
+            }
+        }
+
+        Claims claims;
+        try {
+            // The parser (with the key) was built once in init() and is thread-safe
+            // If any validation fails, an exception will be thrown
+            claims = jwtParser.parseClaimsJws(token).getBody();
 
-        } catch (SecurityException ex) {
-            // Invalid JWT signature
-            System.err.println("Invalid JWT signature: " + ex.getMessage());
-        } catch (MalformedJwtException ex) {
-            // Invalid JWT token format
-            System.err.println("Invalid JWT token: " + ex.getMessage());
         } catch (ExpiredJwtException ex) {
             // JWT token is expired
-            System.err.println("Expired JWT token: " + ex.getMessage());
+            return fail(TokenFailureReason.EXPIRED);
+        } catch (SignatureException ex) {
+            // Invalid JWT signature
+            return fail(TokenFailureReason.INVALID_SIGNATURE);
         } catch (UnsupportedJwtException ex) {
-            // JWT token is unsupported
-            System.err.println("Unsupported JWT token: " + ex.getMessage());
-        } catch (IllegalArgumentException ex) {
-            // JWT claims string is empty
-            System.err.println("JWT claims string is empty: " + ex.getMessage());
+            // JWT token is unsupported (e.g. unsigned)
+            return fail(TokenFailureReason.UNSUPPORTED);
+        } catch (JwtException | IllegalArgumentException ex) {
+            // Invalid JWT token format (structure, Base64, JSON)
+            return fail(TokenFailureReason.MALFORMED);
         }
 
-        // If any exception occurred, token is invalid
-        return false;
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        Number version = claims.get(CLAIM_VERSION, Number.class);
+        if (userId == null || version == null || claims.getExpiration() == null) {
+            return fail(TokenFailureReason.MISSING_CLAIMS);
+        }
+
+        if (!Boolean.TRUE.equals(claims.get(CLAIM_ACTIVE, Boolean.class))) {
+            return fail(TokenFailureReason.INACTIVE);
+        }
+
+        // Revocation check: cached token version (database only on a miss)
+        if (!tokenVersionStore.isCurrent(userId.longValue(), version.longValue())) {
+            return fail(TokenFailureReason.REVOKED);
+        }
+
+        UserPrincipal principal = getPrincipal(claims, userId.longValue());
+
+        // Remember the verified token until its own expiration time
+        if (cacheKey != null) {
+            verifiedTokenCache.put(cacheKey, new VerifiedTokenCache.Entry(
+                    principal, claims.getExpiration().getTime(), version.longValue()), now);
+        }
+
+        return TokenValidationResult.valid(principal);
+    }
+
+    /**
+     * Build Authentication for a Verified Principal
+     *
+     * Creates the Spring Security Authentication object without a database query.
+     * A new object per request: the filter adds request details to it.
+     *
+     * @param principal principal of a token that passed validateToken()
+     * @return authentication with the user's principal and authorities
+     */
+    public UsernamePasswordAuthenticationToken getAuthentication(UserPrincipal principal) {
+        // Parameters: principal (user), credentials (null after auth), authorities (roles)
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    /**
+     * Build Principal from Token Claims
+     *
+     * @param claims verified claims
+     * @param userId the "uid" claim
+     * @return principal with authorities from the "authorities" claim
+     */
+    private UserPrincipal getPrincipal(Claims claims, long userId) {
+        List<?> authorityNames = claims.get(CLAIM_AUTHORITIES, List.class);
+        List<GrantedAuthority> authorities = authorityNames == null
+                ? Collections.emptyList()
+                : authorityNames.stream()
+                        .map(name -> (GrantedAuthority) new SimpleGrantedAuthority(String.valueOf(name)))
+                        .collect(Collectors.toList());
+
+        // Password is not part of the token, so the principal has an empty one
+        return new UserPrincipal(userId, claims.getSubject(), "", true, authorities);
+    }
+
+    /**
+     * Count a Failure and Return It
+     */
+    private TokenValidationResult fail(TokenFailureReason reason) {
+        failureCounters.get(reason).increment();
+        log.debug("JWT rejected: {}", reason);
+        return TokenValidationResult.failure(reason);
     }
 }
@@ -0,0 +1,185 @@
+package com.educational.usermanagement.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Peer JWKS Cache
+ *
+ * Public keys of the other nodes, downloaded from their /.well-known/jwks.json
+ * (app.jwt.jwks-uris).
+ *
+ * Educational Purpose:
+ * - Shows how nodes trust each other's tokens without sharing private keys
+ * - Shows rate-limited refresh on an unknown "kid"
+ *
+ * Why?
+ * Every node signs with its own private key from its own app.jwt.key-dir.
+ * A token issued by node A carries A's kid, which node B does not have
+ * locally. B looks the kid up here: if it is unknown, B downloads the key
+ * sets of all peers again (at most once per RELOAD_INTERVAL_MILLIS, so tokens
+ * with random kids cannot make B flood its peers) and keeps them in memory.
+ * A peer publishes a new key app.jwt.key-publish-ahead before it signs with
+ * it, and a retired key as long as its tokens can be valid.
+ *
+ * A peer that cannot be reached keeps its previously downloaded keys.
+ *
+ * Security Notes:
+ * - Only configured peers are asked; use https:// URIs outside a trusted network
+ * - Only EC P-256 keys with "use": "sig" (or no "use") are accepted
+ *
+ * @author Educational Project
+ * @version 1.0.0
+ */
+@Component
+public class PeerJwksCache {
+
+    private static final Logger log = LoggerFactory.getLogger(PeerJwksCache.class);
+
+    /**
+     * Minimum time between downloads caused by unknown kids
+     */
+    private static final long RELOAD_INTERVAL_MILLIS = 5_000;
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(2);
+
+    private final List<URI> peers;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+
+    /**
+     * Peer URI -> its keys (kid -> public key) from the last successful download
+     */
+    private final Map<URI, Map<String, ECPublicKey>> keysByPeer = new ConcurrentHashMap<>();
+
+    private volatile long lastLoadMillis;
+
+    public PeerJwksCache(@Value("${app.jwt.jwks-uris:}") List<URI> peers, ObjectMapper objectMapper) {
+        this.peers = List.copyOf(peers);
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(TIMEOUT)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+
+    /**
+     * Get the Public Key of Another Node
+     *
+     * @param kid "kid" header of the token
+     * @return the key, or null if no peer publishes it
+     */
+    public ECPublicKey getPublicKey(String kid) {
+        if (kid == null || peers.isEmpty()) {
+            return null;
+        }
+
+        ECPublicKey key = find(kid);
+        if (key == null && System.currentTimeMillis() - lastLoadMillis >= RELOAD_INTERVAL_MILLIS) {
+            // Maybe a peer has rotated (or just started): download the key sets again
+            synchronized (this) {
+                long now = System.currentTimeMillis();
+                if (now - lastLoadMillis >= RELOAD_INTERVAL_MILLIS) {
+                    reload();
+                    lastLoadMillis = now;
+                }
+            }
+            key = find(kid);
+        }
+        return key;
+    }
+
+    private ECPublicKey find(String kid) {
+        for (Map<String, ECPublicKey> keys : keysByPeer.values()) {
+            ECPublicKey key = keys.get(kid);
+            if (key != null) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    private void reload() {
+        for (URI peer : peers) {
+            try {
+                keysByPeer.put(peer, parse(download(peer)));
+            } catch (Exception e) {
+                // Keep the keys we have: they still verify the peer's current tokens
+                log.warn("Cannot load JWKS from {}: {}", peer, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Download One Key Set (overridden in tests)
+     */
+    String download(URI peer) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(peer)
+                .timeout(TIMEOUT)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("HTTP " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    /**
+     * Read the EC P-256 Signing Keys of a JWKS Document
+     */
+    Map<String, ECPublicKey> parse(String json) throws IOException, GeneralSecurityException {
+        Map<String, ECPublicKey> keys = new HashMap<>();
+        for (JsonNode jwk : objectMapper.readTree(json).path("keys")) {
+            String kid = jwk.path("kid").asText(null);
+            if (kid == null
+                    || !"EC".equals(jwk.path("kty").asText())
+                    || !"P-256".equals(jwk.path("crv").asText())
+                    || !"sig".equals(jwk.path("use").asText("sig"))) {
+                continue;
+            }
+            keys.put(kid, toPublicKey(jwk.path("x").asText(), jwk.path("y").asText()));
+        }
+        return Map.copyOf(keys);
+    }
+
+    private static ECPublicKey toPublicKey(String x, String y) throws GeneralSecurityException {
+        AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+        parameters.init(new ECGenParameterSpec("secp256r1"));
+        ECParameterSpec curve = parameters.getParameterSpec(ECParameterSpec.class);
+
+        ECPoint point = new ECPoint(coordinate(x), coordinate(y));
+        // Rejects points that are not on the curve
+        return (ECPublicKey) KeyFactory.getInstance("EC").generatePublic(new ECPublicKeySpec(point, curve));
+    }
+
+    private static BigInteger coordinate(String base64Url) {
+        return new BigInteger(1, Base64.getUrlDecoder().decode(base64Url));
+    }
+}
@@ -0,0 +1,55 @@
+package com.educational.usermanagement.security;
+
+/**
+ * Token Failure Reason
+ *
+ * Why JwtTokenProvider rejected a token.
+ * Each value is also a tag of the "jwt.validation.failures" metric,
+ * so operators can see e.g. many EXPIRED tokens (clients do not refresh)
+ * versus many INVALID_SIGNATURE tokens (someone is forging tokens).
+ *
+ * @author Educational Project
+ * @version 1.0.0
+ */
+public enum TokenFailureReason {
+
+    /**
+     * Token string is null or blank
+     */
+    EMPTY,
+
+    /**
+     * Not a valid JWT (wrong structure, bad Base64 or JSON)
+     */
+    MALFORMED,
+
+    /**
+     * Signature does not match: token was tampered with or signed with another key
+     */
+    INVALID_SIGNATURE,
+
+    /**
+     * "exp" claim is in the past
+     */
+    EXPIRED,
+
+    /**
+     * Valid JWT, but not a signed claims token (e.g. unsigned or encrypted)
+     */
+    UNSUPPORTED,
+
+    /**
+     * Token was issued before the current format (no "uid"/"ver" claims)
+     */
+    MISSING_CLAIMS,
+
+    /**
+     * Account was inactive when the token was issued
+     */
+    INACTIVE,
+
+    /**
+     * User was updated or deleted after the token was issued (see TokenVersionStore)
+     */
+    REVOKED
+}
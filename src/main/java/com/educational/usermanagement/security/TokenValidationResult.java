@@ -0,0 +1,52 @@
+package com.educational.usermanagement.security;
+
+/**
+ * Token Validation Result
+ *
+ * Result of JwtTokenProvider.validateToken(): either the verified principal
+ * (user and authorities from the claims) or the reason why the token was rejected. Never both.
+ *
+ * Educational Purpose:
+ * - Shows a "result object" instead of boolean + second call
+ * - The token is parsed and verified only once; the caller gets the claims
+ *   from the same parse (or from VerifiedTokenCache) instead of parsing the token again
+ *
+ * @author Educational Project
+ * @version 1.0.0
+ */
+public final class TokenValidationResult {
+
+    private final UserPrincipal principal;
+    private final TokenFailureReason failureReason;
+
+    private TokenValidationResult(UserPrincipal principal, TokenFailureReason failureReason) {
+        this.principal = principal;
+        this.failureReason = failureReason;
+    }
+
+    public static TokenValidationResult valid(UserPrincipal principal) {
+        return new TokenValidationResult(principal, null);
+    }
+
+    public static TokenValidationResult failure(TokenFailureReason reason) {
+        return new TokenValidationResult(null, reason);
+    }
+
+    public boolean isValid() {
+        return failureReason == null;
+    }
+
+    /**
+     * @return verified principal, or null if the token was rejected
+     */
+    public UserPrincipal getPrincipal() {
+        return principal;
+    }
+
+    /**
+     * @return why the token was rejected, or null if it is valid
+     */
+    public TokenFailureReason getFailureReason() {
+        return failureReason;
+    }
+}
@@ -0,0 +1,145 @@
+package com.educational.usermanagement.security;
+
+import com.educational.usermanagement.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token Version Store
+ *
+ * Caches the "token version" of each user (USERS.TOKEN_VERSION column).
+ * Every JWT carries the version that was current when it was issued ("ver" claim).
+ * A token is accepted only while its version is still the current one.
+ *
+ * Educational Purpose:
+ * - Demonstrates how to revoke stateless JWT tokens
+ * - Shows a simple alternative to a token denylist
+ *
+ * Why is this needed?
+ * JwtAuthenticationFilter no longer loads the user from the database on every request.
+ * Role and active status come from the token itself. Without revocation, a token
+ * issued before a user was deactivated (or demoted) would keep working until it expires.
+ *
+ * How it works:
+ * 1. New user: TOKEN_VERSION = 0
+ * 2. UserService updates role/password/status/username: TOKEN_VERSION + 1 in the same
+ *    transaction, then revoke(id) drops the cached entry after commit
+ * 3. All tokens with the old "ver" are rejected
+ * 4. The user logs in again and receives a token with the new version
+ * 5. Deleted user: no row -> DELETED, no token matches
+ *
+ * The database is the source of truth: a user without an entry (e.g. after a
+ * restart) is looked up once, so a revocation survives restarts. Entries are
+ * reloaded after app.jwt.token-version.ttl, which bounds how long another node
+ * may still accept a token revoked through this node.
+ *
+ * Memory: one entry per user seen since startup (Long -> Entry).
+ *
+ * @author Educational Project
+ * @version 1.0.0
+ */
+@Component
+public class TokenVersionStore {
+
+    /**
+     * Version of a user that does not exist (deleted); never equals a token version
+     */
+    public static final long DELETED = -1;
+
+    private final UserRepository userRepository;
+
+    private final long ttlMillis;
+
+    /**
+     * User ID -> current token version and when it was read
+     */
+    private final ConcurrentMap<Long, Entry> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented by every revoke; a load that overlapped a revoke is not cached
+     */
+    private final AtomicLong revocations = new AtomicLong();
+
+    public TokenVersionStore(UserRepository userRepository,
+                             @Value("${app.jwt.token-version.ttl:30000}") long ttlMillis) {
+        this.userRepository = userRepository;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Get Current Token Version
+     *
+     * @param userId the user ID
+     * @return version that newly issued tokens carry, or DELETED
+     */
+    public long getVersion(Long userId) {
+        long now = System.currentTimeMillis();
+        Entry entry = versions.get(userId);
+        if (entry != null && now - entry.loadedAt() < ttlMillis) {
+            return entry.version();
+        }
+
+        long revocationsBefore = revocations.get();
+        long version = userRepository.findTokenVersionById(userId).orElse(DELETED);
+        Entry loaded = new Entry(version, now);
+        versions.put(userId, loaded);
+        if (revocations.get() != revocationsBefore) {
+            // A revoke overlapped the read: the value may be older than the commit
+            versions.remove(userId, loaded);
+        }
+        return version;
+    }
+
+    /**
+     * Check Token Version
+     *
+     * @param userId the user ID from the "uid" claim
+     * @param tokenVersion the version from the "ver" claim
+     * @return true if the token has not been revoked
+     */
+    public boolean isCurrent(Long userId, long tokenVersion) {
+        return tokenVersion != DELETED && getVersion(userId) == tokenVersion;
+    }
+
+    /**
+     * Revoke All Tokens of a User
+     *
+     * The caller has already incremented USERS.TOKEN_VERSION (or deleted the row)
+     * in its transaction; this drops the cached version so the next request reads
+     * the new one. Inside a transaction that happens after commit, otherwise the
+     * old version could be read again before the commit. If the transaction rolls
+     * back, nothing is revoked.
+     *
+     * @param userId the user ID
+     */
+    public void revoke(Long userId) {
+        if (userId == null) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        } else {
+            evict(userId);
+        }
+    }
+
+    private void evict(Long userId) {
+        revocations.incrementAndGet();
+        versions.remove(userId);
+    }
+
+    private record Entry(long version, long loadedAt) {
+    }
+}
@@ -0,0 +1,124 @@
+package com.educational.usermanagement.security;
+
+import com.educational.usermanagement.entity.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * User Principal
+ *
+ * Spring Security's User object extended with our database ID.
+ *
+ * Educational Purpose:
+ * - Shows how to carry application data inside the security principal
+ * - Illustrates why a JWT needs a stable identifier besides the username
+ *
+ * Why do we need the ID?
+ * The username can be changed by an admin, but the ID never changes.
+ * JwtTokenProvider writes the ID into every token ("uid" claim) and
+ * TokenVersionStore uses it to revoke tokens when the user is updated or deleted.
+ *
+ * Two ways this object is created:
+ * 1. At login: CustomUserDetailsService builds it from the User entity (with password hash)
+ *    and keeps the entity, so AuthService can build the login response without
+ *    loading the user a second time
+ * 2. On every request: JwtAuthenticationFilter builds it from token claims (no password,
+ *    no DB, no entity)
+ *
+ * @author Educational Project
+ * @version 1.0.0
+ */
+public class UserPrincipal extends org.springframework.security.core.userdetails.User {
+
+    /**
+     * Database ID of the user (USERS.ID)
+     */
+    private final Long id;
+
+    /**
+     * The loaded entity (login only), null when built from a token
+     *
+     * transient: Spring's User is Serializable, our entity is not
+     */
+    private final transient User user;
+
+    public UserPrincipal(Long id,
+                         String username,
+                         String password,
+                         boolean enabled,
+                         Collection<? extends GrantedAuthority> authorities) {
+        this(id, username, password, enabled, authorities, null);
+    }
+
+    private UserPrincipal(Long id,
+                          String username,
+                          String password,
+                          boolean enabled,
+                          Collection<? extends GrantedAuthority> authorities,
+                          User user) {
+        // Account expiry, credential expiry and locking are not used in this project
+        super(username, password, enabled, true, true, true, authorities);
+        this.id = id;
+        this.user = user;
+    }
+
+    /**
+     * Create Principal from User Entity
+     *
+     * Used during login, when the user has just been loaded from the database.
+     *
+     * @param user the user entity
+     * @return principal with the user's ID, password hash, role and the entity itself
+     */
+    public static UserPrincipal fromUser(User user) {
+        return fromUser(user, user.getPassword());
+    }
+
+    /**
+     * Create Principal from User Entity with Another Password Hash
+     *
+     * Used after the stored hash has been upgraded (rehash on login).
+     *
+     * @param user the user entity
+     * @param password the password hash to use
+     * @return principal with the user's ID, the given hash, role and the entity itself
+     */
+    public static UserPrincipal fromUser(User user, String password) {
+        return new UserPrincipal(
+                user.getId(),
+                user.getUsername(),
+                password,
+                Boolean.TRUE.equals(user.getIsActive()),
+                getAuthorities(user),
+                user
+        );
+    }
+
+    /**
+     * Get User Authorities (Roles)
+     *
+     * Converts our application's Role to Spring Security's GrantedAuthority.
+     * Each role is converted to format: "ROLE_ADMIN" or "ROLE_USER"
+     *
+     * @param user the user whose authorities to retrieve
+     * @return Collection of GrantedAuthority objects
+     */
+    public static Collection<? extends GrantedAuthority> getAuthorities(User user) {
+        // User has only one role in our system
+        return Collections.singletonList(new SimpleGrantedAuthority(user.getRole().getRoleName()));
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * @return the user entity loaded at login, or null if built from a token
+     */
+    public User getUser() {
+        return user;
+    }
+}
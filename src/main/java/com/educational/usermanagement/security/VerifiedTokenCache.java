@@ -0,0 +1,186 @@
+package com.educational.usermanagement.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Verified Token Cache
+ *
+ * Remembers tokens that JwtTokenProvider has already verified, so a client that
+ * sends the same bearer token thousands of times pays for Base64 decoding,
+ * JSON parsing and signature verification only once.
+ *
+ * Educational Purpose:
+ * - Shows a bounded cache built on ConcurrentHashMap (no global lock)
+ * - Shows why the key is a digest and not the token itself
+ * - Shows expiry-aware eviction: an entry lives exactly as long as its token
+ *
+ * Key: SHA-256 of the token string (32 bytes)
+ * - Cheaper to compute than verifying the token (one hash vs. decode + parse + signature check)
+ * - The cache does not keep usable bearer tokens in memory (heap dumps, debuggers)
+ * - Fixed size, however long the token is
+ *
+ * Value: principal with authorities, token "exp", user ID and token version.
+ *
+ * Eviction:
+ * - On lookup: an entry whose token has expired is removed and reported as a miss
+ *   (the token is then parsed and rejected as EXPIRED as usual)
+ * - When the cache is full: expired entries are swept (at most once per second);
+ *   if it is still full, the new token is simply not cached
+ *
+ * Revocation: the cached token version is compared with TokenVersionStore on
+ * every hit by JwtTokenProvider, so revoking a user also invalidates cached tokens.
+ *
+ * Configuration: app.jwt.cache.max-size (0 disables the cache)
+ * Metrics: jwt.cache.requests{result=hit|miss}, jwt.cache.size
+ *
+ * @author Educational Project
+ * @version 1.0.0
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final long SWEEP_INTERVAL_MILLIS = 1_000;
+
+    /**
+     * MessageDigest is not thread-safe: one instance per thread
+     */
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final ConcurrentMap<ByteBuffer, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepAt = new AtomicLong();
+    private final int maxSize;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public VerifiedTokenCache(@Value("${app.jwt.cache.max-size:10000}") int maxSize,
+                              MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+
+        this.hits = Counter.builder("jwt.cache.requests")
+                .description("Lookups in the verified token cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("jwt.cache.requests")
+                .description("Lookups in the verified token cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("jwt.cache.size", entries, ConcurrentMap::size)
+                .description("Verified tokens currently cached")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    /**
+     * Compute the Cache Key of a Token
+     *
+     * @param token JWT token
+     * @return SHA-256 digest of the token
+     */
+    public ByteBuffer digest(String token) {
+        MessageDigest sha256 = SHA_256.get();
+        // digest() also resets the MessageDigest for the next call
+        return ByteBuffer.wrap(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Look Up a Verified Token
+     *
+     * @param key digest from digest()
+     * @param nowMillis current time
+     * @return cached entry, or null if not cached or already expired
+     */
+    public Entry get(ByteBuffer key, long nowMillis) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+
+        if (nowMillis >= entry.expiresAtMillis()) {
+            // Evict at the token's own "exp"; remove only this exact entry
+            entries.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        return entry;
+    }
+
+    /**
+     * Remember a Verified Token
+     *
+     * @param key digest from digest()
+     * @param entry principal and token data
+     * @param nowMillis current time
+     */
+    public void put(ByteBuffer key, Entry entry, long nowMillis) {
+        if (!isEnabled() || nowMillis >= entry.expiresAtMillis()) {
+            return;
+        }
+
+        if (entries.size() >= maxSize) {
+            sweepExpired(nowMillis);
+            if (entries.size() >= maxSize) {
+                // Still full of live tokens: do not cache this one
+                return;
+            }
+        }
+
+        entries.put(key, entry);
+    }
+
+    /**
+     * Remove a Single Entry (e.g. token was found revoked)
+     */
+    public void remove(ByteBuffer key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Remove All Expired Entries
+     *
+     * Runs at most once per SWEEP_INTERVAL_MILLIS; only the thread that wins the
+     * compareAndSet sweeps, the others continue without waiting.
+     */
+    private void sweepExpired(long nowMillis) {
+        long sweepAt = nextSweepAt.get();
+        if (nowMillis < sweepAt || !nextSweepAt.compareAndSet(sweepAt, nowMillis + SWEEP_INTERVAL_MILLIS)) {
+            return;
+        }
+        entries.values().removeIf(entry -> nowMillis >= entry.expiresAtMillis());
+    }
+
+    /**
+     * Cached Verification Result
+     *
+     * @param principal user and authorities built from the token claims
+     * @param expiresAtMillis token "exp" claim
+     * @param version token "ver" claim (checked against TokenVersionStore on every hit)
+     */
+    public record Entry(UserPrincipal principal, long expiresAtMillis, long version) {
+    }
+}
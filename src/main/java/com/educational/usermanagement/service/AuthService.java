@@ -7,16 +7,22 @@ import com.educational.usermanagement.dto.UserResponse;
 import com.educational.usermanagement.entity.Role;
 import com.educational.usermanagement.entity.User;
 import com.educational.usermanagement.exception.DuplicateResourceException;
+import com.educational.usermanagement.exception.ServiceBusyException;
 import com.educational.usermanagement.repository.UserRepository;
+import com.educational.usermanagement.security.BoundedPasswordEncoder;
 import com.educational.usermanagement.security.JwtTokenProvider;
+import com.educational.usermanagement.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Authentication Service
@@ -45,11 +51,17 @@ import org.springframework.transaction.annotation.Transactional;
  *
  * Registration Flow:
  * 1. User submits registration data
- * 2. Validate username and email are unique
- * 3. Hash password with BCrypt
- * 4. Save user to database
- * 5. Automatically log in user (generate token)
- * 6. Return token and user data to client
+ * 2. Hash password with BCrypt
+ * 3. Save user to database (unique constraints reject duplicate username/email)
+ * 4. Automatically log in user (generate token)
+ * 5. Return token and user data to client
+ *
+ * Database connections and BCrypt:
+ * Hashing waits in the BoundedPasswordEncoder queue and then takes 50-100 ms.
+ * No database connection is held meanwhile: login runs without a transaction
+ * (the lookup returns its connection at once), registration hashes before its
+ * transaction opens. Otherwise a burst of logins could take every connection
+ * of the pool and starve all other endpoints.
  *
  * @author Educational Project
  * @version 1.0.0
@@ -73,9 +85,10 @@ public class AuthService {
 
     /**
      * Password Encoder for hashing passwords
+     * (BCrypt on a bounded thread pool, see BoundedPasswordEncoder)
      */
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private BoundedPasswordEncoder passwordEncoder;
 
     /**
      * JWT Token Provider for generating tokens
@@ -83,6 +96,24 @@ public class AuthService {
     @Autowired
     private JwtTokenProvider tokenProvider;
 
+    /**
+     * User search index, so new users can be found right away
+     */
+    @Autowired
+    private UserSearchIndex searchIndex;
+
+    /**
+     * User counts of the admin dashboard
+     */
+    @Autowired
+    private UserStatistics userStatistics;
+
+    /**
+     * Runs the database part of a registration after the password is hashed
+     */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     /**
      * User Login
      *
@@ -96,13 +127,26 @@ public class AuthService {
      *    - If match, creates Authentication object
      * 3. Set authentication in Security Context
      * 4. Generate JWT token
-     * 5. Load user data and return with token
+     * 5. Return user data (from the authenticated principal) with token
+     *
+     * Database cost: one SELECT on USERS (plus one UPDATE if the password hash is upgraded)
+     *
+     * No transaction: the SELECT and the rehash UPDATE (CustomUserDetailsService.updatePassword)
+     * each run in their own, so no connection is held while the password is checked.
      *
      * @param loginRequest login credentials (username/email and password)
      * @return AuthResponse with JWT token and user data
      * @throws BadCredentialsException if credentials are invalid (handled by GlobalExceptionHandler)
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AuthResponse login(LoginRequest loginRequest) {
+        // Admission control: if the password hashing pool is already full,
+        // reject right away (429) instead of querying the database first
+        if (passwordEncoder.isSaturated()) {
+            throw new ServiceBusyException(HttpStatus.TOO_MANY_REQUESTS,
+                    "Too many concurrent login requests, please retry", 1);
+        }
+
         // Create authentication token with user credentials
         // At this point, credentials are NOT verified yet
         UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
@@ -113,7 +157,7 @@ public class AuthService {
         // Authenticate user
         // This internally:
         // 1. Calls CustomUserDetailsService.loadUserByUsername()
-        // 2. Gets user from database
+        // 2. Gets user from database (the only query of the login)
         // 3. Compares passwords using PasswordEncoder
         // 4. If match, returns Authentication object
         // 5. If no match, throws BadCredentialsException
@@ -126,12 +170,9 @@ public class AuthService {
         // Generate JWT token
         String jwt = tokenProvider.generateToken(authentication);
 
-        // Get username from authentication
-        String username = authentication.getName();
-
-        // Load full user data from database
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found after authentication"));
+        // The principal already carries the User entity loaded during authentication,
+        // so the whole login costs exactly one USERS query (findByUsernameOrEmail)
+        User user = ((UserPrincipal) authentication.getPrincipal()).getUser();
 
         // Convert user to DTO (excludes password)
         UserResponse userResponse = UserResponse.fromEntity(user);
@@ -146,45 +187,42 @@ public class AuthService {
      * Creates a new user account and automatically logs them in.
      *
      * Process:
-     * 1. Validate username is unique
-     * 2. Validate email is unique
-     * 3. Create new User entity
-     * 4. Hash password with BCrypt
-     * 5. Set default role (USER) and active status (true)
-     * 6. Save user to database
-     * 7. Generate JWT token for the new user
-     * 8. Return token and user data
+     * 1. Create new User entity
+     * 2. Hash password with BCrypt
+     * 3. Set default role (USER) and active status (true)
+     * 4. Save user to database (INSERT is flushed immediately)
+     * 5. If a unique constraint is violated, report which field was duplicate
+     * 6. Generate JWT token for the new user
+     * 7. Return token and user data
      *
      * Security Notes:
      * - Password is hashed before storing (NEVER store plain text!)
      * - New users get USER role by default (not ADMIN)
-     * - Username and email must be unique
+     * - Username and email must be unique (enforced by the database, not by
+     *   "exists" queries: those cost two extra round trips and are racy)
+     *
+     * Database cost: one INSERT (plus the sequence call, once every 50 users)
+     *
+     * The password is hashed before the transaction starts, so the connection
+     * is only borrowed for the INSERT.
      *
      * @param registerRequest registration data
      * @return AuthResponse with JWT token and user data
      * @throws DuplicateResourceException if username or email already exists
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AuthResponse register(RegisterRequest registerRequest) {
-        // Validate username is unique
-        if (userRepository.existsByUsername(registerRequest.getUsername())) {
-            throw new DuplicateResourceException("Username", registerRequest.getUsername());
-        }
-
-        // Validate email is unique
-        if (userRepository.existsByEmail(registerRequest.getEmail())) {
-            throw new DuplicateResourceException("Email", registerRequest.getEmail());
-        }
+        // Hash password before saving (and before the transaction takes a connection)
+        // BCrypt automatically generates a random salt and hashes the password
+        // The hash includes: algorithm + cost + salt + hash
+        // Example hash: $2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy
+        String passwordHash = passwordEncoder.encode(registerRequest.getPassword());
 
         // Create new User entity
         User user = new User();
         user.setUsername(registerRequest.getUsername());
         user.setEmail(registerRequest.getEmail());
-
-        // Hash password before saving
-        // BCrypt automatically generates a random salt and hashes the password
-        // The hash includes: algorithm + cost + salt + hash
-        // Example hash: $2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy
-        user.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
+        user.setPassword(passwordHash);
 
         user.setFirstName(registerRequest.getFirstName());
         user.setLastName(registerRequest.getLastName());
@@ -200,11 +238,26 @@ public class AuthService {
 
         // Save user to database
         // JPA automatically sets createdAt and updatedAt fields
-        User savedUser = userRepository.save(user);
+        // No "exists" queries before: the unique constraints on USERNAME and EMAIL
+        // reject duplicates (also under concurrency). saveAndFlush() runs the INSERT
+        // now, so the violation is thrown here and not at commit time.
+        User savedUser = transactionTemplate.execute(status -> {
+            User saved;
+            try {
+                saved = userRepository.saveAndFlush(user);
+            } catch (DataIntegrityViolationException ex) {
+                throw DuplicateResourceException.fromConstraintViolation(ex, user);
+            }
+
+            // Make the new user searchable and count it (after commit)
+            searchIndex.indexAfterCommit(UserResponse.fromEntity(saved));
+            userStatistics.userCreated(saved.getRole(), saved.getIsActive());
+            return saved;
+        });
 
         // Generate JWT token for the new user
         // This automatically logs in the user after registration
-        String jwt = tokenProvider.generateTokenFromUsername(savedUser.getUsername());
+        String jwt = tokenProvider.generateTokenForUser(savedUser);
 
         // Convert user to DTO
         UserResponse userResponse = UserResponse.fromEntity(savedUser);
@@ -0,0 +1,478 @@
+package com.educational.usermanagement.service;
+
+import com.educational.usermanagement.dto.CursorPage;
+import com.educational.usermanagement.dto.UserResponse;
+import com.educational.usermanagement.repository.UserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * User Search Index
+ *
+ * An in-memory trigram index over username, email, first name and last name.
+ * Searching users no longer runs a query at all.
+ *
+ * Educational Purpose:
+ * - Demonstrates an inverted index (the data structure behind search engines)
+ * - Shows n-gram indexing for "contains" searches
+ * - Shows relevance ranking with a bounded top-k heap
+ * - Shows keeping a derived data structure in sync with the database
+ *
+ * Why?
+ * LOWER(column) LIKE '%term%' cannot use a B-tree index (the leading % means
+ * "anywhere"), so every search scanned the whole USERS table, four columns at a
+ * time, on every keystroke of the admin search box.
+ *
+ * How it works:
+ * 1. Each field is split into trigrams (3-character pieces):
+ *    "john_doe" -> "joh", "ohn", "hn_", "n_d", "_do", "doe"
+ * 2. Postings map each trigram to the IDs of the users containing it
+ * 3. Search "ohn_d": users having ALL of "ohn", "hn_", "n_d" are candidates
+ *    (intersection, smallest posting list first)
+ * 4. Candidates are checked with contains() (trigrams can match across positions)
+ *    and scored; terms shorter than 3 characters check every user instead
+ *
+ * Ranking (score summed over the fields):
+ * - Field weight: username 4, email 3, first name 2, last name 2
+ * - Match quality: exact 3, prefix 2, anywhere else 1
+ * - Equal scores: lower ID first
+ * At most app.users.search.max-results hits are ranked; the rest is never sorted.
+ *
+ * Keeping it current:
+ * - Startup: loaded from the database page by page (keyset, see UserRepository.findPageAfter)
+ * - UserService/AuthService changes: applied after the transaction commits
+ * - Changes made elsewhere (another instance, SQL scripts): the index is rebuilt
+ *   in the background when a search finds it older than app.users.search.rebuild-interval
+ *
+ * Memory: the users' UserResponse plus roughly one posting entry per character
+ * of the four fields.
+ *
+ * Metrics:
+ * - user.search.duration                 time per search
+ * - user.search.results                  hits per search (before paging)
+ * - user.search.index.size               indexed users
+ * - user.search.index.rebuild            time per full rebuild
+ *
+ * @author Educational Project
+ * @version 1.0.0
+ */
+@Component
+public class UserSearchIndex implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(UserSearchIndex.class);
+
+    /**
+     * Length of the indexed pieces (trigrams)
+     */
+    private static final int GRAM_LENGTH = 3;
+
+    /**
+     * Users loaded per query during a rebuild
+     */
+    private static final int LOAD_BATCH_SIZE = 1_000;
+
+    private static final Comparator<Hit> BEST_FIRST = Comparator.comparingInt(Hit::score).reversed()
+            .thenComparing(hit -> hit.user().getId());
+
+    private final UserRepository userRepository;
+    private final int maxResults;
+    private final long rebuildIntervalMillis;
+
+    /**
+     * Single background thread for rebuilds
+     */
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-search-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    /**
+     * Current index; replaced as a whole by a rebuild
+     */
+    private volatile Index index = new Index();
+    private volatile long lastRebuildAt;
+
+    /**
+     * Changes applied while a rebuild is loading; replayed on the new index.
+     * Null when no rebuild runs. Guarded by "this".
+     */
+    private List<Consumer<Index>> changesDuringRebuild;
+
+    private final Timer searchTimer;
+    private final DistributionSummary resultsSummary;
+    private final Timer rebuildTimer;
+
+    public UserSearchIndex(UserRepository userRepository,
+                           @Value("${app.users.search.max-results:200}") int maxResults,
+                           @Value("${app.users.search.rebuild-interval:600000}") long rebuildIntervalMillis,
+                           MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.maxResults = maxResults;
+        this.rebuildIntervalMillis = rebuildIntervalMillis;
+
+        this.searchTimer = Timer.builder("user.search.duration")
+                .description("Time spent searching the user index")
+                .register(meterRegistry);
+        this.resultsSummary = DistributionSummary.builder("user.search.results")
+                .description("Users matching a search, before paging")
+                .register(meterRegistry);
+        this.rebuildTimer = Timer.builder("user.search.index.rebuild")
+                .description("Time spent rebuilding the user search index")
+                .register(meterRegistry);
+        Gauge.builder("user.search.index.size", this, UserSearchIndex::size)
+                .description("Users in the search index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Load All Users at Startup
+     *
+     * If the database is not reachable, the index starts empty and the
+     * next search triggers another attempt in the background.
+     */
+    @PostConstruct
+    void init() {
+        rebuilding.set(true);
+        rebuild();
+    }
+
+    /**
+     * Search Users
+     *
+     * @param term the search term (case-insensitive, matches anywhere in a field)
+     * @param offset number of ranked hits already returned (the cursor)
+     * @param size page size
+     * @return one page of ranked users; nextCursor is the offset of the next page
+     */
+    public CursorPage<UserResponse> search(String term, int offset, int size) {
+        refreshIfStale();
+
+        long startedAt = System.nanoTime();
+        List<UserResponse> ranked = offset < maxResults
+                // One extra hit tells whether a next page exists
+                ? index.top(normalize(term), Math.min(offset + size + 1, maxResults))
+                : List.of();
+        searchTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        resultsSummary.record(ranked.size());
+
+        int from = Math.min(offset, ranked.size());
+        int to = Math.min(offset + size, ranked.size());
+        boolean hasMore = ranked.size() > offset + size;
+        return new CursorPage<>(ranked.subList(from, to), size, hasMore ? (long) offset + size : null, hasMore);
+    }
+
+    /**
+     * Add or Replace a User (after the current transaction commits)
+     *
+     * If the transaction rolls back, the index is not changed.
+     *
+     * @param user the saved user
+     */
+    public void indexAfterCommit(UserResponse user) {
+        afterCommit(() -> apply(index -> index.put(user)));
+    }
+
+    /**
+     * Remove a User (after the current transaction commits)
+     *
+     * @param userId the deleted user's ID
+     */
+    public void removeAfterCommit(Long userId) {
+        afterCommit(() -> apply(index -> index.remove(userId)));
+    }
+
+    /**
+     * @return number of indexed users
+     */
+    public int size() {
+        return index.size();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private synchronized void apply(Consumer<Index> change) {
+        change.accept(index);
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.add(change);
+        }
+    }
+
+    private void refreshIfStale() {
+        if (System.currentTimeMillis() - lastRebuildAt > rebuildIntervalMillis
+                && rebuilding.compareAndSet(false, true)) {
+            rebuildExecutor.execute(this::rebuild);
+        }
+    }
+
+    /**
+     * Build a New Index from the Database and Swap It In
+     *
+     * Searches keep using the old index while the new one is loading.
+     * Changes committed meanwhile are recorded and replayed on the new index,
+     * so none of them is lost by the swap.
+     */
+    private void rebuild() {
+        synchronized (this) {
+            changesDuringRebuild = new ArrayList<>();
+        }
+        long startedAt = System.nanoTime();
+        try {
+            Index fresh = new Index();
+            long afterId = 0;
+            List<UserResponse> batch;
+            do {
+                batch = userRepository.findPageAfter(afterId, Limit.of(LOAD_BATCH_SIZE));
+                for (UserResponse user : batch) {
+                    fresh.put(user);
+                }
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == LOAD_BATCH_SIZE);
+
+            synchronized (this) {
+                changesDuringRebuild.forEach(change -> change.accept(fresh));
+                index = fresh;
+            }
+            log.info("User search index built with {} users", fresh.size());
+        } catch (RuntimeException e) {
+            log.warn("Could not build the user search index, keeping the current one: {}", e.getMessage());
+        } finally {
+            synchronized (this) {
+                changesDuringRebuild = null;
+            }
+            rebuildTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            // Also after a failure: retry after the interval, not on every search
+            lastRebuildAt = System.currentTimeMillis();
+            rebuilding.set(false);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    private static String normalize(String value) {
+        return value != null ? value.trim().toLowerCase(Locale.ROOT) : "";
+    }
+
+    /**
+     * The Inverted Index
+     *
+     * Plain HashMaps behind a read-write lock: many searches at the same time,
+     * one change at a time (changes are rare compared to searches).
+     */
+    private static final class Index {
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<Long, Document> documents = new HashMap<>();
+        private final Map<String, Set<Long>> postings = new HashMap<>();
+
+        void put(UserResponse user) {
+            Document document = Document.of(user);
+            lock.writeLock().lock();
+            try {
+                Document previous = documents.put(user.getId(), document);
+                if (previous != null) {
+                    unlink(previous);
+                }
+                for (String gram : document.grams()) {
+                    postings.computeIfAbsent(gram, key -> new HashSet<>()).add(user.getId());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(Long userId) {
+            lock.writeLock().lock();
+            try {
+                Document previous = documents.remove(userId);
+                if (previous != null) {
+                    unlink(previous);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return documents.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Best Hits, Best First
+         *
+         * Keeps only the best "limit" hits in a heap whose head is the worst of
+         * them, so ranking costs O(matches * log limit) instead of sorting all matches.
+         */
+        List<UserResponse> top(String query, int limit) {
+            PriorityQueue<Hit> heap = new PriorityQueue<>(limit + 1, BEST_FIRST.reversed());
+            lock.readLock().lock();
+            try {
+                for (Long id : candidates(query)) {
+                    Document document = documents.get(id);
+                    int score = document.score(query);
+                    if (score > 0) {
+                        heap.offer(new Hit(document.user(), score));
+                        if (heap.size() > limit) {
+                            heap.poll();
+                        }
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            List<Hit> hits = new ArrayList<>(heap);
+            hits.sort(BEST_FIRST);
+            List<UserResponse> users = new ArrayList<>(hits.size());
+            for (Hit hit : hits) {
+                users.add(hit.user());
+            }
+            return users;
+        }
+
+        /**
+         * IDs That May Match (caller holds the read lock)
+         */
+        private Collection<Long> candidates(String query) {
+            if (query.length() < GRAM_LENGTH) {
+                // Too short for a trigram: check every user (in memory, no query)
+                return documents.keySet();
+            }
+
+            List<Set<Long>> lists = new ArrayList<>();
+            for (String gram : grams(query)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids == null) {
+                    // Nobody contains this piece, so nobody contains the term
+                    return List.of();
+                }
+                lists.add(ids);
+            }
+            lists.sort(Comparator.comparingInt(Set::size));
+
+            List<Long> result = new ArrayList<>();
+            for (Long id : lists.get(0)) {
+                boolean inAll = true;
+                for (int i = 1; i < lists.size() && inAll; i++) {
+                    inAll = lists.get(i).contains(id);
+                }
+                if (inAll) {
+                    result.add(id);
+                }
+            }
+            return result;
+        }
+
+        private void unlink(Document document) {
+            for (String gram : document.grams()) {
+                Set<Long> ids = postings.get(gram);
+                if (ids != null) {
+                    ids.remove(document.user().getId());
+                    if (ids.isEmpty()) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * One Indexed User: the response plus its normalized fields
+     */
+    private record Document(UserResponse user, String username, String email, String firstName, String lastName) {
+
+        static Document of(UserResponse user) {
+            return new Document(user, normalize(user.getUsername()), normalize(user.getEmail()),
+                    normalize(user.getFirstName()), normalize(user.getLastName()));
+        }
+
+        Set<String> grams() {
+            Set<String> grams = new HashSet<>();
+            // Per field: a trigram must not span two fields
+            grams.addAll(UserSearchIndex.grams(username));
+            grams.addAll(UserSearchIndex.grams(email));
+            grams.addAll(UserSearchIndex.grams(firstName));
+            grams.addAll(UserSearchIndex.grams(lastName));
+            return grams;
+        }
+
+        int score(String query) {
+            return 4 * match(username, query)
+                    + 3 * match(email, query)
+                    + 2 * match(firstName, query)
+                    + 2 * match(lastName, query);
+        }
+
+        private static int match(String field, String query) {
+            if (field.equals(query)) {
+                return 3;
+            }
+            if (field.startsWith(query)) {
+                return 2;
+            }
+            return field.contains(query) ? 1 : 0;
+        }
+    }
+
+    private record Hit(UserResponse user, int score) {
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+}
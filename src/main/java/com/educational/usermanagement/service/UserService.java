@@ -1,5 +1,6 @@
 package com.educational.usermanagement.service;
 
+import com.educational.usermanagement.dto.CursorPage;
 import com.educational.usermanagement.dto.UserRequest;
 import com.educational.usermanagement.dto.UserResponse;
 import com.educational.usermanagement.entity.Role;
@@ -8,16 +9,21 @@ import com.educational.usermanagement.exception.DuplicateResourceException;
 import com.educational.usermanagement.exception.ResourceNotFoundException;
 import com.educational.usermanagement.exception.UnauthorizedException;
 import com.educational.usermanagement.repository.UserRepository;
+import com.educational.usermanagement.security.TokenVersionStore;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * User Service
@@ -64,25 +70,64 @@ public class UserService {
     private PasswordEncoder passwordEncoder;
 
     /**
-     * Get All Users
+     * Runs the database part of create/update after the password is hashed:
+     * BCrypt (queue + 50-100 ms) must not hold a pooled connection
+     */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Token version store for revoking JWT tokens
+     *
+     * Tokens carry the user's role and status, so they must be revoked
+     * when those change (see TokenVersionStore)
+     */
+    @Autowired
+    private TokenVersionStore tokenVersionStore;
+
+    /**
+     * In-memory search index, updated on every create/update/delete
+     */
+    @Autowired
+    private UserSearchIndex searchIndex;
+
+    /**
+     * In-memory user counts, updated on every create/update/delete
+     */
+    @Autowired
+    private UserStatistics userStatistics;
+
+    /**
+     * Page size for list endpoints when the client does not send one
+     */
+    @Value("${app.users.page.default-size:20}")
+    private int defaultPageSize;
+
+    /**
+     * Largest page size a client may request
+     */
+    @Value("${app.users.page.max-size:100}")
+    private int maxPageSize;
+
+    /**
+     * Get All Users (one page)
      *
-     * Retrieves all users from database and converts them to DTOs.
+     * Retrieves one page of users, ordered by ID (keyset pagination).
      * Accessible by ADMIN only (enforced in controller).
      *
-     * @return List of UserResponse DTOs
+     * Rows are selected straight into UserResponse DTOs (see UserRepository.USER_RESPONSE):
+     * no entities are created, so there is nothing to map or dirty-check.
+     *
+     * @param after cursor from the previous page (null for the first page)
+     * @param size requested page size (null for the default)
+     * @return page of UserResponse DTOs
      */
     @Transactional(readOnly = true) // Optimization for read-only operations
-    public List<UserResponse> getAllUsers() {
-        // Fetch all users from database
-        List<User> users = userRepository.findAll();
-
-        // Convert User entities to UserResponse DTOs
-        // stream() - Converts list to stream for functional operations
-        // map() - Transforms each User to UserResponse
-        // collect() - Collects results back to list
-        return users.stream()
-                .map(UserResponse::fromEntity)
-                .collect(Collectors.toList());
+    public CursorPage<UserResponse> getAllUsers(Long after, Integer size) {
+        int pageSize = pageSize(size);
+        // Ask for one extra row to find out whether a next page exists
+        List<UserResponse> rows = userRepository.findPageAfter(cursor(after), Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, UserResponse::getId);
     }
 
     /**
@@ -110,41 +155,60 @@ public class UserService {
     }
 
     /**
-     * Search Users
+     * Search Users (one page)
      *
      * Searches users by username, email, first name, or last name.
      * Search is case-insensitive and partial match.
+     * Served from the in-memory UserSearchIndex (no database query), best matches first.
      *
      * @param searchTerm the search term
-     * @return List of matching users
+     * @param after cursor from the previous page (null for the first page)
+     * @param size requested page size (null for the default)
+     * @return page of matching users, ranked by relevance
      */
-    @Transactional(readOnly = true)
-    public List<UserResponse> searchUsers(String searchTerm) {
-        // Call repository search method
-        List<User> users = userRepository.searchUsers(searchTerm);
-
-        // Convert to DTOs
-        return users.stream()
-                .map(UserResponse::fromEntity)
-                .collect(Collectors.toList());
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // No database access: do not borrow a connection
+    public CursorPage<UserResponse> searchUsers(String searchTerm, Long after, Integer size) {
+        // Ranked results have no ID order: the cursor is the number of hits already returned
+        int offset = after != null ? (int) Math.max(0, Math.min(after, Integer.MAX_VALUE)) : 0;
+        return searchIndex.search(searchTerm, offset, pageSize(size));
     }
 
     /**
-     * Get Users by Role
+     * Get Users by Role (one page)
      *
-     * Retrieves all users with a specific role.
+     * Retrieves one page of users with a specific role.
      * Admin-only operation.
      *
      * @param role the role to filter by
-     * @return List of users with specified role
+     * @param after cursor from the previous page (null for the first page)
+     * @param size requested page size (null for the default)
+     * @return page of users with specified role, ordered by ID
      */
     @Transactional(readOnly = true)
-    public List<UserResponse> getUsersByRole(Role role) {
-        List<User> users = userRepository.findByRole(role);
+    public CursorPage<UserResponse> getUsersByRole(Role role, Long after, Integer size) {
+        int pageSize = pageSize(size);
+        List<UserResponse> rows = userRepository.findPageByRoleAfter(role, cursor(after), Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, UserResponse::getId);
+    }
+
+    /**
+     * Apply Page Size Limits
+     *
+     * Missing size: default page size. Too small: 1. Too large: maximum page size,
+     * so a client cannot load the whole table with ?size=1000000.
+     */
+    private int pageSize(Integer size) {
+        if (size == null) {
+            return defaultPageSize;
+        }
+        return Math.max(1, Math.min(size, maxPageSize));
+    }
 
-        return users.stream()
-                .map(UserResponse::fromEntity)
-                .collect(Collectors.toList());
+    /**
+     * First page: no cursor, start before the smallest ID (IDs start at 1)
+     */
+    private static long cursor(Long after) {
+        return after != null ? after : 0L;
     }
 
     /**
@@ -154,32 +218,29 @@ public class UserService {
      * Admin-only operation - allows setting role and active status.
      *
      * Validations:
-     * - Username must be unique
-     * - Email must be unique
+     * - Username must be unique (unique constraint UK_USERS_USERNAME)
+     * - Email must be unique (unique constraint UK_USERS_EMAIL)
      * - Password must meet minimum requirements
      *
+     * The password is hashed before the transaction starts (no connection held meanwhile).
+     *
      * @param request UserRequest DTO with user data
      * @return UserResponse DTO of created user
      * @throws DuplicateResourceException if username or email already exists
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public UserResponse createUser(UserRequest request) {
-        // Validate username is unique
-        if (userRepository.existsByUsername(request.getUsername())) {
-            throw new DuplicateResourceException("Username", request.getUsername());
-        }
-
-        // Validate email is unique
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new DuplicateResourceException("Email", request.getEmail());
-        }
+        // Hash password before saving (NEVER store plain text passwords!)
+        String passwordHash = passwordEncoder.encode(request.getPassword());
+        return transactionTemplate.execute(status -> insertUser(request, passwordHash));
+    }
 
+    private UserResponse insertUser(UserRequest request, String passwordHash) {
         // Create new User entity
         User user = new User();
         user.setUsername(request.getUsername());
         user.setEmail(request.getEmail());
-
-        // Hash password before saving (NEVER store plain text passwords!)
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHash);
 
         user.setFirstName(request.getFirstName());
         user.setLastName(request.getLastName());
@@ -192,10 +253,16 @@ public class UserService {
         user.setIsActive(request.getIsActive() != null ? request.getIsActive() : true);
 
         // Save to database
-        User savedUser = userRepository.save(user);
+        // Uniqueness is checked by the database in the same INSERT (see saveAndFlush)
+        User savedUser = saveAndFlush(user);
+        UserResponse response = UserResponse.fromEntity(savedUser);
 
-        // Convert to DTO and return
-        return UserResponse.fromEntity(savedUser);
+        // Make the new user searchable and count it (after commit)
+        searchIndex.indexAfterCommit(response);
+        userStatistics.userCreated(savedUser.getRole(), savedUser.getIsActive());
+
+        // Return DTO
+        return response;
     }
 
     /**
@@ -217,7 +284,16 @@ public class UserService {
      * @throws DuplicateResourceException if new username/email already exists
      * @throws UnauthorizedException if user tries to update another user
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public UserResponse updateUser(Long id, UserRequest request) {
+        // A new password is hashed before the transaction starts (no connection held meanwhile)
+        String passwordHash = request.getPassword() != null && !request.getPassword().isEmpty()
+                ? passwordEncoder.encode(request.getPassword())
+                : null;
+        return transactionTemplate.execute(status -> applyUpdate(id, request, passwordHash));
+    }
+
+    private UserResponse applyUpdate(Long id, UserRequest request, String passwordHash) {
         // Find existing user
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
@@ -228,27 +304,29 @@ public class UserService {
             checkUserAccess(user);
         }
 
+        // Remember whether anything stored in the user's JWT tokens changes
+        boolean revokeTokens = false;
+
+        // Role and status before the update (statistics move the user between counts)
+        Role oldRole = user.getRole();
+        Boolean oldActive = user.getIsActive();
+
         // Update username if provided and different
         if (request.getUsername() != null && !request.getUsername().equals(user.getUsername())) {
-            // Check if new username is unique
-            if (userRepository.existsByUsername(request.getUsername())) {
-                throw new DuplicateResourceException("Username", request.getUsername());
-            }
             user.setUsername(request.getUsername());
+            revokeTokens = true;
         }
 
         // Update email if provided and different
         if (request.getEmail() != null && !request.getEmail().equals(user.getEmail())) {
-            // Check if new email is unique
-            if (userRepository.existsByEmail(request.getEmail())) {
-                throw new DuplicateResourceException("Email", request.getEmail());
-            }
             user.setEmail(request.getEmail());
         }
 
-        // Update password if provided (hash it first!)
-        if (request.getPassword() != null && !request.getPassword().isEmpty()) {
-            user.setPassword(passwordEncoder.encode(request.getPassword()));
+        // Update password if provided (already hashed)
+        if (passwordHash != null) {
+            user.setPassword(passwordHash);
+            // Changing the password logs out all existing sessions
+            revokeTokens = true;
         }
 
         // Update other fields if provided
@@ -264,19 +342,55 @@ public class UserService {
 
         // Only admin can change role and active status
         if (isAdmin) {
-            if (request.getRole() != null) {
+            if (request.getRole() != null && request.getRole() != user.getRole()) {
                 user.setRole(request.getRole());
+                revokeTokens = true;
             }
-            if (request.getIsActive() != null) {
+            if (request.getIsActive() != null && !request.getIsActive().equals(user.getIsActive())) {
                 user.setIsActive(request.getIsActive());
+                revokeTokens = true;
             }
         }
 
         // Save updated user
-        User updatedUser = userRepository.save(user);
+        // A new username/email that is already taken fails here on the unique constraint
+        User updatedUser = saveAndFlush(user);
+
+        // Old tokens still contain the old username/role/status: a new token version
+        // is written in the same transaction (one atomic UPDATE, see
+        // UserRepository.incrementTokenVersion), the cached one is dropped after commit
+        if (revokeTokens) {
+            userRepository.incrementTokenVersion(updatedUser.getId());
+            tokenVersionStore.revoke(updatedUser.getId());
+        }
 
-        // Convert to DTO and return
-        return UserResponse.fromEntity(updatedUser);
+        UserResponse response = UserResponse.fromEntity(updatedUser);
+
+        // Search results show the new names/email, counts the new role/status (after commit)
+        searchIndex.indexAfterCommit(response);
+        userStatistics.userChanged(oldRole, oldActive, updatedUser.getRole(), updatedUser.getIsActive());
+
+        // Return DTO
+        return response;
+    }
+
+    /**
+     * Save and Flush, Translating Unique Constraint Violations
+     *
+     * save() alone would only write at commit time, after this method has
+     * returned, and the violation would surface as a 500 error. Flushing runs the
+     * INSERT/UPDATE now so the error can be turned into a 409 Conflict.
+     *
+     * @param user the user to save
+     * @return the saved user
+     * @throws DuplicateResourceException if the username or email is already taken
+     */
+    private User saveAndFlush(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException ex) {
+            throw DuplicateResourceException.fromConstraintViolation(ex, user);
+        }
     }
 
     /**
@@ -295,6 +409,14 @@ public class UserService {
 
         // Delete the user
         userRepository.delete(user);
+
+        // Existing tokens of the deleted user must stop working: without a row
+        // the user has no token version (cached one dropped after commit)
+        tokenVersionStore.revoke(user.getId());
+
+        // Deleted users disappear from search results and counts (after commit)
+        searchIndex.removeAfterCommit(user.getId());
+        userStatistics.userDeleted(user.getRole(), user.getIsActive());
     }
 
     /**
@@ -324,18 +446,14 @@ public class UserService {
      *
      * Returns count of users by role and active status.
      * Admin-only operation, useful for dashboard.
+     * Served from the in-memory UserStatistics snapshot (one GROUP BY query
+     * per reconcile interval instead of five COUNT queries per call).
      *
      * @return Map with statistics
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // Usually no database access
     public java.util.Map<String, Long> getUserStatistics() {
-        return java.util.Map.of(
-                "totalUsers", userRepository.count(),
-                "adminCount", userRepository.countByRole(Role.ADMIN),
-                "userCount", userRepository.countByRole(Role.USER),
-                "activeUsers", userRepository.countByIsActive(true),
-                "inactiveUsers", userRepository.countByIsActive(false)
-        );
+        return userStatistics.getStatistics();
     }
 
     // ========== HELPER METHODS ==========
@@ -0,0 +1,302 @@
+package com.educational.usermanagement.service;
+
+import com.educational.usermanagement.entity.Role;
+import com.educational.usermanagement.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+/**
+ * User Statistics
+ *
+ * Keeps the user counts of the admin dashboard in memory.
+ * GET /api/users/statistics reads them without any query.
+ *
+ * Educational Purpose:
+ * - Demonstrates one GROUP BY query instead of several COUNT queries
+ * - Shows incremental maintenance of an aggregate (deltas instead of recounting)
+ * - Shows lock-free reads of an immutable snapshot (volatile reference, replaced whole)
+ * - Shows reconciliation: trust, but verify against the database
+ *
+ * Why?
+ * The dashboard used to run five queries per call (count, 2x countByRole,
+ * 2x countByIsActive), each scanning USERS or one of its indexes.
+ *
+ * How it works:
+ * 1. One query counts users per (role, active) cell:
+ *    SELECT ROLE, IS_ACTIVE, COUNT(*) FROM USERS GROUP BY ROLE, IS_ACTIVE
+ *    Every statistic is a sum of cells (adminCount = ADMIN/active + ADMIN/inactive, ...)
+ * 2. UserService and AuthService report every change after its transaction commits:
+ *    created (+1 cell), changed (-1 old cell, +1 new cell), deleted (-1 cell)
+ * 3. Each change replaces the snapshot as a whole, so a reader never sees a user
+ *    removed from the old cell but not yet added to the new one
+ * 4. When the snapshot is older than app.users.statistics.reconcile-interval, the
+ *    next read runs the GROUP BY query again (changes made outside this instance,
+ *    e.g. other instances or SQL scripts, are picked up there)
+ * 5. Deltas are not idempotent: a change may or may not be in the query result,
+ *    depending on when its transaction committed. So the result is used only if
+ *    no change of this instance was in progress or applied while the query ran;
+ *    otherwise the query is run again (at most RECONCILE_ATTEMPTS times, then the
+ *    delta-maintained snapshot is kept and the next read tries again)
+ *
+ * @author Educational Project
+ * @version 1.0.0
+ */
+@Component
+public class UserStatistics {
+
+    private static final Logger log = LoggerFactory.getLogger(UserStatistics.class);
+
+    private static final int RECONCILE_ATTEMPTS = 3;
+
+    private final UserRepository userRepository;
+    private final long reconcileIntervalMillis;
+    private final AtomicBoolean reconciling = new AtomicBoolean();
+
+    /**
+     * Current counts; never modified, only replaced
+     */
+    private volatile Counts counts;
+    private volatile long reconciledAt;
+
+    /**
+     * Changes reported in a transaction that has not completed yet
+     */
+    private final AtomicInteger pendingChanges = new AtomicInteger();
+
+    /**
+     * Number of changes applied so far. Guarded by "this".
+     */
+    private long appliedChanges;
+
+    public UserStatistics(UserRepository userRepository,
+                          @Value("${app.users.statistics.reconcile-interval:60000}") long reconcileIntervalMillis) {
+        this.userRepository = userRepository;
+        this.reconcileIntervalMillis = reconcileIntervalMillis;
+    }
+
+    /**
+     * Count Users at Startup
+     *
+     * If the database is not reachable, the first read tries again.
+     */
+    @PostConstruct
+    void init() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.warn("Could not count users at startup, counting on first request: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Get Statistics
+     *
+     * Keys: totalUsers, adminCount, userCount, activeUsers, inactiveUsers
+     *
+     * @return statistics from the current snapshot
+     */
+    public Map<String, Long> getStatistics() {
+        Counts current = counts;
+        if (current == null || System.currentTimeMillis() - reconciledAt > reconcileIntervalMillis) {
+            current = reconcileIfNoneRunning(current);
+        }
+        return current.toMap();
+    }
+
+    /**
+     * A User Was Created (applied after the current transaction commits)
+     */
+    public void userCreated(Role role, Boolean active) {
+        afterCommit(counts -> counts.plus(role, active, 1));
+    }
+
+    /**
+     * A User's Role or Active Status Changed (applied after commit)
+     */
+    public void userChanged(Role oldRole, Boolean oldActive, Role newRole, Boolean newActive) {
+        if (oldRole == newRole && isActive(oldActive) == isActive(newActive)) {
+            return;
+        }
+        afterCommit(counts -> counts.plus(oldRole, oldActive, -1).plus(newRole, newActive, 1));
+    }
+
+    /**
+     * A User Was Deleted (applied after commit)
+     */
+    public void userDeleted(Role role, Boolean active) {
+        afterCommit(counts -> counts.plus(role, active, -1));
+    }
+
+    private void afterCommit(UnaryOperator<Counts> change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Counted from now on: the commit may or may not be seen by a running count
+            pendingChanges.incrementAndGet();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    try {
+                        if (status == STATUS_COMMITTED) {
+                            apply(change);
+                        }
+                    } finally {
+                        pendingChanges.decrementAndGet();
+                    }
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private synchronized void apply(UnaryOperator<Counts> change) {
+        if (counts != null) {
+            counts = change.apply(counts);
+        }
+        appliedChanges++;
+    }
+
+    private Counts reconcileIfNoneRunning(Counts current) {
+        if (reconciling.compareAndSet(false, true)) {
+            try {
+                return reconcile();
+            } catch (RuntimeException e) {
+                if (current == null) {
+                    throw e;
+                }
+                // Old numbers are better than an error page; try again after the interval
+                log.warn("Could not reconcile user statistics, serving the previous snapshot: {}", e.getMessage());
+                reconciledAt = System.currentTimeMillis();
+                return current;
+            } finally {
+                reconciling.set(false);
+            }
+        }
+        // Another request is reconciling: serve the current snapshot meanwhile
+        if (current != null) {
+            return current;
+        }
+        // Very first request while the first count runs: count ourselves
+        return Counts.of(userRepository.countByRoleAndStatus());
+    }
+
+    /**
+     * Replace the Snapshot with Fresh Counts from the Database
+     *
+     * A change whose transaction committed before the query started is already
+     * in the result, one that committed later is not; which one it was cannot be
+     * told afterwards. The result is therefore used only if no change was pending
+     * or applied while the query ran, so no delta is applied to it twice or lost.
+     */
+    private Counts reconcile() {
+        for (int attempt = 1; ; attempt++) {
+            long appliedBefore;
+            synchronized (this) {
+                appliedBefore = appliedChanges;
+            }
+            boolean quietBefore = pendingChanges.get() == 0;
+
+            Counts fresh = Counts.of(userRepository.countByRoleAndStatus());
+
+            synchronized (this) {
+                boolean quiet = quietBefore && pendingChanges.get() == 0 && appliedChanges == appliedBefore;
+                if (quiet || (counts == null && attempt >= RECONCILE_ATTEMPTS)) {
+                    // Without any snapshot an approximate count is better than none;
+                    // the next reconciliation corrects it
+                    if (counts != null && !counts.equals(fresh)) {
+                        log.info("User statistics corrected from {} to {}", counts.toMap(), fresh.toMap());
+                    }
+                    counts = fresh;
+                    reconciledAt = System.currentTimeMillis();
+                    return fresh;
+                }
+                if (attempt >= RECONCILE_ATTEMPTS) {
+                    // Busy: keep the delta-maintained snapshot, the next read tries again
+                    log.debug("Users changed during every count, keeping the current statistics");
+                    return counts;
+                }
+            }
+        }
+    }
+
+    private static boolean isActive(Boolean active) {
+        return Boolean.TRUE.equals(active);
+    }
+
+    /**
+     * Users per (role, active) cell
+     *
+     * Cell index: role.ordinal() * 2 + (active ? 1 : 0)
+     */
+    private record Counts(long[] cells) {
+
+        static Counts of(List<UserRepository.RoleStatusCount> rows) {
+            long[] cells = new long[Role.values().length * 2];
+            for (UserRepository.RoleStatusCount row : rows) {
+                cells[cell(row.getRole(), row.getActive())] += row.getTotal();
+            }
+            return new Counts(cells);
+        }
+
+        Counts plus(Role role, Boolean active, long delta) {
+            long[] copy = cells.clone();
+            copy[cell(role, active)] += delta;
+            return new Counts(copy);
+        }
+
+        Map<String, Long> toMap() {
+            long total = 0;
+            long active = 0;
+            for (int i = 0; i < cells.length; i++) {
+                total += cells[i];
+                if (i % 2 == 1) {
+                    active += cells[i];
+                }
+            }
+            Map<String, Long> statistics = new LinkedHashMap<>();
+            statistics.put("totalUsers", total);
+            statistics.put("adminCount", count(Role.ADMIN));
+            statistics.put("userCount", count(Role.USER));
+            statistics.put("activeUsers", active);
+            statistics.put("inactiveUsers", total - active);
+            return statistics;
+        }
+
+        private long count(Role role) {
+            return cells[cell(role, false)] + cells[cell(role, true)];
+        }
+
+        private static int cell(Role role, Boolean active) {
+            return role.ordinal() * 2 + (isActive(active) ? 1 : 0);
+        }
+
+        // Records compare arrays by reference: compare the contents instead
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Counts counts && Arrays.equals(cells, counts.cells);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(cells);
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(cells);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package uz.fido.pfexchange.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Chet eldagi pensiya oluvchilar integratsiyasi uchun thread pool'lar
+ * Thread pools for the person abroad integration
+ */
+@Configuration
+public class PersonAbroadExecutorConfig {
+
+    /**
+     * /restore-status/batch elementlari shu pool'da bajariladi; hajmi bir vaqtda
+     * band qilinadigan DB ulanishlari sonini cheklaydi (Hikari pool'dan kichik bo'lsin)
+     */
+    @Bean
+    public ThreadPoolTaskExecutor personAbroadRestoreExecutor(PersonAbroadProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getRestoreParallelism());
+        executor.setMaxPoolSize(properties.getRestoreParallelism());
+        executor.setThreadNamePrefix("person-abroad-restore-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        return executor;
+    }
+
+    /**
+     * /jobs fon vazifalari shu pool'da bajariladi, har bir vazifa bitta thread'da
+     * chunk-ma-chunk; to'xtashda joriy chunk tugashi kutiladi, qolgani keyingi
+     * ishga tushishda davom ettiriladi
+     */
+    @Bean
+    public ThreadPoolTaskExecutor personAbroadJobExecutor(PersonAbroadProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getJobParallelism());
+        executor.setMaxPoolSize(properties.getJobParallelism());
+        executor.setThreadNamePrefix("person-abroad-job-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(120);
+        return executor;
+    }
+}
@@ -0,0 +1,272 @@
+package uz.fido.pfexchange.config;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.util.StreamUtils;
+import uz.fido.pfexchange.dto.mip.PersonAbroadCheckStatusResponseDto;
+import uz.fido.pfexchange.dto.mip.PersonAbroadRestoreStatusResponseDto;
+import uz.fido.pfexchange.dto.mip.PersonAbroadStatusDataDto;
+import uz.fido.pfexchange.dto.mip.PersonAbroadStatusRequestDto;
+
+/**
+ * /check-status va /restore-status DTO'lari uchun streaming JSON konverter
+ * HttpMessageConverter for one fixed-shape person abroad DTO
+ *
+ * Reads and writes with JsonParser/JsonGenerator directly instead of the
+ * reflective bean (de)serializers, and always writes compact JSON
+ * (spring.jackson.serialization.indent_output stays for other endpoints).
+ *
+ * The wire format is the one ObjectMapper produces for these DTOs: fields in
+ * declaration order, nulls written, unknown fields skipped, ws_id also read
+ * from a string and pinfl from a number.
+ */
+public abstract class PersonAbroadJsonConverter<T> extends AbstractHttpMessageConverter<T> {
+
+    private final JsonFactory jsonFactory;
+    private final Class<T> type;
+
+    protected PersonAbroadJsonConverter(JsonFactory jsonFactory, Class<T> type) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.jsonFactory = jsonFactory;
+        this.type = type;
+    }
+
+    protected abstract T read(JsonParser parser) throws IOException;
+
+    protected abstract void write(T value, JsonGenerator generator) throws IOException;
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return type == clazz;
+    }
+
+    @Override
+    protected T readInternal(Class<? extends T> clazz, HttpInputMessage inputMessage) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(inputMessage.getBody())) {
+            parser.nextToken();
+            return read(parser);
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotReadableException("JSON parse error: " + e.getOriginalMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(T value, HttpOutputMessage outputMessage) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(
+                StreamUtils.nonClosing(outputMessage.getBody()), JsonEncoding.UTF8)) {
+            write(value, generator);
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotWritableException("Could not write JSON: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    /**
+     * {"Data": {"ws_id": 77, "pinfl": "41006673910061"}}
+     */
+    public static final class StatusRequest extends PersonAbroadJsonConverter<PersonAbroadStatusRequestDto> {
+
+        public StatusRequest(JsonFactory jsonFactory) {
+            super(jsonFactory, PersonAbroadStatusRequestDto.class);
+        }
+
+        @Override
+        protected PersonAbroadStatusRequestDto read(JsonParser parser) throws IOException {
+            PersonAbroadStatusRequestDto request = new PersonAbroadStatusRequestDto();
+            startObject(parser);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                if ("Data".equals(name)) {
+                    request.setData(readData(parser));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return request;
+        }
+
+        private static PersonAbroadStatusDataDto readData(JsonParser parser) throws IOException {
+            if (parser.currentToken() == JsonToken.VALUE_NULL) {
+                return null;
+            }
+            PersonAbroadStatusDataDto data = new PersonAbroadStatusDataDto();
+            startObject(parser);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                switch (name) {
+                    case "ws_id" -> data.setWsId(readLong(parser));
+                    case "pinfl" -> data.setPinfl(readString(parser));
+                    default -> parser.skipChildren();
+                }
+            }
+            return data;
+        }
+
+        @Override
+        protected void write(PersonAbroadStatusRequestDto request, JsonGenerator generator) throws IOException {
+            generator.writeStartObject();
+            generator.writeFieldName("Data");
+            PersonAbroadStatusDataDto data = request.getData();
+            if (data == null) {
+                generator.writeNull();
+            } else {
+                generator.writeStartObject();
+                writeNumber(generator, "ws_id", data.getWsId());
+                generator.writeStringField("pinfl", data.getPinfl());
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * {"result": 1, "msg": "", "ws_id": 77, "status": 1}
+     */
+    public static final class CheckStatusResponse extends PersonAbroadJsonConverter<PersonAbroadCheckStatusResponseDto> {
+
+        public CheckStatusResponse(JsonFactory jsonFactory) {
+            super(jsonFactory, PersonAbroadCheckStatusResponseDto.class);
+        }
+
+        @Override
+        protected PersonAbroadCheckStatusResponseDto read(JsonParser parser) throws IOException {
+            PersonAbroadCheckStatusResponseDto response = new PersonAbroadCheckStatusResponseDto();
+            startObject(parser);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                switch (name) {
+                    case "result" -> response.setResult(readInteger(parser));
+                    case "msg" -> response.setMsg(readString(parser));
+                    case "ws_id" -> response.setWsId(readLong(parser));
+                    case "status" -> response.setStatus(readInteger(parser));
+                    default -> parser.skipChildren();
+                }
+            }
+            return response;
+        }
+
+        @Override
+        protected void write(PersonAbroadCheckStatusResponseDto response, JsonGenerator generator) throws IOException {
+            generator.writeStartObject();
+            writeNumber(generator, "result", response.getResult());
+            generator.writeStringField("msg", response.getMsg());
+            writeNumber(generator, "ws_id", response.getWsId());
+            writeNumber(generator, "status", response.getStatus());
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * {"result": 2, "msg": "O'zgartirildi", "ws_id": 77}
+     */
+    public static final class RestoreStatusResponse extends PersonAbroadJsonConverter<PersonAbroadRestoreStatusResponseDto> {
+
+        public RestoreStatusResponse(JsonFactory jsonFactory) {
+            super(jsonFactory, PersonAbroadRestoreStatusResponseDto.class);
+        }
+
+        @Override
+        protected PersonAbroadRestoreStatusResponseDto read(JsonParser parser) throws IOException {
+            PersonAbroadRestoreStatusResponseDto response = new PersonAbroadRestoreStatusResponseDto();
+            startObject(parser);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                switch (name) {
+                    case "result" -> response.setResult(readInteger(parser));
+                    case "msg" -> response.setMsg(readString(parser));
+                    case "ws_id" -> response.setWsId(readLong(parser));
+                    default -> parser.skipChildren();
+                }
+            }
+            return response;
+        }
+
+        @Override
+        protected void write(PersonAbroadRestoreStatusResponseDto response, JsonGenerator generator) throws IOException {
+            generator.writeStartObject();
+            writeNumber(generator, "result", response.getResult());
+            generator.writeStringField("msg", response.getMsg());
+            writeNumber(generator, "ws_id", response.getWsId());
+            generator.writeEndObject();
+        }
+    }
+
+    private static void startObject(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected JSON object but found " + parser.currentToken());
+        }
+    }
+
+    /**
+     * Long kabi: son, kasr qismi tashlanadi, satr ("77"), bo'sh satr va null - null
+     */
+    private static Long readLong(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getValueAsLong();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            String text = parser.getText().trim();
+            if (text.isEmpty()) {
+                return null;
+            }
+            try {
+                return Long.valueOf(text);
+            } catch (NumberFormatException e) {
+                throw new JsonParseException(parser, "Cannot parse \"" + parser.currentName() + "\" as a number: " + text);
+            }
+        }
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        throw new JsonParseException(parser, "Expected a number for \"" + parser.currentName() + "\" but found " + token);
+    }
+
+    private static Integer readInteger(JsonParser parser) throws IOException {
+        Long value = readLong(parser);
+        if (value == null) {
+            return null;
+        }
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new JsonParseException(parser, "Value of \"" + parser.currentName() + "\" is out of int range: " + value);
+        }
+        return value.intValue();
+    }
+
+    /**
+     * String kabi: satr, son yoki boolean matni; null - null
+     */
+    private static String readString(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token.isScalarValue()) {
+            return parser.getText();
+        }
+        throw new JsonParseException(parser, "Expected a string for \"" + parser.currentName() + "\" but found " + token);
+    }
+
+    private static void writeNumber(JsonGenerator generator, String name, Number value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(name);
+        } else {
+            generator.writeNumberField(name, value.longValue());
+        }
+    }
+}
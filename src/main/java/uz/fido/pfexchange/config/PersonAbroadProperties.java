@@ -0,0 +1,172 @@
+package uz.fido.pfexchange.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Chet eldagi pensiya oluvchilar integratsiyasi sozlamalari
+ * Settings for the person abroad integration (pf-exchange.person-abroad.*)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "pf-exchange.person-abroad")
+public class PersonAbroadProperties {
+
+    /**
+     * PF_EXCHANGES_ABROAD javob shakli
+     */
+    private ResponseMode responseMode = ResponseMode.OUT_PARAMS;
+
+    /**
+     * /restore-status/batch: bir vaqtda bajariladigan Oracle chaqiruvlari soni
+     */
+    private int restoreParallelism = 8;
+
+    /**
+     * Java'dan yoziladigan log qatorlari uchun JDBC batch hajmi
+     */
+    private int auditBatchSize = 500;
+
+    /**
+     * Log qatorlarini kim yozadi: PL/SQL (har so'rovda INSERT+COMMIT) yoki Java (navbat + JDBC batch)
+     */
+    private AuditMode auditMode = AuditMode.PLSQL;
+
+    /**
+     * audit-mode=ASYNC: navbatdagi log qatorlarining eng ko'p soni
+     */
+    private int auditQueueCapacity = 10_000;
+
+    /**
+     * audit-mode=ASYNC: navbat to'la bo'lganda kutish vaqti; undan keyin qator
+     * so'rov thread'ida to'g'ridan-to'g'ri yoziladi
+     */
+    private Duration auditOfferTimeout = Duration.ofMillis(500);
+
+    /**
+     * audit-mode=ASYNC: yozilmagan batch necha marta urinib ko'riladi; oxirgisi ham
+     * muvaffaqiyatsiz bo'lsa qatorlar bittadan yoziladi
+     */
+    private int auditRetryAttempts = 3;
+
+    /**
+     * audit-mode=ASYNC: qayta urinishlar orasidagi kutish (har safar ikki baravar)
+     */
+    private Duration auditRetryBackoff = Duration.ofMillis(200);
+
+    /**
+     * /check-status keshi: javob qancha vaqt saqlanadi (0 - kesh o'chirilgan)
+     */
+    private Duration checkCacheTtl = Duration.ofMinutes(5);
+
+    /**
+     * /check-status keshi: eng ko'p PINFL soni
+     */
+    private long checkCacheMaxSize = 100_000;
+
+    /**
+     * Fon vazifalari fayllari (input.csv, results.ndjson) saqlanadigan katalog;
+     * qayta ishga tushishdan keyin ham saqlanib qolishi kerak
+     */
+    private String jobsDir = "./data/person-abroad-jobs";
+
+    /**
+     * Fon vazifasining bitta chunkidagi elementlar soni (batch endpoint chegarasidan oshmasin)
+     */
+    private int jobChunkSize = 1000;
+
+    /**
+     * Bir vaqtda bajariladigan fon vazifalari soni
+     */
+    private int jobParallelism = 2;
+
+    /**
+     * Fon vazifasi egasining lease muddati: Heartbeat har chunkda yangilanadi, shundan
+     * eski bo'lsa boshqa instance vazifani egallaydi. Bitta chunk vaqtidan ancha katta
+     * bo'lishi kerak; shu oraliqda egasiz vazifalar qidiriladi
+     */
+    private Duration jobLease = Duration.ofMinutes(10);
+
+    /**
+     * /check-status javobini Pf_Persons'ning xotiradagi nusxasidan berish (PersonAbroadStatusIndex)
+     */
+    private boolean statusIndexEnabled = false;
+
+    /**
+     * Xotiradagi indeks: o'zgargan qatorlarni (ORA_ROWSCN bo'yicha) o'qish oralig'i.
+     * Har safar Pf_Persons to'liq skanerlanadi, shuning uchun oraliq katta
+     */
+    private Duration statusIndexRefreshInterval = Duration.ofMinutes(15);
+
+    /**
+     * Xotiradagi indeks: Pf_Persons'ni to'liq qayta yuklash oralig'i (o'chirilgan qatorlar uchun)
+     */
+    private Duration statusIndexFullRefreshInterval = Duration.ofHours(24);
+
+    /**
+     * Xotiradagi indeks: oxirgi yangilanish bundan eski bo'lsa so'rovlar Oracle'ga boradi
+     * (statusIndexRefreshInterval dan katta bo'lishi kerak)
+     */
+    private Duration statusIndexMaxStaleness = Duration.ofMinutes(45);
+
+    /**
+     * Xotiradagi indeksning diskdagi nusxasi: qayta ishga tushganda Pf_Persons to'liq
+     * o'qilmaydi, faqat undan keyingi o'zgarishlar (bo'sh - o'chirilgan)
+     */
+    private String statusIndexSnapshotFile = "./data/person-status-index.bin";
+
+    /**
+     * Pensiya oluvchi bo'lmagan PINFL'larga Oracle'siz javob berish (Bloom filtr)
+     */
+    private boolean registryFilterEnabled = false;
+
+    /**
+     * Bloom filtr: kutilayotgan PINFL soni (oshib ketsa xato ehtimoli ortadi)
+     */
+    private long registryFilterExpectedSize = 5_000_000;
+
+    /**
+     * Bloom filtr: xato ijobiy javob ehtimoli
+     */
+    private double registryFilterFpp = 0.01;
+
+    /**
+     * Bloom filtr: oxirgi yangilanish bundan eski bo'lsa check so'rovlari Oracle'ga boradi
+     * (statusIndexRefreshInterval dan katta bo'lishi kerak). Filtr holat indeksining
+     * refresh'idan to'ldiriladi; restore faqat bitta statusIndexRefreshInterval ichida
+     */
+    private Duration registryFilterMaxStaleness = Duration.ofMinutes(45);
+
+    /**
+     * PINFL nazorat raqamini (14-raqam, 7-3-1 vaznlar) so'rovlarda tekshirish
+     */
+    private boolean pinflCheckDigitEnabled = false;
+
+    public enum AuditMode {
+        /**
+         * PF_EXCHANGES_ABROAD har bir so'rov uchun log qatorini o'zi yozadi va COMMIT qiladi
+         */
+        PLSQL,
+
+        /**
+         * *_Unlogged funksiyalar chaqiriladi; log qatorlari PersonAbroadAuditWriter orqali
+         * fon thread'ida JDBC batch bilan yoziladi
+         */
+        ASYNC
+    }
+
+    public enum ResponseMode {
+        /**
+         * v2 overload: P_Ws_Id/P_Pinfl to'g'ridan-to'g'ri, result/status/msg
+         * NUMBER/VARCHAR2 OUT parametrlarda
+         */
+        OUT_PARAMS,
+
+        /**
+         * Eski kontrakt: P_Data XML, O_Data OUT CLOB ichida JSON
+         */
+        JSON_CLOB
+    }
+}
@@ -0,0 +1,34 @@
+package uz.fido.pfexchange.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Chet eldagi pensiya oluvchilar endpoint'lari uchun HTTP sozlamalari
+ * MVC settings for the person abroad endpoints
+ */
+@Configuration
+public class PersonAbroadWebConfig implements WebMvcConfigurer {
+
+    private final JsonFactory jsonFactory;
+
+    public PersonAbroadWebConfig(ObjectMapper objectMapper) {
+        // Same stream read constraints and factory features as the shared ObjectMapper
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * /check-status va /restore-status so'rov/javoblari streaming konverterlar orqali,
+     * umumiy Jackson konverteridan oldin
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new PersonAbroadJsonConverter.StatusRequest(jsonFactory));
+        converters.add(1, new PersonAbroadJsonConverter.CheckStatusResponse(jsonFactory));
+        converters.add(2, new PersonAbroadJsonConverter.RestoreStatusResponse(jsonFactory));
+    }
+}
@@ -13,6 +13,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import uz.fido.pfexchange.dto.mip.PersonAbroadBatchCheckStatusResponseDto;
+import uz.fido.pfexchange.dto.mip.PersonAbroadBatchRestoreStatusResponseDto;
+import uz.fido.pfexchange.dto.mip.PersonAbroadBatchStatusRequestDto;
 import uz.fido.pfexchange.dto.mip.PersonAbroadCheckStatusResponseDto;
 import uz.fido.pfexchange.dto.mip.PersonAbroadRestoreStatusResponseDto;
 import uz.fido.pfexchange.dto.mip.PersonAbroadStatusRequestDto;
@@ -22,9 +25,11 @@ import uz.fido.pfexchange.service.PersonAbroadService;
  * REST Controller for person abroad status operations
  * Pensiya oluvchilar holatini tekshirish uchun REST kontroller
  *
- * TWO ENDPOINTS:
+ * ENDPOINTS:
  * 1. /check-status - Just check status (no restoration)
+ *    /check-status/batch - Same check for many persons in one Oracle call
  * 2. /restore-status - Check arrival and restore if needed
+ *    /restore-status/batch - Same restore for many persons, bounded parallelism
  */
 @Slf4j
 @RestController
@@ -84,6 +89,48 @@ public class PersonAbroadController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * ENDPOINT 1b: Check status of many persons (no restoration)
+     *
+     * Har bir element uchun /check-status bilan bir xil javob, so'rov tartibida.
+     * Noto'g'ri element paketni to'xtatmaydi - uning javobida result=0 va xato matni.
+     *
+     * @param request ws_id va pinfl juftliklari ro'yxati
+     * @return Har bir element uchun holat kodi
+     */
+    @PostMapping("/check-status/batch")
+    @PreAuthorize(value = "hasAnyAuthority('GET_PERSON_ABROAD_STATUS')")
+    @Operation(
+            summary = "Bir nechta pensiya oluvchi holatini tekshirish (faollashtirishsiz)",
+            description = "Har bir element uchun /check-status bilan bir xil javob qaytaradi, so'rov tartibida. " +
+                    "Noto'g'ri element butun so'rovni rad etmaydi: uning javobida result=0 va xato matni bo'ladi. " +
+                    "Bitta so'rovda " + PersonAbroadBatchStatusRequestDto.MAX_ITEMS + " tagacha element."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Holat ma'lumotlari olindi (elementlar bo'yicha natija)",
+                    content = @Content(schema = @Schema(implementation = PersonAbroadBatchCheckStatusResponseDto.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Data bo'sh yoki elementlar soni chegaradan oshgan"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Ichki server xatosi"
+            )
+    })
+    public ResponseEntity<PersonAbroadBatchCheckStatusResponseDto> checkStatusBatch(@Valid @RequestBody PersonAbroadBatchStatusRequestDto request) {
+        log.info("Check status batch request received - items: {}", request.getData().size());
+
+        PersonAbroadBatchCheckStatusResponseDto response = personAbroadService.checkStatusBatch(request);
+
+        log.info("Check status batch completed - items: {}", response.getData().size());
+
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * ENDPOINT 2: Check arrival and restore person if needed
      *
@@ -135,6 +182,48 @@ public class PersonAbroadController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * ENDPOINT 2b: Restore many persons
+     *
+     * Har bir element uchun /restore-status bilan bir xil 0/1/2/3 natija kodi, so'rov tartibida.
+     * Noto'g'ri element paketni to'xtatmaydi - uning javobida result=0 va xato matni.
+     *
+     * @param request ws_id va pinfl juftliklari ro'yxati
+     * @return Har bir element uchun natija kodi
+     */
+    @PostMapping("/restore-status/batch")
+    @PreAuthorize(value = "hasAnyAuthority('RESTORE_PERSON_ABROAD_STATUS')")
+    @Operation(
+            summary = "Bir nechta pensiya oluvchi holatini tiklash",
+            description = "Har bir element uchun /restore-status bilan bir xil javob qaytaradi, so'rov tartibida: " +
+                    "0=Ro'yhatda yo'q, 1=Faol, 2=Faol xolatga keltirildi, 3=Kirganlik aniqlanmadi. " +
+                    "Bitta so'rovda " + PersonAbroadBatchStatusRequestDto.MAX_ITEMS + " tagacha element."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Tiklash ma'lumotlari olindi (elementlar bo'yicha natija)",
+                    content = @Content(schema = @Schema(implementation = PersonAbroadBatchRestoreStatusResponseDto.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Data bo'sh yoki elementlar soni chegaradan oshgan"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Ichki server xatosi"
+            )
+    })
+    public ResponseEntity<PersonAbroadBatchRestoreStatusResponseDto> restoreStatusBatch(@Valid @RequestBody PersonAbroadBatchStatusRequestDto request) {
+        log.info("Restore status batch request received - items: {}", request.getData().size());
+
+        PersonAbroadBatchRestoreStatusResponseDto response = personAbroadService.restoreStatusBatch(request);
+
+        log.info("Restore status batch completed - items: {}", response.getData().size());
+
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Health check endpoint - Servis holatini tekshirish
      */
@@ -0,0 +1,147 @@
+package uz.fido.pfexchange.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import uz.fido.pfexchange.dto.mip.PersonAbroadJobDto;
+import uz.fido.pfexchange.dto.mip.PersonAbroadJobFormat;
+import uz.fido.pfexchange.dto.mip.PersonAbroadJobOperation;
+import uz.fido.pfexchange.service.PersonAbroadJobService;
+
+/**
+ * REST Controller for person abroad bulk jobs
+ * Katta PINFL fayllari uchun fon vazifalari
+ *
+ * ENDPOINTS:
+ * 1. POST /jobs              - Upload CSV/NDJSON, job is queued (202)
+ * 2. GET  /jobs/{id}         - Poll progress
+ * 3. GET  /jobs/{id}/results - Download committed results as NDJSON stream
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/person-abroad/jobs")
+@RequiredArgsConstructor
+@Tag(name = "Pensiya Oluvchi Fon Vazifalari", description = "Katta PINFL fayllarini fon rejimida tekshirish va tiklash")
+public class PersonAbroadJobController {
+
+    private static final String SUBMIT_AUTHORITY =
+            "(#operation.name() == 'CHECK' and hasAuthority('GET_PERSON_ABROAD_STATUS'))" +
+            " or (#operation.name() == 'RESTORE' and hasAuthority('RESTORE_PERSON_ABROAD_STATUS'))";
+
+    private final PersonAbroadJobService personAbroadJobService;
+
+    /**
+     * ENDPOINT 1: Upload file as raw request body (text/csv yoki application/x-ndjson)
+     *
+     * Tana oqim sifatida o'qiladi - fayl hajmi xotiraga bog'liq emas.
+     */
+    @PostMapping(consumes = {PersonAbroadJobFormat.CSV_VALUE, PersonAbroadJobFormat.NDJSON_VALUE, MediaType.TEXT_PLAIN_VALUE})
+    @PreAuthorize(SUBMIT_AUTHORITY)
+    @Operation(
+            summary = "PINFL faylidan fon vazifasi yaratish",
+            description = "CSV (ws_id,pinfl yoki faqat pinfl) yoki NDJSON ({\"ws_id\":77,\"pinfl\":\"...\"}) fayli " +
+                    "so'rov tanasida yuboriladi. Vazifa chunklarga bo'lib bajariladi; holati /jobs/{id} orqali kuzatiladi."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Vazifa navbatga qo'yildi",
+                    content = @Content(schema = @Schema(implementation = PersonAbroadJobDto.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Faylda PINFL topilmadi"
+            )
+    })
+    public ResponseEntity<PersonAbroadJobDto> submit(
+            @RequestParam PersonAbroadJobOperation operation,
+            @Parameter(description = "Faqat pinfl ustunli CSV uchun ws_id")
+            @RequestParam(name = "ws_id", required = false) Long wsId,
+            HttpServletRequest request) throws IOException {
+        PersonAbroadJobFormat format = PersonAbroadJobFormat.fromContentType(request.getContentType());
+        try (InputStream body = request.getInputStream()) {
+            return accepted(personAbroadJobService.submit(operation, format, wsId, body));
+        }
+    }
+
+    /**
+     * ENDPOINT 1b: Upload file as multipart "file" part
+     *
+     * Qism konteyner tomonidan vaqtinchalik faylga yoziladi va undan oqim sifatida o'qiladi.
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize(SUBMIT_AUTHORITY)
+    @Operation(summary = "PINFL faylidan fon vazifasi yaratish (multipart)")
+    public ResponseEntity<PersonAbroadJobDto> submitMultipart(
+            @RequestParam PersonAbroadJobOperation operation,
+            @RequestParam(name = "ws_id", required = false) Long wsId,
+            @RequestPart("file") MultipartFile file) throws IOException {
+        PersonAbroadJobFormat format = PersonAbroadJobFormat.fromContentType(file.getContentType());
+        try (InputStream body = file.getInputStream()) {
+            return accepted(personAbroadJobService.submit(operation, format, wsId, body));
+        }
+    }
+
+    /**
+     * ENDPOINT 2: Poll job progress
+     */
+    @GetMapping("/{id}")
+    @PreAuthorize(value = "hasAnyAuthority('GET_PERSON_ABROAD_STATUS', 'RESTORE_PERSON_ABROAD_STATUS')")
+    @Operation(summary = "Fon vazifasi holati")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Vazifa holati",
+                    content = @Content(schema = @Schema(implementation = PersonAbroadJobDto.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Vazifa topilmadi"
+            )
+    })
+    public ResponseEntity<PersonAbroadJobDto> getJob(@PathVariable String id) {
+        return ResponseEntity.ok(personAbroadJobService.getJob(id));
+    }
+
+    /**
+     * ENDPOINT 3: Download results
+     *
+     * Vazifa tugamagan bo'lsa ham oxirgi tasdiqlangan chunkgacha bo'lgan natijalar qaytadi.
+     */
+    @GetMapping(value = "/{id}/results", produces = PersonAbroadJobFormat.NDJSON_VALUE)
+    @PreAuthorize(value = "hasAnyAuthority('GET_PERSON_ABROAD_STATUS', 'RESTORE_PERSON_ABROAD_STATUS')")
+    @Operation(
+            summary = "Fon vazifasi natijalari (NDJSON)",
+            description = "Har bir qator: {\"ws_id\":77,\"pinfl\":\"...\",\"result\":1,\"msg\":\"\",\"status\":1}, fayl tartibida"
+    )
+    public ResponseEntity<StreamingResponseBody> getResults(@PathVariable String id) {
+        // 404 oqim boshlanishidan oldin
+        personAbroadJobService.getJob(id);
+
+        StreamingResponseBody body = out -> personAbroadJobService.writeResults(id, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(PersonAbroadJobFormat.NDJSON_VALUE))
+                .body(body);
+    }
+
+    private static ResponseEntity<PersonAbroadJobDto> accepted(PersonAbroadJobDto job) {
+        log.info("Job submitted - id: {}, operation: {}, items: {}", job.getJobId(), job.getOperation(), job.getTotalItems());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+}
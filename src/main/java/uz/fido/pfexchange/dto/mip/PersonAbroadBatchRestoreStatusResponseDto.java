@@ -0,0 +1,31 @@
+package uz.fido.pfexchange.dto.mip;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Restore status paket javobi
+ * Response for /restore-status/batch endpoint
+ *
+ * Data elementlari so'rovdagi tartibda qaytariladi
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Restore status paket javobi")
+public class PersonAbroadBatchRestoreStatusResponseDto {
+
+    @ArraySchema(
+            arraySchema = @Schema(description = "Har bir element uchun javob (so'rov tartibida)"),
+            schema = @Schema(implementation = PersonAbroadRestoreStatusResponseDto.class)
+    )
+    @JsonProperty("Data")
+    private List<PersonAbroadRestoreStatusResponseDto> data;
+}
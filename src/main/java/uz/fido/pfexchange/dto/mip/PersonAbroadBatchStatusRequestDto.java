@@ -0,0 +1,39 @@
+package uz.fido.pfexchange.dto.mip;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Person abroad status paket so'rovi uchun DTO
+ * Batch request DTO for person abroad status query
+ *
+ * Elementlar alohida tekshiriladi (@Valid yo'q): xato element butun paketni
+ * to'xtatmaydi, uning javobida result=0 qaytariladi.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Bir nechta pensiya oluvchi holatini tekshirish uchun so'rov ob'ekti")
+public class PersonAbroadBatchStatusRequestDto {
+
+    public static final int MAX_ITEMS = 5000;
+
+    @ArraySchema(
+            arraySchema = @Schema(description = "So'rov ma'lumotlari ro'yxati", required = true),
+            schema = @Schema(implementation = PersonAbroadStatusDataDto.class),
+            maxItems = MAX_ITEMS
+    )
+    @NotEmpty(message = "Data - majburiy parametr (bo'sh bo'lmasligi kerak)")
+    @Size(max = MAX_ITEMS, message = "Data - " + MAX_ITEMS + " tadan ko'p bo'lmasligi kerak")
+    @JsonProperty("Data")
+    private List<PersonAbroadStatusDataDto> data;
+}
@@ -0,0 +1,57 @@
+package uz.fido.pfexchange.dto.mip;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Fon vazifasi holati javobi
+ * Response for /jobs and /jobs/{id}
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Fon vazifasi holati")
+public class PersonAbroadJobDto {
+
+    @Schema(description = "Vazifa identifikatori", example = "3f1c1c8e-5a4b-4b7e-9d1a-0b6c2f0e9a11")
+    @JsonProperty("job_id")
+    private String jobId;
+
+    @Schema(description = "Vazifa turi: CHECK yoki RESTORE", example = "CHECK")
+    @JsonProperty("operation")
+    private PersonAbroadJobOperation operation;
+
+    @Schema(description = "Holat: QUEUED, RUNNING, COMPLETED, FAILED", example = "RUNNING")
+    @JsonProperty("status")
+    private PersonAbroadJobStatus status;
+
+    @Schema(description = "Fayldagi elementlar soni", example = "250000")
+    @JsonProperty("total_items")
+    private Long totalItems;
+
+    @Schema(description = "Qayta ishlangan elementlar soni", example = "120000")
+    @JsonProperty("processed_items")
+    private Long processedItems;
+
+    @Schema(description = "result=0 bo'lgan elementlar soni", example = "35")
+    @JsonProperty("failed_items")
+    private Long failedItems;
+
+    @Schema(description = "Vazifa xatosi (FAILED holatida)")
+    @JsonProperty("error_msg")
+    private String errorMsg;
+
+    @Schema(description = "Yaratilgan vaqt")
+    @JsonProperty("created_at")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "Oxirgi o'zgarish vaqti")
+    @JsonProperty("updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,25 @@
+package uz.fido.pfexchange.dto.mip;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Yuklanadigan fayl formati
+ * Upload format of a bulk job
+ *
+ * CSV:    "ws_id,pinfl" yoki faqat "pinfl" (ws_id so'rov parametridan), sarlavha ixtiyoriy
+ * NDJSON: har bir qatorda {"ws_id": 77, "pinfl": "41006673910061"}
+ */
+public enum PersonAbroadJobFormat {
+    CSV,
+    NDJSON;
+
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+    public static final String CSV_VALUE = "text/csv";
+
+    public static PersonAbroadJobFormat fromContentType(String contentType) {
+        if (contentType != null && MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(NDJSON_VALUE))) {
+            return NDJSON;
+        }
+        return CSV;
+    }
+}
@@ -0,0 +1,17 @@
+package uz.fido.pfexchange.dto.mip;
+
+/**
+ * Fon vazifasi turi
+ * Operation applied to every PINFL of a bulk job
+ */
+public enum PersonAbroadJobOperation {
+    /**
+     * /check-status/batch bilan bir xil tekshiruv
+     */
+    CHECK,
+
+    /**
+     * /restore-status/batch bilan bir xil tiklash
+     */
+    RESTORE
+}
@@ -0,0 +1,21 @@
+package uz.fido.pfexchange.dto.mip;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Fon vazifasi natijasi (results.ndjson qatori)
+ * One line of a bulk job result stream, in upload order
+ *
+ * status faqat CHECK vazifalarida bo'ladi
+ */
+@JsonPropertyOrder({"ws_id", "pinfl", "result", "msg", "status"})
+public record PersonAbroadJobResultDto(
+        @JsonProperty("ws_id") Long wsId,
+        @JsonProperty("pinfl") String pinfl,
+        @JsonProperty("result") Integer result,
+        @JsonProperty("msg") String msg,
+        @JsonProperty("status") @JsonInclude(JsonInclude.Include.NON_NULL) Integer status
+) {
+}
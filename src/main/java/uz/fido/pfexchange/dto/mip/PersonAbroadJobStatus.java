@@ -0,0 +1,16 @@
+package uz.fido.pfexchange.dto.mip;
+
+/**
+ * Fon vazifasi holati
+ * Bulk job state
+ */
+public enum PersonAbroadJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED;
+
+    public boolean isFinished() {
+        return this == COMPLETED || this == FAILED;
+    }
+}
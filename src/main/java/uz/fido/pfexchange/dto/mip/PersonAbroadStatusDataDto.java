@@ -3,10 +3,9 @@ package uz.fido.pfexchange.dto.mip;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
-import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Positive;
-import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -17,6 +16,7 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@Builder
 @Schema(description = "WS ID va PINFL ma'lumotlari")
 public class PersonAbroadStatusDataDto {
 
@@ -35,11 +35,10 @@ public class PersonAbroadStatusDataDto {
             example = "41006673910061",
             required = true,
             minLength = 14,
-            maxLength = 14
+            maxLength = 14,
+            pattern = "^\\d{14}$"
     )
-    @NotNull(message = "pinfl - majburiy parametr (bo'sh bo'lmasligi kerak)")
-    @Size(min = 14, max = 14, message = "pinfl - faqat 14 ta raqamdan iborat bo'lishi kerak")
-    @Pattern(regexp = "^\\d{14}$", message = "pinfl - faqat 14 ta raqamlardan iborat bo'lishi kerak harflar mumkin emas")
+    @ValidPinfl
     @JsonProperty("pinfl")
     private String pinfl;
 }
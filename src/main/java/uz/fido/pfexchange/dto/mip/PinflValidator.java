@@ -0,0 +1,120 @@
+package uz.fido.pfexchange.dto.mip;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import uz.fido.pfexchange.config.PersonAbroadProperties;
+
+/**
+ * PINFL (JShShIR) tekshiruvi va 14 xonali songa o'girish
+ * Hand-written PINFL validation and parsing
+ *
+ * One pass over the 14 characters checks the length, the digits and, when
+ * pinfl-check-digit-enabled=true, the check digit: the 14th digit equals the
+ * sum of the first 13 digits weighted 7, 3, 1, 7, 3, 1, ... modulo 10.
+ *
+ * The messages are those of the former @NotNull/@Size/@Pattern set, including
+ * the case where a PINFL of wrong length breaks both @Size and @Pattern.
+ */
+public class PinflValidator implements ConstraintValidator<ValidPinfl, String> {
+
+    public static final String REQUIRED_MSG = "pinfl - majburiy parametr (bo'sh bo'lmasligi kerak)";
+    public static final String LENGTH_MSG = "pinfl - faqat 14 ta raqamdan iborat bo'lishi kerak";
+    public static final String DIGITS_MSG = "pinfl - faqat 14 ta raqamlardan iborat bo'lishi kerak harflar mumkin emas";
+    public static final String CHECK_DIGIT_MSG = "pinfl - nazorat raqami noto'g'ri";
+
+    /**
+     * errors() natijasi: har bir bit bitta xato
+     */
+    public static final int VALID = 0;
+    public static final int MISSING = 1;
+    public static final int WRONG_LENGTH = 1 << 1;
+    public static final int NOT_DIGITS = 1 << 2;
+    public static final int WRONG_CHECK_DIGIT = 1 << 3;
+
+    public static final int LENGTH = 14;
+
+    private final boolean checkDigitEnabled;
+
+    /**
+     * Used outside Spring (Validation.buildDefaultValidatorFactory()): check digit off
+     */
+    public PinflValidator() {
+        this.checkDigitEnabled = false;
+    }
+
+    @Autowired
+    public PinflValidator(ObjectProvider<PersonAbroadProperties> properties) {
+        PersonAbroadProperties current = properties.getIfAvailable();
+        this.checkDigitEnabled = current != null && current.isPinflCheckDigitEnabled();
+    }
+
+    @Override
+    public boolean isValid(String pinfl, ConstraintValidatorContext context) {
+        int errors = errors(pinfl, checkDigitEnabled);
+        if (errors == VALID) {
+            return true;
+        }
+        context.disableDefaultConstraintViolation();
+        if ((errors & MISSING) != 0) {
+            context.buildConstraintViolationWithTemplate(REQUIRED_MSG).addConstraintViolation();
+        }
+        if ((errors & WRONG_LENGTH) != 0) {
+            context.buildConstraintViolationWithTemplate(LENGTH_MSG).addConstraintViolation();
+        }
+        if ((errors & NOT_DIGITS) != 0) {
+            context.buildConstraintViolationWithTemplate(DIGITS_MSG).addConstraintViolation();
+        }
+        if ((errors & WRONG_CHECK_DIGIT) != 0) {
+            context.buildConstraintViolationWithTemplate(CHECK_DIGIT_MSG).addConstraintViolation();
+        }
+        return false;
+    }
+
+    /**
+     * @return VALID yoki MISSING/WRONG_LENGTH/NOT_DIGITS/WRONG_CHECK_DIGIT bitlari
+     */
+    public static int errors(String pinfl, boolean checkDigitEnabled) {
+        if (pinfl == null) {
+            return MISSING;
+        }
+        if (pinfl.length() != LENGTH) {
+            // "^\d{14}$" cannot match either
+            return WRONG_LENGTH | NOT_DIGITS;
+        }
+        int sum = 0;
+        int weight = 7;
+        for (int i = 0; i < LENGTH - 1; i++) {
+            int digit = pinfl.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return NOT_DIGITS;
+            }
+            sum += digit * weight;
+            weight = weight == 7 ? 3 : weight == 3 ? 1 : 7;
+        }
+        int checkDigit = pinfl.charAt(LENGTH - 1) - '0';
+        if (checkDigit < 0 || checkDigit > 9) {
+            return NOT_DIGITS;
+        }
+        return checkDigitEnabled && sum % 10 != checkDigit ? WRONG_CHECK_DIGIT : VALID;
+    }
+
+    /**
+     * @return 14 xonali PINFL soni yoki -1 (uzunligi yoki belgilari noto'g'ri)
+     */
+    public static long parse(String pinfl) {
+        if (pinfl == null || pinfl.length() != LENGTH) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            int digit = pinfl.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,31 @@
+package uz.fido.pfexchange.dto.mip;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * PINFL tekshiruvi: majburiy, 14 ta raqam, nazorat raqami (pinfl-check-digit-enabled=true)
+ * Single-pass PINFL constraint
+ *
+ * Replaces @NotNull, @Size(min = 14, max = 14) and @Pattern("^\\d{14}$") with one
+ * loop over the characters and reports the same messages for the same input.
+ *
+ * @see PinflValidator
+ */
+@Documented
+@Constraint(validatedBy = PinflValidator.class)
+@Target({ElementType.FIELD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ValidPinfl {
+
+    String message() default PinflValidator.REQUIRED_MSG;
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
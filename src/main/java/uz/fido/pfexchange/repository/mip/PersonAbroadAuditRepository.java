@@ -0,0 +1,90 @@
+package uz.fido.pfexchange.repository.mip;
+
+import java.sql.Types;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import uz.fido.pfexchange.config.PersonAbroadProperties;
+
+/**
+ * Repository for person abroad log rows written from Java
+ * Used when PF_EXCHANGES_ABROAD is called in its unlogged variant
+ * (/restore-status/batch, and every call with audit-mode=ASYNC)
+ *
+ * Rows are inserted with JDBC batches of pf-exchange.person-abroad.audit-batch-size
+ * and committed once per call.
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class PersonAbroadAuditRepository {
+
+    private static final int MAX_TEXT_LENGTH = 4000;
+
+    private static final String INSERT_PERSON_STATUS_SQL = """
+        INSERT INTO Pf_Exchange_Person_Statuses
+            (Person_Status_Id, Ws_Id, Pinpp, In_Data, Result_Code, Msg, Status, Data_Sqlerr, Creation_Date)
+        VALUES
+            (Pf_Exchange_Person_Statuses_Seq.NEXTVAL, ?, ?, NULL, ?, ?, ?, ?, SYSDATE)""";
+
+    private static final String INSERT_RESTORE_STATUS_SQL = """
+        INSERT INTO Pf_Exchange_Restore_Statuses
+            (Restore_Status_Id, Ws_Id, Pinpp, In_Data, Result_Code, Msg, Data_Sqlerr, Creation_Date)
+        VALUES
+            (Pf_Exchange_Restore_Statuses_Seq.NEXTVAL, ?, ?, NULL, ?, ?, ?, SYSDATE)""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PersonAbroadProperties properties;
+
+    /**
+     * Insert check-status log rows in batches
+     *
+     * @param rows log rows, one per processed item
+     */
+    @Transactional
+    public void savePersonStatuses(List<PersonAbroadCheckStatusRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_PERSON_STATUS_SQL, rows, properties.getAuditBatchSize(), (ps, row) -> {
+            ps.setObject(1, row.wsId(), Types.NUMERIC);
+            ps.setString(2, row.pinfl());
+            ps.setInt(3, row.resultCode());
+            ps.setString(4, truncate(row.msg()));
+            ps.setObject(5, row.status(), Types.NUMERIC);
+            ps.setString(6, truncate(row.dataSqlerr()));
+        });
+
+        log.debug("Pf_Exchange_Person_Statuses: {} rows inserted", rows.size());
+    }
+
+    /**
+     * Insert restore-status log rows in batches
+     *
+     * @param rows log rows, one per processed item
+     */
+    @Transactional
+    public void saveRestoreStatuses(List<PersonAbroadRestoreStatusRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_RESTORE_STATUS_SQL, rows, properties.getAuditBatchSize(), (ps, row) -> {
+            ps.setObject(1, row.wsId(), Types.NUMERIC);
+            ps.setString(2, row.pinfl());
+            ps.setInt(3, row.resultCode());
+            ps.setString(4, truncate(row.msg()));
+            ps.setString(5, truncate(row.dataSqlerr()));
+        });
+
+        log.debug("Pf_Exchange_Restore_Statuses: {} rows inserted", rows.size());
+    }
+
+    private static String truncate(String value) {
+        return value != null && value.length() > MAX_TEXT_LENGTH ? value.substring(0, MAX_TEXT_LENGTH) : value;
+    }
+}
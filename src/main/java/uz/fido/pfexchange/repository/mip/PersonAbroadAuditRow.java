@@ -0,0 +1,12 @@
+package uz.fido.pfexchange.repository.mip;
+
+/**
+ * Java tomonidan yoziladigan log qatori
+ * Log row written by the caller instead of PF_EXCHANGES_ABROAD
+ */
+public sealed interface PersonAbroadAuditRow permits PersonAbroadCheckStatusRow, PersonAbroadRestoreStatusRow {
+
+    Long wsId();
+
+    String pinfl();
+}
@@ -0,0 +1,12 @@
+package uz.fido.pfexchange.repository.mip;
+
+/**
+ * PF_EXCHANGES_ABROAD funksiyasi natijasi
+ * Typed result of a PF_EXCHANGES_ABROAD function call
+ *
+ * @param returnCode funksiya qaytargan kod (1=muvaffaqiyatli, 0=xatolik)
+ * @param data       O_Data OUT parametridan o'qilgan javob DTO
+ * @param <T>        javob DTO turi
+ */
+public record PersonAbroadCallResult<T>(int returnCode, T data) {
+}
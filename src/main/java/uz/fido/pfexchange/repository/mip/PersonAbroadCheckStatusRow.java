@@ -0,0 +1,16 @@
+package uz.fido.pfexchange.repository.mip;
+
+/**
+ * Pf_Exchange_Person_Statuses jadvalining bitta qatori
+ * One check-status log row (written by the caller for unlogged checks)
+ *
+ * @param wsId       so'rovdagi ws_id
+ * @param pinfl      so'rovdagi pinfl
+ * @param resultCode 1=topildi, 0=xato yoki topilmadi
+ * @param status     1=faol, 2=nofaol (chet elda), 3=nofaol (boshqa); result=0 da null
+ * @param msg        javob matni
+ * @param dataSqlerr xatolik tafsilotlari (bo'lsa)
+ */
+public record PersonAbroadCheckStatusRow(Long wsId, String pinfl, int resultCode, Integer status, String msg, String dataSqlerr)
+        implements PersonAbroadAuditRow {
+}
@@ -0,0 +1,27 @@
+package uz.fido.pfexchange.repository.mip;
+
+import java.time.LocalDateTime;
+import uz.fido.pfexchange.dto.mip.PersonAbroadJobOperation;
+import uz.fido.pfexchange.dto.mip.PersonAbroadJobStatus;
+
+/**
+ * Pf_Exchange_Abroad_Jobs jadvalining bitta qatori
+ * Persisted bulk job state
+ *
+ * @param committedChunk oxirgi to'liq yozilgan chunk raqami
+ * @param outputOffset   results.ndjson faylining shu chunkdan keyingi uzunligi (bayt)
+ */
+public record PersonAbroadJob(
+        String jobId,
+        PersonAbroadJobOperation operation,
+        PersonAbroadJobStatus status,
+        long totalItems,
+        long processedItems,
+        long failedItems,
+        int committedChunk,
+        long outputOffset,
+        String errorMsg,
+        LocalDateTime creationDate,
+        LocalDateTime updateDate
+) {
+}
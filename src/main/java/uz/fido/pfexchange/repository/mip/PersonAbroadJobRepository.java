@@ -0,0 +1,164 @@
+package uz.fido.pfexchange.repository.mip;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import uz.fido.pfexchange.dto.mip.PersonAbroadJobOperation;
+import uz.fido.pfexchange.dto.mip.PersonAbroadJobStatus;
+
+/**
+ * Repository for bulk job state (Pf_Exchange_Abroad_Jobs)
+ *
+ * Every method commits on its own: a chunk is "committed" only when
+ * commitChunk has returned, and that row is what a restart resumes from.
+ *
+ * A job is run only by the instance that claimed it (Owner). The claim is a
+ * lease: the owner refreshes Heartbeat with every chunk, and another instance
+ * may take the job over only when the heartbeat is older than the lease or
+ * was released on shutdown. Writes of a former owner no longer match a row.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PersonAbroadJobRepository {
+
+    private static final int MAX_TEXT_LENGTH = 4000;
+
+    private static final String SELECT_JOB_SQL = """
+        SELECT Job_Id, Operation, Status, Total_Items, Processed_Items, Failed_Items,
+               Committed_Chunk, Output_Offset, Error_Msg, Creation_Date, Update_Date
+          FROM Pf_Exchange_Abroad_Jobs""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public void create(String jobId, PersonAbroadJobOperation operation, long totalItems) {
+        jdbcTemplate.update("""
+            INSERT INTO Pf_Exchange_Abroad_Jobs
+                (Job_Id, Operation, Status, Total_Items, Processed_Items, Failed_Items,
+                 Committed_Chunk, Output_Offset, Creation_Date, Update_Date)
+            VALUES (?, ?, ?, ?, 0, 0, 0, 0, SYSTIMESTAMP, SYSTIMESTAMP)""",
+            jobId, operation.name(), PersonAbroadJobStatus.QUEUED.name(), totalItems);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<PersonAbroadJob> findById(String jobId) {
+        return jdbcTemplate.query(SELECT_JOB_SQL + " WHERE Job_Id = ?", PersonAbroadJobRepository::mapJob, jobId)
+            .stream()
+            .findFirst();
+    }
+
+    /**
+     * Egallash mumkin bo'lgan vazifalar (navbatda yoki egasi javob bermayapti),
+     * yaratilish tartibida
+     */
+    @Transactional(readOnly = true)
+    public List<String> findClaimableIds(Duration lease) {
+        return jdbcTemplate.queryForList("""
+            SELECT Job_Id
+              FROM Pf_Exchange_Abroad_Jobs
+             WHERE Status = 'QUEUED'
+                OR (Status = 'RUNNING'
+                    AND (Heartbeat IS NULL OR Heartbeat < SYSTIMESTAMP - NUMTODSINTERVAL(?, 'SECOND')))
+             ORDER BY Creation_Date""", String.class, lease.toSeconds());
+    }
+
+    /**
+     * Vazifani egallash: faqat navbatdagi yoki lease'i tugagan vazifa
+     *
+     * @return true - vazifa shu instance'niki, bajarish mumkin
+     */
+    @Transactional
+    public boolean claim(String jobId, String owner, Duration lease) {
+        return jdbcTemplate.update("""
+            UPDATE Pf_Exchange_Abroad_Jobs
+               SET Status = 'RUNNING', Owner = ?, Heartbeat = SYSTIMESTAMP, Update_Date = SYSTIMESTAMP
+             WHERE Job_Id = ?
+               AND (Status = 'QUEUED'
+                    OR (Status = 'RUNNING'
+                        AND (Heartbeat IS NULL OR Heartbeat < SYSTIMESTAMP - NUMTODSINTERVAL(?, 'SECOND'))))""",
+            owner, jobId, lease.toSeconds()) == 1;
+    }
+
+    /**
+     * Egalikni tekshirish va Heartbeat'ni yangilash: chunk natijalari faylga
+     * yozilishidan oldin, shundan keyin lease davomida vazifa boshqaga o'tmaydi
+     *
+     * @return false - vazifani boshqa instance egallagan
+     */
+    @Transactional
+    public boolean heartbeat(String jobId, String owner) {
+        return jdbcTemplate.update("""
+            UPDATE Pf_Exchange_Abroad_Jobs
+               SET Heartbeat = SYSTIMESTAMP
+             WHERE Job_Id = ? AND Owner = ? AND Status = 'RUNNING'""", jobId, owner) == 1;
+    }
+
+    /**
+     * Chunk natijalari results faylida diskka yozilgandan keyin chaqiriladi
+     *
+     * @param outputOffset results faylining shu chunkdan keyingi uzunligi
+     * @return false - vazifani boshqa instance egallagan, to'xtash kerak
+     */
+    @Transactional
+    public boolean commitChunk(String jobId, String owner, int committedChunk, long processedItems,
+                               long failedItems, long outputOffset) {
+        return jdbcTemplate.update("""
+            UPDATE Pf_Exchange_Abroad_Jobs
+               SET Committed_Chunk = ?, Processed_Items = ?, Failed_Items = ?,
+                   Output_Offset = ?, Heartbeat = SYSTIMESTAMP, Update_Date = SYSTIMESTAMP
+             WHERE Job_Id = ? AND Owner = ? AND Status = 'RUNNING'""",
+            committedChunk, processedItems, failedItems, outputOffset, jobId, owner) == 1;
+    }
+
+    /**
+     * To'xtashda: vazifa RUNNING qoladi, lekin boshqa instance darhol egallashi mumkin
+     */
+    @Transactional
+    public void release(String jobId, String owner) {
+        jdbcTemplate.update("""
+            UPDATE Pf_Exchange_Abroad_Jobs
+               SET Heartbeat = NULL, Update_Date = SYSTIMESTAMP
+             WHERE Job_Id = ? AND Owner = ? AND Status = 'RUNNING'""", jobId, owner);
+    }
+
+    @Transactional
+    public void finish(String jobId, String owner, PersonAbroadJobStatus status, String errorMsg) {
+        jdbcTemplate.update("""
+            UPDATE Pf_Exchange_Abroad_Jobs
+               SET Status = ?, Error_Msg = ?, Update_Date = SYSTIMESTAMP
+             WHERE Job_Id = ? AND Owner = ? AND Status = 'RUNNING'""",
+            status.name(), truncate(errorMsg), jobId, owner);
+    }
+
+    private static PersonAbroadJob mapJob(ResultSet rs, int rowNum) throws SQLException {
+        return new PersonAbroadJob(
+            rs.getString("Job_Id"),
+            PersonAbroadJobOperation.valueOf(rs.getString("Operation")),
+            PersonAbroadJobStatus.valueOf(rs.getString("Status")),
+            rs.getLong("Total_Items"),
+            rs.getLong("Processed_Items"),
+            rs.getLong("Failed_Items"),
+            rs.getInt("Committed_Chunk"),
+            rs.getLong("Output_Offset"),
+            rs.getString("Error_Msg"),
+            toLocalDateTime(rs.getTimestamp("Creation_Date")),
+            toLocalDateTime(rs.getTimestamp("Update_Date"))
+        );
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private static String truncate(String value) {
+        return value != null && value.length() > MAX_TEXT_LENGTH ? value.substring(0, MAX_TEXT_LENGTH) : value;
+    }
+}
@@ -1,53 +1,155 @@
 package uz.fido.pfexchange.repository.mip;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.sql.Array;
 import java.sql.Clob;
+import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import oracle.jdbc.OracleConnection;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.SqlOutParameter;
 import org.springframework.jdbc.core.SqlParameter;
+import org.springframework.jdbc.core.SqlReturnType;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.core.simple.SimpleJdbcCall;
+import org.springframework.jdbc.core.support.AbstractSqlTypeValue;
 import org.springframework.stereotype.Repository;
+import uz.fido.pfexchange.config.PersonAbroadProperties;
+import uz.fido.pfexchange.config.PersonAbroadProperties.ResponseMode;
+import uz.fido.pfexchange.dto.mip.PersonAbroadCheckStatusResponseDto;
+import uz.fido.pfexchange.dto.mip.PersonAbroadRestoreStatusResponseDto;
+import uz.fido.pfexchange.dto.mip.PersonAbroadStatusDataDto;
 
 /**
  * Repository for person abroad status Oracle function calls
  * Calls PF_EXCHANGES_ABROAD package functions
+ *
+ * Function calls are compiled once at startup; a compiled SimpleJdbcCall
+ * is thread-safe and shared by all requests.
+ *
+ * Two contracts (pf-exchange.person-abroad.response-mode):
+ * - OUT_PARAMS: v2 overloads take P_Ws_Id/P_Pinfl directly (no XML) and
+ *   return result/status/msg as NUMBER/VARCHAR2 OUT parameters, mapped
+ *   straight to the response DTO
+ * - JSON_CLOB: legacy P_Data XML request; O_Data CLOB is parsed from its
+ *   character stream while the statement is still open, then freed so
+ *   temporary LOBs do not pile up on the pooled session
+ *
+ * Batch check binds ws_id/pinfl as PF_NUMBER_TAB/PF_VARCHAR2_TAB arrays and
+ * gets per-item result/status/msg arrays back from one call.
  */
 @Slf4j
 @Repository
 @RequiredArgsConstructor
 public class PersonAbroadRepository {
 
+    private static final String CATALOG_NAME = "PF_EXCHANGES_ABROAD";
+    private static final String CHECK_FUNCTION_NAME = "Check_Person_Status";
+    private static final String RESTORE_FUNCTION_NAME = "Restore_Person_Status";
+    private static final String CHECK_BATCH_FUNCTION_NAME = "Check_Person_Status_Batch";
+    private static final String CHECK_UNLOGGED_FUNCTION_NAME = "Check_Person_Status_Unlogged";
+    private static final String RESTORE_UNLOGGED_FUNCTION_NAME = "Restore_Person_Status_Unlogged";
+
+    private static final String NUMBER_TAB = "PF_NUMBER_TAB";
+    private static final String VARCHAR2_TAB = "PF_VARCHAR2_TAB";
+
     private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final PersonAbroadProperties properties;
+
+    private boolean jsonClobMode;
+    private SimpleJdbcCall checkPersonStatusCall;
+    private SimpleJdbcCall restorePersonStatusCall;
+    private SimpleJdbcCall checkPersonStatusBatchCall;
+    private SimpleJdbcCall checkPersonStatusUnloggedCall;
+    private SimpleJdbcCall restorePersonStatusUnloggedCall;
+
+    /**
+     * Compile PF_EXCHANGES_ABROAD function calls once
+     */
+    @PostConstruct
+    void compileCalls() {
+        jsonClobMode = properties.getResponseMode() == ResponseMode.JSON_CLOB;
+
+        if (jsonClobMode) {
+            checkPersonStatusCall = compileCall(CHECK_FUNCTION_NAME,
+                jsonClobParameter(PersonAbroadCheckStatusResponseDto.class),
+                new SqlParameter("P_Data", Types.VARCHAR));
+            restorePersonStatusCall = compileCall(RESTORE_FUNCTION_NAME,
+                jsonClobParameter(PersonAbroadRestoreStatusResponseDto.class),
+                new SqlParameter("P_Data", Types.VARCHAR));
+        } else {
+            checkPersonStatusCall = compileCall(CHECK_FUNCTION_NAME,
+                new SqlOutParameter("O_Result", Types.INTEGER),
+                new SqlOutParameter("O_Status", Types.INTEGER),
+                new SqlOutParameter("O_Msg", Types.VARCHAR),
+                new SqlParameter("P_Ws_Id", Types.NUMERIC),
+                new SqlParameter("P_Pinfl", Types.VARCHAR));
+            restorePersonStatusCall = compileCall(RESTORE_FUNCTION_NAME,
+                new SqlOutParameter("O_Result", Types.INTEGER),
+                new SqlOutParameter("O_Msg", Types.VARCHAR),
+                new SqlParameter("P_Ws_Id", Types.NUMERIC),
+                new SqlParameter("P_Pinfl", Types.VARCHAR));
+        }
+
+        checkPersonStatusBatchCall = compileCall(CHECK_BATCH_FUNCTION_NAME,
+            arrayOutParameter("O_Result", NUMBER_TAB),
+            arrayOutParameter("O_Status", NUMBER_TAB),
+            arrayOutParameter("O_Msg", VARCHAR2_TAB),
+            new SqlParameter("P_Ws_Id", Types.ARRAY, NUMBER_TAB),
+            new SqlParameter("P_Pinfl", Types.ARRAY, VARCHAR2_TAB));
+
+        checkPersonStatusUnloggedCall = compileCall(CHECK_UNLOGGED_FUNCTION_NAME,
+            new SqlOutParameter("O_Result", Types.INTEGER),
+            new SqlOutParameter("O_Status", Types.INTEGER),
+            new SqlOutParameter("O_Msg", Types.VARCHAR),
+            new SqlOutParameter("O_Sqlerr", Types.VARCHAR),
+            new SqlParameter("P_Ws_Id", Types.NUMERIC),
+            new SqlParameter("P_Pinfl", Types.VARCHAR));
+
+        restorePersonStatusUnloggedCall = compileCall(RESTORE_UNLOGGED_FUNCTION_NAME,
+            new SqlOutParameter("O_Result", Types.INTEGER),
+            new SqlOutParameter("O_Msg", Types.VARCHAR),
+            new SqlOutParameter("O_Sqlerr", Types.VARCHAR),
+            new SqlParameter("P_Ws_Id", Types.NUMERIC),
+            new SqlParameter("P_Pinfl", Types.VARCHAR));
+    }
 
     /**
      * Check person status (read-only, no restoration)
      * Calls PF_EXCHANGES_ABROAD.Check_Person_Status
      *
-     * @param xmlData Request data in XML format (from JSON)
-     * @return Map with RETURN (0/1) and O_DATA (JSON CLOB)
+     * @param wsId  Web service ID
+     * @param pinfl PINFL (14 digits)
+     * @return RETURN (0/1) and the response DTO
      */
-    public Map<String, Object> checkPersonStatus(String xmlData) {
-        final String CATALOG_NAME = "PF_EXCHANGES_ABROAD";
-        final String FUNCTION_NAME = "Check_Person_Status";
-
+    public PersonAbroadCallResult<PersonAbroadCheckStatusResponseDto> checkPersonStatus(Long wsId, String pinfl) {
         try {
-            SimpleJdbcCall jdbcCall = new SimpleJdbcCall(jdbcTemplate)
-                .withCatalogName(CATALOG_NAME)
-                .withFunctionName(FUNCTION_NAME)
-                .withoutProcedureColumnMetaDataAccess()
-                .declareParameters(
-                    new SqlOutParameter("RETURN", Types.INTEGER),
-                    new SqlOutParameter("O_Data", Types.CLOB),
-                    new SqlParameter("P_Data", Types.VARCHAR)
-                );
-
-            Map<String, Object> result = jdbcCall.execute(Map.of("P_Data", xmlData));
-
-            log.debug("Check_Person_Status called, Return code: {}", result.get("RETURN"));
+            Map<String, Object> out = checkPersonStatusCall.execute(requestParameters(wsId, pinfl));
+
+            PersonAbroadCheckStatusResponseDto response = jsonClobMode
+                ? (PersonAbroadCheckStatusResponseDto) out.get("O_Data")
+                : PersonAbroadCheckStatusResponseDto.builder()
+                    .result(toInteger(out.get("O_Result")))
+                    .msg(toMsg(out.get("O_Msg")))
+                    .wsId(wsId)
+                    .status(toInteger(out.get("O_Status")))
+                    .build();
+
+            PersonAbroadCallResult<PersonAbroadCheckStatusResponseDto> result = new PersonAbroadCallResult<>(returnCode(out), response);
+
+            log.debug("Check_Person_Status called, Return code: {}", result.returnCode());
             return result;
         } catch (Exception e) {
             log.error("Error calling Check_Person_Status", e);
@@ -59,27 +161,25 @@ public class PersonAbroadRepository {
      * Check arrival and restore person if needed
      * Calls PF_EXCHANGES_ABROAD.Restore_Person_Status
      *
-     * @param xmlData Request data in XML format (from JSON)
-     * @return Map with RETURN (0/1) and O_DATA (JSON CLOB)
+     * @param wsId  Web service ID
+     * @param pinfl PINFL (14 digits)
+     * @return RETURN (0/1) and the response DTO
      */
-    public Map<String, Object> restorePersonStatus(String xmlData) {
-        final String CATALOG_NAME = "PF_EXCHANGES_ABROAD";
-        final String FUNCTION_NAME = "Restore_Person_Status";
-
+    public PersonAbroadCallResult<PersonAbroadRestoreStatusResponseDto> restorePersonStatus(Long wsId, String pinfl) {
         try {
-            SimpleJdbcCall jdbcCall = new SimpleJdbcCall(jdbcTemplate)
-                .withCatalogName(CATALOG_NAME)
-                .withFunctionName(FUNCTION_NAME)
-                .withoutProcedureColumnMetaDataAccess()
-                .declareParameters(
-                    new SqlOutParameter("RETURN", Types.INTEGER),
-                    new SqlOutParameter("O_Data", Types.CLOB),
-                    new SqlParameter("P_Data", Types.VARCHAR)
-                );
-
-            Map<String, Object> result = jdbcCall.execute(Map.of("P_Data", xmlData));
-
-            log.debug("Restore_Person_Status called, Return code: {}", result.get("RETURN"));
+            Map<String, Object> out = restorePersonStatusCall.execute(requestParameters(wsId, pinfl));
+
+            PersonAbroadRestoreStatusResponseDto response = jsonClobMode
+                ? (PersonAbroadRestoreStatusResponseDto) out.get("O_Data")
+                : PersonAbroadRestoreStatusResponseDto.builder()
+                    .result(toInteger(out.get("O_Result")))
+                    .msg(toMsg(out.get("O_Msg")))
+                    .wsId(wsId)
+                    .build();
+
+            PersonAbroadCallResult<PersonAbroadRestoreStatusResponseDto> result = new PersonAbroadCallResult<>(returnCode(out), response);
+
+            log.debug("Restore_Person_Status called, Return code: {}", result.returnCode());
             return result;
         } catch (Exception e) {
             log.error("Error calling Restore_Person_Status", e);
@@ -88,18 +188,222 @@ public class PersonAbroadRepository {
     }
 
     /**
-     * Convert CLOB to String
+     * Check person status without writing the log row
+     * Calls PF_EXCHANGES_ABROAD.Check_Person_Status_Unlogged
+     *
+     * Read-only on the DB side (no INSERT, no COMMIT); the returned row is
+     * meant for PersonAbroadAuditRepository.
+     *
+     * @param wsId  Web service ID
+     * @param pinfl PINFL (14 digits)
+     * @return RETURN (0/1) and the Pf_Exchange_Person_Statuses row to write
+     */
+    public PersonAbroadCallResult<PersonAbroadCheckStatusRow> checkPersonStatusUnlogged(Long wsId, String pinfl) {
+        try {
+            Map<String, Object> out = checkPersonStatusUnloggedCall.execute(new MapSqlParameterSource()
+                .addValue("P_Ws_Id", wsId)
+                .addValue("P_Pinfl", pinfl));
+
+            Integer resultCode = toInteger(out.get("O_Result"));
+            PersonAbroadCheckStatusRow row = new PersonAbroadCheckStatusRow(
+                wsId,
+                pinfl,
+                resultCode != null ? resultCode : 0,
+                toInteger(out.get("O_Status")),
+                toMsg(out.get("O_Msg")),
+                (String) out.get("O_Sqlerr")
+            );
+
+            log.debug("Check_Person_Status_Unlogged called, Return code: {}", returnCode(out));
+            return new PersonAbroadCallResult<>(returnCode(out), row);
+        } catch (Exception e) {
+            log.error("Error calling Check_Person_Status_Unlogged", e);
+            throw new RuntimeException("Failed to check person status", e);
+        }
+    }
+
+    /**
+     * Check arrival and restore person without writing the log row
+     * Calls PF_EXCHANGES_ABROAD.Restore_Person_Status_Unlogged
+     *
+     * The restore is committed by the function; the returned row is meant
+     * for PersonAbroadAuditRepository.
+     *
+     * @param wsId  Web service ID
+     * @param pinfl PINFL (14 digits)
+     * @return RETURN (0/1) and the Pf_Exchange_Restore_Statuses row to write
+     */
+    public PersonAbroadCallResult<PersonAbroadRestoreStatusRow> restorePersonStatusUnlogged(Long wsId, String pinfl) {
+        try {
+            Map<String, Object> out = restorePersonStatusUnloggedCall.execute(new MapSqlParameterSource()
+                .addValue("P_Ws_Id", wsId)
+                .addValue("P_Pinfl", pinfl));
+
+            Integer resultCode = toInteger(out.get("O_Result"));
+            PersonAbroadRestoreStatusRow row = new PersonAbroadRestoreStatusRow(
+                wsId,
+                pinfl,
+                resultCode != null ? resultCode : 0,
+                toMsg(out.get("O_Msg")),
+                (String) out.get("O_Sqlerr")
+            );
+
+            log.debug("Restore_Person_Status_Unlogged called, Return code: {}", returnCode(out));
+            return new PersonAbroadCallResult<>(returnCode(out), row);
+        } catch (Exception e) {
+            log.error("Error calling Restore_Person_Status_Unlogged", e);
+            throw new RuntimeException("Failed to restore person status", e);
+        }
+    }
+
+    /**
+     * Check status of many persons with one array-bound call
+     * Calls PF_EXCHANGES_ABROAD.Check_Person_Status_Batch
+     *
+     * @param items ws_id/pinfl pairs (already validated)
+     * @return RETURN (0/1) and one response DTO per item, in the same order
+     */
+    public PersonAbroadCallResult<List<PersonAbroadCheckStatusResponseDto>> checkPersonStatusBatch(
+        List<PersonAbroadStatusDataDto> items
+    ) {
+        try {
+            Object[] wsIds = new Object[items.size()];
+            Object[] pinfls = new Object[items.size()];
+            for (int i = 0; i < items.size(); i++) {
+                wsIds[i] = items.get(i).getWsId();
+                pinfls[i] = items.get(i).getPinfl();
+            }
+
+            Map<String, Object> out = checkPersonStatusBatchCall.execute(new MapSqlParameterSource()
+                .addValue("P_Ws_Id", oracleArray(wsIds))
+                .addValue("P_Pinfl", oracleArray(pinfls)));
+
+            Object[] results = (Object[]) out.get("O_Result");
+            Object[] statuses = (Object[]) out.get("O_Status");
+            Object[] msgs = (Object[]) out.get("O_Msg");
+            if (results == null || results.length != items.size()) {
+                throw new IllegalStateException("O_Result size does not match request size " + items.size());
+            }
+
+            List<PersonAbroadCheckStatusResponseDto> responses = new ArrayList<>(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                responses.add(PersonAbroadCheckStatusResponseDto.builder()
+                    .result(toInteger(results[i]))
+                    .msg(toMsg(msgs[i]))
+                    .wsId(items.get(i).getWsId())
+                    .status(toInteger(statuses[i]))
+                    .build());
+            }
+
+            PersonAbroadCallResult<List<PersonAbroadCheckStatusResponseDto>> result = new PersonAbroadCallResult<>(returnCode(out), responses);
+
+            log.debug("Check_Person_Status_Batch called for {} items, Return code: {}", items.size(), result.returnCode());
+            return result;
+        } catch (Exception e) {
+            log.error("Error calling Check_Person_Status_Batch", e);
+            throw new RuntimeException("Failed to check person status batch", e);
+        }
+    }
+
+    /**
+     * Parse JSON CLOB from its character stream and free the LOB
      */
-    public String clobToString(Clob clob) {
+    <T> T readJsonClob(Clob clob, Class<T> responseType) throws SQLException {
         if (clob == null) {
             return null;
         }
-        try {
-            long length = clob.length();
-            return clob.getSubString(1, (int) length);
-        } catch (SQLException e) {
-            log.error("Error converting CLOB to String", e);
-            throw new RuntimeException("Failed to convert CLOB to String", e);
+        try (Reader reader = clob.getCharacterStream()) {
+            return objectMapper.readValue(reader, responseType);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to parse O_Data JSON", e);
+        } finally {
+            clob.free();
         }
     }
+
+    private SqlOutParameter jsonClobParameter(Class<?> responseType) {
+        SqlReturnType jsonClobReader = (cs, paramIndex, sqlType, typeName) ->
+            readJsonClob(cs.getClob(paramIndex), responseType);
+
+        return new SqlOutParameter("O_Data", Types.CLOB, null, jsonClobReader);
+    }
+
+    /**
+     * OUT collection read into a Java array; the Oracle ARRAY is freed right away
+     */
+    private static SqlOutParameter arrayOutParameter(String name, String typeName) {
+        SqlReturnType arrayReader = (cs, paramIndex, sqlType, type) -> {
+            Array array = cs.getArray(paramIndex);
+            if (array == null) {
+                return null;
+            }
+            try {
+                return array.getArray();
+            } finally {
+                array.free();
+            }
+        };
+        return new SqlOutParameter(name, Types.ARRAY, typeName, arrayReader);
+    }
+
+    /**
+     * IN collection bound as an Oracle ARRAY of the declared SQL type
+     */
+    private static AbstractSqlTypeValue oracleArray(Object[] elements) {
+        return new AbstractSqlTypeValue() {
+            @Override
+            protected Object createTypeValue(Connection connection, int sqlType, String typeName) throws SQLException {
+                return connection.unwrap(OracleConnection.class).createOracleArray(typeName, elements);
+            }
+        };
+    }
+
+    /**
+     * Direct P_Ws_Id/P_Pinfl binds, or the legacy P_Data XML in JSON_CLOB mode
+     */
+    private SqlParameterSource requestParameters(Long wsId, String pinfl) {
+        if (jsonClobMode) {
+            return new MapSqlParameterSource("P_Data", convertToXml(wsId, pinfl));
+        }
+        return new MapSqlParameterSource()
+            .addValue("P_Ws_Id", wsId)
+            .addValue("P_Pinfl", pinfl);
+    }
+
+    /**
+     * Convert request to XML format expected by the legacy contract
+     * Format: <Data><ws_id>77</ws_id><pinfl>41006673910061</pinfl></Data>
+     */
+    static String convertToXml(Long wsId, String pinfl) {
+        return "<Data><ws_id>" + wsId + "</ws_id><pinfl>" + pinfl + "</pinfl></Data>";
+    }
+
+    private SimpleJdbcCall compileCall(String functionName, SqlParameter... parameters) {
+        SimpleJdbcCall jdbcCall = new SimpleJdbcCall(jdbcTemplate)
+            .withCatalogName(CATALOG_NAME)
+            .withFunctionName(functionName)
+            .withoutProcedureColumnMetaDataAccess()
+            .declareParameters(new SqlOutParameter("RETURN", Types.INTEGER))
+            .declareParameters(parameters);
+        jdbcCall.compile();
+
+        log.info("{}.{} call compiled: {}", CATALOG_NAME, functionName, jdbcCall.getCallString());
+        return jdbcCall;
+    }
+
+    private static int returnCode(Map<String, Object> out) {
+        Integer returnCode = toInteger(out.get("RETURN"));
+        return returnCode != null ? returnCode : 0;
+    }
+
+    private static Integer toInteger(Object value) {
+        return value instanceof Number number ? number.intValue() : null;
+    }
+
+    /**
+     * Oracle returns '' as NULL; JSON contract uses "" for an empty message
+     */
+    private static String toMsg(Object value) {
+        return value != null ? value.toString() : "";
+    }
 }
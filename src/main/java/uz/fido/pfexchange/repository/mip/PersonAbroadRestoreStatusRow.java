@@ -0,0 +1,15 @@
+package uz.fido.pfexchange.repository.mip;
+
+/**
+ * Pf_Exchange_Restore_Statuses jadvalining bitta qatori
+ * One restore-status log row (written by the caller for unlogged restores)
+ *
+ * @param wsId       so'rovdagi ws_id
+ * @param pinfl      so'rovdagi pinfl (noto'g'ri bo'lsa null)
+ * @param resultCode 0=topilmadi, 1=mavjud, 2=tiklandi, 3=kirganlik aniqlanmadi
+ * @param msg        javob matni
+ * @param dataSqlerr xatolik tafsilotlari (bo'lsa)
+ */
+public record PersonAbroadRestoreStatusRow(Long wsId, String pinfl, int resultCode, String msg, String dataSqlerr)
+        implements PersonAbroadAuditRow {
+}
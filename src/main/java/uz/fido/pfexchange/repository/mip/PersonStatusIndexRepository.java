@@ -0,0 +1,116 @@
+package uz.fido.pfexchange.repository.mip;
+
+import java.sql.PreparedStatement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Pf_Persons dan PINFL holatlarini o'qish (PersonAbroadStatusIndex uchun)
+ * Streams pensioner statuses out of Pf_Persons for the in-memory status index
+ *
+ * The status expression is the one of PF_EXCHANGES_ABROAD.Check_Person_Status_Core:
+ * 1 = active (no Close_Reason/Close_Date/Close_Desc), 2 = closed because abroad
+ * (Close_Desc = '11'), 3 = closed for another reason. Rows are grouped by Pinpp;
+ * Persons > 1 means Check_Person_Status_Core would fail with TOO_MANY_ROWS.
+ *
+ * Changes are found by ORA_ROWSCN. Without ROWDEPENDENCIES on Pf_Persons it is
+ * tracked per block, so a change read also returns unchanged neighbours of a
+ * changed row; that costs rows, not correctness.
+ *
+ * ORA_ROWSCN is a pseudocolumn and cannot be indexed: loadChangedSince is a
+ * full scan of Pf_Persons just like loadAll, it only sends fewer rows back.
+ * It is not an incremental read, so the callers run it on a coarse interval
+ * (status-index-refresh-interval, 15m by default; the registry filter is
+ * fed from the same read). Pf_Persons has no indexed change column or change
+ * log to read instead; shorter intervals cost one full scan per node each time.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PersonStatusIndexRepository {
+
+    private static final int FETCH_SIZE = 10_000;
+
+    private static final String STATUS_EXPRESSION = """
+        CASE
+            WHEN p.Close_Reason IS NULL AND p.Close_Date IS NULL AND p.Close_Desc IS NULL THEN 1
+            WHEN p.Close_Desc = '11' THEN 2
+            ELSE 3
+        END""";
+
+    private static final String LOAD_ALL_SQL = """
+        SELECT p.Pinpp,
+               COUNT(*) AS Persons,
+               MAX(%s) AS Status,
+               MAX(p.ORA_ROWSCN) AS Row_Scn
+        FROM Pf_Persons p
+        WHERE p.Person_Type = '01'
+        GROUP BY p.Pinpp""".formatted(STATUS_EXPRESSION);
+
+    private static final String LOAD_CHANGED_SQL = """
+        WITH Changed AS (
+            SELECT Pinpp, MAX(ORA_ROWSCN) AS Row_Scn
+            FROM Pf_Persons
+            WHERE ORA_ROWSCN > ?
+            GROUP BY Pinpp
+        )
+        SELECT c.Pinpp,
+               COUNT(p.Pinpp) AS Persons,
+               MAX(%s) AS Status,
+               c.Row_Scn
+        FROM Changed c
+                 LEFT JOIN Pf_Persons p ON p.Pinpp = c.Pinpp
+            AND p.Person_Type = '01'
+        GROUP BY c.Pinpp, c.Row_Scn""".formatted(STATUS_EXPRESSION);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Barcha pensiya oluvchilar (Person_Type = '01')
+     *
+     * @return eng katta ORA_ROWSCN; keyingi loadChangedSince uchun watermark
+     */
+    public long loadAll(PersonStatusHandler handler) {
+        return load(LOAD_ALL_SQL, handler);
+    }
+
+    /**
+     * ORA_ROWSCN > scn bo'lgan qatorlarning PINFL'lari, hozirgi holati bilan.
+     * Persons = 0: PINFL endi ro'yhatda yo'q (o'chirilgan yoki Person_Type o'zgargan)
+     * Diqqat: Pf_Persons to'liq skanerlanadi (ORA_ROWSCN indekslanmaydi)
+     *
+     * @return eng katta ORA_ROWSCN (o'zgarish bo'lmasa scn o'zi)
+     */
+    public long loadChangedSince(long scn, PersonStatusHandler handler) {
+        return Math.max(scn, load(LOAD_CHANGED_SQL, handler, scn));
+    }
+
+    private long load(String sql, PersonStatusHandler handler, Object... args) {
+        long[] maxScn = {0};
+        jdbcTemplate.query(
+            connection -> {
+                PreparedStatement ps = connection.prepareStatement(sql);
+                ps.setFetchSize(FETCH_SIZE);
+                for (int i = 0; i < args.length; i++) {
+                    ps.setObject(i + 1, args[i]);
+                }
+                return ps;
+            },
+            rs -> {
+                handler.accept(rs.getString("Pinpp"), rs.getInt("Persons"), rs.getInt("Status"));
+                maxScn[0] = Math.max(maxScn[0], rs.getLong("Row_Scn"));
+            });
+        return maxScn[0];
+    }
+
+    @FunctionalInterface
+    public interface PersonStatusHandler {
+
+        /**
+         * @param pinfl   Pf_Persons.Pinpp
+         * @param persons shu PINFL bilan Person_Type = '01' qatorlar soni
+         * @param status  1, 2 yoki 3 (persons = 0 bo'lsa ahamiyatsiz)
+         */
+        void accept(String pinfl, int persons, int status);
+    }
+}
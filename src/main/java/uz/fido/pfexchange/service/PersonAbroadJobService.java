@@ -0,0 +1,43 @@
+package uz.fido.pfexchange.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import uz.fido.pfexchange.dto.mip.PersonAbroadJobDto;
+import uz.fido.pfexchange.dto.mip.PersonAbroadJobFormat;
+import uz.fido.pfexchange.dto.mip.PersonAbroadJobOperation;
+
+/**
+ * Katta PINFL fayllari uchun fon vazifalari servisi
+ * Service for asynchronous bulk jobs over large PINFL files
+ */
+public interface PersonAbroadJobService {
+    /**
+     * Faylni oqim sifatida o'qib, vazifa katalogiga yozadi va navbatga qo'yadi
+     * Stream-parse the upload into the job directory and queue the job
+     *
+     * @param operation CHECK yoki RESTORE
+     * @param format    CSV yoki NDJSON
+     * @param wsId      faqat pinfl ustunli CSV qatorlari uchun ws_id
+     * @param body      so'rov tanasi (butunligicha xotiraga o'qilmaydi)
+     * @return Yangi vazifa holati (QUEUED)
+     */
+    PersonAbroadJobDto submit(PersonAbroadJobOperation operation, PersonAbroadJobFormat format, Long wsId, InputStream body);
+
+    /**
+     * Vazifa holati (so'rov qilish uchun)
+     *
+     * @param jobId vazifa identifikatori
+     * @return Vazifa holati
+     */
+    PersonAbroadJobDto getJob(String jobId);
+
+    /**
+     * Oxirgi tasdiqlangan chunkgacha bo'lgan natijalarni NDJSON oqimi sifatida yozadi
+     * Stream committed results; callable while the job is still running
+     *
+     * @param jobId vazifa identifikatori
+     * @param out   javob oqimi
+     */
+    void writeResults(String jobId, OutputStream out) throws IOException;
+}
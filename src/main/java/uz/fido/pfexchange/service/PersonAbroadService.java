@@ -1,5 +1,8 @@
 package uz.fido.pfexchange.service;
 
+import uz.fido.pfexchange.dto.mip.PersonAbroadBatchCheckStatusResponseDto;
+import uz.fido.pfexchange.dto.mip.PersonAbroadBatchRestoreStatusResponseDto;
+import uz.fido.pfexchange.dto.mip.PersonAbroadBatchStatusRequestDto;
 import uz.fido.pfexchange.dto.mip.PersonAbroadCheckStatusResponseDto;
 import uz.fido.pfexchange.dto.mip.PersonAbroadRestoreStatusResponseDto;
 import uz.fido.pfexchange.dto.mip.PersonAbroadStatusRequestDto;
@@ -22,6 +25,18 @@ public interface PersonAbroadService {
      */
     PersonAbroadCheckStatusResponseDto checkStatus(PersonAbroadStatusRequestDto requestDto);
 
+    /**
+     * Bir nechta pensiya oluvchining holatini bitta Oracle chaqiruvida tekshirish
+     * Check status of many persons with one bulk call
+     *
+     * Har bir element alohida tekshiriladi; xato element result=0 bilan
+     * qaytadi va boshqa elementlarga ta'sir qilmaydi.
+     *
+     * @param requestDto So'rov ma'lumotlari ro'yxati (ws_id va pinfl)
+     * @return Har bir element uchun javob, so'rov tartibida
+     */
+    PersonAbroadBatchCheckStatusResponseDto checkStatusBatch(PersonAbroadBatchStatusRequestDto requestDto);
+
     /**
      * Pensiya oluvchini tiklash (close_desc=11 bo'lganlar uchun)
      * Restore person status (for those with close_desc=11)
@@ -36,4 +51,16 @@ public interface PersonAbroadService {
      * @return Holat kodi va ma'lumotlar bilan javob
      */
     PersonAbroadRestoreStatusResponseDto restoreStatus(PersonAbroadStatusRequestDto requestDto);
+
+    /**
+     * Bir nechta pensiya oluvchini tiklash (cheklangan parallellik bilan)
+     * Restore many persons with bounded parallelism
+     *
+     * Har bir element uchun restoreStatus bilan bir xil 0/1/2/3 natija kodi,
+     * so'rov tartibida. Log qatorlari JDBC batch bilan yoziladi.
+     *
+     * @param requestDto So'rov ma'lumotlari ro'yxati (ws_id va pinfl)
+     * @return Har bir element uchun javob, so'rov tartibida
+     */
+    PersonAbroadBatchRestoreStatusResponseDto restoreStatusBatch(PersonAbroadBatchStatusRequestDto requestDto);
 }
@@ -0,0 +1,311 @@
+package uz.fido.pfexchange.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import uz.fido.pfexchange.config.PersonAbroadProperties;
+import uz.fido.pfexchange.config.PersonAbroadProperties.AuditMode;
+import uz.fido.pfexchange.repository.mip.PersonAbroadAuditRepository;
+import uz.fido.pfexchange.repository.mip.PersonAbroadAuditRow;
+import uz.fido.pfexchange.repository.mip.PersonAbroadCheckStatusRow;
+import uz.fido.pfexchange.repository.mip.PersonAbroadRestoreStatusRow;
+
+/**
+ * Log qatorlarini fon thread'ida yozuvchi (audit-mode=ASYNC)
+ * Background writer for person abroad log rows
+ *
+ * Rows go into a bounded queue; one writer thread drains whatever has
+ * accumulated (up to audit-batch-size) and inserts it with JDBC batches,
+ * one commit per log table. Under load batches grow by themselves, at low
+ * load a row is written right away.
+ *
+ * Backpressure: when the queue is full the caller waits up to
+ * audit-offer-timeout, then writes its row on its own thread; a full queue
+ * does not drop rows. On shutdown the queue is drained before the DataSource
+ * closes.
+ *
+ * Failures: with audit-mode=ASYNC Oracle writes no log row of its own, so a
+ * failed INSERT is retried audit-retry-attempts times with a doubling
+ * audit-retry-backoff (a short outage), per table: check rows that were
+ * committed are not written again when the restore rows fail. If the batch
+ * still fails, its rows are written one by one, so a single bad row does not
+ * take the others with it. Only rows that fail on their own (or follow
+ * several such rows - the database is down) are lost; each is logged with
+ * its values and counted in person.abroad.audit.rows{outcome=failed}.
+ *
+ * Metrics: person.abroad.audit.queue.depth, person.abroad.audit.flush (timer),
+ * person.abroad.audit.batch.size, person.abroad.audit.rows{table,outcome}
+ * (table=check|restore, outcome=written|failed|direct).
+ */
+@Slf4j
+@Component
+public class PersonAbroadAuditWriter {
+
+    private static final long POLL_MILLIS = 200;
+    private static final long SHUTDOWN_MILLIS = 30_000;
+
+    /**
+     * Row-by-row fallback: after this many failed rows in a row the database is
+     * considered down and the remaining rows are not tried
+     */
+    private static final int MAX_CONSECUTIVE_ROW_FAILURES = 3;
+
+    private final PersonAbroadAuditRepository auditRepository;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long offerTimeoutMillis;
+    private final int retryAttempts;
+    private final long retryBackoffMillis;
+    private final BlockingQueue<PersonAbroadAuditRow> queue;
+
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizeSummary;
+    private final TableCounters checkCounters;
+    private final TableCounters restoreCounters;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public PersonAbroadAuditWriter(PersonAbroadAuditRepository auditRepository,
+                                   PersonAbroadProperties properties,
+                                   MeterRegistry meterRegistry) {
+        this.auditRepository = auditRepository;
+        this.enabled = properties.getAuditMode() == AuditMode.ASYNC;
+        this.batchSize = properties.getAuditBatchSize();
+        this.offerTimeoutMillis = properties.getAuditOfferTimeout().toMillis();
+        this.retryAttempts = Math.max(1, properties.getAuditRetryAttempts());
+        this.retryBackoffMillis = properties.getAuditRetryBackoff().toMillis();
+        this.queue = new ArrayBlockingQueue<>(properties.getAuditQueueCapacity());
+
+        Gauge.builder("person.abroad.audit.queue.depth", queue, BlockingQueue::size)
+            .description("Log rows waiting for the audit writer")
+            .register(meterRegistry);
+        this.flushTimer = Timer.builder("person.abroad.audit.flush")
+            .description("Time to insert and commit one batch of log rows")
+            .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("person.abroad.audit.batch.size")
+            .register(meterRegistry);
+        this.checkCounters = new TableCounters(meterRegistry, "check");
+        this.restoreCounters = new TableCounters(meterRegistry, "restore");
+    }
+
+    /**
+     * true bo'lsa PF_EXCHANGES_ABROAD *_Unlogged funksiyalari chaqiriladi
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        worker = Thread.ofPlatform()
+            .name("person-abroad-audit")
+            .daemon(true)
+            .start(this::drainLoop);
+    }
+
+    /**
+     * Navbatdagi barcha qatorlar yozilguncha kutadi
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (worker == null) {
+            return;
+        }
+        running = false;
+        worker.join(SHUTDOWN_MILLIS);
+        if (worker.isAlive()) {
+            log.error("Audit writer did not finish in {} ms, {} log rows not written", SHUTDOWN_MILLIS, queue.size());
+        }
+    }
+
+    public void submit(PersonAbroadAuditRow row) {
+        submitAll(List.of(row));
+    }
+
+    public void submitAll(Collection<? extends PersonAbroadAuditRow> rows) {
+        List<PersonAbroadAuditRow> overflow = new ArrayList<>();
+        for (PersonAbroadAuditRow row : rows) {
+            if (!enqueue(row)) {
+                overflow.add(row);
+            }
+        }
+        if (!overflow.isEmpty()) {
+            for (PersonAbroadAuditRow row : overflow) {
+                counters(row).direct().increment();
+            }
+            write(overflow);
+        }
+    }
+
+    private boolean enqueue(PersonAbroadAuditRow row) {
+        if (!running) {
+            return false;
+        }
+        try {
+            if (!queue.offer(row, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+            // stop() may have run after the check above and the writer may already
+            // have left the drain loop: take the row back unless it was picked up
+            return running || !queue.remove(row);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void drainLoop() {
+        List<PersonAbroadAuditRow> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PersonAbroadAuditRow first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Audit writer loop error", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PersonAbroadAuditRow> rows) {
+        List<PersonAbroadCheckStatusRow> checkRows = new ArrayList<>(rows.size());
+        List<PersonAbroadRestoreStatusRow> restoreRows = new ArrayList<>();
+        for (PersonAbroadAuditRow row : rows) {
+            switch (row) {
+                case PersonAbroadCheckStatusRow checkRow -> checkRows.add(checkRow);
+                case PersonAbroadRestoreStatusRow restoreRow -> restoreRows.add(restoreRow);
+            }
+        }
+
+        long start = System.nanoTime();
+        try {
+            // Each table commits on its own: a failure of one does not repeat the other
+            writeTable(checkRows, checkCounters, auditRepository::savePersonStatuses);
+            writeTable(restoreRows, restoreCounters, auditRepository::saveRestoreStatuses);
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSizeSummary.record(rows.size());
+        }
+    }
+
+    /**
+     * Batch INSERT with bounded retries, then row by row
+     */
+    private <T extends PersonAbroadAuditRow> void writeTable(List<T> rows, TableCounters counters, Consumer<List<T>> insert) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                insert.accept(rows);
+                counters.written().increment(rows.size());
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= retryAttempts) {
+                    log.error("Error writing {} {} log rows after {} attempts, writing them one by one",
+                        rows.size(), counters.table(), attempt, e);
+                    break;
+                }
+                long backoff = retryBackoffMillis << (attempt - 1);
+                log.warn("Error writing {} {} log rows, retrying in {} ms: {}",
+                    rows.size(), counters.table(), backoff, e.getMessage());
+                if (!sleep(backoff)) {
+                    break;
+                }
+            }
+        }
+        writeOneByOne(rows, counters, insert);
+    }
+
+    private <T extends PersonAbroadAuditRow> void writeOneByOne(List<T> rows, TableCounters counters, Consumer<List<T>> insert) {
+        int consecutiveFailures = 0;
+        for (T row : rows) {
+            if (consecutiveFailures >= MAX_CONSECUTIVE_ROW_FAILURES) {
+                lost(row, counters, null);
+                continue;
+            }
+            try {
+                insert.accept(List.of(row));
+                counters.written().increment();
+                consecutiveFailures = 0;
+            } catch (RuntimeException e) {
+                consecutiveFailures++;
+                lost(row, counters, e);
+            }
+        }
+    }
+
+    /**
+     * The values are logged so the row can be inserted by hand
+     */
+    private static void lost(PersonAbroadAuditRow row, TableCounters counters, RuntimeException e) {
+        counters.failed().increment();
+        if (e != null) {
+            log.error("Person abroad {} log row not written: {}", counters.table(), row, e);
+        } else {
+            log.error("Person abroad {} log row not written (database unavailable): {}", counters.table(), row);
+        }
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private TableCounters counters(PersonAbroadAuditRow row) {
+        return row instanceof PersonAbroadRestoreStatusRow ? restoreCounters : checkCounters;
+    }
+
+    /**
+     * person.abroad.audit.rows of one log table
+     */
+    private record TableCounters(String table, Counter written, Counter failed, Counter direct) {
+
+        TableCounters(MeterRegistry meterRegistry, String table) {
+            this(table,
+                rowsCounter(meterRegistry, table, "written"),
+                rowsCounter(meterRegistry, table, "failed"),
+                rowsCounter(meterRegistry, table, "direct"));
+        }
+
+        private static Counter rowsCounter(MeterRegistry meterRegistry, String table, String outcome) {
+            return Counter.builder("person.abroad.audit.rows")
+                .description("Log rows handled by the audit writer")
+                .tag("table", table)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+        }
+    }
+}
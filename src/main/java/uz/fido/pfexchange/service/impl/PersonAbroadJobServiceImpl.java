@@ -0,0 +1,475 @@
+package uz.fido.pfexchange.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import uz.fido.pfexchange.config.PersonAbroadProperties;
+import uz.fido.pfexchange.dto.mip.PersonAbroadBatchStatusRequestDto;
+import uz.fido.pfexchange.dto.mip.PersonAbroadCheckStatusResponseDto;
+import uz.fido.pfexchange.dto.mip.PersonAbroadJobDto;
+import uz.fido.pfexchange.dto.mip.PersonAbroadJobFormat;
+import uz.fido.pfexchange.dto.mip.PersonAbroadJobOperation;
+import uz.fido.pfexchange.dto.mip.PersonAbroadJobResultDto;
+import uz.fido.pfexchange.dto.mip.PersonAbroadJobStatus;
+import uz.fido.pfexchange.dto.mip.PersonAbroadRestoreStatusResponseDto;
+import uz.fido.pfexchange.dto.mip.PersonAbroadStatusDataDto;
+import uz.fido.pfexchange.repository.mip.PersonAbroadJob;
+import uz.fido.pfexchange.repository.mip.PersonAbroadJobRepository;
+import uz.fido.pfexchange.service.PersonAbroadJobService;
+import uz.fido.pfexchange.service.PersonAbroadService;
+
+/**
+ * Fon vazifalari servisi implementatsiyasi
+ * Service implementation for bulk jobs
+ *
+ * Job directory ({jobs-dir}/{job_id}):
+ *   input.csv       - upload normalized to "ws_id,pinfl" lines while it is being read
+ *   results.ndjson  - one PersonAbroadJobResultDto per input line, in input order
+ *
+ * Each chunk is processed through the batch endpoints' service methods, its
+ * results are appended and fsync'ed, then Pf_Exchange_Abroad_Jobs is updated.
+ * After a restart results.ndjson is truncated to the committed Output_Offset
+ * and input resumes after Processed_Items lines, so a chunk interrupted
+ * mid-way is processed again (RESTORE then answers 1 for already restored).
+ *
+ * Several instances may run at once (rolling deploy, more nodes). A job is
+ * processed only after claim() made this instance its Owner; the heartbeat
+ * is refreshed with every chunk. Every job-lease each instance looks for
+ * jobs that are queued, released on shutdown or whose owner's heartbeat is
+ * older than job-lease, and claims those whose input.csv it can see: with a
+ * shared jobs-dir any instance takes over, with a node-local one only the
+ * instance that received the upload. Before a chunk's results are written
+ * the owner refreshes the heartbeat; if the job was taken over meanwhile
+ * (the update matches no row) it stops without touching the files or the row.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PersonAbroadJobServiceImpl implements PersonAbroadJobService {
+
+    static final String INPUT_FILE = "input.csv";
+    static final String RESULTS_FILE = "results.ndjson";
+
+    private final PersonAbroadJobRepository jobRepository;
+    private final PersonAbroadService personAbroadService;
+    private final PersonAbroadProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Executor personAbroadJobExecutor;
+
+    /**
+     * Owner qiymati: host nomi va shu ishga tushishning tasodifiy qismi
+     */
+    private final String owner = instanceName();
+
+    /**
+     * Shu instance navbatga qo'ygan yoki bajarayotgan vazifalar
+     */
+    private final Set<String> localJobs = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean stopping;
+
+    private ScheduledExecutorService scheduler;
+
+    @Override
+    public PersonAbroadJobDto submit(PersonAbroadJobOperation operation, PersonAbroadJobFormat format, Long wsId, InputStream body) {
+        String jobId = UUID.randomUUID().toString();
+        Path jobDir = jobDir(jobId);
+
+        long totalItems;
+        try {
+            Files.createDirectories(jobDir);
+            totalItems = spool(format, wsId, body, jobDir.resolve(INPUT_FILE));
+        } catch (IOException e) {
+            deleteJobDir(jobDir);
+            throw new UncheckedIOException("Vazifa faylini saqlab bo'lmadi: " + e.getMessage(), e);
+        }
+
+        if (totalItems == 0) {
+            deleteJobDir(jobDir);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Faylda birorta ham PINFL topilmadi");
+        }
+
+        jobRepository.create(jobId, operation, totalItems);
+        log.info("Job {} queued - operation: {}, format: {}, items: {}", jobId, operation, format, totalItems);
+
+        schedule(jobId);
+
+        return getJob(jobId);
+    }
+
+    @Override
+    public PersonAbroadJobDto getJob(String jobId) {
+        return toDto(findJob(jobId));
+    }
+
+    @Override
+    public void writeResults(String jobId, OutputStream out) throws IOException {
+        PersonAbroadJob job = findJob(jobId);
+        Path resultsFile = jobDir(jobId).resolve(RESULTS_FILE);
+        if (job.outputOffset() == 0 || !Files.exists(resultsFile)) {
+            return;
+        }
+
+        // Faqat tasdiqlangan qism: yozilayotgan chunk javobga tushmaydi
+        try (FileChannel results = FileChannel.open(resultsFile, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = 0;
+            while (position < job.outputOffset()) {
+                position += results.transferTo(position, job.outputOffset() - position, target);
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Ishga tushgandan keyin va har job-lease da egasiz vazifalarni davom ettirish
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startResuming() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+            .name("person-abroad-job-resume")
+            .daemon(true)
+            .factory());
+        long leaseMillis = properties.getJobLease().toMillis();
+        scheduler.scheduleWithFixedDelay(this::resumeUnfinishedJobs, 0, leaseMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Navbatdagi, to'xtashda bo'shatilgan va egasi javob bermayotgan vazifalar
+     */
+    void resumeUnfinishedJobs() {
+        try {
+            for (String jobId : jobRepository.findClaimableIds(properties.getJobLease())) {
+                if (!localJobs.contains(jobId) && Files.exists(jobDir(jobId).resolve(INPUT_FILE))) {
+                    log.info("Resuming job {}", jobId);
+                    schedule(jobId);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not look for unfinished jobs: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * To'xtashda joriy chunk tugaydi, vazifa RUNNING holatida qoladi va
+     * bo'shatiladi: boshqa instance uni lease tugashini kutmasdan egallaydi
+     */
+    @PreDestroy
+    void stop() {
+        stopping = true;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void schedule(String jobId) {
+        if (localJobs.add(jobId)) {
+            personAbroadJobExecutor.execute(() -> {
+                try {
+                    run(jobId);
+                } finally {
+                    localJobs.remove(jobId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Vazifani egallab, oxirgi tasdiqlangan chunkdan boshlab bajarish
+     */
+    void run(String jobId) {
+        Path jobDir = jobDir(jobId);
+        if (!Files.exists(jobDir.resolve(INPUT_FILE))) {
+            // Node-local jobs-dir: vazifa fayllari boshqa instance'da
+            log.info("Job {} files are not on this instance, leaving it to its owner", jobId);
+            return;
+        }
+        if (!jobRepository.claim(jobId, owner, properties.getJobLease())) {
+            log.debug("Job {} is finished or owned by another instance", jobId);
+            return;
+        }
+        // Egallangandan keyin o'qiladi: avvalgi egasining oxirgi chunki ham hisobga olinadi
+        PersonAbroadJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+
+        ObjectWriter resultWriter = objectMapper.writerFor(PersonAbroadJobResultDto.class)
+            .without(SerializationFeature.INDENT_OUTPUT);
+
+        try (BufferedReader input = Files.newBufferedReader(jobDir.resolve(INPUT_FILE), StandardCharsets.UTF_8);
+             FileChannel results = FileChannel.open(jobDir.resolve(RESULTS_FILE),
+                 StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+
+            // Tasdiqlanmagan chunk natijalarini tashlab yuborish, tasdiqlangan elementlarni o'tkazib yuborish
+            results.truncate(job.outputOffset());
+            results.position(job.outputOffset());
+            for (long i = 0; i < job.processedItems(); i++) {
+                input.readLine();
+            }
+
+            int chunk = job.committedChunk();
+            long processed = job.processedItems();
+            long failed = job.failedItems();
+
+            List<PersonAbroadStatusDataDto> items;
+            while (!(items = readChunk(input)).isEmpty()) {
+                if (stopping) {
+                    log.info("Job {} paused at chunk {} - released for another instance", jobId, chunk);
+                    jobRepository.release(jobId, owner);
+                    return;
+                }
+
+                List<PersonAbroadJobResultDto> chunkResults = process(job.operation(), items);
+
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream(chunkResults.size() * 96);
+                for (PersonAbroadJobResultDto result : chunkResults) {
+                    buffer.write(resultWriter.writeValueAsBytes(result));
+                    buffer.write('\n');
+                    if (result.result() == null || result.result() == 0) {
+                        failed++;
+                    }
+                }
+                // Uzoq chunkdan keyin: lease tugab, vazifa boshqa instance'ga o'tgan bo'lsa
+                // uning results faylini buzmaslik uchun yozishdan oldin tekshiriladi
+                if (!jobRepository.heartbeat(jobId, owner)) {
+                    log.warn("Job {} was taken over by another instance at chunk {}, stopping", jobId, chunk);
+                    return;
+                }
+                ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+                while (bytes.hasRemaining()) {
+                    results.write(bytes);
+                }
+                results.force(false);
+
+                chunk++;
+                processed += items.size();
+                if (!jobRepository.commitChunk(jobId, owner, chunk, processed, failed, results.position())) {
+                    // Lease tugagan va vazifani boshqa instance egallagan: uning natijalariga tegmaslik
+                    log.warn("Job {} was taken over by another instance at chunk {}, stopping", jobId, chunk);
+                    return;
+                }
+
+                log.debug("Job {} chunk {} committed - processed: {}/{}", jobId, chunk, processed, job.totalItems());
+            }
+
+            jobRepository.finish(jobId, owner, PersonAbroadJobStatus.COMPLETED, null);
+            log.info("Job {} completed - items: {}, failed: {}", jobId, processed, failed);
+
+        } catch (Exception e) {
+            if (stopping) {
+                log.warn("Job {} interrupted by shutdown - released for another instance", jobId, e);
+                jobRepository.release(jobId, owner);
+                return;
+            }
+            log.error("Job {} failed", jobId, e);
+            jobRepository.finish(jobId, owner, PersonAbroadJobStatus.FAILED, e.getMessage());
+        }
+    }
+
+    private List<PersonAbroadJobResultDto> process(PersonAbroadJobOperation operation, List<PersonAbroadStatusDataDto> items) {
+        PersonAbroadBatchStatusRequestDto request = new PersonAbroadBatchStatusRequestDto(items);
+        List<PersonAbroadJobResultDto> results = new ArrayList<>(items.size());
+
+        if (operation == PersonAbroadJobOperation.CHECK) {
+            List<PersonAbroadCheckStatusResponseDto> responses = personAbroadService.checkStatusBatch(request).getData();
+            for (int i = 0; i < items.size(); i++) {
+                PersonAbroadCheckStatusResponseDto response = responses.get(i);
+                results.add(new PersonAbroadJobResultDto(response.getWsId(), items.get(i).getPinfl(),
+                    response.getResult(), response.getMsg(), response.getStatus()));
+            }
+        } else {
+            List<PersonAbroadRestoreStatusResponseDto> responses = personAbroadService.restoreStatusBatch(request).getData();
+            for (int i = 0; i < items.size(); i++) {
+                PersonAbroadRestoreStatusResponseDto response = responses.get(i);
+                results.add(new PersonAbroadJobResultDto(response.getWsId(), items.get(i).getPinfl(),
+                    response.getResult(), response.getMsg(), null));
+            }
+        }
+        return results;
+    }
+
+    private List<PersonAbroadStatusDataDto> readChunk(BufferedReader input) throws IOException {
+        List<PersonAbroadStatusDataDto> items = new ArrayList<>(properties.getJobChunkSize());
+        String line;
+        while (items.size() < properties.getJobChunkSize() && (line = input.readLine()) != null) {
+            int comma = line.indexOf(',');
+            String wsId = line.substring(0, comma);
+            String pinfl = line.substring(comma + 1);
+            items.add(new PersonAbroadStatusDataDto(
+                wsId.isEmpty() ? null : Long.valueOf(wsId),
+                pinfl.isEmpty() ? null : pinfl));
+        }
+        return items;
+    }
+
+    /**
+     * Yuklanayotgan faylni qatorma-qator o'qib input.csv ga yozadi
+     *
+     * Tekshiruv (PINFL formati va h.k.) chunk bajarilganda batch servis
+     * metodlarida qilinadi: noto'g'ri qator result=0 bilan natijaga tushadi.
+     *
+     * @return yozilgan elementlar soni
+     */
+    long spool(PersonAbroadJobFormat format, Long defaultWsId, InputStream body, Path inputFile) throws IOException {
+        long count = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+             Writer writer = Files.newBufferedWriter(inputFile, StandardCharsets.UTF_8)) {
+
+            String line;
+            boolean firstLine = true;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (firstLine) {
+                    firstLine = false;
+                    if (format == PersonAbroadJobFormat.CSV && line.toLowerCase(Locale.ROOT).contains("pinfl")) {
+                        continue;
+                    }
+                }
+
+                PersonAbroadStatusDataDto item = format == PersonAbroadJobFormat.NDJSON
+                    ? parseNdjsonLine(line, defaultWsId)
+                    : parseCsvLine(line, defaultWsId);
+
+                writer.write(item.getWsId() != null ? item.getWsId().toString() : "");
+                writer.write(',');
+                if (item.getPinfl() != null) {
+                    writer.write(item.getPinfl().replaceAll("[,\\r\\n]", ""));
+                }
+                writer.write('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private PersonAbroadStatusDataDto parseCsvLine(String line, Long defaultWsId) {
+        String[] columns = line.split("[,;]", -1);
+        if (columns.length == 1) {
+            return new PersonAbroadStatusDataDto(defaultWsId, unquote(columns[0]));
+        }
+        return new PersonAbroadStatusDataDto(parseWsId(unquote(columns[0]), defaultWsId), unquote(columns[1]));
+    }
+
+    private PersonAbroadStatusDataDto parseNdjsonLine(String line, Long defaultWsId) {
+        try {
+            JsonNode node = objectMapper.readTree(line);
+            JsonNode wsId = node.path("ws_id");
+            JsonNode pinfl = node.path("pinfl");
+            return new PersonAbroadStatusDataDto(
+                wsId.canConvertToLong() ? Long.valueOf(wsId.asLong()) : parseWsId(wsId.asText(null), defaultWsId),
+                pinfl.isValueNode() ? pinfl.asText() : null);
+        } catch (JsonProcessingException e) {
+            // Buzilgan qator natijada "Data elementi" xatosi bilan chiqadi
+            return new PersonAbroadStatusDataDto(defaultWsId, null);
+        }
+    }
+
+    private static Long parseWsId(String value, Long defaultWsId) {
+        if (value == null || value.isBlank()) {
+            return defaultWsId;
+        }
+        try {
+            return Long.valueOf(value.strip());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String unquote(String value) {
+        String stripped = value.strip();
+        if (stripped.length() >= 2 && stripped.startsWith("\"") && stripped.endsWith("\"")) {
+            stripped = stripped.substring(1, stripped.length() - 1).strip();
+        }
+        return stripped.isEmpty() ? null : stripped;
+    }
+
+    private PersonAbroadJob findJob(String jobId) {
+        return jobRepository.findById(jobId)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Vazifa topilmadi: " + jobId));
+    }
+
+    private Path jobDir(String jobId) {
+        // jobId UUID bo'lishi shart: katalog nomi sifatida ishlatiladi
+        return Path.of(properties.getJobsDir()).resolve(UUID.fromString(jobId).toString());
+    }
+
+    private static void deleteJobDir(Path jobDir) {
+        if (!Files.exists(jobDir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(jobDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            log.warn("Could not delete job directory {}", jobDir, e);
+        }
+    }
+
+    private static String instanceName() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            host = "unknown";
+        }
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        String name = host + "/" + suffix;
+        return name.length() > 100 ? name.substring(name.length() - 100) : name;
+    }
+
+    private static PersonAbroadJobDto toDto(PersonAbroadJob job) {
+        return PersonAbroadJobDto.builder()
+            .jobId(job.jobId())
+            .operation(job.operation())
+            .status(job.status())
+            .totalItems(job.totalItems())
+            .processedItems(job.processedItems())
+            .failedItems(job.failedItems())
+            .errorMsg(job.errorMsg())
+            .createdAt(job.creationDate())
+            .updatedAt(job.updateDate())
+            .build();
+    }
+}
@@ -0,0 +1,198 @@
+package uz.fido.pfexchange.service.impl;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import uz.fido.pfexchange.config.PersonAbroadProperties;
+
+/**
+ * Pensiya oluvchi bo'lmagan PINFL'lar uchun Bloom filtr (registry-filter-enabled=true)
+ * Bloom filter over all Person_Type = '01' PINFLs
+ *
+ * A large share of check/restore requests is for people who are not
+ * pensioners. When the filter says a PINFL is definitely not in Pf_Persons
+ * the service answers result=0 "ro'yhatida mavjud emas" itself (the log row
+ * is still written) instead of calling PF_EXCHANGES_ABROAD.
+ *
+ * The filter reads no rows itself: it is a RefreshListener of
+ * PersonAbroadStatusIndex and is filled by the same Pf_Persons scan. Every
+ * full load of the index (status-index-full-refresh-interval, or a restored
+ * index snapshot) builds a new filter; every status-index-refresh-interval
+ * the PINFLs of changed rows are added. A Bloom filter cannot forget, so a
+ * removed pensioner stays "maybe present" until the next full load - that
+ * only costs an Oracle call.
+ *
+ * A new pensioner missing from the filter would be answered wrongly, so
+ * nothing is short-circuited until the first load has finished. A check is
+ * short-circuited while the last refresh is younger than
+ * registry-filter-max-staleness. A restore is short-circuited only while the
+ * last refresh is younger than one status-index-refresh-interval, i.e. no
+ * refresh has been missed; after that it goes to Oracle (a wrong "not found"
+ * would block the restore of a new pensioner).
+ *
+ * Metrics: person.abroad.registry.filter.calls.avoided{operation},
+ * person.abroad.registry.filter.false.positive.rate (PINFLs let through that
+ * Oracle did not find / PINFLs let through), person.abroad.registry.filter.expected.fpp,
+ * person.abroad.registry.filter.size.
+ */
+@Slf4j
+@Component
+public class PersonAbroadRegistryFilter implements PersonAbroadStatusIndex.RefreshListener {
+
+    private final boolean enabled;
+    private final long expectedSize;
+    private final double fpp;
+    private final long refreshIntervalMillis;
+    private final long maxStalenessMillis;
+
+    private final Counter checkCallsAvoided;
+    private final Counter restoreCallsAvoided;
+    private final Counter passed;
+    private final Counter falsePositives;
+
+    /**
+     * null - birinchi yuklash tugamagan
+     */
+    private volatile BloomFilter<Long> filter;
+    private volatile long refreshedAt;
+
+    // Refresh thread only
+    private BloomFilter<Long> loading;
+    private long loadingCount;
+    private long lastCount;
+
+    public PersonAbroadRegistryFilter(PersonAbroadProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isRegistryFilterEnabled();
+        this.expectedSize = properties.getRegistryFilterExpectedSize();
+        this.fpp = properties.getRegistryFilterFpp();
+        this.refreshIntervalMillis = properties.getStatusIndexRefreshInterval().toMillis();
+        this.maxStalenessMillis = properties.getRegistryFilterMaxStaleness().toMillis();
+
+        this.checkCallsAvoided = callsAvoidedCounter(meterRegistry, PersonAbroadSingleFlight.CHECK);
+        this.restoreCallsAvoided = callsAvoidedCounter(meterRegistry, PersonAbroadSingleFlight.RESTORE);
+        this.passed = Counter.builder("person.abroad.registry.filter.passed")
+            .description("PINFLs the filter let through to Oracle")
+            .register(meterRegistry);
+        this.falsePositives = Counter.builder("person.abroad.registry.filter.false.positives")
+            .description("PINFLs let through that Oracle did not find")
+            .register(meterRegistry);
+
+        Gauge.builder("person.abroad.registry.filter.false.positive.rate", this, PersonAbroadRegistryFilter::falsePositiveRate)
+            .description("Observed share of let-through PINFLs that were not pensioners")
+            .register(meterRegistry);
+        Gauge.builder("person.abroad.registry.filter.expected.fpp", this, PersonAbroadRegistryFilter::expectedFpp)
+            .description("False positive probability of the current filter")
+            .register(meterRegistry);
+        Gauge.builder("person.abroad.registry.filter.size", this, PersonAbroadRegistryFilter::size)
+            .description("Approximate number of PINFLs in the filter")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * true - PINFL Pf_Persons'da aniq yo'q, Oracle'ga murojaat shart emas
+     *
+     * @param operation PersonAbroadSingleFlight.CHECK yoki RESTORE
+     */
+    public boolean isDefinitelyAbsent(String operation, Long wsId, String pinfl) {
+        if (!isReady(operation)) {
+            return false;
+        }
+        long key = PersonAbroadStatusIndex.parsePinfl(pinfl);
+        if (wsId == null || wsId < 0 || key < 0) {
+            // Oracle reports the invalid parameter
+            return false;
+        }
+        if (filter.mightContain(key)) {
+            passed.increment();
+            return false;
+        }
+        (isRestore(operation) ? restoreCallsAvoided : checkCallsAvoided).increment();
+        return true;
+    }
+
+    /**
+     * Oracle "ro'yhatida mavjud emas" qaytardi: filtr o'tkazib yuborgan edi
+     *
+     * @param operation isDefinitelyAbsent ga berilgan operatsiya
+     */
+    public void recordNotFound(String operation) {
+        if (isReady(operation)) {
+            falsePositives.increment();
+        }
+    }
+
+    private boolean isReady(String operation) {
+        long maxAge = isRestore(operation) ? refreshIntervalMillis : maxStalenessMillis;
+        return enabled && filter != null && System.currentTimeMillis() - refreshedAt < maxAge;
+    }
+
+    private static boolean isRestore(String operation) {
+        return PersonAbroadSingleFlight.RESTORE.equals(operation);
+    }
+
+    /**
+     * To'liq yuklashda yangi filtr quriladi, aks holda joriysiga qo'shiladi
+     */
+    @Override
+    public void refreshStarted(boolean full) {
+        // Leave room for growth until the next full load
+        loading = full
+            ? BloomFilter.create(Funnels.longFunnel(), Math.max(expectedSize, lastCount * 5 / 4), fpp)
+            : filter;
+        loadingCount = 0;
+    }
+
+    @Override
+    public void pensioner(long pinfl) {
+        if (loading != null) {
+            loading.put(pinfl);
+            loadingCount++;
+        }
+    }
+
+    @Override
+    public void refreshFinished(boolean full, long refreshedAt) {
+        BloomFilter<Long> loaded = loading;
+        loading = null;
+        if (loaded == null) {
+            return;
+        }
+        if (full) {
+            filter = loaded;
+            lastCount = loadingCount;
+            log.info("Person registry filter built - pensioners: {}, expected fpp: {}", loadingCount, loaded.expectedFpp());
+        }
+        this.refreshedAt = refreshedAt;
+    }
+
+    double falsePositiveRate() {
+        double total = passed.count();
+        return total > 0 ? falsePositives.count() / total : Double.NaN;
+    }
+
+    double expectedFpp() {
+        BloomFilter<Long> current = filter;
+        return current != null ? current.expectedFpp() : Double.NaN;
+    }
+
+    long size() {
+        BloomFilter<Long> current = filter;
+        return current != null ? current.approximateElementCount() : 0;
+    }
+
+    private static Counter callsAvoidedCounter(MeterRegistry meterRegistry, String operation) {
+        return Counter.builder("person.abroad.registry.filter.calls.avoided")
+            .description("Requests answered 'not a pensioner' without calling PF_EXCHANGES_ABROAD")
+            .tag("operation", operation)
+            .register(meterRegistry);
+    }
+}
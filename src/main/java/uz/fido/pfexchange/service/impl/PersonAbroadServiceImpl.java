@@ -1,16 +1,31 @@
 package uz.fido.pfexchange.service.impl;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import java.sql.Clob;
-import java.util.Map;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import uz.fido.pfexchange.dto.mip.PersonAbroadBatchCheckStatusResponseDto;
+import uz.fido.pfexchange.dto.mip.PersonAbroadBatchRestoreStatusResponseDto;
+import uz.fido.pfexchange.dto.mip.PersonAbroadBatchStatusRequestDto;
 import uz.fido.pfexchange.dto.mip.PersonAbroadCheckStatusResponseDto;
 import uz.fido.pfexchange.dto.mip.PersonAbroadRestoreStatusResponseDto;
+import uz.fido.pfexchange.dto.mip.PersonAbroadStatusDataDto;
 import uz.fido.pfexchange.dto.mip.PersonAbroadStatusRequestDto;
+import uz.fido.pfexchange.repository.mip.PersonAbroadAuditRepository;
+import uz.fido.pfexchange.repository.mip.PersonAbroadCallResult;
+import uz.fido.pfexchange.repository.mip.PersonAbroadCheckStatusRow;
 import uz.fido.pfexchange.repository.mip.PersonAbroadRepository;
+import uz.fido.pfexchange.repository.mip.PersonAbroadRestoreStatusRow;
 import uz.fido.pfexchange.service.PersonAbroadService;
 
 /**
@@ -25,13 +40,34 @@ import uz.fido.pfexchange.service.PersonAbroadService;
 @RequiredArgsConstructor
 public class PersonAbroadServiceImpl implements PersonAbroadService {
 
+    /**
+     * Restore natijasi: oluvchi statusi faol xolatga keltirildi
+     */
+    private static final int RESTORED = 2;
+
+    /**
+     * Check/Restore natijasi 0: PINFL Pf_Persons'da yo'q
+     */
+    private static final String NOT_FOUND_MSG = PersonAbroadStatusIndex.NOT_FOUND_MSG;
+
     private final PersonAbroadRepository repository;
-    private final ObjectMapper objectMapper;
+    private final PersonAbroadAuditRepository auditRepository;
+    private final Validator validator;
+    private final Executor personAbroadRestoreExecutor;
+    private final PersonAbroadStatusCache statusCache;
+    private final PersonAbroadSingleFlight singleFlight;
+    private final PersonAbroadAuditWriter auditWriter;
+    private final PersonAbroadStatusIndex statusIndex;
+    private final PersonAbroadRegistryFilter registryFilter;
 
     /**
      * ENDPOINT 1: Just check status (no restoration)
      *
-     * Calls PF_EXCHANGES_ABROAD.Check_Person_Status
+     * Answered from statusIndex when it is enabled and fresh (log row written from
+     * Java); otherwise calls PF_EXCHANGES_ABROAD.Check_Person_Status unless the PINFL
+     * is in statusCache or registryFilter rules it out (log row written from Java for
+     * both as well); concurrent calls for one PINFL are coalesced by singleFlight,
+     * callers that shared another caller's Oracle call get their log row from Java
      * Returns JSON: {"result": 1, "msg": "", "ws_id": 77, "status": 1}
      */
     @Override
@@ -41,27 +77,62 @@ public class PersonAbroadServiceImpl implements PersonAbroadService {
 
         log.info("Checking person status (no restore) for PINFL: {}, WS_ID: {}", pinfl, wsId);
 
-        try {
-            // Convert request to XML format (Oracle expects XML)
-            String xmlData = convertToXml(requestDto);
+        Optional<PersonAbroadCheckStatusRow> indexed = statusIndex.check(wsId, pinfl);
+        if (indexed.isPresent()) {
+            PersonAbroadCheckStatusRow row = indexed.get();
+            log.info("Check status served from status index - result: {}, status: {}", row.resultCode(), row.status());
+            audit(row);
+            return toResponse(row);
+        }
 
-            // Call Oracle function
-            Map<String, Object> result = repository.checkPersonStatus(xmlData);
+        if (registryFilter.isDefinitelyAbsent(PersonAbroadSingleFlight.CHECK, wsId, pinfl)) {
+            log.info("Check status served by registry filter - not a pensioner");
+            PersonAbroadCheckStatusRow row = new PersonAbroadCheckStatusRow(wsId, pinfl, 0, null, NOT_FOUND_MSG, null);
+            audit(row);
+            return toResponse(row);
+        }
 
-            // Parse JSON response from CLOB
-            Clob responseClob = (Clob) result.get("O_Data");
-            String jsonResponse = repository.clobToString(responseClob);
+        Optional<PersonAbroadCheckStatusResponseDto> cached = statusCache.get(pinfl, wsId);
+        if (cached.isPresent()) {
+            PersonAbroadCheckStatusResponseDto response = cached.get();
+            log.info("Check status served from cache - status: {}", response.getStatus());
+            audit(new PersonAbroadCheckStatusRow(wsId, pinfl, response.getResult(), response.getStatus(), response.getMsg(), null));
+            return response;
+        }
 
-            log.debug("Oracle response JSON: {}", jsonResponse);
+        try {
+            // Call Oracle function (OUT parameters are mapped into the DTO by the repository)
+            // Concurrent calls for the same PINFL share one Oracle call
+            boolean[] calledOracle = {false};
+            PersonAbroadCallResult<PersonAbroadCheckStatusResponseDto> result = singleFlight.execute(
+                PersonAbroadSingleFlight.CHECK, pinfl, () -> {
+                    calledOracle[0] = true;
+                    return callCheckAndCache(wsId, pinfl);
+                });
 
-            // Parse JSON to DTO
-            PersonAbroadCheckStatusResponseDto response = objectMapper.readValue(
-                jsonResponse,
-                PersonAbroadCheckStatusResponseDto.class
-            );
+            PersonAbroadCheckStatusResponseDto response = result.data();
+            if (response == null) {
+                throw new IllegalStateException("Oracle javobi bo'sh");
+            }
+            if (!calledOracle[0]) {
+                // Only the caller that reached Oracle got a log row there
+                audit(new PersonAbroadCheckStatusRow(wsId, pinfl, response.getResult(), response.getStatus(), response.getMsg(), null));
+            }
+            if (!Objects.equals(response.getWsId(), wsId)) {
+                response = PersonAbroadCheckStatusResponseDto.builder()
+                    .result(response.getResult())
+                    .msg(response.getMsg())
+                    .wsId(wsId)
+                    .status(response.getStatus())
+                    .build();
+            }
 
             log.info("Check status completed - result: {}, status: {}", response.getResult(), response.getStatus());
 
+            if (isNotFound(response.getResult(), response.getMsg())) {
+                registryFilter.recordNotFound(PersonAbroadSingleFlight.CHECK);
+            }
+
             return response;
 
         } catch (Exception e) {
@@ -76,10 +147,61 @@ public class PersonAbroadServiceImpl implements PersonAbroadService {
         }
     }
 
+    /**
+     * ENDPOINT 1b: Check status of many persons at once
+     *
+     * Items are validated one by one with PersonAbroadStatusDataDto rules;
+     * valid items go to PF_EXCHANGES_ABROAD.Check_Person_Status_Batch in
+     * one call. Invalid items and a failed DB call become result=0 per item.
+     */
+    @Override
+    public PersonAbroadBatchCheckStatusResponseDto checkStatusBatch(PersonAbroadBatchStatusRequestDto requestDto) {
+        List<PersonAbroadStatusDataDto> items = requestDto.getData();
+        PersonAbroadCheckStatusResponseDto[] responses = new PersonAbroadCheckStatusResponseDto[items.size()];
+
+        List<Integer> validIndexes = new ArrayList<>(items.size());
+        List<PersonAbroadStatusDataDto> validItems = new ArrayList<>(items.size());
+
+        for (int i = 0; i < items.size(); i++) {
+            PersonAbroadStatusDataDto item = items.get(i);
+            String error = validate(item);
+            if (error != null) {
+                responses[i] = errorResponse(item != null ? item.getWsId() : null, error);
+            } else {
+                validIndexes.add(i);
+                validItems.add(item);
+            }
+        }
+
+        log.info("Checking person status batch - items: {}, valid: {}", items.size(), validItems.size());
+
+        if (!validItems.isEmpty()) {
+            try {
+                List<PersonAbroadCheckStatusResponseDto> results = repository.checkPersonStatusBatch(validItems).data();
+                for (int i = 0; i < validIndexes.size(); i++) {
+                    responses[validIndexes.get(i)] = results.get(i);
+                }
+            } catch (Exception e) {
+                log.error("Error checking status batch of {} items", validItems.size(), e);
+                for (int i = 0; i < validIndexes.size(); i++) {
+                    responses[validIndexes.get(i)] = errorResponse(
+                        validItems.get(i).getWsId(),
+                        "Ma'lumotni qayta ishlashda xatolik: " + e.getMessage()
+                    );
+                }
+            }
+        }
+
+        return PersonAbroadBatchCheckStatusResponseDto.builder()
+            .data(Arrays.asList(responses))
+            .build();
+    }
+
     /**
      * ENDPOINT 2: Check arrival and restore if needed
      *
-     * Calls PF_EXCHANGES_ABROAD.Restore_Person_Status
+     * Calls PF_EXCHANGES_ABROAD.Restore_Person_Status unless registryFilter rules
+     * the PINFL out (only while its last refresh is within one refresh interval)
      * Returns JSON: {"result": 2, "msg": "O'zgartirildi", "ws_id": 77}
      */
     @Override
@@ -89,30 +211,47 @@ public class PersonAbroadServiceImpl implements PersonAbroadService {
 
         log.info("Checking restore status for PINFL: {}, WS_ID: {}", pinfl, wsId);
 
-        try {
-            // Convert request to XML format (Oracle expects XML)
-            String xmlData = convertToXml(requestDto);
-
-            // Call Oracle function
-            Map<String, Object> result = repository.restorePersonStatus(xmlData);
-
-            // Parse JSON response from CLOB
-            Clob responseClob = (Clob) result.get("O_Data");
-            String jsonResponse = repository.clobToString(responseClob);
+        if (registryFilter.isDefinitelyAbsent(PersonAbroadSingleFlight.RESTORE, wsId, pinfl)) {
+            log.info("Restore status served by registry filter - not a pensioner");
+            PersonAbroadRestoreStatusRow row = new PersonAbroadRestoreStatusRow(wsId, pinfl, 0, NOT_FOUND_MSG, null);
+            audit(row);
+            return PersonAbroadRestoreStatusResponseDto.builder()
+                .result(row.resultCode())
+                .msg(row.msg())
+                .wsId(row.wsId())
+                .build();
+        }
 
-            log.debug("Oracle response JSON: {}", jsonResponse);
+        try {
+            // Call Oracle function (OUT parameters are mapped into the DTO by the repository)
+            // Not coalesced: every caller gets its own log row and its own answer
+            // (a restore right after another one answers result=1, not 2)
+            PersonAbroadCallResult<PersonAbroadRestoreStatusResponseDto> result = callRestore(wsId, pinfl);
 
-            // Parse JSON to DTO
-            PersonAbroadRestoreStatusResponseDto response = objectMapper.readValue(
-                jsonResponse,
-                PersonAbroadRestoreStatusResponseDto.class
-            );
+            PersonAbroadRestoreStatusResponseDto response = result.data();
+            if (response == null) {
+                throw new IllegalStateException("Oracle javobi bo'sh");
+            }
+            if (!Objects.equals(response.getWsId(), wsId)) {
+                response = PersonAbroadRestoreStatusResponseDto.builder()
+                    .result(response.getResult())
+                    .msg(response.getMsg())
+                    .wsId(wsId)
+                    .build();
+            }
 
             log.info("Restore status completed - result: {}, message: {}",
                 response.getResult(),
                 response.getMsg()
             );
 
+            if (response.getResult() != null && response.getResult() == RESTORED) {
+                statusCache.invalidate(pinfl);
+                statusIndex.markActive(pinfl);
+            } else if (isNotFound(response.getResult(), response.getMsg())) {
+                registryFilter.recordNotFound(PersonAbroadSingleFlight.RESTORE);
+            }
+
             return response;
 
         } catch (Exception e) {
@@ -127,14 +266,202 @@ public class PersonAbroadServiceImpl implements PersonAbroadService {
     }
 
     /**
-     * Convert request DTO to XML format expected by Oracle
-     * Format: <Data><ws_id>77</ws_id><pinfl>41006673910061</pinfl></Data>
+     * ENDPOINT 2b: Restore many persons
+     *
+     * Valid items run PF_EXCHANGES_ABROAD.Restore_Person_Status_Unlogged on
+     * personAbroadRestoreExecutor, so at most restore-parallelism connections
+     * are busy at once. Log rows of the valid items are written afterwards in
+     * JDBC batches (or handed to auditWriter with audit-mode=ASYNC); invalid
+     * items are only answered, and a failed log write does not change the
+     * restore results.
+     */
+    @Override
+    public PersonAbroadBatchRestoreStatusResponseDto restoreStatusBatch(PersonAbroadBatchStatusRequestDto requestDto) {
+        List<PersonAbroadStatusDataDto> items = requestDto.getData();
+        List<CompletableFuture<PersonAbroadRestoreStatusRow>> futures = new ArrayList<>(items.size());
+
+        for (PersonAbroadStatusDataDto item : items) {
+            String error = validate(item);
+            if (error != null) {
+                Long wsId = item != null ? item.getWsId() : null;
+                futures.add(CompletableFuture.completedFuture(new PersonAbroadRestoreStatusRow(wsId, null, 0, error, null)));
+            } else {
+                futures.add(CompletableFuture.supplyAsync(() -> restoreUnlogged(item), personAbroadRestoreExecutor));
+            }
+        }
+
+        log.info("Restoring person status batch - items: {}", items.size());
+
+        List<PersonAbroadRestoreStatusRow> rows = futures.stream()
+            .map(CompletableFuture::join)
+            .toList();
+
+        rows.stream()
+            .filter(row -> row.resultCode() == RESTORED)
+            .forEach(row -> {
+                statusCache.invalidate(row.pinfl());
+                statusIndex.markActive(row.pinfl());
+            });
+
+        // Invalid items never reached PF_EXCHANGES_ABROAD and have no PINFL to log
+        List<PersonAbroadRestoreStatusRow> auditRows = rows.stream()
+            .filter(row -> row.pinfl() != null)
+            .toList();
+
+        if (auditRows.isEmpty()) {
+            log.debug("No valid items in restore batch, nothing to log");
+        } else if (auditWriter.isEnabled()) {
+            auditWriter.submitAll(auditRows);
+        } else {
+            try {
+                auditRepository.saveRestoreStatuses(auditRows);
+            } catch (Exception e) {
+                log.error("Error writing restore status log rows for batch of {} items", auditRows.size(), e);
+            }
+        }
+
+        return PersonAbroadBatchRestoreStatusResponseDto.builder()
+            .data(rows.stream()
+                .map(row -> PersonAbroadRestoreStatusResponseDto.builder()
+                    .result(row.resultCode())
+                    .msg(row.msg())
+                    .wsId(row.wsId())
+                    .build())
+                .toList())
+            .build();
+    }
+
+    /**
+     * Only the caller that reaches Oracle caches the answer, with the cache
+     * generation taken before the call: a restore that invalidated the PINFL
+     * while the call was running keeps the old status out of the cache
      */
-    private String convertToXml(PersonAbroadStatusRequestDto requestDto) {
-        return String.format(
-            "<Data><ws_id>%d</ws_id><pinfl>%s</pinfl></Data>",
-            requestDto.getData().getWsId(),
-            requestDto.getData().getPinfl()
-        );
+    private PersonAbroadCallResult<PersonAbroadCheckStatusResponseDto> callCheckAndCache(Long wsId, String pinfl) {
+        long generation = statusCache.generation(pinfl);
+        PersonAbroadCallResult<PersonAbroadCheckStatusResponseDto> result = callCheck(wsId, pinfl);
+        if (result.data() != null) {
+            statusCache.put(pinfl, result.data(), generation);
+        }
+        return result;
+    }
+
+    /**
+     * audit-mode=ASYNC: Check_Person_Status_Unlogged, log row goes to auditWriter
+     */
+    private PersonAbroadCallResult<PersonAbroadCheckStatusResponseDto> callCheck(Long wsId, String pinfl) {
+        if (!auditWriter.isEnabled()) {
+            return repository.checkPersonStatus(wsId, pinfl);
+        }
+
+        PersonAbroadCallResult<PersonAbroadCheckStatusRow> result = repository.checkPersonStatusUnlogged(wsId, pinfl);
+        PersonAbroadCheckStatusRow row = result.data();
+        auditWriter.submit(row);
+
+        return new PersonAbroadCallResult<>(result.returnCode(), toResponse(row));
+    }
+
+    /**
+     * Log row of a check answered without PF_EXCHANGES_ABROAD
+     */
+    private void audit(PersonAbroadCheckStatusRow row) {
+        if (auditWriter.isEnabled()) {
+            auditWriter.submit(row);
+            return;
+        }
+        try {
+            auditRepository.savePersonStatuses(List.of(row));
+        } catch (Exception e) {
+            log.error("Error writing check status log row for PINFL: {}", row.pinfl(), e);
+        }
+    }
+
+    /**
+     * Log row of a restore answered without PF_EXCHANGES_ABROAD
+     */
+    private void audit(PersonAbroadRestoreStatusRow row) {
+        if (auditWriter.isEnabled()) {
+            auditWriter.submit(row);
+            return;
+        }
+        try {
+            auditRepository.saveRestoreStatuses(List.of(row));
+        } catch (Exception e) {
+            log.error("Error writing restore status log row for PINFL: {}", row.pinfl(), e);
+        }
+    }
+
+    private static boolean isNotFound(Integer result, String msg) {
+        return result != null && result == 0 && NOT_FOUND_MSG.equals(msg);
+    }
+
+    /**
+     * audit-mode=ASYNC: Restore_Person_Status_Unlogged, log row goes to auditWriter
+     */
+    private PersonAbroadCallResult<PersonAbroadRestoreStatusResponseDto> callRestore(Long wsId, String pinfl) {
+        if (!auditWriter.isEnabled()) {
+            return repository.restorePersonStatus(wsId, pinfl);
+        }
+
+        PersonAbroadCallResult<PersonAbroadRestoreStatusRow> result = repository.restorePersonStatusUnlogged(wsId, pinfl);
+        PersonAbroadRestoreStatusRow row = result.data();
+        auditWriter.submit(row);
+
+        return new PersonAbroadCallResult<>(result.returnCode(), PersonAbroadRestoreStatusResponseDto.builder()
+            .result(row.resultCode())
+            .msg(row.msg())
+            .wsId(row.wsId())
+            .build());
+    }
+
+    private PersonAbroadRestoreStatusRow restoreUnlogged(PersonAbroadStatusDataDto item) {
+        try {
+            return repository.restorePersonStatusUnlogged(item.getWsId(), item.getPinfl()).data();
+        } catch (Exception e) {
+            log.error("Error restoring status for PINFL: {}", item.getPinfl(), e);
+            return new PersonAbroadRestoreStatusRow(
+                item.getWsId(),
+                item.getPinfl(),
+                0,
+                "Ma'lumotni qayta ishlashda xatolik: " + e.getMessage(),
+                e.toString()
+            );
+        }
+    }
+
+    /**
+     * Validate one batch item with PersonAbroadStatusDataDto constraints
+     *
+     * @return xato matni yoki null
+     */
+    private String validate(PersonAbroadStatusDataDto item) {
+        if (item == null) {
+            return "Data elementi bo'sh bo'lmasligi kerak";
+        }
+        Set<ConstraintViolation<PersonAbroadStatusDataDto>> violations = validator.validate(item);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+            .map(ConstraintViolation::getMessage)
+            .sorted()
+            .collect(Collectors.joining("; "));
+    }
+
+    private static PersonAbroadCheckStatusResponseDto toResponse(PersonAbroadCheckStatusRow row) {
+        return PersonAbroadCheckStatusResponseDto.builder()
+            .result(row.resultCode())
+            .msg(row.msg())
+            .wsId(row.wsId())
+            .status(row.status())
+            .build();
+    }
+
+    private PersonAbroadCheckStatusResponseDto errorResponse(Long wsId, String msg) {
+        return PersonAbroadCheckStatusResponseDto.builder()
+            .result(0)
+            .msg(msg)
+            .wsId(wsId)
+            .status(null)
+            .build();
     }
 }
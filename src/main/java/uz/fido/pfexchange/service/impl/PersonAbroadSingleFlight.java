@@ -0,0 +1,94 @@
+package uz.fido.pfexchange.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bir xil (operatsiya, PINFL) uchun parallel chaqiruvlarni birlashtirish
+ * Single-flight: concurrent identical lookups share one Oracle call
+ *
+ * The first caller for a key runs the call on its own thread; callers that
+ * arrive while it is in flight wait for and receive the same result (or
+ * exception). The key is released as soon as the call finishes, so nothing
+ * is cached here - that is PersonAbroadStatusCache's job.
+ *
+ * The call runs only on the first caller's thread, so a caller can tell from
+ * its own supplier having run whether it got its own answer (the service
+ * writes log rows for the others).
+ *
+ * Only check is coalesced. Restore coalescing was dropped: Restore_Person_Status
+ * changes the row, so a second restore must make its own call and get its own
+ * answer (result=1, not 2) and log row. RESTORE remains only as an operation
+ * name (PersonAbroadRegistryFilter metrics).
+ *
+ * Metrics: person.abroad.calls.collapsed{operation=check} - callers that did not
+ * make their own call; person.abroad.calls.in.flight - distinct keys in flight.
+ */
+@Component
+public class PersonAbroadSingleFlight {
+
+    public static final String CHECK = "check";
+    public static final String RESTORE = "restore";
+
+    private final Map<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counter> collapsed = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public PersonAbroadSingleFlight(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        collapsed.put(CHECK, collapsedCounter(meterRegistry, CHECK));
+        meterRegistry.gaugeMapSize("person.abroad.calls.in.flight", List.of(), inFlight);
+    }
+
+    /**
+     * @param operation CHECK (restore chaqiruvlari birlashtirilmaydi)
+     * @param pinfl     PINFL
+     * @param call      Oracle chaqiruvi (faqat birinchi chaqiruvchi bajaradi)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, String pinfl, Supplier<T> call) {
+        Key key = new Key(operation, pinfl);
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+
+        if (existing != null) {
+            collapsed.computeIfAbsent(operation, name -> collapsedCounter(meterRegistry, name)).increment();
+            try {
+                return (T) existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        try {
+            T result = call.get();
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private static Counter collapsedCounter(MeterRegistry meterRegistry, String operation) {
+        return Counter.builder("person.abroad.calls.collapsed")
+            .description("Calls that shared an in-flight Oracle call for the same PINFL")
+            .tag("operation", operation)
+            .register(meterRegistry);
+    }
+
+    private record Key(String operation, String pinfl) {
+    }
+}
@@ -0,0 +1,116 @@
+package uz.fido.pfexchange.service.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.springframework.stereotype.Component;
+import uz.fido.pfexchange.config.PersonAbroadProperties;
+import uz.fido.pfexchange.dto.mip.PersonAbroadCheckStatusResponseDto;
+
+/**
+ * /check-status javoblari keshi (PINFL bo'yicha)
+ * In-process cache of check-status answers keyed by PINFL
+ *
+ * Only result=1 answers are kept: result=0 covers both "not in the list"
+ * and DB errors, which must not be repeated from memory. The ws_id of a
+ * cached answer is replaced with the caller's one on every hit.
+ *
+ * A cache hit does not reach PF_EXCHANGES_ABROAD; the service writes its
+ * Pf_Exchange_Person_Statuses row from Java, as for the status index.
+ *
+ * A check that was in flight while a restore invalidated its PINFL must not
+ * put the old answer back: the caller takes generation() before calling
+ * Oracle and put() is skipped when invalidate() bumped it meanwhile.
+ * Generations are striped by PINFL hash, so an unrelated PINFL sharing the
+ * stripe only costs a skipped put.
+ *
+ * Metrics: cache.gets{cache=person-abroad.check-status,result=hit|miss},
+ * cache.size, cache.evictions.
+ */
+@Component
+public class PersonAbroadStatusCache {
+
+    static final String CACHE_NAME = "person-abroad.check-status";
+
+    private static final int GENERATION_STRIPES = 4096;
+
+    private final Cache<String, PersonAbroadCheckStatusResponseDto> cache;
+    private final boolean enabled;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public PersonAbroadStatusCache(PersonAbroadProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = !properties.getCheckCacheTtl().isZero() && properties.getCheckCacheMaxSize() > 0;
+        this.cache = CacheBuilder.newBuilder()
+            .expireAfterWrite(properties.getCheckCacheTtl())
+            .maximumSize(properties.getCheckCacheMaxSize())
+            .recordStats()
+            .build();
+        GuavaCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * @param wsId javobga qo'yiladigan ws_id (so'rovdagi)
+     */
+    public Optional<PersonAbroadCheckStatusResponseDto> get(String pinfl, Long wsId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        PersonAbroadCheckStatusResponseDto cached = cache.getIfPresent(pinfl);
+        if (cached == null) {
+            return Optional.empty();
+        }
+        return Optional.of(copy(cached, wsId));
+    }
+
+    /**
+     * Oracle chaqiruvidan oldin olinadi va put() ga beriladi
+     */
+    public long generation(String pinfl) {
+        return generations.get(stripe(pinfl));
+    }
+
+    /**
+     * @param generation chaqiruv boshlanishidagi generation(pinfl); orada
+     *                   invalidate() bo'lgan bo'lsa javob keshga yozilmaydi
+     */
+    public void put(String pinfl, PersonAbroadCheckStatusResponseDto response, long generation) {
+        if (!enabled || response.getResult() == null || response.getResult() != 1) {
+            return;
+        }
+        int stripe = stripe(pinfl);
+        if (generations.get(stripe) != generation) {
+            return;
+        }
+        cache.put(pinfl, copy(response, response.getWsId()));
+        if (generations.get(stripe) != generation) {
+            // invalidate() ran between the check and the put
+            cache.invalidate(pinfl);
+        }
+    }
+
+    /**
+     * Holat o'zgarganda (restore result=2) darhol chaqiriladi
+     */
+    public void invalidate(String pinfl) {
+        if (pinfl != null) {
+            generations.incrementAndGet(stripe(pinfl));
+            cache.invalidate(pinfl);
+        }
+    }
+
+    private static int stripe(String pinfl) {
+        return pinfl.hashCode() & (GENERATION_STRIPES - 1);
+    }
+
+    private static PersonAbroadCheckStatusResponseDto copy(PersonAbroadCheckStatusResponseDto response, Long wsId) {
+        return PersonAbroadCheckStatusResponseDto.builder()
+            .result(response.getResult())
+            .msg(response.getMsg())
+            .wsId(wsId)
+            .status(response.getStatus())
+            .build();
+    }
+}
@@ -0,0 +1,444 @@
+package uz.fido.pfexchange.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import uz.fido.pfexchange.config.PersonAbroadProperties;
+import uz.fido.pfexchange.dto.mip.PinflValidator;
+import uz.fido.pfexchange.repository.mip.PersonAbroadCheckStatusRow;
+import uz.fido.pfexchange.repository.mip.PersonStatusIndexRepository;
+
+/**
+ * Pensiya oluvchilar holatining xotiradagi indeksi (status-index-enabled=true)
+ * In-memory copy of Pf_Persons statuses that answers /check-status without JDBC
+ *
+ * At startup a background thread loads every pensioner (Person_Type = '01')
+ * into a PinflStatusMap, then every status-index-refresh-interval applies
+ * only the rows whose ORA_ROWSCN is above the last watermark. Finding them
+ * still scans all of Pf_Persons (ORA_ROWSCN cannot be indexed), hence the
+ * coarse 15m default. Every
+ * status-index-full-refresh-interval the map is built again from scratch,
+ * which also drops PINFLs whose rows were deleted.
+ *
+ * check() answers exactly like Check_Person_Status_Core for a valid request
+ * and returns the log row the PL/SQL would have written. It returns empty -
+ * the caller then asks Oracle - until the first load has finished, when the
+ * last successful refresh is older than status-index-max-staleness, and for
+ * PINFLs with several Person_Type = '01' rows (Oracle reports the error).
+ *
+ * Restores reach the index right away through markActive().
+ *
+ * Every PINFL read by a refresh is also passed to the RefreshListener beans
+ * (PersonAbroadRegistryFilter), so Pf_Persons is scanned once for all of
+ * them. With an enabled listener the refresh runs even when
+ * status-index-enabled=false; the index then keeps no map of its own.
+ *
+ * With status-index-snapshot-file set, every full load is written to a sorted
+ * file (PersonStatusSnapshot) and served from its read-only mapping; later
+ * changes live in a small PinflStatusMap on top of it. On shutdown both are
+ * merged into a new file. A restarting node maps the file, serves it while it
+ * is younger than status-index-max-staleness and reads only the rows changed
+ * after the watermark in its header instead of all of Pf_Persons.
+ *
+ * Metrics: person.abroad.status.index.size, person.abroad.status.index.staleness
+ * (seconds), person.abroad.status.index.refresh{type=full|incremental} (timer),
+ * person.abroad.status.index.lookups{outcome=found|not_found|fallback}.
+ */
+@Slf4j
+@Component
+public class PersonAbroadStatusIndex {
+
+    static final String NOT_FOUND_MSG = "Pensiya oluvchilar ro'yhatida mavjud emas";
+
+    /**
+     * Kodlar: 1, 2, 3 - Check_Person_Status_Core status qiymatlari
+     */
+    static final byte ACTIVE = 1;
+    static final byte AMBIGUOUS = 4;
+
+    /**
+     * Snapshot'dagi PINFL ro'yhatdan chiqdi (faqat o'zgarishlar jadvalida)
+     */
+    static final byte REMOVED = 5;
+
+    private static final long SHUTDOWN_MILLIS = 30_000;
+
+    private final PersonStatusIndexRepository repository;
+    private final boolean enabled;
+    private final List<RefreshListener> listeners;
+    private final long refreshIntervalMillis;
+    private final long fullRefreshIntervalMillis;
+    private final long maxStalenessMillis;
+    private final Path snapshotFile;
+
+    private final Timer fullRefreshTimer;
+    private final Timer incrementalRefreshTimer;
+    private final Counter foundLookups;
+    private final Counter notFoundLookups;
+    private final Counter fallbackLookups;
+
+    /**
+     * null - birinchi yuklash tugamagan
+     */
+    private volatile State state;
+
+    /**
+     * Oxirgi muvaffaqiyatli yangilanish boshlangan vaqt (ms); ma'lumot shu vaqtdan eski emas
+     */
+    private volatile long refreshedAt;
+
+    // Refresh thread only
+    private long watermark;
+    private long fullRefreshedAt;
+    private boolean snapshotRestored;
+
+    private ScheduledExecutorService scheduler;
+
+    public PersonAbroadStatusIndex(PersonStatusIndexRepository repository,
+                                   PersonAbroadProperties properties,
+                                   MeterRegistry meterRegistry,
+                                   List<RefreshListener> listeners) {
+        this.repository = repository;
+        this.enabled = properties.isStatusIndexEnabled();
+        this.listeners = listeners.stream().filter(RefreshListener::isEnabled).toList();
+        this.refreshIntervalMillis = properties.getStatusIndexRefreshInterval().toMillis();
+        this.fullRefreshIntervalMillis = properties.getStatusIndexFullRefreshInterval().toMillis();
+        this.maxStalenessMillis = properties.getStatusIndexMaxStaleness().toMillis();
+        String snapshotPath = properties.getStatusIndexSnapshotFile();
+        this.snapshotFile = !enabled || snapshotPath == null || snapshotPath.isBlank() ? null : Path.of(snapshotPath);
+
+        Gauge.builder("person.abroad.status.index.size", this, PersonAbroadStatusIndex::size)
+            .description("Pensioners in the in-memory status index")
+            .register(meterRegistry);
+        Gauge.builder("person.abroad.status.index.staleness", this, PersonAbroadStatusIndex::stalenessSeconds)
+            .description("Seconds since the last successful refresh of the status index")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+        this.fullRefreshTimer = refreshTimer(meterRegistry, "full");
+        this.incrementalRefreshTimer = refreshTimer(meterRegistry, "incremental");
+        this.foundLookups = lookupsCounter(meterRegistry, "found");
+        this.notFoundLookups = lookupsCounter(meterRegistry, "not_found");
+        this.fallbackLookups = lookupsCounter(meterRegistry, "fallback");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled && listeners.isEmpty()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+            .name("person-status-index")
+            .daemon(true)
+            .factory());
+        // First load (or catch-up after the snapshot) runs in the background: until then checks go to Oracle
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, refreshIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Keyingi ishga tushish uchun snapshot yoziladi
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        if (!scheduler.awaitTermination(SHUTDOWN_MILLIS, TimeUnit.MILLISECONDS)) {
+            log.warn("Person status index refresh did not stop in {} ms, snapshot not written", SHUTDOWN_MILLIS);
+            return;
+        }
+        State current = state;
+        if (snapshotFile != null && current != null) {
+            writeSnapshot(current.snapshot(), current.changes(), refreshedAt, fullRefreshedAt);
+        }
+    }
+
+    /**
+     * Check_Person_Status_Core natijasi xotiradan
+     *
+     * @return log qatori (result/status/msg); bo'sh bo'lsa Oracle'dan so'rash kerak
+     */
+    public Optional<PersonAbroadCheckStatusRow> check(Long wsId, String pinfl) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        State current = state;
+        long key = parsePinfl(pinfl);
+        if (current == null || wsId == null || wsId < 0 || key < 0
+                || System.currentTimeMillis() - refreshedAt > maxStalenessMillis) {
+            fallbackLookups.increment();
+            return Optional.empty();
+        }
+
+        byte value = current.get(key);
+        if (value == AMBIGUOUS) {
+            fallbackLookups.increment();
+            return Optional.empty();
+        }
+        if (value == PinflStatusMap.ABSENT) {
+            notFoundLookups.increment();
+            return Optional.of(new PersonAbroadCheckStatusRow(wsId, pinfl, 0, null, NOT_FOUND_MSG, null));
+        }
+        foundLookups.increment();
+        return Optional.of(new PersonAbroadCheckStatusRow(wsId, pinfl, 1, (int) value, "", null));
+    }
+
+    /**
+     * Restore result=2 dan keyin: oluvchi endi faol
+     */
+    public void markActive(String pinfl) {
+        State current = state;
+        long key = parsePinfl(pinfl);
+        if (current != null && key >= 0) {
+            current.putUnlessAmbiguous(key, ACTIVE);
+        }
+    }
+
+    int size() {
+        State current = state;
+        return current != null ? current.size().get() : 0;
+    }
+
+    double stalenessSeconds() {
+        return state != null ? (System.currentTimeMillis() - refreshedAt) / 1000.0 : Double.NaN;
+    }
+
+    /**
+     * Birinchi marta va har status-index-full-refresh-interval da to'liq, qolgan
+     * vaqtda faqat o'zgargan qatorlar. Xato bo'lsa keyingi intervalda qayta uriniladi.
+     */
+    void refresh() {
+        long startedAt = System.currentTimeMillis();
+        try {
+            if (!snapshotRestored) {
+                snapshotRestored = true;
+                restoreSnapshot();
+            }
+            if (fullRefreshedAt == 0 || startedAt - fullRefreshedAt >= fullRefreshIntervalMillis) {
+                fullRefresh(startedAt);
+            } else {
+                incrementalRefresh(startedAt);
+            }
+        } catch (RuntimeException e) {
+            log.error("Person status index refresh failed, index is {} s old", stalenessSeconds(), e);
+        }
+    }
+
+    private void fullRefresh(long startedAt) {
+        long start = System.nanoTime();
+        // Index disabled: only the listeners need the rows
+        PinflStatusMap fresh = enabled ? new PinflStatusMap(size()) : null;
+        int[] pensioners = {0};
+        listeners.forEach(listener -> listener.refreshStarted(true));
+        long scn = repository.loadAll((pinfl, persons, status) -> {
+            long key = parsePinfl(pinfl);
+            if (key >= 0) {
+                if (fresh != null) {
+                    fresh.put(key, code(persons, status));
+                }
+                if (persons > 0) {
+                    pensioners[0]++;
+                    notifyPensioner(key);
+                }
+            }
+        });
+        fullRefreshTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        watermark = scn;
+        fullRefreshedAt = startedAt;
+        if (fresh != null) {
+            State loaded = snapshotFile != null ? writeSnapshot(null, fresh, startedAt, startedAt) : null;
+            state = loaded != null ? loaded : new State(null, fresh, new AtomicInteger(fresh.size()));
+        }
+        refreshedAt = startedAt;
+        listeners.forEach(listener -> listener.refreshFinished(true, startedAt));
+        log.info("Person status index loaded - pensioners: {}, scn: {}, took {} ms",
+            pensioners[0], scn, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void incrementalRefresh(long startedAt) {
+        State current = state;
+        long start = System.nanoTime();
+        int[] changed = {0};
+        listeners.forEach(listener -> listener.refreshStarted(false));
+        long scn = repository.loadChangedSince(watermark, (pinfl, persons, status) -> {
+            long key = parsePinfl(pinfl);
+            if (key >= 0) {
+                if (current != null) {
+                    current.put(key, code(persons, status));
+                }
+                if (persons > 0) {
+                    notifyPensioner(key);
+                }
+                changed[0]++;
+            }
+        });
+        incrementalRefreshTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        watermark = scn;
+        refreshedAt = startedAt;
+        listeners.forEach(listener -> listener.refreshFinished(false, startedAt));
+        log.debug("Person status index refreshed - changed PINFLs: {}, scn: {}", changed[0], scn);
+    }
+
+    private void notifyPensioner(long key) {
+        for (RefreshListener listener : listeners) {
+            listener.pensioner(key);
+        }
+    }
+
+    /**
+     * Snapshot fayli bo'lsa u ochiladi; shu refresh undan keyingi o'zgarishlarni o'qiydi
+     */
+    private void restoreSnapshot() {
+        if (snapshotFile == null) {
+            return;
+        }
+        try {
+            PersonStatusSnapshot snapshot = PersonStatusSnapshot.open(snapshotFile);
+            if (snapshot == null) {
+                return;
+            }
+            state = new State(snapshot, new PinflStatusMap(0), new AtomicInteger(snapshot.size()));
+            watermark = snapshot.watermark();
+            fullRefreshedAt = snapshot.fullRefreshedAt();
+            refreshedAt = snapshot.refreshedAt();
+            // The listeners get the snapshot as a full load; the changes after it follow
+            listeners.forEach(listener -> listener.refreshStarted(true));
+            snapshot.forEachPinfl(this::notifyPensioner);
+            listeners.forEach(listener -> listener.refreshFinished(true, snapshot.refreshedAt()));
+            log.info("Person status index mapped from {} - pensioners: {}, scn: {}, {} s old",
+                snapshotFile, snapshot.size(), watermark, stalenessSeconds());
+        } catch (IOException e) {
+            log.warn("Person status index snapshot {} not usable, loading Pf_Persons: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    /**
+     * base + changes yangi faylga yoziladi va ochiladi
+     *
+     * @return yangi holat yoki xato bo'lsa null
+     */
+    private State writeSnapshot(PersonStatusSnapshot base, PinflStatusMap changes, long refreshedAt, long fullRefreshedAt) {
+        long start = System.nanoTime();
+        try {
+            PersonStatusSnapshot.write(snapshotFile, watermark, refreshedAt, fullRefreshedAt, base, changes);
+            PersonStatusSnapshot written = PersonStatusSnapshot.open(snapshotFile);
+            log.info("Person status index snapshot written to {} - pensioners: {}, took {} ms",
+                snapshotFile, written.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return new State(written, new PinflStatusMap(0), new AtomicInteger(written.size()));
+        } catch (IOException | RuntimeException e) {
+            log.error("Error writing person status index snapshot {}", snapshotFile, e);
+            return null;
+        }
+    }
+
+    private static byte code(int persons, int status) {
+        return persons == 0 ? PinflStatusMap.ABSENT : persons > 1 ? AMBIGUOUS : (byte) status;
+    }
+
+    /**
+     * @return 14 xonali PINFL soni yoki -1
+     */
+    static long parsePinfl(String pinfl) {
+        return PinflValidator.parse(pinfl);
+    }
+
+    /**
+     * Pf_Persons o'qilayotganda PINFL'larni oladi (refresh thread'ida)
+     * Receives the PINFLs of every refresh, in the refresh thread
+     *
+     * A full load (or a restored snapshot) is refreshStarted(true), every
+     * pensioner, refreshFinished(true, ...); an incremental one passes only the
+     * PINFLs of changed rows that are still pensioners. A failed refresh never
+     * reaches refreshFinished.
+     */
+    public interface RefreshListener {
+
+        /**
+         * false - refresh'ga qo'shilmaydi
+         */
+        boolean isEnabled();
+
+        /**
+         * @param full true - keyingi PINFL'lar butun ro'yhat
+         */
+        void refreshStarted(boolean full);
+
+        /**
+         * Person_Type = '01' qatori bor PINFL
+         */
+        void pensioner(long pinfl);
+
+        /**
+         * @param refreshedAt ma'lumot shu vaqtdan (ms) eski emas
+         */
+        void refreshFinished(boolean full, long refreshedAt);
+    }
+
+    /**
+     * Snapshot (read-only, may be null) plus the changes read after it
+     *
+     * @param size ro'yhatdagi PINFL'lar soni
+     */
+    private record State(PersonStatusSnapshot snapshot, PinflStatusMap changes, AtomicInteger size) {
+
+        byte get(long key) {
+            byte value = changes.get(key);
+            if (value == PinflStatusMap.ABSENT && snapshot != null) {
+                value = snapshot.get(key);
+            }
+            return value == REMOVED ? PinflStatusMap.ABSENT : value;
+        }
+
+        /**
+         * Refresh and restores may write the same PINFL: keep size exact
+         */
+        synchronized void put(long key, byte value) {
+            byte before = get(key);
+            changes.put(key, value == PinflStatusMap.ABSENT && snapshot != null ? REMOVED : value);
+            size.addAndGet(present(value) - present(before));
+        }
+
+        synchronized void putUnlessAmbiguous(long key, byte value) {
+            if (get(key) != AMBIGUOUS) {
+                put(key, value);
+            }
+        }
+
+        private static int present(byte value) {
+            return value == PinflStatusMap.ABSENT ? 0 : 1;
+        }
+    }
+
+    private static Timer refreshTimer(MeterRegistry meterRegistry, String type) {
+        return Timer.builder("person.abroad.status.index.refresh")
+            .description("Time to read Pf_Persons changes into the status index")
+            .tag("type", type)
+            .register(meterRegistry);
+    }
+
+    private static Counter lookupsCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("person.abroad.status.index.lookups")
+            .description("check-status requests handled by the status index")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+}
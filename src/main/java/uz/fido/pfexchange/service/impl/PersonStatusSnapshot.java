@@ -0,0 +1,232 @@
+package uz.fido.pfexchange.service.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongConsumer;
+
+/**
+ * Holat indeksining diskdagi nusxasi (status-index-snapshot-file)
+ * Sorted, memory-mapped file of PINFL -> status code pairs
+ *
+ * Layout (big-endian):
+ *   header  magic, watermark (ORA_ROWSCN), refreshedAt, fullRefreshedAt, count - 5 x 8 bytes
+ *   records count x (PINFL 8 bytes, code 1 byte), sorted by PINFL
+ *
+ * The file is mapped read-only, so a restart serves lookups as soon as the
+ * file is opened: nothing is copied to the heap and the page cache shares the
+ * pages between the old and the new process. Lookups interpolate between the
+ * first and last key of the range (PINFLs are spread fairly evenly) and take a
+ * binary step after every guess, so a skewed range still costs O(log n).
+ *
+ * A new file is written next to the old one and moved over it; a mapping of
+ * the old file stays valid until it is garbage collected.
+ */
+final class PersonStatusSnapshot {
+
+    private static final long MAGIC = 0x5046_5354_4958_3031L; // "PFSTIX01"
+    private static final int HEADER_SIZE = 5 * Long.BYTES;
+    private static final int RECORD_SIZE = Long.BYTES + 1;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final MappedByteBuffer buffer;
+    private final int count;
+    private final long watermark;
+    private final long refreshedAt;
+    private final long fullRefreshedAt;
+
+    private PersonStatusSnapshot(MappedByteBuffer buffer, int count, long watermark, long refreshedAt, long fullRefreshedAt) {
+        this.buffer = buffer;
+        this.count = count;
+        this.watermark = watermark;
+        this.refreshedAt = refreshedAt;
+        this.fullRefreshedAt = fullRefreshedAt;
+    }
+
+    /**
+     * @return fayl bo'lmasa null
+     * @throws IOException fayl buzilgan yoki boshqa formatda
+     */
+    static PersonStatusSnapshot open(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_SIZE) {
+                throw new IOException("Status index snapshot too short: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (buffer.getLong(0) != MAGIC) {
+                throw new IOException("Not a status index snapshot: " + file);
+            }
+            long count = buffer.getLong(4 * Long.BYTES);
+            if (count < 0 || count > Integer.MAX_VALUE || HEADER_SIZE + count * RECORD_SIZE != length) {
+                throw new IOException("Status index snapshot truncated: " + file);
+            }
+            return new PersonStatusSnapshot(buffer, (int) count,
+                buffer.getLong(Long.BYTES), buffer.getLong(2 * Long.BYTES), buffer.getLong(3 * Long.BYTES));
+        }
+    }
+
+    /**
+     * base va changes birlashtirilib yangi fayl yoziladi (changes ustun);
+     * ABSENT va REMOVED kodlar yozilmaydi
+     *
+     * @param base    oldingi snapshot yoki null
+     * @param changes base'dan keyingi o'zgarishlar
+     */
+    static void write(Path file, long watermark, long refreshedAt, long fullRefreshedAt,
+                      PersonStatusSnapshot base, PinflStatusMap changes) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = parent.resolve(file.getFileName() + ".tmp");
+
+        long[] changedKeys = changes.sortedKeys();
+        int baseCount = base != null ? base.count : 0;
+        long count = 0;
+
+        try (FileChannel channel = FileChannel.open(tmp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer out = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+            out.position(HEADER_SIZE);
+
+            int i = 0;
+            int j = 0;
+            while (i < baseCount || j < changedKeys.length) {
+                long baseKey = i < baseCount ? base.keyAt(i) : Long.MAX_VALUE;
+                long changedKey = j < changedKeys.length ? changedKeys[j] : Long.MAX_VALUE;
+                long key;
+                byte value;
+                if (changedKey <= baseKey) {
+                    key = changedKey;
+                    value = changes.get(changedKey);
+                    j++;
+                    if (changedKey == baseKey) {
+                        i++;
+                    }
+                } else {
+                    key = baseKey;
+                    value = base.valueAt(i);
+                    i++;
+                }
+                if (value == PinflStatusMap.ABSENT || value == PersonAbroadStatusIndex.REMOVED) {
+                    continue;
+                }
+                if (out.remaining() < RECORD_SIZE) {
+                    flush(channel, out);
+                }
+                out.putLong(key).put(value);
+                count++;
+            }
+            flush(channel, out);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putLong(MAGIC)
+                .putLong(watermark)
+                .putLong(refreshedAt)
+                .putLong(fullRefreshedAt)
+                .putLong(count)
+                .flip();
+            channel.write(header, 0);
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return saqlangan kod yoki ABSENT
+     */
+    byte get(long pinfl) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            long lowKey = keyAt(low);
+            long highKey = keyAt(high);
+            if (pinfl < lowKey || pinfl > highKey) {
+                return PinflStatusMap.ABSENT;
+            }
+
+            int guess = highKey == lowKey
+                ? low
+                : low + (int) ((double) (pinfl - lowKey) / (highKey - lowKey) * (high - low));
+            long guessKey = keyAt(guess);
+            if (guessKey == pinfl) {
+                return valueAt(guess);
+            }
+            if (guessKey < pinfl) {
+                low = guess + 1;
+            } else {
+                high = guess - 1;
+            }
+            if (low > high) {
+                break;
+            }
+
+            int middle = (low + high) >>> 1;
+            long middleKey = keyAt(middle);
+            if (middleKey == pinfl) {
+                return valueAt(middle);
+            }
+            if (middleKey < pinfl) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return PinflStatusMap.ABSENT;
+    }
+
+    int size() {
+        return count;
+    }
+
+    /**
+     * Fayldagi har PINFL (faqat ro'yhatdagilar yozilgan), o'sish tartibida
+     */
+    void forEachPinfl(LongConsumer action) {
+        for (int i = 0; i < count; i++) {
+            action.accept(keyAt(i));
+        }
+    }
+
+    long watermark() {
+        return watermark;
+    }
+
+    long refreshedAt() {
+        return refreshedAt;
+    }
+
+    long fullRefreshedAt() {
+        return fullRefreshedAt;
+    }
+
+    private long keyAt(int index) {
+        return buffer.getLong(offset(index));
+    }
+
+    private byte valueAt(int index) {
+        return buffer.get(offset(index) + Long.BYTES);
+    }
+
+    /**
+     * A mapping is at most 2 GB, so every offset fits into an int
+     */
+    private static int offset(int index) {
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+}
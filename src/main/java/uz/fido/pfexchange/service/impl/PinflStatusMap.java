@@ -0,0 +1,187 @@
+package uz.fido.pfexchange.service.impl;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * PINFL -> holat kodi jadvali (open addressing, linear probing)
+ * Open-addressing map from a 14-digit PINFL, parsed to a long, to a one-byte code
+ *
+ * Two primitive arrays instead of a HashMap<String, Integer>: 9 bytes per slot,
+ * no per-entry objects, nothing for the GC to trace. The table is kept at most
+ * 3/4 full, so 4M pensioners fit into 2^23 slots = 72 MB.
+ *
+ * Keys are never removed: a PINFL that left the list keeps its slot with
+ * value ABSENT, and the next full load builds a map without it.
+ *
+ * Reads take no lock (StampedLock optimistic read, retried under the read
+ * lock when a write overlapped); writes take the write lock.
+ */
+final class PinflStatusMap {
+
+    static final byte ABSENT = 0;
+
+    private static final long EMPTY = -1L;
+    private static final int MIN_CAPACITY = 1 << 10;
+
+    private final StampedLock lock = new StampedLock();
+
+    private Table table;
+    private int used;
+    private int size;
+
+    PinflStatusMap(int expectedSize) {
+        this.table = new Table(capacityFor(expectedSize));
+    }
+
+    /**
+     * @return saqlangan kod yoki ABSENT
+     */
+    byte get(long pinfl) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            byte value = table.get(pinfl);
+            if (lock.validate(stamp)) {
+                return value;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return table.get(pinfl);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    void put(long pinfl, byte value) {
+        long stamp = lock.writeLock();
+        try {
+            if (value == ABSENT && table.get(pinfl) == ABSENT) {
+                return;
+            }
+            if (used >= table.keys.length / 4 * 3) {
+                table = table.copy(capacityFor(size + 1));
+                used = size;
+            }
+            int previous = table.put(pinfl, value);
+            if (previous < 0) {
+                used++;
+            }
+            if ((previous <= ABSENT) != (value == ABSENT)) {
+                size += value == ABSENT ? -1 : 1;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * ABSENT bo'lmagan kalitlar soni
+     */
+    int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * ABSENT bo'lmagan kalitlar, o'sish tartibida (snapshot yozish uchun)
+     */
+    long[] sortedKeys() {
+        long stamp = lock.readLock();
+        try {
+            long[] keys = new long[size];
+            int count = 0;
+            for (int i = 0; i < table.keys.length; i++) {
+                if (table.keys[i] != EMPTY && table.values[i] != ABSENT) {
+                    keys[count++] = table.keys[i];
+                }
+            }
+            Arrays.sort(keys);
+            return keys;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = Math.max(MIN_CAPACITY, (long) expectedSize * 4 / 3 + 1);
+        return (int) Math.min(1L << 30, Long.highestOneBit(needed - 1) << 1);
+    }
+
+    /**
+     * One pair of arrays; replaced as a whole on resize, so a reader never
+     * sees keys of one size and values of another
+     */
+    private static final class Table {
+
+        final long[] keys;
+        final byte[] values;
+        final int mask;
+
+        Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new byte[capacity];
+            this.mask = capacity - 1;
+            Arrays.fill(keys, EMPTY);
+        }
+
+        byte get(long key) {
+            int slot = slot(key);
+            for (int probes = 0; probes <= mask; probes++) {
+                long current = keys[slot];
+                if (current == key) {
+                    return values[slot];
+                }
+                if (current == EMPTY) {
+                    return ABSENT;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return ABSENT;
+        }
+
+        /**
+         * @return oldingi kod yoki -1 (yangi slot)
+         */
+        int put(long key, byte value) {
+            int slot = slot(key);
+            while (keys[slot] != EMPTY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == EMPTY) {
+                values[slot] = value;
+                keys[slot] = key;
+                return -1;
+            }
+            byte previous = values[slot];
+            values[slot] = value;
+            return previous;
+        }
+
+        /**
+         * New table of the given capacity without the ABSENT keys
+         */
+        Table copy(int capacity) {
+            Table copy = new Table(capacity);
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != EMPTY && values[i] != ABSENT) {
+                    copy.put(keys[i], values[i]);
+                }
+            }
+            return copy;
+        }
+
+        /**
+         * PINFLs are structured (century/gender digit, birth date, region),
+         * so the low bits alone would cluster; mix the whole key first
+         */
+        private int slot(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
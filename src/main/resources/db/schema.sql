@@ -56,12 +56,14 @@ END;
 
 -- Sequence generates unique ID numbers for each new user
 -- START WITH 1: First ID will be 1
--- INCREMENT BY 1: Each new ID increments by 1 (1, 2, 3, ...)
--- NOCACHE: Don't cache sequence values (safer but slightly slower)
+-- INCREMENT BY 50: Must equal allocationSize in User.java. Hibernate's pooled
+--   optimizer calls NEXTVAL once per 50 new users and assigns the IDs in between
+--   from memory (1, 2, 3, ... 50, then 51, 52, ...). IDs may have gaps.
+-- NOCACHE: Don't cache sequence values (Hibernate already pools them)
 -- NOCYCLE: Don't restart sequence after reaching max value
 CREATE SEQUENCE USER_SEQ
   START WITH 1
-  INCREMENT BY 1
+  INCREMENT BY 50
   NOCACHE
   NOCYCLE;
 
@@ -77,15 +79,15 @@ CREATE TABLE USERS (
 
     -- Username: Unique login name
     -- VARCHAR2(50): Variable-length string, max 50 characters
-    -- UNIQUE: No two users can have the same username
+    -- UNIQUE (constraint UK_USERS_USERNAME): No two users can have the same username
     -- NOT NULL: Field must have a value
-    USERNAME VARCHAR2(50) UNIQUE NOT NULL,
+    USERNAME VARCHAR2(50) CONSTRAINT UK_USERS_USERNAME UNIQUE NOT NULL,
 
     -- Email: User's email address
     -- VARCHAR2(100): Allows longer email addresses
-    -- UNIQUE: No two users can have the same email
+    -- UNIQUE (constraint UK_USERS_EMAIL): No two users can have the same email
     -- NOT NULL: Field must have a value
-    EMAIL VARCHAR2(100) UNIQUE NOT NULL,
+    EMAIL VARCHAR2(100) CONSTRAINT UK_USERS_EMAIL UNIQUE NOT NULL,
 
     -- Password: Encrypted password hash
     -- VARCHAR2(255): BCrypt hashes are 60 chars, but allow 255 for flexibility
@@ -119,6 +121,11 @@ CREATE TABLE USERS (
     -- NOT NULL: Must always have a value
     IS_ACTIVE NUMBER(1) DEFAULT 1 NOT NULL CHECK (IS_ACTIVE IN (0, 1)),
 
+    -- Token Version: Incremented when the user's JWT tokens must be revoked
+    -- (role, status, username or password change); tokens carry it as "ver"
+    -- Existing databases: ALTER TABLE USERS ADD TOKEN_VERSION NUMBER(19) DEFAULT 0 NOT NULL;
+    TOKEN_VERSION NUMBER(19) DEFAULT 0 NOT NULL,
+
     -- Created At: Timestamp when user was created
     -- TIMESTAMP: Stores date and time
     -- DEFAULT CURRENT_TIMESTAMP: Automatically set to current time on insert
@@ -144,12 +151,15 @@ CREATE TABLE USERS (
 -- CREATE UNIQUE INDEX IDX_USERS_USERNAME ON USERS(USERNAME);
 
 -- Index on EMAIL for faster lookups
--- Useful when checking if email exists during registration
+-- The unique index behind UK_USERS_EMAIL already serves email lookups
 -- CREATE UNIQUE INDEX IDX_USERS_EMAIL ON USERS(EMAIL);
 
--- Index on ROLE for faster filtering by role
--- Useful for queries like "get all admins"
-CREATE INDEX IDX_USERS_ROLE ON USERS(ROLE);
+-- Composite index on ROLE and ID for filtering by role
+-- Useful for queries like "get all admins", page by page:
+-- WHERE ROLE = 'ADMIN' AND ID > :lastId ORDER BY ID FETCH FIRST 20 ROWS ONLY
+-- Entries with the same ROLE are stored in ID order, so Oracle reads
+-- exactly one page of index entries and needs no sort
+CREATE INDEX IDX_USERS_ROLE_ID ON USERS(ROLE, ID);
 
 -- Index on IS_ACTIVE for faster filtering by active status
 -- Useful for queries like "get all active users"
@@ -308,7 +318,27 @@ GROUP BY ROLE;
 --    - Monitor and optimize slow queries
 --    - Use connection pooling in application
 
--- 4. Security:
+-- 4. Upgrading an Existing Database:
+--    The application relies on named unique constraints (it reads the name
+--    from ORA-00001 to tell "username taken" from "email taken") and on a
+--    sequence step of 50. For a database created by an older version:
+--
+--    ALTER SEQUENCE USER_SEQ INCREMENT BY 50;
+--
+--    -- Find the system-generated names (SYS_C...) of the old constraints
+--    SELECT c.CONSTRAINT_NAME, cc.COLUMN_NAME
+--    FROM USER_CONSTRAINTS c
+--    JOIN USER_CONS_COLUMNS cc ON cc.CONSTRAINT_NAME = c.CONSTRAINT_NAME
+--    WHERE c.TABLE_NAME = 'USERS' AND c.CONSTRAINT_TYPE = 'U';
+--
+--    ALTER TABLE USERS RENAME CONSTRAINT SYS_C00xxxx TO UK_USERS_USERNAME;
+--    ALTER TABLE USERS RENAME CONSTRAINT SYS_C00yyyy TO UK_USERS_EMAIL;
+--
+--    -- Role filter with keyset pagination (replaces IDX_USERS_ROLE)
+--    CREATE INDEX IDX_USERS_ROLE_ID ON USERS(ROLE, ID);
+--    DROP INDEX IDX_USERS_ROLE;
+
+-- 5. Security:
 --    - Never store passwords in plain text
 --    - Always use parameterized queries to prevent SQL injection
 --    - Implement rate limiting on authentication endpoints
@@ -0,0 +1,158 @@
+package com.educational.usermanagement.security;
+
+import com.educational.usermanagement.entity.Role;
+import com.educational.usermanagement.entity.User;
+import com.educational.usermanagement.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.SecretKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Tokens validated per second on one core (one benchmark thread)
+ *
+ * - perCallKeyTwoParses: previous filter path; HS512 key and parser built per
+ *   call, token verified once to validate it and again to read the username
+ * - hs512CachedParserSingleParse: HS512 with the parser built once and one
+ *   verification; the like-for-like baseline for the two cases above and below
+ *   (shows what caching the parser alone gains, without the algorithm change)
+ * - es256CachedParserSingleParse: JwtTokenProvider.validateToken() with the
+ *   verified token cache disabled; parser built once, one ES256 verification
+ *   (ECDSA verification costs more than HMAC: compare with the HS512 case)
+ * - verifiedTokenCacheHit: JwtTokenProvider.validateToken() for a token that is
+ *   already in VerifiedTokenCache (SHA-256 + map lookup + revocation check)
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *        -Dexec.mainClass=com.educational.usermanagement.security.JwtValidationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(1)
+@Fork(1)
+public class JwtValidationBenchmark {
+
+    private static final String SECRET = "YourSuperSecretKeyForJWTTokenGenerationMustBeAtLeast256Bits";
+
+    private JwtTokenProvider tokenProvider;
+    private JwtTokenProvider cachingTokenProvider;
+    private JwtParser hs512Parser;
+    private String token;
+    private String hs512Token;
+
+    @Setup
+    public void setUp() throws IOException {
+        JwtKeyStore keyStore = new JwtKeyStore();
+        ReflectionTestUtils.setField(keyStore, "keyDir", Files.createTempDirectory("jwt-keys").toString());
+        ReflectionTestUtils.setField(keyStore, "keyRotation", 604_800_000L);
+        ReflectionTestUtils.setField(keyStore, "keyPublishAhead", 3_600_000L);
+        ReflectionTestUtils.setField(keyStore, "jwtExpiration", 3_600_000L);
+        keyStore.init();
+
+        tokenProvider = newTokenProvider(keyStore, 0);
+        cachingTokenProvider = newTokenProvider(keyStore, 10_000);
+
+        User user = new User();
+        user.setId(42L);
+        user.setUsername("integration-client");
+        user.setPassword("");
+        user.setRole(Role.USER);
+        user.setIsActive(true);
+        token = tokenProvider.generateTokenForUser(user);
+
+        hs512Token = Jwts.builder()
+                .setSubject(user.getUsername())
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 3_600_000L))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS512)
+                .compact();
+        hs512Parser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build();
+    }
+
+    private static JwtTokenProvider newTokenProvider(JwtKeyStore keyStore, int cacheSize) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtKeyStore", keyStore);
+        ReflectionTestUtils.setField(provider, "peerJwksCache", new PeerJwksCache(List.of(), new ObjectMapper()));
+        ReflectionTestUtils.setField(provider, "jwtExpiration", 3_600_000L);
+        // Token version read once, then served from TokenVersionStore
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findTokenVersionById(42L)).thenReturn(Optional.of(0L));
+        ReflectionTestUtils.setField(provider, "tokenVersionStore", new TokenVersionStore(userRepository, 30_000L));
+        ReflectionTestUtils.setField(provider, "verifiedTokenCache", new VerifiedTokenCache(cacheSize, meterRegistry));
+        ReflectionTestUtils.setField(provider, "meterRegistry", meterRegistry);
+        provider.init();
+        return provider;
+    }
+
+    @Benchmark
+    public String perCallKeyTwoParses() {
+        SecretKey validateKey = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        Jwts.parserBuilder()
+                .setSigningKey(validateKey)
+                .build()
+                .parseClaimsJws(hs512Token);
+
+        SecretKey usernameKey = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        Claims claims = Jwts.parserBuilder()
+                .setSigningKey(usernameKey)
+                .build()
+                .parseClaimsJws(hs512Token)
+                .getBody();
+        return claims.getSubject();
+    }
+
+    @Benchmark
+    public String hs512CachedParserSingleParse() {
+        return hs512Parser.parseClaimsJws(hs512Token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public String es256CachedParserSingleParse() {
+        return tokenProvider.validateToken(token).getPrincipal().getUsername();
+    }
+
+    @Benchmark
+    public String verifiedTokenCacheHit() {
+        return cachingTokenProvider.validateToken(token).getPrincipal().getUsername();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtValidationBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+}
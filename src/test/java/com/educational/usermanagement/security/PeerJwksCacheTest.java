@@ -0,0 +1,140 @@
+package com.educational.usermanagement.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PeerJwksCache
+ */
+@DisplayName("Peer JWKS Cache Tests")
+class PeerJwksCacheTest {
+
+    private static final URI PEER = URI.create("http://node-2/.well-known/jwks.json");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("A kid of another node is resolved from its JWKS")
+    void getPublicKey_shouldLoadKeyFromPeer() throws Exception {
+        // Given
+        JwtSigningKey peerKey = newKey("20261017T120000Z-3fa1");
+        StubCache cache = new StubCache(jwks(peerKey));
+
+        // When
+        ECPublicKey key = cache.getPublicKey("20261017T120000Z-3fa1");
+
+        // Then
+        assertEquals(peerKey.publicKey(), key);
+        assertEquals(1, cache.downloads.get());
+    }
+
+    @Test
+    @DisplayName("Unknown kids do not make the node download the JWKS on every request")
+    void getPublicKey_unknownKid_shouldBeRateLimited() throws Exception {
+        // Given
+        StubCache cache = new StubCache(jwks(newKey("20261017T120000Z-3fa1")));
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            assertNull(cache.getPublicKey("random-" + i));
+        }
+
+        // Then
+        assertEquals(1, cache.downloads.get());
+    }
+
+    @Test
+    @DisplayName("Keys of a peer that cannot be reached are kept")
+    void getPublicKey_peerDown_shouldKeepKnownKeys() throws Exception {
+        // Given
+        JwtSigningKey peerKey = newKey("20261017T120000Z-3fa1");
+        StubCache cache = new StubCache(jwks(peerKey));
+        assertNotNull(cache.getPublicKey("20261017T120000Z-3fa1"));
+
+        // When
+        cache.body = null;
+        cache.allowReload();
+        assertNull(cache.getPublicKey("unknown"));
+
+        // Then
+        assertEquals(peerKey.publicKey(), cache.getPublicKey("20261017T120000Z-3fa1"));
+    }
+
+    @Test
+    @DisplayName("Keys that are not EC P-256 signing keys are ignored")
+    void parse_shouldIgnoreOtherKeys() throws Exception {
+        // Given
+        String json = "{\"keys\":[{\"kty\":\"RSA\",\"kid\":\"rsa\",\"n\":\"AQAB\",\"e\":\"AQAB\"},"
+                + objectMapper.writeValueAsString(newKey("ec").toJwk()) + "]}";
+
+        // When
+        Map<String, ECPublicKey> keys = new StubCache(json).parse(json);
+
+        // Then
+        assertEquals(List.of("ec"), List.copyOf(keys.keySet()));
+    }
+
+    @Test
+    @DisplayName("Without configured peers nothing is downloaded")
+    void getPublicKey_noPeers_shouldReturnNull() {
+        // Given
+        PeerJwksCache cache = new PeerJwksCache(List.of(), objectMapper);
+
+        // Then
+        assertNull(cache.getPublicKey("20261017T120000Z-3fa1"));
+    }
+
+    private String jwks(JwtSigningKey... keys) throws IOException {
+        return objectMapper.writeValueAsString(Map.of("keys",
+                Arrays.stream(keys).map(JwtSigningKey::toJwk).toList()));
+    }
+
+    private static JwtSigningKey newKey(String kid) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair pair = generator.generateKeyPair();
+        return new JwtSigningKey(kid, Instant.now(), pair.getPrivate(), (ECPublicKey) pair.getPublic());
+    }
+
+    /**
+     * Serves a fixed JWKS instead of calling the peer
+     */
+    private class StubCache extends PeerJwksCache {
+
+        final AtomicInteger downloads = new AtomicInteger();
+        volatile String body;
+
+        StubCache(String body) {
+            super(List.of(PEER), objectMapper);
+            this.body = body;
+        }
+
+        @Override
+        String download(URI peer) throws IOException {
+            downloads.incrementAndGet();
+            if (body == null) {
+                throw new IOException("Connection refused");
+            }
+            return body;
+        }
+
+        void allowReload() {
+            ReflectionTestUtils.setField(this, "lastLoadMillis", 0L);
+        }
+    }
+}
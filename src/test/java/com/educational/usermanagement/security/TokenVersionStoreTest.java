@@ -0,0 +1,77 @@
+package com.educational.usermanagement.security;
+
+import com.educational.usermanagement.repository.UserRepository;
+import java.util.Optional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TokenVersionStore
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Token Version Store Tests")
+class TokenVersionStoreTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Test
+    @DisplayName("A token revoked before a restart stays revoked")
+    void isCurrent_afterRestart_shouldReadVersionFromDatabase() {
+        // Given: USERS.TOKEN_VERSION was incremented before the restart
+        when(userRepository.findTokenVersionById(7L)).thenReturn(Optional.of(1L));
+        TokenVersionStore store = new TokenVersionStore(userRepository, 30_000L);
+
+        // Then
+        assertFalse(store.isCurrent(7L, 0L));
+        assertTrue(store.isCurrent(7L, 1L));
+        verify(userRepository, times(1)).findTokenVersionById(7L);
+    }
+
+    @Test
+    @DisplayName("Tokens of a deleted user are rejected")
+    void isCurrent_deletedUser_shouldBeRejected() {
+        // Given
+        when(userRepository.findTokenVersionById(7L)).thenReturn(Optional.empty());
+        TokenVersionStore store = new TokenVersionStore(userRepository, 30_000L);
+
+        // Then
+        assertFalse(store.isCurrent(7L, 0L));
+        assertEquals(TokenVersionStore.DELETED, store.getVersion(7L));
+        assertFalse(store.isCurrent(7L, TokenVersionStore.DELETED));
+    }
+
+    @Test
+    @DisplayName("Revoke drops the cached version, the next check reads the new one")
+    void revoke_shouldReloadVersion() {
+        // Given
+        when(userRepository.findTokenVersionById(7L)).thenReturn(Optional.of(0L), Optional.of(1L));
+        TokenVersionStore store = new TokenVersionStore(userRepository, 30_000L);
+        assertTrue(store.isCurrent(7L, 0L));
+
+        // When: no transaction active, so the entry is dropped at once
+        store.revoke(7L);
+
+        // Then
+        assertFalse(store.isCurrent(7L, 0L));
+        assertTrue(store.isCurrent(7L, 1L));
+    }
+
+    @Test
+    @DisplayName("Versions changed through another node are read again after the TTL")
+    void getVersion_shouldReloadAfterTtl() {
+        // Given: TTL 0 - every check reads the database
+        when(userRepository.findTokenVersionById(7L)).thenReturn(Optional.of(0L), Optional.of(3L));
+        TokenVersionStore store = new TokenVersionStore(userRepository, 0L);
+
+        // Then
+        assertEquals(0L, store.getVersion(7L));
+        assertEquals(3L, store.getVersion(7L));
+    }
+}
@@ -0,0 +1,175 @@
+package com.educational.usermanagement.service;
+
+import com.educational.usermanagement.dto.AuthResponse;
+import com.educational.usermanagement.dto.LoginRequest;
+import com.educational.usermanagement.entity.Role;
+import com.educational.usermanagement.entity.User;
+import com.educational.usermanagement.repository.UserRepository;
+import com.educational.usermanagement.security.BoundedPasswordEncoder;
+import com.educational.usermanagement.security.CustomUserDetailsService;
+import com.educational.usermanagement.security.JwtTokenProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * SQL statements sent by AuthService.login
+ *
+ * Runs login through the real JPA stack against an in-memory H2 database and
+ * counts the JDBC statements Hibernate prepares (Statistics.getPrepareStatementCount()).
+ * The test methods run without a transaction of their own, like a request:
+ * login is NOT_SUPPORTED and must see the committed test user.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({AuthService.class, CustomUserDetailsService.class, AuthServiceStatementCountTest.SecurityTestConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Auth Service SQL Statement Tests")
+class AuthServiceStatementCountTest {
+
+    private static final String PASSWORD = "password123";
+
+    /**
+     * BCrypt strength of the encoder; hashes with a lower strength are upgraded on login
+     */
+    private static final int STRENGTH = 5;
+
+    @TestConfiguration
+    static class SecurityTestConfig {
+
+        @Bean
+        BoundedPasswordEncoder passwordEncoder() {
+            return new BoundedPasswordEncoder(new BCryptPasswordEncoder(STRENGTH), 1, 8, 5_000, new SimpleMeterRegistry());
+        }
+
+        @Bean
+        AuthenticationManager authenticationManager(CustomUserDetailsService userDetailsService,
+                                                    BoundedPasswordEncoder passwordEncoder) {
+            DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();
+            authenticationProvider.setUserDetailsService(userDetailsService);
+            authenticationProvider.setPasswordEncoder(passwordEncoder);
+            authenticationProvider.setUserDetailsPasswordService(userDetailsService);
+            return new ProviderManager(authenticationProvider);
+        }
+    }
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private JwtTokenProvider tokenProvider;
+
+    @MockitoBean
+    private UserSearchIndex searchIndex;
+
+    @MockitoBean
+    private UserStatistics userStatistics;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        when(tokenProvider.generateToken(any(Authentication.class))).thenReturn("jwt");
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Login: Should send one SELECT")
+    void login_shouldPrepareOneStatement() {
+        // Given
+        saveUser(new BCryptPasswordEncoder(STRENGTH).encode(PASSWORD));
+
+        // When
+        AuthResponse response = login(PASSWORD);
+
+        // Then
+        assertEquals("jwt", response.getToken());
+        assertEquals("john@example.com", response.getUser().getEmail());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Login: Wrong password should fail after one SELECT")
+    void login_withWrongPassword_shouldPrepareOneStatement() {
+        // Given
+        saveUser(new BCryptPasswordEncoder(STRENGTH).encode(PASSWORD));
+
+        // When & Then
+        assertThrows(BadCredentialsException.class, () -> login("wrong-password"));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Login: Outdated hash strength adds only one UPDATE")
+    void login_withOutdatedHash_shouldPrepareTwoStatements() {
+        // Given: stored hash has strength 4, the encoder is configured with 5
+        User user = saveUser(new BCryptPasswordEncoder(4).encode(PASSWORD));
+
+        // When
+        AuthResponse response = login(PASSWORD);
+
+        // Then
+        assertEquals(user.getId(), response.getUser().getId());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertTrue(userRepository.findById(user.getId()).orElseThrow().getPassword().startsWith("$2a$05$"));
+    }
+
+    /**
+     * Counts only the statements of the login itself
+     */
+    private AuthResponse login(String password) {
+        statistics.clear();
+        return authService.login(new LoginRequest("john_doe", password));
+    }
+
+    private User saveUser(String passwordHash) {
+        User user = new User();
+        user.setUsername("john_doe");
+        user.setEmail("john@example.com");
+        user.setPassword(passwordHash);
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setRole(Role.USER);
+        user.setIsActive(true);
+        return userRepository.save(user);
+    }
+}
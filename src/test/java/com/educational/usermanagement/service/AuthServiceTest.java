@@ -0,0 +1,260 @@
+package com.educational.usermanagement.service;
+
+import com.educational.usermanagement.dto.AuthResponse;
+import com.educational.usermanagement.dto.LoginRequest;
+import com.educational.usermanagement.dto.RegisterRequest;
+import com.educational.usermanagement.entity.Role;
+import com.educational.usermanagement.entity.User;
+import com.educational.usermanagement.exception.DuplicateResourceException;
+import com.educational.usermanagement.repository.UserRepository;
+import com.educational.usermanagement.security.BoundedPasswordEncoder;
+import com.educational.usermanagement.security.CustomUserDetailsService;
+import com.educational.usermanagement.security.JwtTokenProvider;
+import com.educational.usermanagement.security.UserPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AuthService login and registration
+ *
+ * Runs the real authentication pipeline (ProviderManager, DaoAuthenticationProvider,
+ * CustomUserDetailsService, BCrypt) against a mocked UserRepository and checks
+ * which repository methods are called. The SQL statements themselves are
+ * counted in AuthServiceStatementCountTest.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Auth Service Tests")
+class AuthServiceTest {
+
+    private static final String PASSWORD = "password123";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private JwtTokenProvider tokenProvider;
+
+    @Mock
+    private UserSearchIndex searchIndex;
+
+    @Mock
+    private UserStatistics userStatistics;
+
+    private BoundedPasswordEncoder passwordEncoder;
+    private AuthService authService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        // Strength 4: the lowest BCrypt cost, keeps the tests fast
+        user = newUser(new BCryptPasswordEncoder(4).encode(PASSWORD));
+        authService = newAuthService(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordEncoder.destroy();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Login: Should run exactly one USERS query")
+    void login_shouldRunExactlyOneQuery() {
+        // Given
+        when(userRepository.findByUsernameOrEmail("john_doe", "john_doe")).thenReturn(Optional.of(user));
+        when(tokenProvider.generateToken(any(Authentication.class))).thenReturn("jwt");
+
+        // When
+        AuthResponse response = authService.login(new LoginRequest("john_doe", PASSWORD));
+
+        // Then
+        assertEquals("jwt", response.getToken());
+        assertEquals(7L, response.getUser().getId());
+        assertEquals("john@example.com", response.getUser().getEmail());
+        verify(userRepository).findByUsernameOrEmail("john_doe", "john_doe");
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Login: Token is built from the principal that carries the loaded user")
+    void login_shouldPassLoadedUserToTokenProvider() {
+        // Given
+        when(userRepository.findByUsernameOrEmail("john@example.com", "john@example.com")).thenReturn(Optional.of(user));
+        when(tokenProvider.generateToken(any(Authentication.class))).thenReturn("jwt");
+
+        // When
+        authService.login(new LoginRequest("john@example.com", PASSWORD));
+
+        // Then
+        ArgumentCaptor<Authentication> authentication = ArgumentCaptor.forClass(Authentication.class);
+        verify(tokenProvider).generateToken(authentication.capture());
+        UserPrincipal principal = (UserPrincipal) authentication.getValue().getPrincipal();
+        assertSame(user, principal.getUser());
+        assertEquals(7L, principal.getId());
+    }
+
+    @Test
+    @DisplayName("Login: Wrong password should fail after one query")
+    void login_withWrongPassword_shouldFailAfterOneQuery() {
+        // Given
+        when(userRepository.findByUsernameOrEmail("john_doe", "john_doe")).thenReturn(Optional.of(user));
+
+        // When & Then
+        assertThrows(BadCredentialsException.class,
+                () -> authService.login(new LoginRequest("john_doe", "wrong-password")));
+        verify(userRepository).findByUsernameOrEmail("john_doe", "john_doe");
+        verifyNoMoreInteractions(userRepository);
+        verify(tokenProvider, never()).generateToken(any());
+    }
+
+    @Test
+    @DisplayName("Login: Outdated hash strength adds only one UPDATE")
+    void login_withOutdatedHash_shouldAddOneUpdate() {
+        // Given: stored hash has strength 4, the encoder is configured with 5
+        passwordEncoder.destroy();
+        authService = newAuthService(5);
+        when(userRepository.findByUsernameOrEmail("john_doe", "john_doe")).thenReturn(Optional.of(user));
+        when(userRepository.updatePassword(anyLong(), anyString())).thenReturn(1);
+        when(tokenProvider.generateToken(any(Authentication.class))).thenReturn("jwt");
+
+        // When
+        AuthResponse response = authService.login(new LoginRequest("john_doe", PASSWORD));
+
+        // Then
+        assertEquals(7L, response.getUser().getId());
+        ArgumentCaptor<String> newHash = ArgumentCaptor.forClass(String.class);
+        verify(userRepository).updatePassword(eq(7L), newHash.capture());
+        assertTrue(newHash.getValue().startsWith("$2a$05$"));
+        assertTrue(new BCryptPasswordEncoder(5).matches(PASSWORD, newHash.getValue()));
+    }
+
+    @Test
+    @DisplayName("Register: Should run only the INSERT, no exists checks")
+    void register_shouldRunOnlyInsert() {
+        // Given
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
+        when(tokenProvider.generateTokenForUser(user)).thenReturn("jwt");
+
+        // When
+        AuthResponse response = authService.register(newRegisterRequest());
+
+        // Then
+        assertEquals("jwt", response.getToken());
+        verify(userRepository).saveAndFlush(any(User.class));
+        verifyNoMoreInteractions(userRepository);
+        verify(searchIndex).indexAfterCommit(response.getUser());
+        verify(userStatistics).userCreated(Role.USER, true);
+    }
+
+    @Test
+    @DisplayName("Register: Email constraint violation should become DuplicateResourceException")
+    void register_withTakenEmail_shouldThrowDuplicateEmail() {
+        // Given
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement",
+                new SQLIntegrityConstraintViolationException("ORA-00001: unique constraint (APP.UK_USERS_EMAIL) violated")));
+
+        // When & Then
+        DuplicateResourceException exception = assertThrows(DuplicateResourceException.class,
+                () -> authService.register(newRegisterRequest()));
+        assertEquals("Email", exception.getFieldName());
+        assertEquals("john@example.com", exception.getFieldValue());
+        verify(tokenProvider, never()).generateTokenForUser(any());
+        verifyNoInteractions(searchIndex);
+    }
+
+    @Test
+    @DisplayName("Register: Username constraint violation should become DuplicateResourceException")
+    void register_withTakenUsername_shouldThrowDuplicateUsername() {
+        // Given
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement",
+                new SQLIntegrityConstraintViolationException("ORA-00001: unique constraint (APP.UK_USERS_USERNAME) violated")));
+
+        // When & Then
+        DuplicateResourceException exception = assertThrows(DuplicateResourceException.class,
+                () -> authService.register(newRegisterRequest()));
+        assertEquals("Username", exception.getFieldName());
+        assertEquals("john_doe", exception.getFieldValue());
+    }
+
+    @Test
+    @DisplayName("Register: Other integrity violations should not be reported as duplicates")
+    void register_withOtherViolation_shouldRethrow() {
+        // Given
+        DataIntegrityViolationException violation = new DataIntegrityViolationException(
+                "could not execute statement",
+                new SQLIntegrityConstraintViolationException("ORA-01400: cannot insert NULL into (APP.USERS.ROLE)"));
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(violation);
+
+        // When & Then
+        assertSame(violation, assertThrows(DataIntegrityViolationException.class,
+                () -> authService.register(newRegisterRequest())));
+    }
+
+    private AuthService newAuthService(int bcryptStrength) {
+        passwordEncoder = new BoundedPasswordEncoder(
+                new BCryptPasswordEncoder(bcryptStrength), 1, 8, 5_000, new SimpleMeterRegistry());
+
+        CustomUserDetailsService userDetailsService = new CustomUserDetailsService();
+        ReflectionTestUtils.setField(userDetailsService, "userRepository", userRepository);
+
+        DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();
+        authenticationProvider.setUserDetailsService(userDetailsService);
+        authenticationProvider.setPasswordEncoder(passwordEncoder);
+        authenticationProvider.setUserDetailsPasswordService(userDetailsService);
+
+        AuthService service = new AuthService();
+        ReflectionTestUtils.setField(service, "authenticationManager", new ProviderManager(authenticationProvider));
+        ReflectionTestUtils.setField(service, "userRepository", userRepository);
+        ReflectionTestUtils.setField(service, "passwordEncoder", passwordEncoder);
+        ReflectionTestUtils.setField(service, "tokenProvider", tokenProvider);
+        ReflectionTestUtils.setField(service, "searchIndex", searchIndex);
+        ReflectionTestUtils.setField(service, "userStatistics", userStatistics);
+        ReflectionTestUtils.setField(service, "transactionTemplate",
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        return service;
+    }
+
+    private static RegisterRequest newRegisterRequest() {
+        return new RegisterRequest("john_doe", "john@example.com", PASSWORD, "John", "Doe", null);
+    }
+
+    private static User newUser(String passwordHash) {
+        User user = new User();
+        user.setId(7L);
+        user.setUsername("john_doe");
+        user.setEmail("john@example.com");
+        user.setPassword(passwordHash);
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setRole(Role.USER);
+        user.setIsActive(true);
+        return user;
+    }
+}
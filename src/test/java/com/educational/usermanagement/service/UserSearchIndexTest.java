@@ -0,0 +1,136 @@
+package com.educational.usermanagement.service;
+
+import com.educational.usermanagement.dto.CursorPage;
+import com.educational.usermanagement.dto.UserResponse;
+import com.educational.usermanagement.entity.Role;
+import com.educational.usermanagement.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for UserSearchIndex
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("User Search Index Tests")
+class UserSearchIndexTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.findPageAfter(0L, Limit.of(1_000))).thenReturn(List.of(
+                user(1L, "admin", "admin@example.com", "Admin", "User"),
+                user(2L, "john_doe", "john@example.com", "John", "Doe"),
+                user(3L, "jane_smith", "jane@example.com", "Jane", "Smith"),
+                user(4L, "bob", "bob.johnson@example.com", "Bob", "Johnson")
+        ));
+        meterRegistry = new SimpleMeterRegistry();
+        searchIndex = new UserSearchIndex(userRepository, 200, Long.MAX_VALUE, meterRegistry);
+        searchIndex.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        searchIndex.destroy();
+    }
+
+    @Test
+    @DisplayName("Init: Loads all users once")
+    void init_shouldLoadAllUsers() {
+        assertEquals(4, searchIndex.size());
+        verify(userRepository).findPageAfter(0L, Limit.of(1_000));
+    }
+
+    @Test
+    @DisplayName("Search: Matches anywhere in any field, case-insensitive, best match first")
+    void search_shouldRankMatches() {
+        // When
+        CursorPage<UserResponse> page = searchIndex.search("JOHN", 0, 20);
+
+        // Then: username prefix (john_doe) beats last name / email match (Bob Johnson)
+        assertEquals(List.of(2L, 4L), ids(page));
+        assertFalse(page.isHasMore());
+        verify(userRepository, times(1)).findPageAfter(anyLong(), any(Limit.class));
+    }
+
+    @Test
+    @DisplayName("Search: Short terms and empty terms work without trigrams")
+    void search_withShortTerm_shouldScanIndex() {
+        assertEquals(List.of(1L), ids(searchIndex.search("ad", 0, 20)));
+        assertEquals(List.of(2L, 4L), ids(searchIndex.search("jo", 0, 20)));
+        assertEquals(4, searchIndex.search("", 0, 20).getItems().size());
+    }
+
+    @Test
+    @DisplayName("Search: Term that is not contained anywhere finds nothing")
+    void search_withUnknownTerm_shouldFindNothing() {
+        // "ohn" is in john_doe and johnson, but "hnd" is in nobody
+        assertTrue(searchIndex.search("ohnd", 0, 20).getItems().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Search: Pages by offset and reports the next cursor")
+    void search_shouldPageByOffset() {
+        // When
+        CursorPage<UserResponse> first = searchIndex.search("example", 0, 3);
+        CursorPage<UserResponse> second = searchIndex.search("example", 3, 3);
+
+        // Then: equal scores are ordered by ID
+        assertEquals(List.of(1L, 2L, 3L), ids(first));
+        assertTrue(first.isHasMore());
+        assertEquals(3L, first.getNextCursor());
+        assertEquals(List.of(4L), ids(second));
+        assertFalse(second.isHasMore());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Changes: Updated and deleted users are reflected without a query")
+    void indexAndRemove_shouldUpdateResults() {
+        // When
+        searchIndex.indexAfterCommit(user(2L, "johnny", "johnny@example.com", "Johnny", "Doe"));
+        searchIndex.removeAfterCommit(4L);
+        searchIndex.indexAfterCommit(user(5L, "alice", "alice@example.com", "Alice", "Johns"));
+
+        // Then
+        assertEquals(List.of(2L, 5L), ids(searchIndex.search("john", 0, 20)));
+        assertTrue(searchIndex.search("john_doe", 0, 20).getItems().isEmpty());
+        assertEquals(4, searchIndex.size());
+        verify(userRepository, times(1)).findPageAfter(anyLong(), any(Limit.class));
+    }
+
+    @Test
+    @DisplayName("Metrics: Search latency and result counts are recorded")
+    void search_shouldRecordMetrics() {
+        // When
+        searchIndex.search("john", 0, 20);
+
+        // Then
+        assertEquals(1, meterRegistry.get("user.search.duration").timer().count());
+        assertEquals(2.0, meterRegistry.get("user.search.results").summary().totalAmount());
+        assertEquals(4.0, meterRegistry.get("user.search.index.size").gauge().value());
+    }
+
+    private static UserResponse user(Long id, String username, String email, String firstName, String lastName) {
+        return new UserResponse(id, username, email, firstName, lastName, null, Role.USER, true, null, null);
+    }
+
+    private static List<Long> ids(CursorPage<UserResponse> page) {
+        return page.getItems().stream().map(UserResponse::getId).toList();
+    }
+}
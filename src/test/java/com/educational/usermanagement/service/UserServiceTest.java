@@ -0,0 +1,209 @@
+package com.educational.usermanagement.service;
+
+import com.educational.usermanagement.dto.CursorPage;
+import com.educational.usermanagement.dto.UserRequest;
+import com.educational.usermanagement.dto.UserResponse;
+import com.educational.usermanagement.entity.Role;
+import com.educational.usermanagement.entity.User;
+import com.educational.usermanagement.repository.UserRepository;
+import com.educational.usermanagement.security.TokenVersionStore;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for UserService list endpoints (keyset pagination) and updates
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("User Service Tests")
+class UserServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserSearchIndex searchIndex;
+
+    @Mock
+    private TokenVersionStore tokenVersionStore;
+
+    @Mock
+    private UserStatistics userStatistics;
+
+    @InjectMocks
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userService, "defaultPageSize", 20);
+        ReflectionTestUtils.setField(userService, "maxPageSize", 100);
+        ReflectionTestUtils.setField(userService, "transactionTemplate",
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Get all users: First page asks for size + 1 rows after ID 0")
+    void getAllUsers_firstPage_shouldFetchOneExtraRow() {
+        // Given
+        when(userRepository.findPageAfter(0L, Limit.of(4))).thenReturn(users(1, 4));
+
+        // When
+        CursorPage<UserResponse> page = userService.getAllUsers(null, 3);
+
+        // Then
+        assertEquals(List.of(1L, 2L, 3L), ids(page));
+        assertTrue(page.isHasMore());
+        assertEquals(3L, page.getNextCursor());
+        assertEquals(3, page.getSize());
+    }
+
+    @Test
+    @DisplayName("Get all users: Last page has no next cursor")
+    void getAllUsers_lastPage_shouldHaveNoNextCursor() {
+        // Given
+        when(userRepository.findPageAfter(3L, Limit.of(4))).thenReturn(users(4, 5));
+
+        // When
+        CursorPage<UserResponse> page = userService.getAllUsers(3L, 3);
+
+        // Then
+        assertEquals(List.of(4L, 5L), ids(page));
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Get all users: Page size defaults and is capped")
+    void getAllUsers_shouldApplyPageSizeLimits() {
+        // Given
+        when(userRepository.findPageAfter(anyLong(), any(Limit.class))).thenReturn(List.of());
+
+        // When
+        userService.getAllUsers(null, null);
+        userService.getAllUsers(null, 1_000_000);
+        userService.getAllUsers(null, 0);
+
+        // Then
+        verify(userRepository).findPageAfter(0L, Limit.of(21));
+        verify(userRepository).findPageAfter(0L, Limit.of(101));
+        verify(userRepository).findPageAfter(0L, Limit.of(2));
+    }
+
+    @Test
+    @DisplayName("Get users by role: Uses the cursor and the extra row")
+    void getUsersByRole_shouldPageAfterCursor() {
+        // Given
+        when(userRepository.findPageByRoleAfter(Role.ADMIN, 10L, Limit.of(3))).thenReturn(users(11, 13));
+
+        // When
+        CursorPage<UserResponse> admins = userService.getUsersByRole(Role.ADMIN, 10L, 2);
+
+        // Then
+        assertEquals(List.of(11L, 12L), ids(admins));
+        assertEquals(12L, admins.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Search users: Served by the search index, cursor is the offset")
+    void searchUsers_shouldUseSearchIndex() {
+        // Given
+        CursorPage<UserResponse> page = new CursorPage<>(users(12, 12), 2, null, false);
+        when(searchIndex.search("john", 10, 2)).thenReturn(page);
+
+        // When
+        CursorPage<UserResponse> found = userService.searchUsers("john", 10L, 2);
+
+        // Then
+        assertSame(page, found);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Update user: New role revokes tokens with an atomic version increment")
+    void updateUser_withNewRole_shouldIncrementTokenVersionInDatabase() {
+        // Given
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("admin", null, "ROLE_ADMIN"));
+        User user = newUser();
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+        when(userRepository.saveAndFlush(user)).thenReturn(user);
+        UserRequest request = new UserRequest();
+        request.setRole(Role.ADMIN);
+
+        // When
+        userService.updateUser(7L, request);
+
+        // Then: the entity keeps the loaded version, the database adds 1 itself
+        assertEquals(0L, user.getTokenVersion());
+        verify(userRepository).incrementTokenVersion(7L);
+        verify(tokenVersionStore).revoke(7L);
+    }
+
+    @Test
+    @DisplayName("Update user: Names only do not revoke tokens")
+    void updateUser_withNewName_shouldKeepTokenVersion() {
+        // Given
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("admin", null, "ROLE_ADMIN"));
+        User user = newUser();
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+        when(userRepository.saveAndFlush(user)).thenReturn(user);
+        UserRequest request = new UserRequest();
+        request.setFirstName("Johnny");
+
+        // When
+        userService.updateUser(7L, request);
+
+        // Then
+        verify(userRepository, never()).incrementTokenVersion(anyLong());
+        verifyNoInteractions(tokenVersionStore);
+    }
+
+    private static User newUser() {
+        User user = new User();
+        user.setId(7L);
+        user.setUsername("john_doe");
+        user.setEmail("john@example.com");
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setRole(Role.USER);
+        user.setIsActive(true);
+        return user;
+    }
+
+    private static List<UserResponse> users(long fromId, long toId) {
+        return LongStream.rangeClosed(fromId, toId)
+                .mapToObj(id -> {
+                    UserResponse user = new UserResponse();
+                    user.setId(id);
+                    user.setUsername("user" + id);
+                    return user;
+                })
+                .toList();
+    }
+
+    private static List<Long> ids(CursorPage<UserResponse> page) {
+        return page.getItems().stream().map(UserResponse::getId).toList();
+    }
+}
@@ -0,0 +1,147 @@
+package com.educational.usermanagement.service;
+
+import com.educational.usermanagement.entity.Role;
+import com.educational.usermanagement.repository.UserRepository;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for UserStatistics
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("User Statistics Tests")
+class UserStatisticsTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Test
+    @DisplayName("Statistics: One GROUP BY query at startup, none per request")
+    void getStatistics_shouldUseOneQuery() {
+        // Given
+        when(userRepository.countByRoleAndStatus()).thenReturn(List.of(
+                row(Role.ADMIN, true, 3),
+                row(Role.USER, true, 37),
+                row(Role.USER, false, 2)));
+        UserStatistics statistics = newStatistics(Long.MAX_VALUE);
+
+        // When
+        statistics.getStatistics();
+        Map<String, Long> result = statistics.getStatistics();
+
+        // Then
+        assertEquals(Map.of("totalUsers", 42L, "adminCount", 3L, "userCount", 39L,
+                "activeUsers", 40L, "inactiveUsers", 2L), result);
+        verify(userRepository, times(1)).countByRoleAndStatus();
+    }
+
+    @Test
+    @DisplayName("Statistics: Created, changed and deleted users are counted without a query")
+    void changes_shouldUpdateSnapshot() {
+        // Given
+        when(userRepository.countByRoleAndStatus()).thenReturn(List.of(row(Role.USER, true, 2)));
+        UserStatistics statistics = newStatistics(Long.MAX_VALUE);
+
+        // When
+        statistics.userCreated(Role.USER, true);
+        statistics.userChanged(Role.USER, true, Role.ADMIN, true);
+        statistics.userChanged(Role.USER, true, Role.USER, false);
+        statistics.userDeleted(Role.USER, false);
+        statistics.userChanged(Role.ADMIN, true, Role.ADMIN, true);
+
+        // Then
+        assertEquals(Map.of("totalUsers", 2L, "adminCount", 1L, "userCount", 1L,
+                "activeUsers", 2L, "inactiveUsers", 0L), statistics.getStatistics());
+        verify(userRepository, times(1)).countByRoleAndStatus();
+    }
+
+    @Test
+    @DisplayName("Statistics: Stale snapshot is reconciled with the database")
+    void getStatistics_whenStale_shouldReconcile() {
+        // Given: negative interval, every read reconciles
+        when(userRepository.countByRoleAndStatus())
+                .thenReturn(List.of(row(Role.USER, true, 2)))
+                .thenReturn(List.of(row(Role.USER, true, 5)));
+        UserStatistics statistics = newStatistics(-1);
+
+        // When
+        statistics.userCreated(Role.USER, true);
+        Map<String, Long> result = statistics.getStatistics();
+
+        // Then: database value wins over the in-memory 3
+        assertEquals(5L, result.get("totalUsers"));
+        verify(userRepository, times(2)).countByRoleAndStatus();
+    }
+
+    @Test
+    @DisplayName("Statistics: A change committed during the count is not counted twice")
+    void getStatistics_whenChangedDuringCount_shouldCountAgain() {
+        // Given: the user created while the query runs is already in its result
+        UserStatistics[] holder = new UserStatistics[1];
+        when(userRepository.countByRoleAndStatus())
+                .thenReturn(List.of(row(Role.USER, true, 2)))
+                .thenAnswer(invocation -> {
+                    holder[0].userCreated(Role.USER, true);
+                    return List.of(row(Role.USER, true, 3));
+                })
+                .thenReturn(List.of(row(Role.USER, true, 3)));
+        holder[0] = newStatistics(-1);
+
+        // When
+        Map<String, Long> result = holder[0].getStatistics();
+
+        // Then: counted again instead of adding the change to the result (4)
+        assertEquals(3L, result.get("totalUsers"));
+        verify(userRepository, times(3)).countByRoleAndStatus();
+    }
+
+    @Test
+    @DisplayName("Statistics: Database down at startup counts on the first request")
+    void getStatistics_afterFailedStartup_shouldCountOnRequest() {
+        // Given
+        when(userRepository.countByRoleAndStatus())
+                .thenThrow(new IllegalStateException("database down"))
+                .thenReturn(List.of(row(Role.ADMIN, false, 1)));
+        UserStatistics statistics = newStatistics(Long.MAX_VALUE);
+
+        // When
+        Map<String, Long> result = statistics.getStatistics();
+
+        // Then
+        assertEquals(1L, result.get("adminCount"));
+        assertEquals(1L, result.get("inactiveUsers"));
+    }
+
+    private UserStatistics newStatistics(long reconcileIntervalMillis) {
+        UserStatistics statistics = new UserStatistics(userRepository, reconcileIntervalMillis);
+        statistics.init();
+        return statistics;
+    }
+
+    private static UserRepository.RoleStatusCount row(Role role, boolean active, long total) {
+        return new UserRepository.RoleStatusCount() {
+            @Override
+            public Role getRole() {
+                return role;
+            }
+
+            @Override
+            public Boolean getActive() {
+                return active;
+            }
+
+            @Override
+            public Long getTotal() {
+                return total;
+            }
+        };
+    }
+}
@@ -0,0 +1,111 @@
+package uz.fido.pfexchange.config;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import uz.fido.pfexchange.dto.mip.PersonAbroadCheckStatusResponseDto;
+import uz.fido.pfexchange.dto.mip.PersonAbroadRestoreStatusResponseDto;
+import uz.fido.pfexchange.dto.mip.PersonAbroadStatusDataDto;
+import uz.fido.pfexchange.dto.mip.PersonAbroadStatusRequestDto;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PersonAbroadJsonConverter
+ *
+ * Each case is compared with the reflective ObjectMapper output the
+ * endpoints produced before (without indent_output).
+ */
+@DisplayName("Person Abroad JSON Converter Tests")
+class PersonAbroadJsonConverterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private final PersonAbroadJsonConverter.StatusRequest requestConverter =
+            new PersonAbroadJsonConverter.StatusRequest(objectMapper.getFactory());
+    private final PersonAbroadJsonConverter.CheckStatusResponse checkConverter =
+            new PersonAbroadJsonConverter.CheckStatusResponse(objectMapper.getFactory());
+    private final PersonAbroadJsonConverter.RestoreStatusResponse restoreConverter =
+            new PersonAbroadJsonConverter.RestoreStatusResponse(objectMapper.getFactory());
+
+    @Test
+    @DisplayName("Should write check status response exactly like ObjectMapper")
+    void write_shouldMatchObjectMapperForCheckStatus() throws Exception {
+        PersonAbroadCheckStatusResponseDto active = new PersonAbroadCheckStatusResponseDto(1, "", 77L, 1);
+        PersonAbroadCheckStatusResponseDto error = new PersonAbroadCheckStatusResponseDto(0, "Xato \"qo'shtirnoq\"\n", null, null);
+
+        assertEquals("{\"result\":1,\"msg\":\"\",\"ws_id\":77,\"status\":1}", write(checkConverter, active));
+        assertEquals(objectMapper.writeValueAsString(active), write(checkConverter, active));
+        assertEquals(objectMapper.writeValueAsString(error), write(checkConverter, error));
+    }
+
+    @Test
+    @DisplayName("Should write restore status response and request exactly like ObjectMapper")
+    void write_shouldMatchObjectMapperForRestoreAndRequest() throws Exception {
+        PersonAbroadRestoreStatusResponseDto restored = new PersonAbroadRestoreStatusResponseDto(2, "Oluvchi statusi faol xolatga keltirildi", 77L);
+        PersonAbroadRestoreStatusResponseDto empty = new PersonAbroadRestoreStatusResponseDto();
+        PersonAbroadStatusRequestDto request = new PersonAbroadStatusRequestDto(new PersonAbroadStatusDataDto(77L, "41006673910061"));
+        PersonAbroadStatusRequestDto noData = new PersonAbroadStatusRequestDto();
+
+        assertEquals(objectMapper.writeValueAsString(restored), write(restoreConverter, restored));
+        assertEquals(objectMapper.writeValueAsString(empty), write(restoreConverter, empty));
+        assertEquals(objectMapper.writeValueAsString(request), write(requestConverter, request));
+        assertEquals(objectMapper.writeValueAsString(noData), write(requestConverter, noData));
+    }
+
+    @Test
+    @DisplayName("Should read request like ObjectMapper")
+    void read_shouldMatchObjectMapper() throws Exception {
+        String[] bodies = {
+                "{\"Data\": {\"ws_id\": 77, \"pinfl\": \"41006673910061\"}}",
+                "{\"Data\": {\"pinfl\": 41006673910061, \"ws_id\": \"77\"}}",
+                "{\"Data\": {\"ws_id\": null, \"pinfl\": null}}",
+                "{\"Data\": {\"ws_id\": \"\", \"other\": {\"a\": [1, 2]}}, \"Extra\": true}",
+                "{\"Data\": null}",
+                "{}"
+        };
+        for (String body : bodies) {
+            assertEquals(objectMapper.readValue(body, PersonAbroadStatusRequestDto.class), read(requestConverter, body), body);
+        }
+
+        assertEquals(new PersonAbroadCheckStatusResponseDto(1, "", 77L, 1),
+                read(checkConverter, "{\"result\": 1, \"msg\": \"\", \"ws_id\": 77, \"status\": 1}"));
+        assertEquals(new PersonAbroadRestoreStatusResponseDto(0, null, 77L),
+                read(restoreConverter, "{\"result\": 0, \"msg\": null, \"ws_id\": 77}"));
+    }
+
+    @Test
+    @DisplayName("Should reject malformed JSON and wrong shapes")
+    void read_shouldRejectMalformedBodies() {
+        String[] bodies = {
+                "[]",
+                "{\"Data\": [1]}",
+                "{\"Data\": {\"ws_id\": \"abc\"}}",
+                "{\"Data\": {\"ws_id\": true}}",
+                "{\"Data\": {\"pinfl\": {}}}",
+                "{\"Data\": {\"ws_id\": 77,"
+        };
+        for (String body : bodies) {
+            assertThrows(HttpMessageNotReadableException.class, () -> read(requestConverter, body), body);
+        }
+    }
+
+    private static <T> String write(PersonAbroadJsonConverter<T> converter, T value) throws Exception {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(value, MediaType.APPLICATION_JSON, output);
+        return output.getBodyAsString(StandardCharsets.UTF_8);
+    }
+
+    private static <T> T read(PersonAbroadJsonConverter<T> converter, String body) throws Exception {
+        MockHttpInputMessage input = new MockHttpInputMessage(body.getBytes(StandardCharsets.UTF_8));
+        input.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return converter.read(null, input);
+    }
+}
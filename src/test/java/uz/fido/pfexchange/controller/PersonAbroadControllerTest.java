@@ -9,7 +9,11 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
+import java.util.List;
 import org.springframework.test.web.servlet.MockMvc;
+import uz.fido.pfexchange.dto.mip.PersonAbroadBatchCheckStatusResponseDto;
+import uz.fido.pfexchange.dto.mip.PersonAbroadBatchRestoreStatusResponseDto;
+import uz.fido.pfexchange.dto.mip.PersonAbroadBatchStatusRequestDto;
 import uz.fido.pfexchange.dto.mip.PersonAbroadCheckStatusResponseDto;
 import uz.fido.pfexchange.dto.mip.PersonAbroadRestoreStatusResponseDto;
 import uz.fido.pfexchange.dto.mip.PersonAbroadStatusDataDto;
@@ -187,6 +191,87 @@ class PersonAbroadControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @WithMockUser(authorities = "GET_PERSON_ABROAD_STATUS")
+    @DisplayName("POST /check-status: Should write compact JSON in field order with nulls")
+    void checkStatus_shouldWriteCompactJson() throws Exception {
+        // Given
+        PersonAbroadCheckStatusResponseDto response = PersonAbroadCheckStatusResponseDto.builder()
+                .result(0)
+                .msg("Pensiya oluvchilar ro'yhatida mavjud emas")
+                .wsId(77L)
+                .status(null)
+                .build();
+
+        when(personAbroadService.checkStatus(any())).thenReturn(response);
+
+        // When & Then - ws_id as a string and an unknown field are accepted as before
+        mockMvc.perform(post("/api/v1/person-abroad/check-status")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"Data\": {\"ws_id\": \"77\", \"pinfl\": \"12345678901234\", \"extra\": [1]}}"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().string(
+                        "{\"result\":0,\"msg\":\"Pensiya oluvchilar ro'yhatida mavjud emas\",\"ws_id\":77,\"status\":null}"));
+    }
+
+    // ========================================================================
+    // Check Status Batch Endpoint Tests
+    // ========================================================================
+
+    @Test
+    @WithMockUser(authorities = "GET_PERSON_ABROAD_STATUS")
+    @DisplayName("POST /check-status/batch: Should return per-item results")
+    void checkStatusBatch_shouldReturnPerItemResults() throws Exception {
+        // Given - second item is invalid, batch still succeeds
+        PersonAbroadStatusDataDto invalidData = PersonAbroadStatusDataDto.builder()
+                .wsId(78L)
+                .pinfl("123")
+                .build();
+
+        PersonAbroadBatchStatusRequestDto batchRequest = PersonAbroadBatchStatusRequestDto.builder()
+                .data(List.of(requestDto.getData(), invalidData))
+                .build();
+
+        PersonAbroadBatchCheckStatusResponseDto response = PersonAbroadBatchCheckStatusResponseDto.builder()
+                .data(List.of(
+                        PersonAbroadCheckStatusResponseDto.builder().result(1).msg("").wsId(77L).status(1).build(),
+                        PersonAbroadCheckStatusResponseDto.builder().result(0).msg("pinfl - xato").wsId(78L).build()
+                ))
+                .build();
+
+        when(personAbroadService.checkStatusBatch(any())).thenReturn(response);
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/person-abroad/check-status/batch")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batchRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.Data.length()").value(2))
+                .andExpect(jsonPath("$.Data[0].ws_id").value(77))
+                .andExpect(jsonPath("$.Data[0].status").value(1))
+                .andExpect(jsonPath("$.Data[1].ws_id").value(78))
+                .andExpect(jsonPath("$.Data[1].result").value(0));
+    }
+
+    @Test
+    @WithMockUser(authorities = "GET_PERSON_ABROAD_STATUS")
+    @DisplayName("POST /check-status/batch: Should return 400 for empty Data")
+    void checkStatusBatch_shouldReturn400ForEmptyData() throws Exception {
+        PersonAbroadBatchStatusRequestDto batchRequest = PersonAbroadBatchStatusRequestDto.builder()
+                .data(List.of())
+                .build();
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/person-abroad/check-status/batch")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batchRequest)))
+                .andExpect(status().isBadRequest());
+    }
+
     // ========================================================================
     // Restore Status Endpoint Tests
     // ========================================================================
@@ -294,6 +379,52 @@ class PersonAbroadControllerTest {
                 .andExpect(status().isForbidden());
     }
 
+    @Test
+    @WithMockUser(authorities = "RESTORE_PERSON_ABROAD_STATUS")
+    @DisplayName("POST /restore-status/batch: Should return per-item result codes")
+    void restoreStatusBatch_shouldReturnPerItemResultCodes() throws Exception {
+        // Given
+        PersonAbroadBatchStatusRequestDto batchRequest = PersonAbroadBatchStatusRequestDto.builder()
+                .data(List.of(requestDto.getData()))
+                .build();
+
+        PersonAbroadBatchRestoreStatusResponseDto response = PersonAbroadBatchRestoreStatusResponseDto.builder()
+                .data(List.of(PersonAbroadRestoreStatusResponseDto.builder()
+                        .result(2)
+                        .msg("Oluvchi statusi faol xolatga keltirildi")
+                        .wsId(77L)
+                        .build()))
+                .build();
+
+        when(personAbroadService.restoreStatusBatch(any())).thenReturn(response);
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/person-abroad/restore-status/batch")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batchRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.Data[0].result").value(2))
+                .andExpect(jsonPath("$.Data[0].ws_id").value(77))
+                .andExpect(jsonPath("$.Data[0].status").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(authorities = "GET_PERSON_ABROAD_STATUS")
+    @DisplayName("POST /restore-status/batch: Should return 403 without restore authority")
+    void restoreStatusBatch_shouldReturn403WithoutRestoreAuthority() throws Exception {
+        PersonAbroadBatchStatusRequestDto batchRequest = PersonAbroadBatchStatusRequestDto.builder()
+                .data(List.of(requestDto.getData()))
+                .build();
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/person-abroad/restore-status/batch")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batchRequest)))
+                .andExpect(status().isForbidden());
+    }
+
     // ========================================================================
     // Health Check Tests
     // ========================================================================
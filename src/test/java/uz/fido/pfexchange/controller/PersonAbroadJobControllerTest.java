@@ -0,0 +1,115 @@
+package uz.fido.pfexchange.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.server.ResponseStatusException;
+import uz.fido.pfexchange.dto.mip.PersonAbroadJobDto;
+import uz.fido.pfexchange.dto.mip.PersonAbroadJobFormat;
+import uz.fido.pfexchange.dto.mip.PersonAbroadJobOperation;
+import uz.fido.pfexchange.dto.mip.PersonAbroadJobStatus;
+import uz.fido.pfexchange.service.PersonAbroadJobService;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for PersonAbroadJobController
+ */
+@WebMvcTest(PersonAbroadJobController.class)
+@DisplayName("Person Abroad Job Controller Tests")
+class PersonAbroadJobControllerTest {
+
+    private static final String JOB_ID = "3f1c1c8e-5a4b-4b7e-9d1a-0b6c2f0e9a11";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private PersonAbroadJobService personAbroadJobService;
+
+    @Test
+    @WithMockUser(authorities = "GET_PERSON_ABROAD_STATUS")
+    @DisplayName("POST /jobs: Should accept NDJSON upload for CHECK")
+    void submit_shouldAcceptNdjsonUpload() throws Exception {
+        // Given
+        when(personAbroadJobService.submit(eq(PersonAbroadJobOperation.CHECK), eq(PersonAbroadJobFormat.NDJSON), any(), any()))
+                .thenReturn(job(PersonAbroadJobStatus.QUEUED));
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/person-abroad/jobs")
+                        .with(csrf())
+                        .param("operation", "CHECK")
+                        .contentType(PersonAbroadJobFormat.NDJSON_VALUE)
+                        .content("{\"ws_id\":77,\"pinfl\":\"41006673910061\"}\n"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.job_id").value(JOB_ID))
+                .andExpect(jsonPath("$.status").value("QUEUED"))
+                .andExpect(jsonPath("$.total_items").value(1));
+    }
+
+    @Test
+    @WithMockUser(authorities = "GET_PERSON_ABROAD_STATUS")
+    @DisplayName("POST /jobs: Should return 403 for RESTORE without restore authority")
+    void submit_shouldReturn403ForRestoreWithoutAuthority() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/v1/person-abroad/jobs")
+                        .with(csrf())
+                        .param("operation", "RESTORE")
+                        .contentType(PersonAbroadJobFormat.CSV_VALUE)
+                        .content("77,41006673910061\n"))
+                .andExpect(status().isForbidden());
+
+        verify(personAbroadJobService, never()).submit(any(), any(), any(), any());
+    }
+
+    @Test
+    @WithMockUser(authorities = "RESTORE_PERSON_ABROAD_STATUS")
+    @DisplayName("GET /jobs/{id}: Should return job progress")
+    void getJob_shouldReturnProgress() throws Exception {
+        // Given
+        when(personAbroadJobService.getJob(JOB_ID)).thenReturn(job(PersonAbroadJobStatus.RUNNING));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/person-abroad/jobs/" + JOB_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("RUNNING"))
+                .andExpect(jsonPath("$.processed_items").value(0));
+    }
+
+    @Test
+    @WithMockUser(authorities = "GET_PERSON_ABROAD_STATUS")
+    @DisplayName("GET /jobs/{id}: Should return 404 for unknown job")
+    void getJob_shouldReturn404ForUnknownJob() throws Exception {
+        // Given
+        when(personAbroadJobService.getJob("unknown"))
+                .thenThrow(new ResponseStatusException(HttpStatus.NOT_FOUND, "Vazifa topilmadi: unknown"));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/person-abroad/jobs/unknown"))
+                .andExpect(status().isNotFound());
+    }
+
+    private static PersonAbroadJobDto job(PersonAbroadJobStatus status) {
+        return PersonAbroadJobDto.builder()
+                .jobId(JOB_ID)
+                .operation(PersonAbroadJobOperation.CHECK)
+                .status(status)
+                .totalItems(1L)
+                .processedItems(0L)
+                .failedItems(0L)
+                .build();
+    }
+}
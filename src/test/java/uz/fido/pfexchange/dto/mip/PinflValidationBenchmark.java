@@ -0,0 +1,100 @@
+package uz.fido.pfexchange.dto.mip;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Validation cost of one /check-status request body
+ *
+ * annotations - the former @NotNull/@Size/@Pattern set through Hibernate Validator,
+ * validPinfl  - the same DTO with @ValidPinfl through Hibernate Validator,
+ * singlePass  - PinflValidator.errors() (check digit on) plus the ws_id checks,
+ *               i.e. what is left once the reflective pipeline is taken away.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *        -Dexec.mainClass=uz.fido.pfexchange.dto.mip.PinflValidationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class PinflValidationBenchmark {
+
+    @Param({"41006673910061", "4100667391006X", "123"})
+    public String pinfl;
+
+    private Validator validator;
+    private AnnotatedData annotatedData;
+    private PersonAbroadStatusDataDto data;
+
+    @Setup
+    public void setUp() {
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+        annotatedData = new AnnotatedData(77L, pinfl);
+        data = PersonAbroadStatusDataDto.builder().wsId(77L).pinfl(pinfl).build();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<AnnotatedData>> annotations() {
+        return validator.validate(annotatedData);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<PersonAbroadStatusDataDto>> validPinfl() {
+        return validator.validate(data);
+    }
+
+    @Benchmark
+    public int singlePass() {
+        Long wsId = data.getWsId();
+        int errors = PinflValidator.errors(data.getPinfl(), true);
+        return wsId == null || wsId <= 0 ? errors | Integer.MIN_VALUE : errors;
+    }
+
+    /**
+     * PersonAbroadStatusDataDto as it was annotated before @ValidPinfl
+     */
+    public record AnnotatedData(
+        @NotNull(message = "ws_id - majburiy parametr (bo'sh bo'lmasligi kerak)")
+        @Positive(message = "ws_id - musbat son bo'lishi kerak")
+        Long wsId,
+
+        @NotNull(message = "pinfl - majburiy parametr (bo'sh bo'lmasligi kerak)")
+        @Size(min = 14, max = 14, message = "pinfl - faqat 14 ta raqamdan iborat bo'lishi kerak")
+        @Pattern(regexp = "^\\d{14}$", message = "pinfl - faqat 14 ta raqamlardan iborat bo'lishi kerak harflar mumkin emas")
+        String pinfl
+    ) {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(PinflValidationBenchmark.class.getSimpleName())
+            .build()
+        ).run();
+    }
+}
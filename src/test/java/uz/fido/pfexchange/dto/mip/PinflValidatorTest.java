@@ -0,0 +1,59 @@
+package uz.fido.pfexchange.dto.mip;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PinflValidator
+ */
+@DisplayName("PINFL Validator Tests")
+class PinflValidatorTest {
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Test
+    @DisplayName("Should report the former @NotNull/@Size/@Pattern messages")
+    void validate_shouldKeepMessages() {
+        assertEquals(Set.of(), messages("12345678901234"));
+        assertEquals(Set.of(PinflValidator.REQUIRED_MSG), messages(null));
+        assertEquals(Set.of(PinflValidator.LENGTH_MSG, PinflValidator.DIGITS_MSG), messages("123"));
+        assertEquals(Set.of(PinflValidator.LENGTH_MSG, PinflValidator.DIGITS_MSG), messages(""));
+        assertEquals(Set.of(PinflValidator.DIGITS_MSG), messages("1234567890123A"));
+        assertEquals(Set.of(PinflValidator.DIGITS_MSG), messages("A2345678901234"));
+        assertEquals(Set.of(PinflValidator.DIGITS_MSG), messages("1234567890123\u0663"));
+    }
+
+    @Test
+    @DisplayName("Should check the 7-3-1 weighted check digit only when enabled")
+    void errors_shouldCheckCheckDigit() {
+        // 4*7 + 1*3 + 0*1 + 0*7 + 6*3 + 6*1 + 7*7 + 3*3 + 9*1 + 1*7 + 0*3 + 0*1 + 6*7 = 171
+        assertEquals(PinflValidator.VALID, PinflValidator.errors("41006673910061", true));
+        assertEquals(PinflValidator.WRONG_CHECK_DIGIT, PinflValidator.errors("41006673910062", true));
+        assertEquals(PinflValidator.VALID, PinflValidator.errors("41006673910062", false));
+        assertEquals(PinflValidator.NOT_DIGITS, PinflValidator.errors("4100667391006X", true));
+    }
+
+    @Test
+    @DisplayName("Should parse exactly fourteen digits into a long")
+    void parse_shouldAcceptOnlyFourteenDigits() {
+        assertEquals(41006673910061L, PinflValidator.parse("41006673910061"));
+        assertEquals(1L, PinflValidator.parse("00000000000001"));
+        assertEquals(-1L, PinflValidator.parse("123456789012345"));
+        assertEquals(-1L, PinflValidator.parse("1234567890123-"));
+        assertEquals(-1L, PinflValidator.parse(null));
+    }
+
+    private Set<String> messages(String pinfl) {
+        PersonAbroadStatusDataDto data = PersonAbroadStatusDataDto.builder().wsId(77L).pinfl(pinfl).build();
+        return validator.validate(data).stream()
+            .map(ConstraintViolation::getMessage)
+            .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,129 @@
+package uz.fido.pfexchange.repository.mip;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.sql.Clob;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.sql.rowset.serial.SerialClob;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlOutParameter;
+import org.springframework.jdbc.core.SqlParameter;
+import org.springframework.jdbc.core.simple.SimpleJdbcCall;
+import uz.fido.pfexchange.config.PersonAbroadProperties;
+import uz.fido.pfexchange.config.PersonAbroadProperties.ResponseMode;
+import uz.fido.pfexchange.dto.mip.PersonAbroadCheckStatusResponseDto;
+import uz.fido.pfexchange.support.StubOracleDataSource;
+
+/**
+ * Per-call SimpleJdbcCall construction vs. a call compiled once at startup,
+ * and the JSON CLOB contract vs. the v2 OUT-parameter overload
+ *
+ * The database is stubbed, so the numbers show only client-side overhead
+ * (metadata lookup, call string building, parameter declaration, O_Data decoding).
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *        -Dexec.mainClass=uz.fido.pfexchange.repository.mip.PersonAbroadCallBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class PersonAbroadCallBenchmark {
+
+    private static final String PINFL = "41006673910061";
+    private static final String XML_DATA = "<Data><ws_id>77</ws_id><pinfl>" + PINFL + "</pinfl></Data>";
+
+    private static final String JSON_DATA = "{\"result\": 1, \"msg\": \"\", \"ws_id\": 77, \"status\": 1}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private JdbcTemplate jdbcTemplate;
+    private PersonAbroadRepository repository;
+    private PersonAbroadRepository outParamsRepository;
+
+    @Setup
+    public void setUp() {
+        jdbcTemplate = new JdbcTemplate(new StubOracleDataSource(index -> index == 1 ? 1 : newClob()));
+        repository = newRepository(jdbcTemplate, ResponseMode.JSON_CLOB);
+
+        // RETURN, O_Result, O_Status, O_Msg
+        outParamsRepository = newRepository(
+            new JdbcTemplate(new StubOracleDataSource(index -> index == 4 ? null : 1)),
+            ResponseMode.OUT_PARAMS
+        );
+    }
+
+    private PersonAbroadRepository newRepository(JdbcTemplate template, ResponseMode responseMode) {
+        PersonAbroadProperties properties = new PersonAbroadProperties();
+        properties.setResponseMode(responseMode);
+
+        PersonAbroadRepository personAbroadRepository = new PersonAbroadRepository(template, objectMapper, properties);
+        personAbroadRepository.compileCalls();
+        return personAbroadRepository;
+    }
+
+    /**
+     * Previous path: new call per request, CLOB copied into a String, then parsed
+     */
+    @Benchmark
+    public PersonAbroadCheckStatusResponseDto perCallConstruction() throws Exception {
+        SimpleJdbcCall jdbcCall = new SimpleJdbcCall(jdbcTemplate)
+            .withCatalogName("PF_EXCHANGES_ABROAD")
+            .withFunctionName("Check_Person_Status")
+            .withoutProcedureColumnMetaDataAccess()
+            .declareParameters(
+                new SqlOutParameter("RETURN", Types.INTEGER),
+                new SqlOutParameter("O_Data", Types.CLOB),
+                new SqlParameter("P_Data", Types.VARCHAR)
+            );
+        Map<String, Object> result = jdbcCall.execute(Map.of("P_Data", XML_DATA));
+
+        Clob clob = (Clob) result.get("O_Data");
+        String json = clob.getSubString(1, (int) clob.length());
+        return objectMapper.readValue(json, PersonAbroadCheckStatusResponseDto.class);
+    }
+
+    @Benchmark
+    public PersonAbroadCallResult<PersonAbroadCheckStatusResponseDto> precompiled() {
+        return repository.checkPersonStatus(77L, PINFL);
+    }
+
+    @Benchmark
+    public PersonAbroadCallResult<PersonAbroadCheckStatusResponseDto> outParams() {
+        return outParamsRepository.checkPersonStatus(77L, PINFL);
+    }
+
+    private static Clob newClob() {
+        try {
+            return new SerialClob(JSON_DATA.toCharArray());
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(PersonAbroadCallBenchmark.class.getSimpleName())
+            .build()
+        ).run();
+    }
+}
@@ -0,0 +1,103 @@
+package uz.fido.pfexchange.repository.mip;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.sql.Types;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlOutParameter;
+import org.springframework.jdbc.core.SqlParameter;
+import org.springframework.jdbc.core.simple.SimpleJdbcCall;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import uz.fido.pfexchange.config.PersonAbroadProperties;
+import uz.fido.pfexchange.config.PersonAbroadProperties.ResponseMode;
+
+/**
+ * Per-call DB CPU of Check_Person_Status request contracts
+ *
+ * - xml-clob:  P_Data XML in, O_Data JSON CLOB out (original contract)
+ * - xml-out:   P_Data XML in, scalar OUT parameters
+ * - direct:    P_Ws_Id/P_Pinfl in, scalar OUT parameters
+ *
+ * All calls run on one session; "CPU used by this session" from V$MYSTAT
+ * (centiseconds) is sampled before and after each contract. Every call
+ * writes an audit row, so run it against a test schema only.
+ *
+ * Run: DB_URL=... DB_USERNAME=... DB_PASSWORD=... mvn test-compile exec:java -Dexec.classpathScope=test
+ *        -Dexec.mainClass=uz.fido.pfexchange.repository.mip.PersonAbroadDbCpuBenchmark
+ *        -Dbench.iterations=5000 -Dbench.pinfl=41006673910061
+ */
+public class PersonAbroadDbCpuBenchmark {
+
+    private static final String SESSION_CPU_SQL = """
+        SELECT m.value
+          FROM v$mystat m
+          JOIN v$statname n ON n.statistic# = m.statistic#
+         WHERE n.name = 'CPU used by this session'""";
+
+    private static final long WS_ID = 77L;
+    private static final String PINFL = System.getProperty("bench.pinfl", "41006673910061");
+    private static final int ITERATIONS = Integer.getInteger("bench.iterations", 5000);
+    private static final int WARMUP = Math.max(ITERATIONS / 10, 100);
+
+    public static void main(String[] args) {
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+            System.getenv("DB_URL"), System.getenv("DB_USERNAME"), System.getenv("DB_PASSWORD"), true);
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            ObjectMapper objectMapper = new ObjectMapper();
+
+            PersonAbroadRepository xmlClob = newRepository(jdbcTemplate, objectMapper, ResponseMode.JSON_CLOB);
+            PersonAbroadRepository direct = newRepository(jdbcTemplate, objectMapper, ResponseMode.OUT_PARAMS);
+
+            SimpleJdbcCall xmlOutCall = new SimpleJdbcCall(jdbcTemplate)
+                .withCatalogName("PF_EXCHANGES_ABROAD")
+                .withFunctionName("Check_Person_Status")
+                .withoutProcedureColumnMetaDataAccess()
+                .declareParameters(
+                    new SqlOutParameter("RETURN", Types.INTEGER),
+                    new SqlOutParameter("O_Result", Types.INTEGER),
+                    new SqlOutParameter("O_Status", Types.INTEGER),
+                    new SqlOutParameter("O_Msg", Types.VARCHAR),
+                    new SqlParameter("P_Data", Types.VARCHAR)
+                );
+            Map<String, Object> xmlOutParameters = Map.of("P_Data", PersonAbroadRepository.convertToXml(WS_ID, PINFL));
+
+            System.out.printf("%-10s %12s %14s%n", "contract", "cpu (cs)", "cpu/call (us)");
+            run(jdbcTemplate, "xml-clob", () -> xmlClob.checkPersonStatus(WS_ID, PINFL));
+            run(jdbcTemplate, "xml-out", () -> xmlOutCall.execute(xmlOutParameters));
+            run(jdbcTemplate, "direct", () -> direct.checkPersonStatus(WS_ID, PINFL));
+        } finally {
+            dataSource.destroy();
+        }
+    }
+
+    private static PersonAbroadRepository newRepository(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                                                        ResponseMode responseMode) {
+        PersonAbroadProperties properties = new PersonAbroadProperties();
+        properties.setResponseMode(responseMode);
+
+        PersonAbroadRepository repository = new PersonAbroadRepository(jdbcTemplate, objectMapper, properties);
+        repository.compileCalls();
+        return repository;
+    }
+
+    private static void run(JdbcTemplate jdbcTemplate, String contract, Supplier<?> call) {
+        for (int i = 0; i < WARMUP; i++) {
+            call.get();
+        }
+
+        long before = sessionCpu(jdbcTemplate);
+        for (int i = 0; i < ITERATIONS; i++) {
+            call.get();
+        }
+        long cpu = sessionCpu(jdbcTemplate) - before;
+
+        System.out.printf("%-10s %12d %14.1f%n", contract, cpu, cpu * 10_000.0 / ITERATIONS);
+    }
+
+    private static long sessionCpu(JdbcTemplate jdbcTemplate) {
+        Long value = jdbcTemplate.queryForObject(SESSION_CPU_SQL, Long.class);
+        return value != null ? value : 0;
+    }
+}
@@ -0,0 +1,96 @@
+package uz.fido.pfexchange.repository.mip;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Properties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import uz.fido.pfexchange.config.PersonAbroadProperties;
+import uz.fido.pfexchange.config.PersonAbroadProperties.ResponseMode;
+import uz.fido.pfexchange.dto.mip.PersonAbroadCheckStatusResponseDto;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Soak test: temporary LOB usage of the session must stay flat
+ *
+ * Runs only against a real Oracle (DB_URL, DB_USERNAME, DB_PASSWORD).
+ * All calls share one session, so any O_Data CLOB that is not freed
+ * shows up in V$TEMPORARY_LOBS for that SID.
+ *
+ * Run: DB_URL=... mvn test -Dtest=PersonAbroadRepositoryLobSoakTest -Dsoak.iterations=5000
+ */
+@Tag("oracle")
+@EnabledIfEnvironmentVariable(named = "DB_URL", matches = ".+")
+@DisplayName("Person Abroad Repository LOB Soak Test")
+class PersonAbroadRepositoryLobSoakTest {
+
+    private static final String PINFL = "41006673910061";
+
+    private static final String TEMPORARY_LOBS_SQL = """
+        SELECT NVL(SUM(cache_lobs + nocache_lobs + abstract_lobs), 0)
+          FROM v$temporary_lobs
+         WHERE sid = SYS_CONTEXT('USERENV', 'SID')""";
+
+    private static final int ITERATIONS = Integer.getInteger("soak.iterations", 2000);
+    private static final int SAMPLE_EVERY = 100;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private PersonAbroadRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SingleConnectionDataSource(
+            System.getenv("DB_URL"), System.getenv("DB_USERNAME"), System.getenv("DB_PASSWORD"), true);
+
+        Properties properties = new Properties();
+        properties.setProperty("oracle.jdbc.defaultLobPrefetchSize", "32768");
+        dataSource.setConnectionProperties(properties);
+
+        // O_Data CLOB kontrakti
+        PersonAbroadProperties personAbroadProperties = new PersonAbroadProperties();
+        personAbroadProperties.setResponseMode(ResponseMode.JSON_CLOB);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        repository = new PersonAbroadRepository(jdbcTemplate, new ObjectMapper(), personAbroadProperties);
+        repository.compileCalls();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("ROLLBACK");
+        dataSource.destroy();
+    }
+
+    @Test
+    @DisplayName("Check Status: temporary LOBs should not grow with call count")
+    void checkStatus_shouldNotLeakTemporaryLobs() {
+        // Warm up so that the package state and cursors are already open
+        for (int i = 0; i < SAMPLE_EVERY; i++) {
+            repository.checkPersonStatus(77L, PINFL);
+        }
+        long baseline = temporaryLobs();
+
+        for (int i = 1; i <= ITERATIONS; i++) {
+            PersonAbroadCallResult<PersonAbroadCheckStatusResponseDto> result = repository.checkPersonStatus(77L, PINFL);
+            assertNotNull(result.data());
+
+            if (i % SAMPLE_EVERY == 0) {
+                long current = temporaryLobs();
+                assertTrue(current <= baseline,
+                    "Temporary LOBs grew from " + baseline + " to " + current + " after " + i + " calls");
+            }
+        }
+    }
+
+    private long temporaryLobs() {
+        Long count = jdbcTemplate.queryForObject(TEMPORARY_LOBS_SQL, Long.class);
+        return count != null ? count : 0;
+    }
+}
@@ -0,0 +1,206 @@
+package uz.fido.pfexchange.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uz.fido.pfexchange.config.PersonAbroadProperties;
+import uz.fido.pfexchange.config.PersonAbroadProperties.AuditMode;
+import uz.fido.pfexchange.repository.mip.PersonAbroadAuditRepository;
+import uz.fido.pfexchange.repository.mip.PersonAbroadCheckStatusRow;
+import uz.fido.pfexchange.repository.mip.PersonAbroadRestoreStatusRow;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PersonAbroadAuditWriter
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Person Abroad Audit Writer Tests")
+class PersonAbroadAuditWriterTest {
+
+    @Mock
+    private PersonAbroadAuditRepository auditRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PersonAbroadProperties properties;
+    private PersonAbroadAuditWriter writer;
+
+    private final List<Object> written = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new PersonAbroadProperties();
+        properties.setAuditMode(AuditMode.ASYNC);
+
+        lenient().doAnswer(invocation -> written.addAll(invocation.getArgument(0)))
+                .when(auditRepository).savePersonStatuses(anyList());
+        lenient().doAnswer(invocation -> written.addAll(invocation.getArgument(0)))
+                .when(auditRepository).saveRestoreStatuses(anyList());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Should write every queued row by the time stop() returns")
+    void stop_shouldFlushQueuedRows() throws InterruptedException {
+        writer = newWriter();
+        writer.start();
+
+        for (int i = 0; i < 1000; i++) {
+            writer.submit(i % 2 == 0 ? checkRow(i) : restoreRow(i));
+        }
+        writer.stop();
+
+        assertEquals(1000, written.size());
+        assertEquals(0, meterRegistry.get("person.abroad.audit.queue.depth").gauge().value());
+        assertEquals(1000, rows("written"));
+        assertEquals(500, meterRegistry.get("person.abroad.audit.rows")
+                .tags("table", "restore", "outcome", "written").counter().count());
+        assertTrue(meterRegistry.get("person.abroad.audit.flush").timer().count() > 0);
+    }
+
+    @Test
+    @DisplayName("Should write on the caller thread when the queue stays full")
+    void submit_shouldWriteDirectlyWhenQueueIsFull() throws InterruptedException {
+        properties.setAuditQueueCapacity(1);
+        properties.setAuditOfferTimeout(Duration.ofMillis(20));
+
+        // The writer thread blocks on its first batch until released
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        String writerThread = "person-abroad-audit";
+        doAnswer(invocation -> {
+            if (Thread.currentThread().getName().equals(writerThread) && firstBatchStarted.getCount() > 0) {
+                firstBatchStarted.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            written.addAll(invocation.getArgument(0));
+            return null;
+        }).when(auditRepository).savePersonStatuses(anyList());
+
+        writer = newWriter();
+        writer.start();
+
+        writer.submit(checkRow(1));
+        assertTrue(firstBatchStarted.await(5, TimeUnit.SECONDS));
+        writer.submit(checkRow(2));     // fills the queue
+        writer.submit(checkRow(3));     // queue full -> written on this thread
+
+        assertTrue(written.contains(checkRow(3)));
+        assertEquals(1, rows("direct"));
+
+        release.countDown();
+        writer.stop();
+        assertEquals(3, written.size());
+    }
+
+    @Test
+    @DisplayName("Should retry a failed batch and not repeat the table that was committed")
+    void write_shouldRetryFailedTableOnly() throws InterruptedException {
+        properties.setAuditRetryBackoff(Duration.ofMillis(1));
+        // Restore table unavailable for the first attempt only
+        doThrow(new RuntimeException("ORA-03113: end-of-file on communication channel"))
+                .doAnswer(invocation -> written.addAll(invocation.getArgument(0)))
+                .when(auditRepository).saveRestoreStatuses(anyList());
+
+        writer = newWriter();
+        writer.submitAll(List.of(checkRow(1), restoreRow(2)));
+
+        verify(auditRepository, times(1)).savePersonStatuses(anyList());
+        verify(auditRepository, times(2)).saveRestoreStatuses(anyList());
+        assertEquals(List.of(checkRow(1), restoreRow(2)), written);
+        assertEquals(2, rows("written"));
+        assertEquals(0, rows("failed"));
+    }
+
+    @Test
+    @DisplayName("Should write rows one by one when the batch keeps failing")
+    void write_shouldFallBackToSingleRows() throws InterruptedException {
+        properties.setAuditRetryAttempts(2);
+        properties.setAuditRetryBackoff(Duration.ofMillis(1));
+        // One row violates a constraint: every batch containing it fails
+        PersonAbroadRestoreStatusRow badRow = restoreRow(2);
+        doAnswer(invocation -> {
+            List<PersonAbroadRestoreStatusRow> rows = invocation.getArgument(0);
+            if (rows.contains(badRow)) {
+                throw new RuntimeException("ORA-12899: value too large for column");
+            }
+            written.addAll(rows);
+            return null;
+        }).when(auditRepository).saveRestoreStatuses(anyList());
+
+        writer = newWriter();
+        writer.submitAll(List.of(restoreRow(1), badRow, restoreRow(3)));
+
+        assertEquals(List.of(restoreRow(1), restoreRow(3)), written);
+        assertEquals(2, rows("written"));
+        assertEquals(1, meterRegistry.get("person.abroad.audit.rows")
+                .tags("table", "restore", "outcome", "failed").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should stop trying single rows while the database is down")
+    void write_shouldGiveUpSingleRowsWhenDatabaseIsDown() throws InterruptedException {
+        properties.setAuditRetryAttempts(1);
+        doThrow(new RuntimeException("Connection is not available")).when(auditRepository).savePersonStatuses(anyList());
+
+        writer = newWriter();
+        List<PersonAbroadCheckStatusRow> rows = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rows.add(checkRow(i));
+        }
+        writer.submitAll(rows);
+
+        // One batch attempt, then three single rows before giving up
+        verify(auditRepository, times(4)).savePersonStatuses(anyList());
+        assertEquals(10, rows("failed"));
+    }
+
+    @Test
+    @DisplayName("Should stay disabled with audit-mode=PLSQL")
+    void isEnabled_shouldBeFalseInPlsqlMode() {
+        properties.setAuditMode(AuditMode.PLSQL);
+        writer = newWriter();
+        writer.start();
+
+        assertFalse(writer.isEnabled());
+        verifyNoInteractions(auditRepository);
+    }
+
+    private double rows(String outcome) {
+        return meterRegistry.get("person.abroad.audit.rows").tag("outcome", outcome).counters().stream()
+                .mapToDouble(counter -> counter.count())
+                .sum();
+    }
+
+    private PersonAbroadAuditWriter newWriter() {
+        return new PersonAbroadAuditWriter(auditRepository, properties, meterRegistry);
+    }
+
+    private static PersonAbroadCheckStatusRow checkRow(int i) {
+        return new PersonAbroadCheckStatusRow(77L, String.format("%014d", i), 1, 1, "", null);
+    }
+
+    private static PersonAbroadRestoreStatusRow restoreRow(int i) {
+        return new PersonAbroadRestoreStatusRow(77L, String.format("%014d", i), 1, "Pensiya oluvchilar ro'yhatida mavjud", null);
+    }
+}
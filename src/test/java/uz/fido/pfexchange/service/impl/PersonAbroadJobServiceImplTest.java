@@ -0,0 +1,254 @@
+package uz.fido.pfexchange.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import uz.fido.pfexchange.config.PersonAbroadProperties;
+import uz.fido.pfexchange.dto.mip.PersonAbroadBatchCheckStatusResponseDto;
+import uz.fido.pfexchange.dto.mip.PersonAbroadBatchStatusRequestDto;
+import uz.fido.pfexchange.dto.mip.PersonAbroadCheckStatusResponseDto;
+import uz.fido.pfexchange.dto.mip.PersonAbroadJobFormat;
+import uz.fido.pfexchange.dto.mip.PersonAbroadJobOperation;
+import uz.fido.pfexchange.dto.mip.PersonAbroadJobStatus;
+import uz.fido.pfexchange.repository.mip.PersonAbroadJob;
+import uz.fido.pfexchange.repository.mip.PersonAbroadJobRepository;
+import uz.fido.pfexchange.service.PersonAbroadService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PersonAbroadJobServiceImpl
+ *
+ * Jobs run on the calling thread; job files live in a temporary directory.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Person Abroad Job Service Tests")
+class PersonAbroadJobServiceImplTest {
+
+    private static final String JOB_ID = "3f1c1c8e-5a4b-4b7e-9d1a-0b6c2f0e9a11";
+
+    @Mock
+    private PersonAbroadJobRepository jobRepository;
+
+    @Mock
+    private PersonAbroadService personAbroadService;
+
+    @TempDir
+    Path jobsDir;
+
+    private PersonAbroadJobServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        PersonAbroadProperties properties = new PersonAbroadProperties();
+        properties.setJobsDir(jobsDir.toString());
+        properties.setJobChunkSize(2);
+
+        Executor executor = Runnable::run;
+        service = new PersonAbroadJobServiceImpl(jobRepository, personAbroadService, properties, new ObjectMapper(), executor);
+
+        lenient().when(personAbroadService.checkStatusBatch(any())).thenAnswer(invocation -> {
+            PersonAbroadBatchStatusRequestDto request = invocation.getArgument(0);
+            return new PersonAbroadBatchCheckStatusResponseDto(request.getData().stream()
+                .map(item -> PersonAbroadCheckStatusResponseDto.builder()
+                    .result(item.getPinfl() != null ? 1 : 0)
+                    .msg("")
+                    .wsId(item.getWsId())
+                    .status(item.getPinfl() != null ? 1 : null)
+                    .build())
+                .toList());
+        });
+    }
+
+    @Test
+    @DisplayName("Spool: Should normalize CSV with header and single-column rows")
+    void spool_shouldNormalizeCsv() throws Exception {
+        Path input = jobsDir.resolve("input.csv");
+        String csv = "ws_id,pinfl\n77,41006673910061\n\n\"78\";\"31507976020031\"\n";
+
+        long count = service.spool(PersonAbroadJobFormat.CSV, 5L, stream(csv), input);
+
+        assertEquals(2, count);
+        assertEquals(List.of("77,41006673910061", "78,31507976020031"), Files.readAllLines(input));
+    }
+
+    @Test
+    @DisplayName("Spool: Should read NDJSON and keep broken lines as empty items")
+    void spool_shouldReadNdjson() throws Exception {
+        Path input = jobsDir.resolve("input.csv");
+        String ndjson = "{\"ws_id\":77,\"pinfl\":\"41006673910061\"}\n{\"pinfl\":\"31507976020031\"}\nnot json\n";
+
+        long count = service.spool(PersonAbroadJobFormat.NDJSON, 5L, stream(ndjson), input);
+
+        assertEquals(3, count);
+        assertEquals(List.of("77,41006673910061", "5,31507976020031", "5,"), Files.readAllLines(input));
+    }
+
+    @Test
+    @DisplayName("Submit: Should reject an upload without PINFLs")
+    void submit_shouldRejectEmptyUpload() {
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+            () -> service.submit(PersonAbroadJobOperation.CHECK, PersonAbroadJobFormat.CSV, 77L, stream("pinfl\n\n")));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        verify(jobRepository, never()).create(anyString(), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Run: Should commit every chunk and complete the job")
+    void run_shouldCommitChunksAndComplete() throws Exception {
+        writeInput("77,41006673910061", "77,31507976020031", "77,");
+        claimed(job(0, 0, 0, 0));
+
+        service.run(JOB_ID);
+
+        verify(personAbroadService, times(2)).checkStatusBatch(any());
+        verify(jobRepository).commitChunk(eq(JOB_ID), anyString(), eq(1), eq(2L), eq(0L), anyLong());
+        verify(jobRepository).commitChunk(eq(JOB_ID), anyString(), eq(2), eq(3L), eq(1L), eq(Files.size(resultsFile())));
+        verify(jobRepository).finish(eq(JOB_ID), anyString(), eq(PersonAbroadJobStatus.COMPLETED), isNull());
+
+        List<String> lines = Files.readAllLines(resultsFile());
+        assertEquals(3, lines.size());
+        assertEquals("{\"ws_id\":77,\"pinfl\":\"41006673910061\",\"result\":1,\"msg\":\"\",\"status\":1}", lines.get(0));
+        assertEquals("{\"ws_id\":77,\"pinfl\":null,\"result\":0,\"msg\":\"\"}", lines.get(2));
+    }
+
+    @Test
+    @DisplayName("Run: Should resume after the last committed chunk and drop uncommitted results")
+    void run_shouldResumeFromLastCommittedChunk() throws Exception {
+        writeInput("77,41006673910061", "77,31507976020031", "77,30101950230017");
+        String committed = "{\"ws_id\":77,\"pinfl\":\"41006673910061\",\"result\":1,\"msg\":\"\",\"status\":1}\n"
+            + "{\"ws_id\":77,\"pinfl\":\"31507976020031\",\"result\":1,\"msg\":\"\",\"status\":1}\n";
+        Files.writeString(resultsFile(), committed + "{\"ws_id\":77,\"pinfl\":\"partial");
+        claimed(job(1, 2, 0, committed.length()));
+
+        service.run(JOB_ID);
+
+        ArgumentCaptor<PersonAbroadBatchStatusRequestDto> request = ArgumentCaptor.forClass(PersonAbroadBatchStatusRequestDto.class);
+        verify(personAbroadService).checkStatusBatch(request.capture());
+        assertEquals("30101950230017", request.getValue().getData().getFirst().getPinfl());
+
+        List<String> lines = Files.readAllLines(resultsFile());
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(2).contains("30101950230017"));
+        verify(jobRepository).commitChunk(eq(JOB_ID), anyString(), eq(2), eq(3L), eq(0L), anyLong());
+    }
+
+    @Test
+    @DisplayName("Run: Should skip finished jobs and jobs owned by another instance")
+    void run_shouldSkipJobsItCannotClaim() throws Exception {
+        // Given: claim matches no row (finished, or another owner's heartbeat is fresh)
+        writeInput("77,41006673910061");
+        when(jobRepository.claim(eq(JOB_ID), anyString(), any())).thenReturn(false);
+
+        service.run(JOB_ID);
+
+        verify(jobRepository, never()).findById(anyString());
+        verify(personAbroadService, never()).checkStatusBatch(any());
+        verify(jobRepository, never()).commitChunk(anyString(), anyString(), anyInt(), anyLong(), anyLong(), anyLong());
+        assertFalse(Files.exists(resultsFile()));
+    }
+
+    @Test
+    @DisplayName("Run: Should not claim a job whose files are on another instance")
+    void run_shouldNotClaimWithoutInputFile() {
+        service.run(JOB_ID);
+
+        verify(jobRepository, never()).claim(anyString(), anyString(), any());
+        verify(jobRepository, never()).finish(anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Run: Should stop without writing when the job was taken over")
+    void run_shouldStopWhenTakenOver() throws Exception {
+        // Given: the lease ran out during the first chunk
+        writeInput("77,41006673910061", "77,31507976020031", "77,30101950230017");
+        claimed(job(0, 0, 0, 0));
+        when(jobRepository.heartbeat(eq(JOB_ID), anyString())).thenReturn(false);
+
+        service.run(JOB_ID);
+
+        verify(personAbroadService, times(1)).checkStatusBatch(any());
+        assertEquals(0, Files.size(resultsFile()));
+        verify(jobRepository, never()).commitChunk(anyString(), anyString(), anyInt(), anyLong(), anyLong(), anyLong());
+        verify(jobRepository, never()).finish(anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Resume: Should schedule claimable jobs whose files are here, once")
+    void resumeUnfinishedJobs_shouldScheduleClaimableJobs() throws Exception {
+        // Given: a second job without files on this instance
+        String otherJobId = "0b6c2f0e-9a11-4b7e-9d1a-3f1c1c8e5a4b";
+        writeInput("77,41006673910061");
+        when(jobRepository.findClaimableIds(any())).thenReturn(List.of(JOB_ID, otherJobId));
+        when(jobRepository.claim(eq(JOB_ID), anyString(), any())).thenReturn(false);
+
+        service.resumeUnfinishedJobs();
+
+        verify(jobRepository).claim(eq(JOB_ID), anyString(), any());
+        verify(jobRepository, never()).claim(eq(otherJobId), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Write Results: Should stream only the committed part")
+    void writeResults_shouldStreamCommittedPartOnly() throws Exception {
+        Files.createDirectories(jobsDir.resolve(JOB_ID));
+        Files.writeString(resultsFile(), "{\"result\":1}\n{\"result\":");
+        when(jobRepository.findById(JOB_ID)).thenReturn(Optional.of(job(1, 1, 0, 13)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writeResults(JOB_ID, out);
+
+        assertEquals("{\"result\":1}\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    private void claimed(PersonAbroadJob job) {
+        when(jobRepository.claim(eq(JOB_ID), anyString(), any())).thenReturn(true);
+        when(jobRepository.findById(JOB_ID)).thenReturn(Optional.of(job));
+        lenient().when(jobRepository.heartbeat(eq(JOB_ID), anyString())).thenReturn(true);
+        lenient().when(jobRepository.commitChunk(eq(JOB_ID), anyString(), anyInt(), anyLong(), anyLong(), anyLong()))
+            .thenReturn(true);
+    }
+
+    private PersonAbroadJob job(int committedChunk, long processedItems, long failedItems, long outputOffset) {
+        return new PersonAbroadJob(JOB_ID, PersonAbroadJobOperation.CHECK, PersonAbroadJobStatus.RUNNING,
+            3, processedItems, failedItems, committedChunk, outputOffset, null, LocalDateTime.now(), LocalDateTime.now());
+    }
+
+    private void writeInput(String... lines) throws Exception {
+        Files.createDirectories(jobsDir.resolve(JOB_ID));
+        Files.write(jobsDir.resolve(JOB_ID).resolve(PersonAbroadJobServiceImpl.INPUT_FILE), List.of(lines));
+    }
+
+    private Path resultsFile() {
+        return jobsDir.resolve(JOB_ID).resolve(PersonAbroadJobServiceImpl.RESULTS_FILE);
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,193 @@
+package uz.fido.pfexchange.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uz.fido.pfexchange.config.PersonAbroadProperties;
+import uz.fido.pfexchange.repository.mip.PersonStatusIndexRepository;
+import uz.fido.pfexchange.repository.mip.PersonStatusIndexRepository.PersonStatusHandler;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PersonAbroadRegistryFilter
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Person Abroad Registry Filter Tests")
+class PersonAbroadRegistryFilterTest {
+
+    private static final String PENSIONER = "12345678901234";
+    private static final String STRANGER = "99999999999999";
+
+    @Mock
+    private PersonStatusIndexRepository repository;
+
+    @TempDir
+    private Path tempDir;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PersonAbroadProperties properties;
+
+    // Feeds the filter under test; status-index-enabled=false unless a test enables it
+    private PersonAbroadStatusIndex index;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new PersonAbroadProperties();
+        properties.setRegistryFilterEnabled(true);
+        properties.setRegistryFilterExpectedSize(10_000);
+    }
+
+    @Test
+    @DisplayName("Should rule out PINFLs that are not in Pf_Persons")
+    void isDefinitelyAbsent_shouldRuleOutStrangers() {
+        PersonAbroadRegistryFilter filter = builtFilter();
+
+        assertFalse(filter.isDefinitelyAbsent(PersonAbroadSingleFlight.CHECK, 77L, PENSIONER));
+        assertTrue(filter.isDefinitelyAbsent(PersonAbroadSingleFlight.CHECK, 77L, STRANGER));
+        assertTrue(filter.isDefinitelyAbsent(PersonAbroadSingleFlight.RESTORE, 77L, STRANGER));
+
+        assertEquals(1, meterRegistry.get("person.abroad.registry.filter.calls.avoided")
+                .tag("operation", "check").counter().count());
+        assertEquals(1, meterRegistry.get("person.abroad.registry.filter.calls.avoided")
+                .tag("operation", "restore").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should never rule out a loaded pensioner")
+    void isDefinitelyAbsent_shouldKeepEveryPensioner() {
+        PersonAbroadRegistryFilter filter = builtFilter();
+
+        for (long pinfl = 30_000_000_000_000L; pinfl < 30_000_000_005_000L; pinfl++) {
+            assertFalse(filter.isDefinitelyAbsent(PersonAbroadSingleFlight.CHECK, 77L, Long.toString(pinfl)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should leave invalid requests, stale and disabled filters to Oracle")
+    void isDefinitelyAbsent_shouldNotShortCircuitWhenUnsure() {
+        PersonAbroadRegistryFilter notBuilt = new PersonAbroadRegistryFilter(properties, meterRegistry);
+        PersonAbroadRegistryFilter disabled = new PersonAbroadRegistryFilter(new PersonAbroadProperties(), new SimpleMeterRegistry());
+        properties.setRegistryFilterMaxStaleness(Duration.ofMillis(-1));
+        PersonAbroadRegistryFilter stale = builtFilter();
+        properties.setRegistryFilterMaxStaleness(Duration.ofMinutes(5));
+        PersonAbroadRegistryFilter built = builtFilter();
+
+        assertFalse(notBuilt.isDefinitelyAbsent(PersonAbroadSingleFlight.CHECK, 77L, STRANGER));
+        assertFalse(disabled.isDefinitelyAbsent(PersonAbroadSingleFlight.CHECK, 77L, STRANGER));
+        assertFalse(stale.isDefinitelyAbsent(PersonAbroadSingleFlight.CHECK, 77L, STRANGER));
+        assertFalse(built.isDefinitelyAbsent(PersonAbroadSingleFlight.CHECK, null, STRANGER));
+        assertFalse(built.isDefinitelyAbsent(PersonAbroadSingleFlight.CHECK, 77L, "9999999999999"));
+    }
+
+    @Test
+    @DisplayName("Should send restores to Oracle once a refresh interval has passed")
+    void isDefinitelyAbsent_restoreShouldNeedRecentRefresh() {
+        // Given: the last refresh is older than status-index-refresh-interval, not than max-staleness
+        properties.setStatusIndexRefreshInterval(Duration.ofMillis(-1));
+        PersonAbroadRegistryFilter filter = builtFilter();
+
+        // Then
+        assertTrue(filter.isDefinitelyAbsent(PersonAbroadSingleFlight.CHECK, 77L, STRANGER));
+        assertFalse(filter.isDefinitelyAbsent(PersonAbroadSingleFlight.RESTORE, 77L, STRANGER));
+        assertEquals(0, meterRegistry.get("person.abroad.registry.filter.calls.avoided")
+                .tag("operation", "restore").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should add PINFLs of rows changed after the watermark")
+    void refresh_shouldAddNewPensioners() {
+        PersonAbroadRegistryFilter filter = builtFilter();
+        doAnswer(invocation -> {
+            PersonStatusHandler handler = invocation.getArgument(1);
+            handler.accept(STRANGER, 1, 1);
+            return 120L;
+        }).when(repository).loadChangedSince(eq(100L), any());
+
+        // When
+        index.refresh();
+
+        // Then
+        assertFalse(filter.isDefinitelyAbsent(PersonAbroadSingleFlight.CHECK, 77L, STRANGER));
+        verify(repository, times(1)).loadAll(any());
+    }
+
+    @Test
+    @DisplayName("Should be filled by the status index scan, not by a scan of its own")
+    void refresh_shouldShareStatusIndexScan() {
+        // Given
+        properties.setStatusIndexEnabled(true);
+        properties.setStatusIndexSnapshotFile("");
+
+        // When
+        PersonAbroadRegistryFilter filter = builtFilter();
+
+        // Then: one Pf_Persons read answers both
+        verify(repository, times(1)).loadAll(any());
+        assertTrue(filter.isDefinitelyAbsent(PersonAbroadSingleFlight.CHECK, 77L, STRANGER));
+        assertEquals(1, index.check(77L, PENSIONER).orElseThrow().resultCode());
+    }
+
+    @Test
+    @DisplayName("Should be built from the status index snapshot after a restart")
+    void refresh_shouldBuildFromSnapshot() {
+        // Given: first node loads Pf_Persons and writes the snapshot
+        properties.setStatusIndexEnabled(true);
+        properties.setStatusIndexSnapshotFile(tempDir.resolve("index.bin").toString());
+        builtFilter();
+        clearInvocations(repository);
+
+        // When: second node starts from the file
+        when(repository.loadChangedSince(eq(100L), any())).thenReturn(100L);
+        PersonAbroadRegistryFilter restarted = new PersonAbroadRegistryFilter(properties, new SimpleMeterRegistry());
+        new PersonAbroadStatusIndex(repository, properties, new SimpleMeterRegistry(), List.of(restarted)).refresh();
+
+        // Then
+        verify(repository, never()).loadAll(any());
+        assertFalse(restarted.isDefinitelyAbsent(PersonAbroadSingleFlight.CHECK, 77L, PENSIONER));
+        assertTrue(restarted.isDefinitelyAbsent(PersonAbroadSingleFlight.CHECK, 77L, STRANGER));
+    }
+
+    @Test
+    @DisplayName("Should report observed false positive rate and expected fpp")
+    void recordNotFound_shouldFeedFalsePositiveRate() {
+        PersonAbroadRegistryFilter filter = builtFilter();
+
+        // When: two PINFLs let through, Oracle did not find one of them
+        filter.isDefinitelyAbsent(PersonAbroadSingleFlight.CHECK, 77L, PENSIONER);
+        filter.isDefinitelyAbsent(PersonAbroadSingleFlight.CHECK, 77L, "30000000000001");
+        filter.recordNotFound(PersonAbroadSingleFlight.CHECK);
+
+        // Then
+        assertEquals(0.5, meterRegistry.get("person.abroad.registry.filter.false.positive.rate").gauge().value());
+        assertTrue(meterRegistry.get("person.abroad.registry.filter.expected.fpp").gauge().value() < 0.01);
+    }
+
+    private PersonAbroadRegistryFilter builtFilter() {
+        lenient().doAnswer(invocation -> {
+            PersonStatusHandler handler = invocation.getArgument(0);
+            handler.accept(PENSIONER, 1, 1);
+            for (long pinfl = 30_000_000_000_000L; pinfl < 30_000_000_005_000L; pinfl++) {
+                handler.accept(Long.toString(pinfl), 1, 3);
+            }
+            return 100L;
+        }).when(repository).loadAll(any());
+
+        PersonAbroadRegistryFilter filter = new PersonAbroadRegistryFilter(properties, meterRegistry);
+        index = new PersonAbroadStatusIndex(repository, properties, new SimpleMeterRegistry(), List.of(filter));
+        index.refresh();
+        return filter;
+    }
+}
@@ -1,25 +1,38 @@
 package uz.fido.pfexchange.service.impl;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import uz.fido.pfexchange.config.PersonAbroadProperties;
+import uz.fido.pfexchange.dto.mip.PersonAbroadBatchCheckStatusResponseDto;
+import uz.fido.pfexchange.dto.mip.PersonAbroadBatchRestoreStatusResponseDto;
+import uz.fido.pfexchange.dto.mip.PersonAbroadBatchStatusRequestDto;
 import uz.fido.pfexchange.dto.mip.PersonAbroadCheckStatusResponseDto;
 import uz.fido.pfexchange.dto.mip.PersonAbroadRestoreStatusResponseDto;
 import uz.fido.pfexchange.dto.mip.PersonAbroadStatusDataDto;
 import uz.fido.pfexchange.dto.mip.PersonAbroadStatusRequestDto;
+import uz.fido.pfexchange.repository.mip.PersonAbroadAuditRepository;
+import uz.fido.pfexchange.repository.mip.PersonAbroadCallResult;
+import uz.fido.pfexchange.repository.mip.PersonAbroadCheckStatusRow;
 import uz.fido.pfexchange.repository.mip.PersonAbroadRepository;
-
-import javax.sql.rowset.serial.SerialClob;
-import java.sql.Clob;
-import java.util.HashMap;
-import java.util.Map;
+import uz.fido.pfexchange.repository.mip.PersonAbroadRestoreStatusRow;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -34,7 +47,31 @@ class PersonAbroadServiceImplTest {
     private PersonAbroadRepository repository;
 
     @Mock
-    private ObjectMapper objectMapper;
+    private PersonAbroadAuditRepository auditRepository;
+
+    @Spy
+    private Executor personAbroadRestoreExecutor = new SyncTaskExecutor();
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Spy
+    private PersonAbroadStatusCache statusCache = new PersonAbroadStatusCache(new PersonAbroadProperties(), new SimpleMeterRegistry());
+
+    @Spy
+    private PersonAbroadSingleFlight singleFlight = new PersonAbroadSingleFlight(new SimpleMeterRegistry());
+
+    // Default audit-mode=PLSQL: the writer is disabled and never touches its repository
+    @Spy
+    private PersonAbroadAuditWriter auditWriter = new PersonAbroadAuditWriter(null, new PersonAbroadProperties(), new SimpleMeterRegistry());
+
+    // Default status-index-enabled=false: every check goes to Oracle
+    @Spy
+    private PersonAbroadStatusIndex statusIndex = new PersonAbroadStatusIndex(null, new PersonAbroadProperties(), new SimpleMeterRegistry(), List.of());
+
+    // Default registry-filter-enabled=false: nothing is short-circuited
+    @Spy
+    private PersonAbroadRegistryFilter registryFilter = new PersonAbroadRegistryFilter(new PersonAbroadProperties(), new SimpleMeterRegistry());
 
     @InjectMocks
     private PersonAbroadServiceImpl service;
@@ -62,13 +99,6 @@ class PersonAbroadServiceImplTest {
     @DisplayName("Check Status: Should return active person (status=1)")
     void checkStatus_shouldReturnActivePerson() throws Exception {
         // Given
-        String oracleJsonResponse = "{\"result\": 1, \"msg\": \"\", \"ws_id\": 77, \"status\": 1}";
-        Clob responseClob = new SerialClob(oracleJsonResponse.toCharArray());
-
-        Map<String, Object> oracleResult = new HashMap<>();
-        oracleResult.put("RETURN", 1);
-        oracleResult.put("O_Data", responseClob);
-
         PersonAbroadCheckStatusResponseDto expectedResponse = PersonAbroadCheckStatusResponseDto.builder()
                 .result(1)
                 .msg("")
@@ -76,10 +106,7 @@ class PersonAbroadServiceImplTest {
                 .status(1)
                 .build();
 
-        when(repository.checkPersonStatus(anyString())).thenReturn(oracleResult);
-        when(repository.clobToString(responseClob)).thenReturn(oracleJsonResponse);
-        when(objectMapper.readValue(oracleJsonResponse, PersonAbroadCheckStatusResponseDto.class))
-                .thenReturn(expectedResponse);
+        when(repository.checkPersonStatus(anyLong(), anyString())).thenReturn(new PersonAbroadCallResult<>(1, expectedResponse));
 
         // When
         PersonAbroadCheckStatusResponseDto response = service.checkStatus(requestDto);
@@ -91,21 +118,13 @@ class PersonAbroadServiceImplTest {
         assertEquals(77L, response.getWsId());
         assertEquals(1, response.getStatus());
 
-        verify(repository).checkPersonStatus(anyString());
-        verify(objectMapper).readValue(anyString(), eq(PersonAbroadCheckStatusResponseDto.class));
+        verify(repository).checkPersonStatus(anyLong(), anyString());
     }
 
     @Test
     @DisplayName("Check Status: Should return abroad person (status=2)")
     void checkStatus_shouldReturnAbroadPerson() throws Exception {
         // Given
-        String oracleJsonResponse = "{\"result\": 1, \"msg\": \"\", \"ws_id\": 77, \"status\": 2}";
-        Clob responseClob = new SerialClob(oracleJsonResponse.toCharArray());
-
-        Map<String, Object> oracleResult = new HashMap<>();
-        oracleResult.put("RETURN", 1);
-        oracleResult.put("O_Data", responseClob);
-
         PersonAbroadCheckStatusResponseDto expectedResponse = PersonAbroadCheckStatusResponseDto.builder()
                 .result(1)
                 .msg("")
@@ -113,10 +132,7 @@ class PersonAbroadServiceImplTest {
                 .status(2)
                 .build();
 
-        when(repository.checkPersonStatus(anyString())).thenReturn(oracleResult);
-        when(repository.clobToString(responseClob)).thenReturn(oracleJsonResponse);
-        when(objectMapper.readValue(oracleJsonResponse, PersonAbroadCheckStatusResponseDto.class))
-                .thenReturn(expectedResponse);
+        when(repository.checkPersonStatus(anyLong(), anyString())).thenReturn(new PersonAbroadCallResult<>(1, expectedResponse));
 
         // When
         PersonAbroadCheckStatusResponseDto response = service.checkStatus(requestDto);
@@ -131,13 +147,6 @@ class PersonAbroadServiceImplTest {
     @DisplayName("Check Status: Should return inactive person (status=3)")
     void checkStatus_shouldReturnInactivePerson() throws Exception {
         // Given
-        String oracleJsonResponse = "{\"result\": 1, \"msg\": \"\", \"ws_id\": 77, \"status\": 3}";
-        Clob responseClob = new SerialClob(oracleJsonResponse.toCharArray());
-
-        Map<String, Object> oracleResult = new HashMap<>();
-        oracleResult.put("RETURN", 1);
-        oracleResult.put("O_Data", responseClob);
-
         PersonAbroadCheckStatusResponseDto expectedResponse = PersonAbroadCheckStatusResponseDto.builder()
                 .result(1)
                 .msg("")
@@ -145,10 +154,7 @@ class PersonAbroadServiceImplTest {
                 .status(3)
                 .build();
 
-        when(repository.checkPersonStatus(anyString())).thenReturn(oracleResult);
-        when(repository.clobToString(responseClob)).thenReturn(oracleJsonResponse);
-        when(objectMapper.readValue(oracleJsonResponse, PersonAbroadCheckStatusResponseDto.class))
-                .thenReturn(expectedResponse);
+        when(repository.checkPersonStatus(anyLong(), anyString())).thenReturn(new PersonAbroadCallResult<>(1, expectedResponse));
 
         // When
         PersonAbroadCheckStatusResponseDto response = service.checkStatus(requestDto);
@@ -161,13 +167,6 @@ class PersonAbroadServiceImplTest {
     @DisplayName("Check Status: Should return error when person not found")
     void checkStatus_shouldReturnErrorWhenPersonNotFound() throws Exception {
         // Given
-        String oracleJsonResponse = "{\"result\": 0, \"msg\": \"Pensiya oluvchilar ro'yhatida mavjud emas\", \"ws_id\": 77, \"status\": null}";
-        Clob responseClob = new SerialClob(oracleJsonResponse.toCharArray());
-
-        Map<String, Object> oracleResult = new HashMap<>();
-        oracleResult.put("RETURN", 0);
-        oracleResult.put("O_Data", responseClob);
-
         PersonAbroadCheckStatusResponseDto expectedResponse = PersonAbroadCheckStatusResponseDto.builder()
                 .result(0)
                 .msg("Pensiya oluvchilar ro'yhatida mavjud emas")
@@ -175,10 +174,7 @@ class PersonAbroadServiceImplTest {
                 .status(null)
                 .build();
 
-        when(repository.checkPersonStatus(anyString())).thenReturn(oracleResult);
-        when(repository.clobToString(responseClob)).thenReturn(oracleJsonResponse);
-        when(objectMapper.readValue(oracleJsonResponse, PersonAbroadCheckStatusResponseDto.class))
-                .thenReturn(expectedResponse);
+        when(repository.checkPersonStatus(anyLong(), anyString())).thenReturn(new PersonAbroadCallResult<>(0, expectedResponse));
 
         // When
         PersonAbroadCheckStatusResponseDto response = service.checkStatus(requestDto);
@@ -193,7 +189,7 @@ class PersonAbroadServiceImplTest {
     @DisplayName("Check Status: Should handle Oracle exception gracefully")
     void checkStatus_shouldHandleOracleException() {
         // Given
-        when(repository.checkPersonStatus(anyString()))
+        when(repository.checkPersonStatus(anyLong(), anyString()))
                 .thenThrow(new RuntimeException("Database connection failed"));
 
         // When
@@ -207,6 +203,294 @@ class PersonAbroadServiceImplTest {
         assertNull(response.getStatus());
     }
 
+    @Test
+    @DisplayName("Check Status: Should serve repeated PINFL from cache with caller's ws_id and log the row")
+    void checkStatus_shouldServeRepeatedPinflFromCache() {
+        // Given
+        PersonAbroadCheckStatusResponseDto expectedResponse = PersonAbroadCheckStatusResponseDto.builder()
+                .result(1)
+                .msg("")
+                .wsId(77L)
+                .status(2)
+                .build();
+
+        when(repository.checkPersonStatus(anyLong(), anyString())).thenReturn(new PersonAbroadCallResult<>(1, expectedResponse));
+
+        // When
+        service.checkStatus(requestDto);
+        dataDto.setWsId(78L);
+        PersonAbroadCheckStatusResponseDto cached = service.checkStatus(requestDto);
+
+        // Then
+        assertEquals(1, cached.getResult());
+        assertEquals(2, cached.getStatus());
+        assertEquals(78L, cached.getWsId());
+        verify(repository, times(1)).checkPersonStatus(anyLong(), anyString());
+        // The cache hit is logged from Java under the caller's ws_id
+        verify(auditRepository).savePersonStatuses(List.of(
+                new PersonAbroadCheckStatusRow(78L, "12345678901234", 1, 2, "", null)));
+    }
+
+    @Test
+    @DisplayName("Check Status: Should not cache not-found answers")
+    void checkStatus_shouldNotCacheNotFound() {
+        // Given
+        PersonAbroadCheckStatusResponseDto notFound = PersonAbroadCheckStatusResponseDto.builder()
+                .result(0)
+                .msg("Pensiya oluvchilar ro'yhatida mavjud emas")
+                .wsId(77L)
+                .build();
+
+        when(repository.checkPersonStatus(anyLong(), anyString())).thenReturn(new PersonAbroadCallResult<>(0, notFound));
+
+        // When
+        service.checkStatus(requestDto);
+        service.checkStatus(requestDto);
+
+        // Then
+        verify(repository, times(2)).checkPersonStatus(anyLong(), anyString());
+    }
+
+    @Test
+    @DisplayName("Check Status: Should drop cached PINFL after restore result=2")
+    void checkStatus_shouldDropCachedPinflAfterRestore() {
+        // Given
+        when(repository.checkPersonStatus(anyLong(), anyString())).thenReturn(
+                new PersonAbroadCallResult<>(1, PersonAbroadCheckStatusResponseDto.builder().result(1).msg("").wsId(77L).status(2).build()),
+                new PersonAbroadCallResult<>(1, PersonAbroadCheckStatusResponseDto.builder().result(1).msg("").wsId(77L).status(1).build()));
+        when(repository.restorePersonStatus(anyLong(), anyString())).thenReturn(new PersonAbroadCallResult<>(1,
+                PersonAbroadRestoreStatusResponseDto.builder().result(2).msg("Oluvchi statusi faol xolatga keltirildi").wsId(77L).build()));
+
+        // When
+        service.checkStatus(requestDto);
+        service.restoreStatus(requestDto);
+        PersonAbroadCheckStatusResponseDto afterRestore = service.checkStatus(requestDto);
+
+        // Then
+        assertEquals(1, afterRestore.getStatus());
+        verify(repository, times(2)).checkPersonStatus(anyLong(), anyString());
+        verify(statusCache).invalidate("12345678901234");
+        verify(statusIndex).markActive("12345678901234");
+    }
+
+    @Test
+    @DisplayName("Check Status: Should not cache an answer read before a concurrent restore")
+    void checkStatus_shouldNotCacheAnswerOlderThanRestore() {
+        // Given: a restore of the same PINFL invalidates the cache while Oracle answers the check
+        when(repository.checkPersonStatus(anyLong(), anyString())).thenAnswer(invocation -> {
+            statusCache.invalidate("12345678901234");
+            return new PersonAbroadCallResult<>(1, PersonAbroadCheckStatusResponseDto.builder()
+                    .result(1).msg("").wsId(77L).status(2).build());
+        });
+
+        // When
+        service.checkStatus(requestDto);
+        service.checkStatus(requestDto);
+
+        // Then: the old "abroad" answer was not served from the cache
+        verify(repository, times(2)).checkPersonStatus(anyLong(), anyString());
+    }
+
+    @Test
+    @DisplayName("Check Status: Caller that shared another caller's Oracle call should get its own log row")
+    void checkStatus_shouldLogCollapsedCaller() {
+        // Given: another caller's Oracle call for the same PINFL answers this one
+        doReturn(new PersonAbroadCallResult<>(1, PersonAbroadCheckStatusResponseDto.builder()
+                .result(1).msg("").wsId(78L).status(2).build()))
+                .when(singleFlight).execute(eq(PersonAbroadSingleFlight.CHECK), eq("12345678901234"), any());
+
+        // When
+        PersonAbroadCheckStatusResponseDto response = service.checkStatus(requestDto);
+
+        // Then
+        assertEquals(77L, response.getWsId());
+        assertEquals(2, response.getStatus());
+        verifyNoInteractions(repository);
+        verify(auditRepository).savePersonStatuses(List.of(
+                new PersonAbroadCheckStatusRow(77L, "12345678901234", 1, 2, "", null)));
+    }
+
+    @Test
+    @DisplayName("Check Status: Should answer from status index without Oracle call and log the row")
+    void checkStatus_shouldAnswerFromStatusIndex() {
+        // Given
+        PersonAbroadCheckStatusRow row = new PersonAbroadCheckStatusRow(77L, "12345678901234", 1, 2, "", null);
+        doReturn(Optional.of(row)).when(statusIndex).check(77L, "12345678901234");
+
+        // When
+        PersonAbroadCheckStatusResponseDto response = service.checkStatus(requestDto);
+
+        // Then
+        assertEquals(1, response.getResult());
+        assertEquals("", response.getMsg());
+        assertEquals(77L, response.getWsId());
+        assertEquals(2, response.getStatus());
+        verifyNoInteractions(repository);
+        verify(auditRepository).savePersonStatuses(List.of(row));
+    }
+
+    @Test
+    @DisplayName("Check Status: Should answer not found from status index")
+    void checkStatus_shouldAnswerNotFoundFromStatusIndex() {
+        // Given
+        doReturn(Optional.of(new PersonAbroadCheckStatusRow(77L, "12345678901234", 0, null,
+                "Pensiya oluvchilar ro'yhatida mavjud emas", null)))
+                .when(statusIndex).check(77L, "12345678901234");
+        doThrow(new RuntimeException("Log insert failed")).when(auditRepository).savePersonStatuses(anyList());
+
+        // When
+        PersonAbroadCheckStatusResponseDto response = service.checkStatus(requestDto);
+
+        // Then: a failed log write does not change the answer
+        assertEquals(0, response.getResult());
+        assertEquals("Pensiya oluvchilar ro'yhatida mavjud emas", response.getMsg());
+        assertNull(response.getStatus());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("Check Status: Should answer not found locally when registry filter rules the PINFL out")
+    void checkStatus_shouldShortCircuitRegistryFilterMiss() {
+        // Given
+        doReturn(true).when(registryFilter).isDefinitelyAbsent(PersonAbroadSingleFlight.CHECK, 77L, "12345678901234");
+
+        // When
+        PersonAbroadCheckStatusResponseDto response = service.checkStatus(requestDto);
+
+        // Then
+        assertEquals(0, response.getResult());
+        assertEquals("Pensiya oluvchilar ro'yhatida mavjud emas", response.getMsg());
+        assertEquals(77L, response.getWsId());
+        assertNull(response.getStatus());
+        verifyNoInteractions(repository);
+        verify(auditRepository).savePersonStatuses(List.of(new PersonAbroadCheckStatusRow(
+                77L, "12345678901234", 0, null, "Pensiya oluvchilar ro'yhatida mavjud emas", null)));
+    }
+
+    @Test
+    @DisplayName("Check Status: Should report Oracle not found answers as filter false positives")
+    void checkStatus_shouldRecordRegistryFilterFalsePositive() {
+        // Given
+        when(repository.checkPersonStatus(anyLong(), anyString())).thenReturn(new PersonAbroadCallResult<>(0,
+                PersonAbroadCheckStatusResponseDto.builder().result(0).msg("Pensiya oluvchilar ro'yhatida mavjud emas").wsId(77L).build()));
+
+        // When
+        service.checkStatus(requestDto);
+
+        // Then
+        verify(registryFilter).recordNotFound(PersonAbroadSingleFlight.CHECK);
+    }
+
+    @Test
+    @DisplayName("Restore Status: Should answer not found locally when registry filter rules the PINFL out")
+    void restoreStatus_shouldShortCircuitRegistryFilterMiss() {
+        // Given
+        doReturn(true).when(registryFilter).isDefinitelyAbsent(PersonAbroadSingleFlight.RESTORE, 77L, "12345678901234");
+
+        // When
+        PersonAbroadRestoreStatusResponseDto response = service.restoreStatus(requestDto);
+
+        // Then
+        assertEquals(0, response.getResult());
+        assertEquals("Pensiya oluvchilar ro'yhatida mavjud emas", response.getMsg());
+        assertEquals(77L, response.getWsId());
+        verifyNoInteractions(repository);
+        verify(auditRepository).saveRestoreStatuses(List.of(new PersonAbroadRestoreStatusRow(
+                77L, "12345678901234", 0, "Pensiya oluvchilar ro'yhatida mavjud emas", null)));
+    }
+
+    // ========================================================================
+    // Check Status Batch Tests
+    // ========================================================================
+
+    @Test
+    @DisplayName("Check Status Batch: Should return results in request order")
+    void checkStatusBatch_shouldReturnResultsInRequestOrder() {
+        // Given
+        PersonAbroadStatusDataDto first = PersonAbroadStatusDataDto.builder().wsId(1L).pinfl("12345678901234").build();
+        PersonAbroadStatusDataDto second = PersonAbroadStatusDataDto.builder().wsId(2L).pinfl("43210987654321").build();
+
+        when(repository.checkPersonStatusBatch(List.of(first, second))).thenReturn(new PersonAbroadCallResult<>(1, List.of(
+                PersonAbroadCheckStatusResponseDto.builder().result(1).msg("").wsId(1L).status(2).build(),
+                PersonAbroadCheckStatusResponseDto.builder().result(0).msg("Pensiya oluvchilar ro'yhatida mavjud emas").wsId(2L).build()
+        )));
+
+        // When
+        PersonAbroadBatchCheckStatusResponseDto response = service.checkStatusBatch(
+                PersonAbroadBatchStatusRequestDto.builder().data(List.of(first, second)).build());
+
+        // Then
+        assertEquals(2, response.getData().size());
+        assertEquals(1L, response.getData().get(0).getWsId());
+        assertEquals(2, response.getData().get(0).getStatus());
+        assertEquals(2L, response.getData().get(1).getWsId());
+        assertEquals(0, response.getData().get(1).getResult());
+    }
+
+    @Test
+    @DisplayName("Check Status Batch: Should report invalid items without failing the batch")
+    void checkStatusBatch_shouldReportInvalidItemsWithoutFailingBatch() {
+        // Given
+        PersonAbroadStatusDataDto invalid = PersonAbroadStatusDataDto.builder().wsId(1L).pinfl("123").build();
+        PersonAbroadStatusDataDto valid = PersonAbroadStatusDataDto.builder().wsId(2L).pinfl("12345678901234").build();
+
+        when(repository.checkPersonStatusBatch(List.of(valid))).thenReturn(new PersonAbroadCallResult<>(1, List.of(
+                PersonAbroadCheckStatusResponseDto.builder().result(1).msg("").wsId(2L).status(1).build()
+        )));
+
+        // When
+        PersonAbroadBatchCheckStatusResponseDto response = service.checkStatusBatch(
+                PersonAbroadBatchStatusRequestDto.builder().data(Arrays.asList(invalid, null, valid)).build());
+
+        // Then
+        assertEquals(3, response.getData().size());
+        assertEquals(0, response.getData().get(0).getResult());
+        assertTrue(response.getData().get(0).getMsg().contains("pinfl"));
+        assertEquals(1L, response.getData().get(0).getWsId());
+        assertEquals(0, response.getData().get(1).getResult());
+        assertEquals(1, response.getData().get(2).getResult());
+        assertEquals(1, response.getData().get(2).getStatus());
+
+        verify(repository).checkPersonStatusBatch(List.of(valid));
+    }
+
+    @Test
+    @DisplayName("Check Status Batch: Should mark valid items as failed when Oracle call fails")
+    void checkStatusBatch_shouldHandleOracleException() {
+        // Given
+        PersonAbroadStatusDataDto invalid = PersonAbroadStatusDataDto.builder().wsId(null).pinfl("12345678901234").build();
+        PersonAbroadStatusDataDto valid = PersonAbroadStatusDataDto.builder().wsId(2L).pinfl("12345678901234").build();
+
+        when(repository.checkPersonStatusBatch(anyList()))
+                .thenThrow(new RuntimeException("Database connection failed"));
+
+        // When
+        PersonAbroadBatchCheckStatusResponseDto response = service.checkStatusBatch(
+                PersonAbroadBatchStatusRequestDto.builder().data(List.of(invalid, valid)).build());
+
+        // Then
+        assertEquals(0, response.getData().get(0).getResult());
+        assertTrue(response.getData().get(0).getMsg().contains("ws_id"));
+        assertEquals(0, response.getData().get(1).getResult());
+        assertTrue(response.getData().get(1).getMsg().contains("Ma'lumotni qayta ishlashda xatolik"));
+        assertEquals(2L, response.getData().get(1).getWsId());
+    }
+
+    @Test
+    @DisplayName("Check Status Batch: Should not call Oracle when no item is valid")
+    void checkStatusBatch_shouldNotCallOracleWhenNoItemIsValid() {
+        // Given
+        PersonAbroadStatusDataDto invalid = PersonAbroadStatusDataDto.builder().wsId(-1L).pinfl("1234567890123A").build();
+
+        // When
+        PersonAbroadBatchCheckStatusResponseDto response = service.checkStatusBatch(
+                PersonAbroadBatchStatusRequestDto.builder().data(List.of(invalid)).build());
+
+        // Then
+        assertEquals(0, response.getData().get(0).getResult());
+        verify(repository, never()).checkPersonStatusBatch(anyList());
+    }
+
     // ========================================================================
     // Restore Status Tests
     // ========================================================================
@@ -215,23 +499,13 @@ class PersonAbroadServiceImplTest {
     @DisplayName("Restore Status: Should restore person successfully (result=2)")
     void restoreStatus_shouldRestorePersonSuccessfully() throws Exception {
         // Given
-        String oracleJsonResponse = "{\"result\": 2, \"msg\": \"Oluvchi statusi faol xolatga keltirildi\", \"ws_id\": 77}";
-        Clob responseClob = new SerialClob(oracleJsonResponse.toCharArray());
-
-        Map<String, Object> oracleResult = new HashMap<>();
-        oracleResult.put("RETURN", 1);
-        oracleResult.put("O_Data", responseClob);
-
         PersonAbroadRestoreStatusResponseDto expectedResponse = PersonAbroadRestoreStatusResponseDto.builder()
                 .result(2)
                 .msg("Oluvchi statusi faol xolatga keltirildi")
                 .wsId(77L)
                 .build();
 
-        when(repository.restorePersonStatus(anyString())).thenReturn(oracleResult);
-        when(repository.clobToString(responseClob)).thenReturn(oracleJsonResponse);
-        when(objectMapper.readValue(oracleJsonResponse, PersonAbroadRestoreStatusResponseDto.class))
-                .thenReturn(expectedResponse);
+        when(repository.restorePersonStatus(anyLong(), anyString())).thenReturn(new PersonAbroadCallResult<>(1, expectedResponse));
 
         // When
         PersonAbroadRestoreStatusResponseDto response = service.restoreStatus(requestDto);
@@ -242,30 +516,22 @@ class PersonAbroadServiceImplTest {
         assertEquals("Oluvchi statusi faol xolatga keltirildi", response.getMsg());
         assertEquals(77L, response.getWsId());
 
-        verify(repository).restorePersonStatus(anyString());
+        verify(repository).restorePersonStatus(anyLong(), anyString());
+        // Every restore makes its own call (and gets its own log row)
+        verify(singleFlight, never()).execute(eq(PersonAbroadSingleFlight.RESTORE), anyString(), any());
     }
 
     @Test
     @DisplayName("Restore Status: Should return already active (result=1)")
     void restoreStatus_shouldReturnAlreadyActive() throws Exception {
         // Given
-        String oracleJsonResponse = "{\"result\": 1, \"msg\": \"Pensiya oluvchilar ro'yhatida mavjud\", \"ws_id\": 77}";
-        Clob responseClob = new SerialClob(oracleJsonResponse.toCharArray());
-
-        Map<String, Object> oracleResult = new HashMap<>();
-        oracleResult.put("RETURN", 1);
-        oracleResult.put("O_Data", responseClob);
-
         PersonAbroadRestoreStatusResponseDto expectedResponse = PersonAbroadRestoreStatusResponseDto.builder()
                 .result(1)
                 .msg("Pensiya oluvchilar ro'yhatida mavjud")
                 .wsId(77L)
                 .build();
 
-        when(repository.restorePersonStatus(anyString())).thenReturn(oracleResult);
-        when(repository.clobToString(responseClob)).thenReturn(oracleJsonResponse);
-        when(objectMapper.readValue(oracleJsonResponse, PersonAbroadRestoreStatusResponseDto.class))
-                .thenReturn(expectedResponse);
+        when(repository.restorePersonStatus(anyLong(), anyString())).thenReturn(new PersonAbroadCallResult<>(1, expectedResponse));
 
         // When
         PersonAbroadRestoreStatusResponseDto response = service.restoreStatus(requestDto);
@@ -278,23 +544,13 @@ class PersonAbroadServiceImplTest {
     @DisplayName("Restore Status: Should return not arrived (result=3)")
     void restoreStatus_shouldReturnNotArrived() throws Exception {
         // Given
-        String oracleJsonResponse = "{\"result\": 3, \"msg\": \"O'zbekiston Respublikasi hududiga kirganlik holati aniqlanmadi\", \"ws_id\": 77}";
-        Clob responseClob = new SerialClob(oracleJsonResponse.toCharArray());
-
-        Map<String, Object> oracleResult = new HashMap<>();
-        oracleResult.put("RETURN", 1);
-        oracleResult.put("O_Data", responseClob);
-
         PersonAbroadRestoreStatusResponseDto expectedResponse = PersonAbroadRestoreStatusResponseDto.builder()
                 .result(3)
                 .msg("O'zbekiston Respublikasi hududiga kirganlik holati aniqlanmadi")
                 .wsId(77L)
                 .build();
 
-        when(repository.restorePersonStatus(anyString())).thenReturn(oracleResult);
-        when(repository.clobToString(responseClob)).thenReturn(oracleJsonResponse);
-        when(objectMapper.readValue(oracleJsonResponse, PersonAbroadRestoreStatusResponseDto.class))
-                .thenReturn(expectedResponse);
+        when(repository.restorePersonStatus(anyLong(), anyString())).thenReturn(new PersonAbroadCallResult<>(1, expectedResponse));
 
         // When
         PersonAbroadRestoreStatusResponseDto response = service.restoreStatus(requestDto);
@@ -307,23 +563,13 @@ class PersonAbroadServiceImplTest {
     @DisplayName("Restore Status: Should return error when person not found (result=0)")
     void restoreStatus_shouldReturnErrorWhenPersonNotFound() throws Exception {
         // Given
-        String oracleJsonResponse = "{\"result\": 0, \"msg\": \"Pensiya oluvchilar ro'yhatida mavjud emas\", \"ws_id\": 77}";
-        Clob responseClob = new SerialClob(oracleJsonResponse.toCharArray());
-
-        Map<String, Object> oracleResult = new HashMap<>();
-        oracleResult.put("RETURN", 0);
-        oracleResult.put("O_Data", responseClob);
-
         PersonAbroadRestoreStatusResponseDto expectedResponse = PersonAbroadRestoreStatusResponseDto.builder()
                 .result(0)
                 .msg("Pensiya oluvchilar ro'yhatida mavjud emas")
                 .wsId(77L)
                 .build();
 
-        when(repository.restorePersonStatus(anyString())).thenReturn(oracleResult);
-        when(repository.clobToString(responseClob)).thenReturn(oracleJsonResponse);
-        when(objectMapper.readValue(oracleJsonResponse, PersonAbroadRestoreStatusResponseDto.class))
-                .thenReturn(expectedResponse);
+        when(repository.restorePersonStatus(anyLong(), anyString())).thenReturn(new PersonAbroadCallResult<>(0, expectedResponse));
 
         // When
         PersonAbroadRestoreStatusResponseDto response = service.restoreStatus(requestDto);
@@ -336,7 +582,7 @@ class PersonAbroadServiceImplTest {
     @DisplayName("Restore Status: Should handle Oracle exception gracefully")
     void restoreStatus_shouldHandleOracleException() {
         // Given
-        when(repository.restorePersonStatus(anyString()))
+        when(repository.restorePersonStatus(anyLong(), anyString()))
                 .thenThrow(new RuntimeException("Database connection failed"));
 
         // When
@@ -349,19 +595,66 @@ class PersonAbroadServiceImplTest {
         assertEquals(77L, response.getWsId());
     }
 
+    // ========================================================================
+    // Restore Status Batch Tests
+    // ========================================================================
+
+    @Test
+    @DisplayName("Restore Status Batch: Should return per-item codes in order and log valid rows")
+    void restoreStatusBatch_shouldReturnPerItemCodesAndLogValidRows() {
+        // Given
+        PersonAbroadStatusDataDto restored = PersonAbroadStatusDataDto.builder().wsId(1L).pinfl("12345678901234").build();
+        PersonAbroadStatusDataDto invalid = PersonAbroadStatusDataDto.builder().wsId(2L).pinfl("123").build();
+        PersonAbroadStatusDataDto notArrived = PersonAbroadStatusDataDto.builder().wsId(3L).pinfl("43210987654321").build();
+
+        PersonAbroadRestoreStatusRow restoredRow = new PersonAbroadRestoreStatusRow(
+                1L, "12345678901234", 2, "Oluvchi statusi faol xolatga keltirildi", null);
+        PersonAbroadRestoreStatusRow notArrivedRow = new PersonAbroadRestoreStatusRow(
+                3L, "43210987654321", 3, "O'zbekiston Respublikasi hududiga kirganlik holati aniqlanmadi", null);
+
+        when(repository.restorePersonStatusUnlogged(1L, "12345678901234")).thenReturn(new PersonAbroadCallResult<>(1, restoredRow));
+        when(repository.restorePersonStatusUnlogged(3L, "43210987654321")).thenReturn(new PersonAbroadCallResult<>(1, notArrivedRow));
+
+        // When
+        PersonAbroadBatchRestoreStatusResponseDto response = service.restoreStatusBatch(
+                PersonAbroadBatchStatusRequestDto.builder().data(List.of(restored, invalid, notArrived)).build());
+
+        // Then
+        assertEquals(3, response.getData().size());
+        assertEquals(2, response.getData().get(0).getResult());
+        assertEquals(1L, response.getData().get(0).getWsId());
+        assertEquals(0, response.getData().get(1).getResult());
+        assertEquals(2L, response.getData().get(1).getWsId());
+        assertEquals(3, response.getData().get(2).getResult());
+
+        // The invalid item is answered but not logged with a NULL PINFL
+        verify(auditRepository).saveRestoreStatuses(List.of(restoredRow, notArrivedRow));
+    }
+
     @Test
-    @DisplayName("Should convert request to XML correctly")
-    void shouldConvertRequestToXmlCorrectly() throws Exception {
-        // This tests the XML conversion by verifying the format sent to Oracle
-        String expectedXml = "<Data><ws_id>77</ws_id><pinfl>12345678901234</pinfl></Data>";
+    @DisplayName("Restore Status Batch: Should keep results when an item or the log write fails")
+    void restoreStatusBatch_shouldHandleItemAndLogFailures() {
+        // Given
+        PersonAbroadStatusDataDto failing = PersonAbroadStatusDataDto.builder().wsId(1L).pinfl("12345678901234").build();
 
-        String oracleJsonResponse = "{\"result\": 1, \"msg\": \"\", \"ws_id\": 77, \"status\": 1}";
-        Clob responseClob = new SerialClob(oracleJsonResponse.toCharArray());
+        when(repository.restorePersonStatusUnlogged(anyLong(), anyString()))
+                .thenThrow(new RuntimeException("Database connection failed"));
+        doThrow(new RuntimeException("Log insert failed")).when(auditRepository).saveRestoreStatuses(anyList());
+
+        // When
+        PersonAbroadBatchRestoreStatusResponseDto response = service.restoreStatusBatch(
+                PersonAbroadBatchStatusRequestDto.builder().data(List.of(failing)).build());
 
-        Map<String, Object> oracleResult = new HashMap<>();
-        oracleResult.put("RETURN", 1);
-        oracleResult.put("O_Data", responseClob);
+        // Then
+        assertEquals(1, response.getData().size());
+        assertEquals(0, response.getData().get(0).getResult());
+        assertTrue(response.getData().get(0).getMsg().contains("Ma'lumotni qayta ishlashda xatolik"));
+        assertEquals(1L, response.getData().get(0).getWsId());
+    }
 
+    @Test
+    @DisplayName("Should pass ws_id and pinfl to Oracle without XML envelope")
+    void shouldPassWsIdAndPinflDirectly() throws Exception {
         PersonAbroadCheckStatusResponseDto expectedResponse = PersonAbroadCheckStatusResponseDto.builder()
                 .result(1)
                 .msg("")
@@ -369,15 +662,12 @@ class PersonAbroadServiceImplTest {
                 .status(1)
                 .build();
 
-        when(repository.checkPersonStatus(anyString())).thenReturn(oracleResult);
-        when(repository.clobToString(responseClob)).thenReturn(oracleJsonResponse);
-        when(objectMapper.readValue(oracleJsonResponse, PersonAbroadCheckStatusResponseDto.class))
-                .thenReturn(expectedResponse);
+        when(repository.checkPersonStatus(anyLong(), anyString())).thenReturn(new PersonAbroadCallResult<>(1, expectedResponse));
 
         // When
         service.checkStatus(requestDto);
 
         // Then
-        verify(repository).checkPersonStatus(expectedXml);
+        verify(repository).checkPersonStatus(77L, "12345678901234");
     }
 }
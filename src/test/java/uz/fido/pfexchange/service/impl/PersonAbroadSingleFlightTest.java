@@ -0,0 +1,109 @@
+package uz.fido.pfexchange.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PersonAbroadSingleFlight
+ */
+@DisplayName("Person Abroad Single Flight Tests")
+class PersonAbroadSingleFlightTest {
+
+    private static final String PINFL = "41006673910061";
+
+    private SimpleMeterRegistry meterRegistry;
+    private PersonAbroadSingleFlight singleFlight;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new PersonAbroadSingleFlight(meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Concurrent calls for the same PINFL should share one call")
+    void execute_shouldCollapseConcurrentCalls() throws Exception {
+        int callers = 8;
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.execute(PersonAbroadSingleFlight.CHECK, PINFL, () -> {
+                    calls.incrementAndGet();
+                    await(release);
+                    return 1;
+                })));
+            }
+
+            // Wait until everyone except the leader has joined the in-flight call
+            while (collapsed(PersonAbroadSingleFlight.CHECK) < callers - 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            for (Future<Integer> result : results) {
+                assertEquals(1, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, calls.get());
+            assertEquals(callers - 1, collapsed(PersonAbroadSingleFlight.CHECK));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Different operations and sequential calls should not be collapsed")
+    void execute_shouldNotCollapseDifferentKeysOrSequentialCalls() {
+        AtomicInteger calls = new AtomicInteger();
+
+        singleFlight.execute(PersonAbroadSingleFlight.CHECK, PINFL, calls::incrementAndGet);
+        singleFlight.execute(PersonAbroadSingleFlight.CHECK, PINFL, calls::incrementAndGet);
+        singleFlight.execute(PersonAbroadSingleFlight.RESTORE, PINFL, calls::incrementAndGet);
+
+        assertEquals(3, calls.get());
+        assertEquals(0, collapsed(PersonAbroadSingleFlight.CHECK));
+        // Restores are never coalesced: no counter for them
+        assertNull(meterRegistry.find("person.abroad.calls.collapsed").tag("operation", "restore").counter());
+    }
+
+    @Test
+    @DisplayName("Failure of the shared call should reach the caller and release the key")
+    void execute_shouldPropagateFailureAndReleaseKey() {
+        RuntimeException failure = new RuntimeException("Database connection failed");
+
+        RuntimeException thrown = assertThrows(RuntimeException.class,
+            () -> singleFlight.execute(PersonAbroadSingleFlight.CHECK, PINFL, () -> {
+                throw failure;
+            }));
+
+        assertSame(failure, thrown);
+        assertEquals(2, singleFlight.execute(PersonAbroadSingleFlight.CHECK, PINFL, () -> 2));
+    }
+
+    private double collapsed(String operation) {
+        return meterRegistry.get("person.abroad.calls.collapsed").tag("operation", operation).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
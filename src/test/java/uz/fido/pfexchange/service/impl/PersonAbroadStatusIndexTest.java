@@ -0,0 +1,306 @@
+package uz.fido.pfexchange.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uz.fido.pfexchange.config.PersonAbroadProperties;
+import uz.fido.pfexchange.repository.mip.PersonAbroadCheckStatusRow;
+import uz.fido.pfexchange.repository.mip.PersonStatusIndexRepository;
+import uz.fido.pfexchange.repository.mip.PersonStatusIndexRepository.PersonStatusHandler;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PersonAbroadStatusIndex
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Person Abroad Status Index Tests")
+class PersonAbroadStatusIndexTest {
+
+    private static final String ACTIVE = "12345678901234";
+    private static final String ABROAD = "41006673910061";
+    private static final String CLOSED = "30101850010020";
+    private static final String TWICE = "50505050505050";
+
+    @Mock
+    private PersonStatusIndexRepository repository;
+
+    @TempDir
+    private Path tempDir;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PersonAbroadProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new PersonAbroadProperties();
+        properties.setStatusIndexEnabled(true);
+        properties.setStatusIndexSnapshotFile("");
+    }
+
+    @Test
+    @DisplayName("Should answer like Check_Person_Status_Core after the full load")
+    void check_shouldAnswerFromLoadedStatuses() {
+        PersonAbroadStatusIndex index = loadedIndex();
+
+        assertEquals(row(1, 1, ""), index.check(77L, ACTIVE).orElseThrow());
+        assertEquals(new PersonAbroadCheckStatusRow(77L, ABROAD, 1, 2, "", null), index.check(77L, ABROAD).orElseThrow());
+        assertEquals(3, index.check(77L, CLOSED).orElseThrow().status());
+        assertEquals(new PersonAbroadCheckStatusRow(77L, "99999999999999", 0, null,
+                "Pensiya oluvchilar ro'yhatida mavjud emas", null), index.check(77L, "99999999999999").orElseThrow());
+        verify(repository, never()).loadChangedSince(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Should leave PINFLs with several persons and invalid requests to Oracle")
+    void check_shouldFallBackForAmbiguousAndInvalidRequests() {
+        PersonAbroadStatusIndex index = loadedIndex();
+
+        assertTrue(index.check(77L, TWICE).isEmpty());
+        assertTrue(index.check(77L, "1234567890123").isEmpty());
+        assertTrue(index.check(77L, "1234567890123a").isEmpty());
+        assertTrue(index.check(null, ACTIVE).isEmpty());
+        assertEquals(4, meterRegistry.get("person.abroad.status.index.lookups").tag("outcome", "fallback").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should go to Oracle before the first load and when disabled")
+    void check_shouldFallBackBeforeLoadAndWhenDisabled() {
+        PersonAbroadStatusIndex notLoaded = new PersonAbroadStatusIndex(repository, properties, meterRegistry, List.of());
+        PersonAbroadStatusIndex disabled = new PersonAbroadStatusIndex(repository, new PersonAbroadProperties(), new SimpleMeterRegistry(), List.of());
+
+        assertTrue(notLoaded.check(77L, ACTIVE).isEmpty());
+        assertTrue(disabled.check(77L, ACTIVE).isEmpty());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("Should apply rows changed after the watermark")
+    void refresh_shouldApplyChangedRows() {
+        PersonAbroadStatusIndex index = loadedIndex();
+        doAnswer(invocation -> {
+            PersonStatusHandler handler = invocation.getArgument(1);
+            handler.accept(ABROAD, 1, 1);
+            handler.accept(CLOSED, 0, 0);
+            handler.accept("11111111111111", 1, 2);
+            return 120L;
+        }).when(repository).loadChangedSince(eq(100L), any());
+
+        // When
+        index.refresh();
+
+        // Then
+        assertEquals(1, index.check(77L, ABROAD).orElseThrow().status());
+        assertEquals(0, index.check(77L, CLOSED).orElseThrow().resultCode());
+        assertEquals(2, index.check(77L, "11111111111111").orElseThrow().status());
+        assertEquals(4, index.size());
+        verify(repository, times(1)).loadAll(any());
+    }
+
+    @Test
+    @DisplayName("Should mark a restored person active at once")
+    void markActive_shouldUpdateStatus() {
+        PersonAbroadStatusIndex index = loadedIndex();
+
+        index.markActive(ABROAD);
+        index.markActive(TWICE);
+
+        assertEquals(1, index.check(77L, ABROAD).orElseThrow().status());
+        assertTrue(index.check(77L, TWICE).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should go to Oracle when the last refresh is too old")
+    void check_whenStale_shouldFallBack() {
+        properties.setStatusIndexMaxStaleness(Duration.ofMillis(-1));
+        PersonAbroadStatusIndex index = loadedIndex();
+
+        assertTrue(index.check(77L, ACTIVE).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should keep serving the previous data when a refresh fails")
+    void refresh_whenDatabaseFails_shouldKeepData() {
+        PersonAbroadStatusIndex index = loadedIndex();
+        when(repository.loadChangedSince(anyLong(), any())).thenThrow(new RuntimeException("Database connection failed"));
+
+        index.refresh();
+
+        assertEquals(1, index.check(77L, ACTIVE).orElseThrow().status());
+    }
+
+    @Test
+    @DisplayName("Should record size, staleness and refresh time")
+    void refresh_shouldRecordMetrics() {
+        loadedIndex();
+
+        assertEquals(4, meterRegistry.get("person.abroad.status.index.size").gauge().value());
+        assertTrue(meterRegistry.get("person.abroad.status.index.staleness").gauge().value() >= 0);
+        assertEquals(1, meterRegistry.get("person.abroad.status.index.refresh").tag("type", "full").timer().count());
+    }
+
+    @Test
+    @DisplayName("Map should keep every entry while it grows")
+    void map_shouldGrow() {
+        PinflStatusMap map = new PinflStatusMap(0);
+        for (long pinfl = 10_000_000_000_000L; pinfl < 10_000_000_100_000L; pinfl++) {
+            map.put(pinfl, (byte) (pinfl % 3 + 1));
+        }
+        map.put(10_000_000_000_001L, PinflStatusMap.ABSENT);
+
+        assertEquals(99_999, map.size());
+        assertEquals(PinflStatusMap.ABSENT, map.get(10_000_000_000_001L));
+        for (long pinfl = 10_000_000_000_000L; pinfl < 10_000_000_100_000L; pinfl++) {
+            if (pinfl != 10_000_000_000_001L) {
+                assertEquals(pinfl % 3 + 1, map.get(pinfl));
+            }
+        }
+        assertEquals(PinflStatusMap.ABSENT, map.get(99_999_999_999_999L));
+    }
+
+    @Test
+    @DisplayName("Snapshot: Restart maps the file and reads only changes after its watermark")
+    void snapshot_shouldServeRestartWithoutFullLoad() {
+        // Given: first node loads Pf_Persons and writes the snapshot
+        properties.setStatusIndexSnapshotFile(tempDir.resolve("index.bin").toString());
+        loadedIndex();
+        assertTrue(Files.exists(tempDir.resolve("index.bin")));
+        clearInvocations(repository);
+
+        // When: second node starts from the file
+        when(repository.loadChangedSince(eq(100L), any())).thenReturn(100L);
+        PersonAbroadStatusIndex restarted = new PersonAbroadStatusIndex(repository, properties, new SimpleMeterRegistry(), List.of());
+        restarted.refresh();
+
+        // Then
+        verify(repository, never()).loadAll(any());
+        verify(repository).loadChangedSince(eq(100L), any());
+        assertEquals(4, restarted.size());
+        assertEquals(2, restarted.check(77L, ABROAD).orElseThrow().status());
+        assertEquals(3, restarted.check(77L, CLOSED).orElseThrow().status());
+        assertTrue(restarted.check(77L, TWICE).isEmpty());
+        assertEquals(0, restarted.check(77L, "99999999999999").orElseThrow().resultCode());
+    }
+
+    @Test
+    @DisplayName("Snapshot: Changes override and remove snapshot entries")
+    void snapshot_changesShouldOverrideFile() {
+        properties.setStatusIndexSnapshotFile(tempDir.resolve("index.bin").toString());
+        PersonAbroadStatusIndex index = loadedIndex();
+        doAnswer(invocation -> {
+            PersonStatusHandler handler = invocation.getArgument(1);
+            handler.accept(CLOSED, 0, 0);
+            handler.accept(ACTIVE, 1, 3);
+            handler.accept("11111111111111", 1, 2);
+            return 120L;
+        }).when(repository).loadChangedSince(eq(100L), any());
+
+        // When
+        index.refresh();
+        index.markActive(ABROAD);
+
+        // Then
+        assertEquals(0, index.check(77L, CLOSED).orElseThrow().resultCode());
+        assertEquals(3, index.check(77L, ACTIVE).orElseThrow().status());
+        assertEquals(1, index.check(77L, ABROAD).orElseThrow().status());
+        assertEquals(2, index.check(77L, "11111111111111").orElseThrow().status());
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    @DisplayName("Snapshot: Unreadable file falls back to the full load")
+    void snapshot_whenCorrupt_shouldLoadPfPersons() throws IOException {
+        // Given
+        Path file = tempDir.resolve("index.bin");
+        Files.writeString(file, "not a snapshot");
+        properties.setStatusIndexSnapshotFile(file.toString());
+
+        // When
+        PersonAbroadStatusIndex index = loadedIndex();
+
+        // Then: the full load replaced the broken file
+        verify(repository).loadAll(any());
+        assertEquals(1, index.check(77L, ACTIVE).orElseThrow().status());
+        assertEquals(4, assertDoesNotThrow(() -> PersonStatusSnapshot.open(file)).size());
+    }
+
+    @Test
+    @DisplayName("Snapshot: Merge keeps sorted keys, changes win, removed keys are dropped")
+    void snapshot_writeShouldMergeChanges() throws IOException {
+        // Given: skewed keys, so interpolation guesses are far off
+        Path file = tempDir.resolve("merge.bin");
+        PinflStatusMap base = new PinflStatusMap(0);
+        for (long i = 0; i < 10_000; i++) {
+            base.put(10_000_000_000_000L + i * i * i, (byte) (i % 3 + 1));
+        }
+        PersonStatusSnapshot.write(file, 1, 2, 3, null, base);
+        PersonStatusSnapshot first = PersonStatusSnapshot.open(file);
+
+        PinflStatusMap changes = new PinflStatusMap(0);
+        changes.put(10_000_000_000_000L, PersonAbroadStatusIndex.REMOVED);
+        changes.put(10_000_000_000_008L, PersonAbroadStatusIndex.AMBIGUOUS);
+        changes.put(10_000_000_000_005L, (byte) 2);
+
+        // When
+        PersonStatusSnapshot.write(file, 7, 8, 9, first, changes);
+        PersonStatusSnapshot merged = PersonStatusSnapshot.open(file);
+
+        // Then
+        assertEquals(10_000, merged.size());
+        assertEquals(7, merged.watermark());
+        assertEquals(8, merged.refreshedAt());
+        assertEquals(9, merged.fullRefreshedAt());
+        assertEquals(PinflStatusMap.ABSENT, merged.get(10_000_000_000_000L));
+        assertEquals(PersonAbroadStatusIndex.AMBIGUOUS, merged.get(10_000_000_000_008L));
+        assertEquals(2, merged.get(10_000_000_000_005L));
+        for (long i = 3; i < 10_000; i++) {
+            assertEquals(i % 3 + 1, merged.get(10_000_000_000_000L + i * i * i));
+            assertEquals(PinflStatusMap.ABSENT, merged.get(10_000_000_000_001L + i * i * i));
+        }
+    }
+
+    @Test
+    @DisplayName("Should parse only 14-digit PINFLs")
+    void parsePinfl_shouldAcceptOnlyFourteenDigits() {
+        assertEquals(12345678901234L, PersonAbroadStatusIndex.parsePinfl(ACTIVE));
+        assertEquals(1L, PersonAbroadStatusIndex.parsePinfl("00000000000001"));
+        assertEquals(-1L, PersonAbroadStatusIndex.parsePinfl("123456789012345"));
+        assertEquals(-1L, PersonAbroadStatusIndex.parsePinfl("1234567890123-"));
+        assertEquals(-1L, PersonAbroadStatusIndex.parsePinfl(null));
+    }
+
+    private PersonAbroadStatusIndex loadedIndex() {
+        lenient().doAnswer(invocation -> {
+            PersonStatusHandler handler = invocation.getArgument(0);
+            handler.accept(ACTIVE, 1, 1);
+            handler.accept(ABROAD, 1, 2);
+            handler.accept(CLOSED, 1, 3);
+            handler.accept(TWICE, 2, 1);
+            handler.accept("not-a-pinfl", 1, 1);
+            return 100L;
+        }).when(repository).loadAll(any());
+
+        PersonAbroadStatusIndex index = new PersonAbroadStatusIndex(repository, properties, meterRegistry, List.of());
+        index.refresh();
+        return index;
+    }
+
+    private static PersonAbroadCheckStatusRow row(int result, Integer status, String msg) {
+        return new PersonAbroadCheckStatusRow(77L, ACTIVE, result, status, msg, null);
+    }
+}
@@ -0,0 +1,122 @@
+package uz.fido.pfexchange.support;
+
+import java.io.PrintWriter;
+import java.lang.reflect.Array;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.function.IntFunction;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * In-memory DataSource that looks like Oracle to Spring JDBC
+ *
+ * Every CallableStatement answers OUT parameters from the given function,
+ * so client-side call overhead can be measured without a database.
+ */
+public class StubOracleDataSource implements DataSource {
+
+    private final IntFunction<Object> outParameters;
+
+    public StubOracleDataSource(IntFunction<Object> outParameters) {
+        this.outParameters = outParameters;
+    }
+
+    @Override
+    public Connection getConnection() {
+        return proxy(Connection.class, (method, args) -> switch (method) {
+            case "getMetaData" -> metaData();
+            case "prepareCall" -> callableStatement();
+            case "getAutoCommit", "isClosed", "isReadOnly" -> false;
+            default -> null;
+        });
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) {
+        return getConnection();
+    }
+
+    private DatabaseMetaData metaData() {
+        return proxy(DatabaseMetaData.class, (method, args) -> switch (method) {
+            case "getDatabaseProductName" -> "Oracle";
+            case "getDatabaseProductVersion" -> "Oracle Database 19c";
+            case "getUserName" -> "PF";
+            case "storesUpperCaseIdentifiers" -> true;
+            default -> null;
+        });
+    }
+
+    private CallableStatement callableStatement() {
+        return proxy(CallableStatement.class, (method, args) -> switch (method) {
+            case "getObject", "getClob", "getString", "getBigDecimal" -> outParameters.apply((Integer) args[0]);
+            case "getInt" -> ((Number) outParameters.apply((Integer) args[0])).intValue();
+            case "getLong" -> ((Number) outParameters.apply((Integer) args[0])).longValue();
+            case "wasNull" -> false;
+            case "getUpdateCount" -> -1;
+            case "execute", "getMoreResults" -> false;
+            default -> null;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, StubHandler handler) {
+        return (T) Proxy.newProxyInstance(
+            StubOracleDataSource.class.getClassLoader(),
+            new Class<?>[]{type},
+            (proxy, method, args) -> {
+                Object value = handler.handle(method.getName(), args);
+                if (value == null && method.getReturnType().isPrimitive()) {
+                    return defaultValue(method.getReturnType());
+                }
+                return value;
+            }
+        );
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        return type == void.class ? null : Array.get(Array.newInstance(type, 1), 0);
+    }
+
+    @FunctionalInterface
+    private interface StubHandler {
+        Object handle(String method, Object[] args);
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return 0;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        throw new SQLException("Not a wrapper");
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return false;
+    }
+}